@@ -0,0 +1,395 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.template.StringMap;
+import com.linkedin.datastream.common.Datastream;
+import com.linkedin.datastream.common.DatastreamAlreadyExistsException;
+import com.linkedin.datastream.common.DatastreamNotFoundException;
+import com.linkedin.datastream.common.DatastreamRuntimeException;
+import com.linkedin.datastream.common.DatastreamStatus;
+import com.linkedin.datastream.common.RetriesExhaustedException;
+import com.linkedin.datastream.server.dms.DatastreamRequestBuilders;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.Request;
+import com.linkedin.restli.client.Response;
+import com.linkedin.restli.client.RestClient;
+import com.linkedin.restli.client.RestLiResponseException;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.common.EntityResponse;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.HttpStatus;
+
+import static com.linkedin.datastream.DatastreamRestClient.DATASTREAM_UUID;
+
+
+/**
+ * Non-blocking Datastream REST client. Each method returns right away with a {@link CompletableFuture}, which is
+ * completed on a rest.li client thread, so the continuations chained to it should not block.
+ *
+ * Like {@link DatastreamRestClient}, requests that time out are retried after a randomized retry period until the
+ * retry timeout passes. Unlike it, waiting for a datastream to be initialized or deleted relies on the Datastream
+ * management service to hold the request until the datastream changes, rather than on polling the datastream.
+ */
+public class AsyncDatastreamRestClient {
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncDatastreamRestClient.class);
+
+  public static final String CONFIG_RETRY_PERIOD_MS = DatastreamRestClient.CONFIG_RETRY_PERIOD_MS;
+  public static final String CONFIG_RETRY_TIMEOUT_MS = DatastreamRestClient.CONFIG_RETRY_TIMEOUT_MS;
+  // Number of datastreams per page of getAllDatastreams, and per request of getDatastreams
+  public static final String CONFIG_PAGE_SIZE = "pageSize";
+  // Number of pages getAllDatastreams requests concurrently
+  public static final String CONFIG_MAX_CONCURRENT_PAGES = "maxConcurrentPages";
+  // How long the server holds each wait request
+  public static final String CONFIG_WAIT_REQUEST_TIMEOUT_MS = "waitRequestTimeoutMs";
+
+  private static final long DEFAULT_RETRY_PERIOD_MS = Duration.ofSeconds(6).toMillis();
+  private static final long DEFAULT_RETRY_TIMEOUT_MS = Duration.ofSeconds(90).toMillis();
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int DEFAULT_MAX_CONCURRENT_PAGES = 4;
+  private static final long DEFAULT_WAIT_REQUEST_TIMEOUT_MS = Duration.ofSeconds(5).toMillis();
+  // Leeway given to wait requests on top of the time the server holds them, before they time out on the client
+  private static final long WAIT_REQUEST_TIMEOUT_MARGIN_MS = Duration.ofSeconds(5).toMillis();
+
+  // Only schedules the retries, so a single thread is shared by all the clients
+  private static final ScheduledExecutorService RETRY_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "AsyncDatastreamRestClientRetry");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final DatastreamRequestBuilders _builders;
+  private final RestClient _restClient;
+  private final long _retryPeriodMs;
+  private final long _retryTimeoutMs;
+  private final int _pageSize;
+  private final int _maxConcurrentPages;
+  private final long _waitRequestTimeoutMs;
+
+  /**
+   * Construct the AsyncDatastreamRestClient. Should be called by {@link DatastreamRestClientFactory} only
+   * @param restClient rest.li client to use
+   */
+  public AsyncDatastreamRestClient(RestClient restClient) {
+    this(restClient, new Properties());
+  }
+
+  /**
+   * Construct the AsyncDatastreamRestClient. Should be called by {@link DatastreamRestClientFactory} only
+   * @param restClient rest.li client to use
+   * @param config config for the AsyncDatastreamRestClient. Note that this is not the HTTP config for the underlying
+   *               RestClient
+   */
+  public AsyncDatastreamRestClient(RestClient restClient, Properties config) {
+    Validate.notNull(restClient, "null restClient");
+    _retryPeriodMs = Long.parseLong(config.getProperty(CONFIG_RETRY_PERIOD_MS, String.valueOf(DEFAULT_RETRY_PERIOD_MS)));
+    _retryTimeoutMs =
+        Long.parseLong(config.getProperty(CONFIG_RETRY_TIMEOUT_MS, String.valueOf(DEFAULT_RETRY_TIMEOUT_MS)));
+    _pageSize = Integer.parseInt(config.getProperty(CONFIG_PAGE_SIZE, String.valueOf(DEFAULT_PAGE_SIZE)));
+    _maxConcurrentPages = Integer.parseInt(
+        config.getProperty(CONFIG_MAX_CONCURRENT_PAGES, String.valueOf(DEFAULT_MAX_CONCURRENT_PAGES)));
+    _waitRequestTimeoutMs = Long.parseLong(
+        config.getProperty(CONFIG_WAIT_REQUEST_TIMEOUT_MS, String.valueOf(DEFAULT_WAIT_REQUEST_TIMEOUT_MS)));
+    Validate.isTrue(_retryPeriodMs > 0);
+    Validate.isTrue(_retryTimeoutMs > _retryPeriodMs);
+    Validate.isTrue(_pageSize > 0);
+    Validate.isTrue(_maxConcurrentPages > 0);
+    Validate.isTrue(_waitRequestTimeoutMs > 0);
+    _builders = new DatastreamRequestBuilders();
+    _restClient = restClient;
+    LOG.info("AsyncDatastreamRestClient created with retryPeriodMs={} retryTimeoutMs={} pageSize={} "
+            + "maxConcurrentPages={} waitRequestTimeoutMs={}", _retryPeriodMs, _retryTimeoutMs, _pageSize,
+        _maxConcurrentPages, _waitRequestTimeoutMs);
+  }
+
+  /**
+   * Get the datastream with the given name
+   * @param datastreamName Name of the datastream that should be retrieved
+   * @return future of the datastream, which fails with {@link DatastreamNotFoundException} if the datastream
+   *         doesn't exist
+   */
+  public CompletableFuture<Datastream> getDatastream(String datastreamName) {
+    return send(_builders.get().id(datastreamName).build(), "getDatastream", datastreamName);
+  }
+
+  /**
+   * Get the datastreams with the given names, {@value #CONFIG_PAGE_SIZE} datastreams per request
+   * @param datastreamNames Names of the datastreams that should be retrieved
+   * @return future of the datastreams which exist, by name
+   */
+  public CompletableFuture<Map<String, Datastream>> getDatastreams(Collection<String> datastreamNames) {
+    List<String> names = new ArrayList<>(datastreamNames);
+    List<CompletableFuture<BatchKVResponse<String, EntityResponse<Datastream>>>> batches = new ArrayList<>();
+    for (int i = 0; i < names.size(); i += _pageSize) {
+      List<String> batch = names.subList(i, Math.min(i + _pageSize, names.size()));
+      batches.add(send(_builders.batchGet().ids(batch).build(), "getDatastreams", null));
+    }
+
+    return allOf(batches).thenApply(responses -> {
+      Map<String, Datastream> datastreams = new HashMap<>();
+      for (BatchKVResponse<String, EntityResponse<Datastream>> response : responses) {
+        for (Map.Entry<String, ErrorResponse> error : response.getErrors().entrySet()) {
+          if (!Integer.valueOf(HttpStatus.S_404_NOT_FOUND.getCode()).equals(error.getValue().getStatus())) {
+            throw new DatastreamRuntimeException(String.format("Get Datastream {%s} failed with error: %s",
+                error.getKey(), error.getValue().getMessage()));
+          }
+        }
+        response.getResults().forEach((name, entity) -> {
+          if (entity.hasEntry()) {
+            datastreams.put(name, entity.getEntity());
+          }
+        });
+      }
+      return datastreams;
+    });
+  }
+
+  /**
+   * Get all the datastreams. The datastreams are fetched in pages of {@value #CONFIG_PAGE_SIZE} datastreams,
+   * {@value #CONFIG_MAX_CONCURRENT_PAGES} pages at a time. As with paging through {@link #getAllDatastreams(int, int)},
+   * a datastream created or deleted while the pages are being fetched may be missed or returned twice.
+   * @return future of all the datastreams, in lexicographical order of their names
+   */
+  public CompletableFuture<List<Datastream>> getAllDatastreams() {
+    return getAllDatastreamsFrom(0, new ArrayList<>());
+  }
+
+  /**
+   * Get a page of the datastreams, in lexicographical order of their names
+   * @param start index of the first datastream to produce
+   * @param count maximum number of entries to be produced
+   */
+  public CompletableFuture<List<Datastream>> getAllDatastreams(int start, int count) {
+    return send(_builders.getAll().paginate(start, count).build(), "getAllDatastreams", null)
+        .thenApply(response -> response.getElements());
+  }
+
+  private CompletableFuture<List<Datastream>> getAllDatastreamsFrom(int start, List<Datastream> datastreams) {
+    List<CompletableFuture<List<Datastream>>> pages = new ArrayList<>();
+    for (int i = 0; i < _maxConcurrentPages; i++) {
+      pages.add(getAllDatastreams(start + i * _pageSize, _pageSize));
+    }
+
+    return allOf(pages).thenCompose(results -> {
+      for (List<Datastream> page : results) {
+        datastreams.addAll(page);
+        if (page.size() < _pageSize) {
+          return CompletableFuture.completedFuture(datastreams);
+        }
+      }
+      return getAllDatastreamsFrom(start + _maxConcurrentPages * _pageSize, datastreams);
+    });
+  }
+
+  /**
+   * Create a new datastream. Name of the datastream must be unique.
+   * @param datastream Datastream to create
+   * @return future which fails with {@link DatastreamAlreadyExistsException} if another datastream exists with the
+   *         same name
+   */
+  public CompletableFuture<Void> createDatastream(Datastream datastream) {
+    String creationUid = UUID.randomUUID().toString();
+    if (!datastream.hasMetadata()) {
+      datastream.setMetadata(new StringMap());
+    }
+    datastream.getMetadata().put(DATASTREAM_UUID, creationUid);
+
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    send(_builders.create().input(datastream).build(), "createDatastream", null).whenComplete((response, e) -> {
+      if (e == null) {
+        future.complete(null);
+      } else if (getStatus(e) == HttpStatus.S_409_CONFLICT.getCode()) {
+        // Timeout on previous request can make it appear as though datastream already existed.
+        // Check if the datastream was in fact created by this request.
+        getDatastream(datastream.getName()).whenComplete((existingDatastream, getError) -> {
+          if (getError != null) {
+            future.completeExceptionally(unwrap(getError));
+          } else if (creationUid.equals(existingDatastream.getMetadata().get(DATASTREAM_UUID))) {
+            future.complete(null);
+          } else {
+            future.completeExceptionally(new DatastreamAlreadyExistsException(
+                String.format("Datastream %s exists with the same name. Requested datastream %s", existingDatastream,
+                    datastream)));
+          }
+        });
+      } else {
+        future.completeExceptionally(unwrap(e));
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Delete the datastream with the given name. Deletion is completed asynchronously by the Datastream management
+   * service, see {@link #waitTillDatastreamIsDeleted(String, long)}.
+   * @param datastreamName Name of the datastream that should be deleted
+   * @return future which fails with {@link DatastreamNotFoundException} if the datastream doesn't exist
+   */
+  public CompletableFuture<Void> deleteDatastream(String datastreamName) {
+    return send(_builders.delete().id(datastreamName).build(), "deleteDatastream", datastreamName)
+        .thenApply(response -> null);
+  }
+
+  /**
+   * Wait until the datastream is initialized, i.e. has the READY status
+   * @param datastreamName Name of the datastream
+   * @param timeoutMs wait timeout in milliseconds
+   * @return future of the initialized datastream, which fails with {@link DatastreamRuntimeException} if the
+   *         datastream isn't initialized before the timeout
+   */
+  public CompletableFuture<Datastream> waitTillDatastreamIsInitialized(String datastreamName, long timeoutMs) {
+    return waitForStatus(datastreamName, DatastreamStatus.READY, System.currentTimeMillis() + timeoutMs);
+  }
+
+  /**
+   * Wait until the datastream is completely removed from the system
+   * @param datastreamName Name of the datastream
+   * @param timeoutMs wait timeout in milliseconds
+   * @return future which fails with {@link DatastreamRuntimeException} if the datastream isn't deleted before the
+   *         timeout
+   */
+  public CompletableFuture<Void> waitTillDatastreamIsDeleted(String datastreamName, long timeoutMs) {
+    return waitForDeletion(datastreamName, System.currentTimeMillis() + timeoutMs);
+  }
+
+  private CompletableFuture<Datastream> waitForStatus(String datastreamName, DatastreamStatus status,
+      long deadlineMs) {
+    long requestTimeoutMs = Math.max(0, Math.min(_waitRequestTimeoutMs, deadlineMs - System.currentTimeMillis()));
+    return send(_builders.actionWaitForStatus()
+        .id(datastreamName)
+        .statusParam(status)
+        .timeoutMsParam(requestTimeoutMs)
+        .build(), "waitForStatus", datastreamName, requestTimeoutMs + WAIT_REQUEST_TIMEOUT_MARGIN_MS).thenCompose(datastream -> {
+          if (datastream.hasStatus() && datastream.getStatus() == status) {
+            return CompletableFuture.completedFuture(datastream);
+          }
+          if (System.currentTimeMillis() >= deadlineMs) {
+            throw new DatastreamRuntimeException(
+                String.format("Datastream %s did not reach status %s before the timeout", datastreamName, status));
+          }
+          return waitForStatus(datastreamName, status, deadlineMs);
+        });
+  }
+
+  private CompletableFuture<Void> waitForDeletion(String datastreamName, long deadlineMs) {
+    long requestTimeoutMs = Math.max(0, Math.min(_waitRequestTimeoutMs, deadlineMs - System.currentTimeMillis()));
+    return send(_builders.actionWaitForDeletion().id(datastreamName).timeoutMsParam(requestTimeoutMs).build(),
+        "waitForDeletion", datastreamName, requestTimeoutMs + WAIT_REQUEST_TIMEOUT_MARGIN_MS).thenCompose(deleted -> {
+          if (deleted) {
+            return CompletableFuture.completedFuture(null);
+          }
+          if (System.currentTimeMillis() >= deadlineMs) {
+            throw new DatastreamRuntimeException(
+                String.format("Datastream %s was not deleted before the timeout", datastreamName));
+          }
+          return waitForDeletion(datastreamName, deadlineMs);
+        });
+  }
+
+  private long getRetryPeriodMs() {
+    // give a bit of randomness to the retry period; in the mean time, retry period can't exceed retry timeout
+    return Math.min(Math.round(_retryPeriodMs * RandomUtils.nextDouble(0.6, 1.4)) + 1, _retryTimeoutMs);
+  }
+
+  /**
+   * Send a request, retrying it while it times out until the retry timeout passes
+   * @param request the request to send
+   * @param operation name of the operation, for logging
+   * @param datastreamName name of the datastream the request is about, if a not found error should fail the future
+   *                       with {@link DatastreamNotFoundException}
+   */
+  private <T> CompletableFuture<T> send(Request<T> request, String operation, String datastreamName) {
+    return send(request, operation, datastreamName, 0);
+  }
+
+  /**
+   * Send a request, retrying it while it times out until the retry timeout passes
+   * @param request the request to send
+   * @param operation name of the operation, for logging
+   * @param datastreamName name of the datastream the request is about, if a not found error should fail the future
+   *                       with {@link DatastreamNotFoundException}
+   * @param requestTimeoutMs HTTP request timeout overriding the one of the HTTP client, or 0 to use the latter
+   */
+  private <T> CompletableFuture<T> send(Request<T> request, String operation, String datastreamName,
+      long requestTimeoutMs) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    send(request, operation, datastreamName, requestTimeoutMs, System.currentTimeMillis() + _retryTimeoutMs, future);
+    return future;
+  }
+
+  private <T> void send(Request<T> request, String operation, String datastreamName, long requestTimeoutMs,
+      long deadlineMs, CompletableFuture<T> future) {
+    RequestContext requestContext = new RequestContext();
+    if (requestTimeoutMs > 0) {
+      requestContext.putLocalAttr(R2Constants.REQUEST_TIMEOUT, (int) requestTimeoutMs);
+    }
+    _restClient.sendRequest(request, requestContext, new Callback<Response<T>>() {
+      @Override
+      public void onError(Throwable e) {
+        if (ExceptionUtils.getRootCause(e) instanceof TimeoutException) {
+          long retryPeriodMs = getRetryPeriodMs();
+          if (System.currentTimeMillis() + retryPeriodMs >= deadlineMs) {
+            future.completeExceptionally(new RetriesExhaustedException(operation + " timed out", e));
+            return;
+          }
+          LOG.warn("Timeout: {}. May retry...", operation, e);
+          RETRY_EXECUTOR.schedule(() -> send(request, operation, datastreamName, requestTimeoutMs, deadlineMs, future),
+              retryPeriodMs, TimeUnit.MILLISECONDS);
+        } else if (datastreamName != null && getStatus(e) == HttpStatus.S_404_NOT_FOUND.getCode()) {
+          LOG.warn(String.format("Datastream {%s} is not found", datastreamName), e);
+          future.completeExceptionally(new DatastreamNotFoundException(datastreamName, e));
+        } else {
+          String errorMessage = String.format("%s failed with error.", operation);
+          LOG.error(errorMessage, e);
+          future.completeExceptionally(new DatastreamRuntimeException(errorMessage, e));
+        }
+      }
+
+      @Override
+      public void onSuccess(Response<T> response) {
+        future.complete(response.getEntity());
+      }
+    });
+  }
+
+  private static int getStatus(Throwable e) {
+    Throwable cause = e instanceof DatastreamRuntimeException ? e.getCause() : e;
+    return cause instanceof RestLiResponseException ? ((RestLiResponseException) cause).getStatus() : 0;
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException ? e.getCause() : e;
+  }
+
+  private static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+  }
+}
@@ -8,10 +8,14 @@ package com.linkedin.datastream;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
@@ -36,6 +40,8 @@ import com.linkedin.datastream.common.RetriesExhaustedException;
 import com.linkedin.datastream.server.dms.DatastreamRequestBuilders;
 import com.linkedin.r2.RemoteInvocationException;
 import com.linkedin.restli.client.ActionRequest;
+import com.linkedin.restli.client.BatchCreateIdRequest;
+import com.linkedin.restli.client.BatchDeleteRequest;
 import com.linkedin.restli.client.BatchUpdateRequest;
 import com.linkedin.restli.client.CreateIdRequest;
 import com.linkedin.restli.client.DeleteRequest;
@@ -46,7 +52,9 @@ import com.linkedin.restli.client.ResponseFuture;
 import com.linkedin.restli.client.RestClient;
 import com.linkedin.restli.client.RestLiResponseException;
 import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.common.BatchCreateIdResponse;
 import com.linkedin.restli.common.CollectionResponse;
+import com.linkedin.restli.common.CreateIdStatus;
 import com.linkedin.restli.common.EmptyRecord;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.IdResponse;
@@ -311,6 +319,72 @@ public class DatastreamRestClient {
         Duration.between(startTime, Instant.now()).toMillis());
   }
 
+  /**
+   * Creates new datastreams in a single request. The Datastream management service validates, initializes and
+   * writes the whole batch at once, which is much cheaper than creating the datastreams one by one when provisioning
+   * many of them. Unlike {@link #createDatastream(Datastream)}, each datastream succeeds or fails on its own.
+   * @param datastreams Datastreams to create
+   * @return the error messages of the datastreams which could not be created, by datastream name
+   */
+  public Map<String, String> createDatastreams(List<Datastream> datastreams) {
+    Instant startTime = Instant.now();
+    // Each datastream gets its own UID, so that a datastream conflicting with another one of the batch is not
+    // mistaken for one created by a previous attempt of this request
+    datastreams.forEach(datastream -> {
+      if (!datastream.hasMetadata()) {
+        datastream.setMetadata(new StringMap());
+      }
+      datastream.getMetadata().put(DATASTREAM_UUID, UUID.randomUUID().toString());
+    });
+
+    BatchCreateIdResponse<String> response = PollUtils.poll(() -> {
+      BatchCreateIdRequest<String, Datastream> request = _builders.batchCreate().inputs(datastreams).build();
+      ResponseFuture<BatchCreateIdResponse<String>> datastreamResponseFuture = _restClient.sendRequest(request);
+      try {
+        return datastreamResponseFuture.getResponse().getEntity();
+      } catch (RemoteInvocationException e) {
+        if (ExceptionUtils.getRootCause(e) instanceof TimeoutException) {
+          LOG.warn("Timeout: createDatastreams. May retry...", e);
+          return null;
+        }
+        ErrorLogger.logAndThrowDatastreamRuntimeException(LOG, "Failed to create datastreams", e);
+        return null; // unreachable
+      }
+    }, Objects::nonNull, getRetryPeriodMs(), getRetryTimeoutMs()).orElseThrow(RetriesExhaustedException::new);
+
+    Map<String, String> errors = new HashMap<>();
+    Set<String> names = new HashSet<>();
+    List<CreateIdStatus<String>> statuses = response.getElements();
+    for (int i = 0; i < statuses.size(); i++) {
+      CreateIdStatus<String> status = statuses.get(i);
+      Datastream datastream = datastreams.get(i);
+      // A name repeated in the batch conflicts with the earlier datastream of the same request
+      boolean repeated = !names.add(datastream.getName());
+      if (status.getError() == null) {
+        continue;
+      }
+      // Timeout on previous request can make it appear as though datastream already existed.
+      // Check if the datastream was in fact created by this request.
+      if (status.getStatus() == HttpStatus.S_409_CONFLICT.getCode() && !repeated) {
+        try {
+          Datastream existingDatastream = getDatastream(datastream.getName());
+          if (datastream.getMetadata().get(DATASTREAM_UUID)
+              .equals(existingDatastream.getMetadata().get(DATASTREAM_UUID))) {
+            continue;
+          }
+        } catch (DatastreamRuntimeException e) {
+          // e.g. the datastream was deleted in the meantime, report the conflict
+          LOG.warn("Failed to check whether datastream {} was created by this request", datastream.getName(), e);
+        }
+      }
+      errors.put(datastream.getName(), status.getError().getMessage());
+    }
+
+    LOG.info("createDatastreams for {} datastreams took {} ms, {} failed", datastreams.size(),
+        Duration.between(startTime, Instant.now()).toMillis(), errors.size());
+    return errors;
+  }
+
   /**
    * Update a datastream. Validation will be performed on the server side to ensure certain conditions are met
    * (e.g. datastream is valid, the connector type supports datastream updates, etc.)
@@ -386,6 +460,38 @@ public class DatastreamRestClient {
         Duration.between(startTime, Instant.now()).toMillis());
   }
 
+  /**
+   * Delete the datastreams with the specified names in a single request. The Datastream management service marks
+   * all of them for deletion before notifying the leader once, which is much cheaper than deleting the datastreams
+   * one by one. Each datastream succeeds or fails on its own.
+   * @param datastreamNames Names of the datastreams that should be deleted
+   * @return the error messages of the datastreams which could not be deleted (e.g. because they were not found), by
+   *         datastream name
+   */
+  public Map<String, String> deleteDatastreams(List<String> datastreamNames) {
+    Instant startTime = Instant.now();
+    BatchKVResponse<String, UpdateStatus> response = PollUtils.poll(() -> {
+      BatchDeleteRequest<String, Datastream> request = _builders.batchDelete().ids(datastreamNames).build();
+      ResponseFuture<BatchKVResponse<String, UpdateStatus>> responseFuture = _restClient.sendRequest(request);
+      try {
+        return responseFuture.getResponse().getEntity();
+      } catch (RemoteInvocationException e) {
+        if (ExceptionUtils.getRootCause(e) instanceof TimeoutException) {
+          LOG.warn("Timeout: deleteDatastreams. May retry...", e);
+          return null;
+        }
+        ErrorLogger.logAndThrowDatastreamRuntimeException(LOG, "Failed to delete datastreams", e);
+        return null; // unreachable
+      }
+    }, Objects::nonNull, getRetryPeriodMs(), getRetryTimeoutMs()).orElseThrow(RetriesExhaustedException::new);
+
+    Map<String, String> errors = new HashMap<>();
+    response.getErrors().forEach((name, error) -> errors.put(name, error.getMessage()));
+    LOG.info("deleteDatastreams for {} datastreams took {} ms, {} failed", datastreamNames.size(),
+        Duration.between(startTime, Instant.now()).toMillis(), errors.size());
+    return errors;
+  }
+
   /**
    * Check whether the specified datastream exists in the current Datastream cluster.
    * @param datastreamName name of the datastream to be checked
@@ -26,6 +26,8 @@ public final class DatastreamRestClientFactory {
   private static final Logger LOG = LoggerFactory.getLogger(DatastreamRestClientFactory.class);
   private static final BaseRestClientFactory<DatastreamRestClient> FACTORY =
       new BaseRestClientFactory<>(DatastreamRestClient.class, LOG);
+  private static final BaseRestClientFactory<AsyncDatastreamRestClient> ASYNC_FACTORY =
+      new BaseRestClientFactory<>(AsyncDatastreamRestClient.class, LOG);
 
   /**
    * Get a DatastreamRestClient with default HTTP client
@@ -59,6 +61,28 @@ public final class DatastreamRestClientFactory {
     return FACTORY.getClient(dmsUri, httpConfig);
   }
 
+  /**
+   * Get an AsyncDatastreamRestClient with default HTTP client
+   * @param dmsUri URI to DMS endpoint
+   */
+  public static AsyncDatastreamRestClient getAsyncClient(String dmsUri) {
+    return ASYNC_FACTORY.getClient(dmsUri, Collections.emptyMap());
+  }
+
+  /**
+   * Get an AsyncDatastreamRestClient with custom HTTP configs and AsyncDatastreamRestClient configs
+   * @see BaseRestClientFactory#getClient(String, Map, Properties)
+   * @param dmsUri URI to DMS endpoint
+   * @param httpConfig custom config for HTTP client, please find the configs in
+   *                   {@link com.linkedin.r2.transport.http.client.HttpClientFactory}
+   * @param clientConfig custom config for the AsyncDatastreamRestClient.
+   *                     Supported config entries can be found in {@link AsyncDatastreamRestClient}
+   */
+  public static AsyncDatastreamRestClient getAsyncClient(String dmsUri, Map<String, Object> httpConfig,
+      Properties clientConfig) {
+    return ASYNC_FACTORY.getClient(dmsUri, httpConfig, clientConfig);
+  }
+
   /**
    * @see BaseRestClientFactory#addOverride(String, Object)
    */
@@ -71,5 +95,6 @@ public final class DatastreamRestClientFactory {
    */
   public static void registerRestClient(String dmsUri, RestClient restClient) {
     FACTORY.registerRestClient(dmsUri, restClient);
+    ASYNC_FACTORY.registerRestClient(dmsUri, restClient);
   }
 }
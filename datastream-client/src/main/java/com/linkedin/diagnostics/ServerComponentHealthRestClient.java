@@ -6,16 +6,20 @@
 package com.linkedin.diagnostics;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.linkedin.common.callback.Callback;
 import com.linkedin.datastream.diagnostics.ServerComponentHealth;
 import com.linkedin.datastream.server.diagnostics.DiagRequestBuilders;
 import com.linkedin.r2.RemoteInvocationException;
 import com.linkedin.restli.client.FindRequest;
+import com.linkedin.restli.client.Response;
 import com.linkedin.restli.client.RestClient;
+import com.linkedin.restli.common.CollectionResponse;
 
 
 /**
@@ -60,6 +64,43 @@ public class ServerComponentHealthRestClient {
     }
   }
 
+  /**
+   * Asynchronously get the ServerComponentHealth status from one server instance. The request is sent without
+   * blocking the caller, and the returned future completes on the REST client's I/O threads.
+   * @param type
+   *    Type of the component such as connector.
+   * @param scope
+   *    Scope of the component such as MySQL and Kafka.
+   * @param content
+   *    Request content should be passed to the component.
+   * @return
+   *    Future of the ServerComponentHealth object corresponding to the component, which completes with null
+   *    if the response is empty, or exceptionally if the request failed.
+   */
+  public CompletableFuture<ServerComponentHealth> getStatusAsync(String type, String scope, String content) {
+    CompletableFuture<ServerComponentHealth> future = new CompletableFuture<>();
+    FindRequest<ServerComponentHealth> request =
+        _builders.findByStatus().typeParam(type).scopeParam(scope).contentParam(content).build();
+    _restClient.sendRequest(request, new Callback<Response<CollectionResponse<ServerComponentHealth>>>() {
+      @Override
+      public void onError(Throwable e) {
+        future.completeExceptionally(e);
+      }
+
+      @Override
+      public void onSuccess(Response<CollectionResponse<ServerComponentHealth>> response) {
+        List<ServerComponentHealth> elements = response.getEntity().getElements();
+        if (elements == null || elements.isEmpty()) {
+          LOG.error("ServerComponentHealth getStatusAsync {} {} failed with empty response.", type, scope);
+          future.complete(null);
+        } else {
+          future.complete(elements.get(0));
+        }
+      }
+    });
+    return future;
+  }
+
   /**
    * Get the ServerComponentHealth statuses from all server instances.
    * @param type
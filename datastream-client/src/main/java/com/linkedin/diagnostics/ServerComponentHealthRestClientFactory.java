@@ -50,6 +50,13 @@ public final class ServerComponentHealthRestClientFactory {
     return FACTORY.getClient(dmsUri, httpConfig);
   }
 
+  /**
+   * @see BaseRestClientFactory#addOverride(String, Object)
+   */
+  public static void addOverride(String dmsUri, ServerComponentHealthRestClient restClient) {
+    FACTORY.addOverride(dmsUri, restClient);
+  }
+
   /**
    * @see BaseRestClientFactory#registerRestClient(String, RestClient)
    */
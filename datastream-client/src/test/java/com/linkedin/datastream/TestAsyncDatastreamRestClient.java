@@ -0,0 +1,128 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.linkedin.TestRestliClientBase;
+import com.linkedin.datastream.common.Datastream;
+import com.linkedin.datastream.common.DatastreamAlreadyExistsException;
+import com.linkedin.datastream.common.DatastreamNotFoundException;
+import com.linkedin.datastream.common.DatastreamRuntimeException;
+import com.linkedin.datastream.common.DatastreamStatus;
+
+import static com.linkedin.datastream.TestDatastreamRestClient.generateDatastream;
+
+
+/**
+ * Tests for {@link AsyncDatastreamRestClient}
+ */
+@Test(singleThreaded = true)
+public class TestAsyncDatastreamRestClient extends TestRestliClientBase {
+
+  @BeforeTest
+  public void setUp() throws Exception {
+    setupDatastreamCluster(1);
+  }
+
+  @AfterTest
+  public void tearDown() throws Exception {
+    _datastreamCluster.shutdown();
+  }
+
+  private AsyncDatastreamRestClient createAsyncRestClient() {
+    Properties config = new Properties();
+    config.put(AsyncDatastreamRestClient.CONFIG_PAGE_SIZE, "3");
+    config.put(AsyncDatastreamRestClient.CONFIG_MAX_CONCURRENT_PAGES, "2");
+    config.put(AsyncDatastreamRestClient.CONFIG_WAIT_REQUEST_TIMEOUT_MS, "1000");
+    String dmsUri = String.format("http://localhost:%d", _datastreamCluster.getDatastreamPorts().get(0));
+    return DatastreamRestClientFactory.getAsyncClient(dmsUri, Collections.emptyMap(), config);
+  }
+
+  private static Throwable getFailure(CompletableFuture<?> future) throws InterruptedException {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+    Assert.fail("Future should have failed");
+    return null;
+  }
+
+  @Test
+  public void testCreateWaitDelete() throws Exception {
+    AsyncDatastreamRestClient restClient = createAsyncRestClient();
+    Datastream datastream = generateDatastream(200);
+    restClient.createDatastream(datastream).get();
+    Datastream initialized = restClient.waitTillDatastreamIsInitialized(datastream.getName(), WAIT_TIMEOUT_MS).get();
+    Assert.assertEquals(initialized.getStatus(), DatastreamStatus.READY);
+    Assert.assertEquals(restClient.getDatastream(datastream.getName()).get().getName(), datastream.getName());
+
+    Assert.assertTrue(getFailure(restClient.createDatastream(generateDatastream(200)))
+        instanceof DatastreamAlreadyExistsException);
+
+    restClient.deleteDatastream(datastream.getName()).get();
+    restClient.waitTillDatastreamIsDeleted(datastream.getName(), WAIT_TIMEOUT_MS).get();
+    Assert.assertTrue(getFailure(restClient.getDatastream(datastream.getName()))
+        instanceof DatastreamNotFoundException);
+    Assert.assertTrue(getFailure(restClient.deleteDatastream(datastream.getName()))
+        instanceof DatastreamNotFoundException);
+  }
+
+  @Test
+  public void testWaitTimesOut() throws Exception {
+    AsyncDatastreamRestClient restClient = createAsyncRestClient();
+    Datastream datastream = generateDatastream(201);
+    restClient.createDatastream(datastream).get();
+    restClient.waitTillDatastreamIsInitialized(datastream.getName(), WAIT_TIMEOUT_MS).get();
+
+    // The datastream is never deleted, so waiting for its deletion takes several wait requests and then fails
+    long startMs = System.currentTimeMillis();
+    Assert.assertTrue(getFailure(restClient.waitTillDatastreamIsDeleted(datastream.getName(), 2500))
+        instanceof DatastreamRuntimeException);
+    Assert.assertTrue(System.currentTimeMillis() - startMs >= 2500);
+
+    Assert.assertTrue(getFailure(restClient.waitTillDatastreamIsInitialized("doesNotExist", 1000))
+        instanceof DatastreamNotFoundException);
+  }
+
+  @Test
+  public void testGetDatastreamsAndGetAllDatastreams() throws Exception {
+    AsyncDatastreamRestClient restClient = createAsyncRestClient();
+    int initialCount = restClient.getAllDatastreams().get().size();
+    List<Datastream> datastreams =
+        IntStream.range(300, 311).mapToObj(TestDatastreamRestClient::generateDatastream).collect(Collectors.toList());
+    CompletableFuture.allOf(
+        datastreams.stream().map(restClient::createDatastream).toArray(CompletableFuture[]::new)).get();
+
+    // 11 datastreams in batches of 3
+    List<String> names = datastreams.stream().map(Datastream::getName).collect(Collectors.toList());
+    Map<String, Datastream> found = restClient.getDatastreams(names).get();
+    Assert.assertEquals(found.keySet(), names.stream().collect(Collectors.toSet()));
+    found = restClient.getDatastreams(Arrays.asList("name_300", "doesNotExist")).get();
+    Assert.assertEquals(found.keySet(), Collections.singleton("name_300"));
+
+    // pages of 3, 2 at a time
+    List<Datastream> all = restClient.getAllDatastreams().get();
+    Assert.assertEquals(all.size(), initialCount + datastreams.size());
+    List<String> allNames = all.stream().map(Datastream::getName).collect(Collectors.toList());
+    Assert.assertEquals(allNames, allNames.stream().sorted().distinct().collect(Collectors.toList()));
+    Assert.assertTrue(allNames.containsAll(names));
+  }
+}
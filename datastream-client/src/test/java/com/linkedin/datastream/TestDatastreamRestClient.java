@@ -11,6 +11,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
@@ -45,8 +46,12 @@ import com.linkedin.restli.client.Response;
 import com.linkedin.restli.client.ResponseFuture;
 import com.linkedin.restli.client.RestClient;
 import com.linkedin.restli.client.RestLiResponseException;
+import com.linkedin.restli.common.BatchCreateIdResponse;
+import com.linkedin.restli.common.CreateIdStatus;
+import com.linkedin.restli.common.ErrorResponse;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.IdResponse;
+import com.linkedin.restli.internal.common.AllProtocolVersions;
 
 import static com.linkedin.datastream.DatastreamRestClient.DATASTREAM_UUID;
 import static org.mockito.Mockito.any;
@@ -232,6 +237,47 @@ public class TestDatastreamRestClient extends TestRestliClientBase {
         paginatedCreatedDatastreams);
   }
 
+  @Test
+  public void testCreateDatastreamsWithRepeatedName() throws Exception {
+    DatastreamRestClient restClient = createRestClient();
+    List<Datastream> datastreams = Arrays.asList(generateDatastream(40), generateDatastream(40), generateDatastream(41));
+    datastreams.get(1).getMetadata().put(DatastreamMetadataConstants.OWNER_KEY, "other_owner");
+
+    // only the second datastream named name_40 fails, it must not be taken for the one created by the request
+    Map<String, String> errors = restClient.createDatastreams(datastreams);
+    Assert.assertEquals(errors.keySet(), Collections.singleton("name_40"));
+    Assert.assertEquals(restClient.getDatastream("name_40").getMetadata().get(DatastreamMetadataConstants.OWNER_KEY),
+        "person_40");
+    Assert.assertTrue(restClient.datastreamExists("name_41"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCreateDatastreamsConflictWithDeletedDatastream() throws Exception {
+    Datastream datastream = generateDatastream(20);
+    RestClient httpRestClient = mock(RestClient.class);
+    ResponseFuture<BatchCreateIdResponse<String>> batchCreateResponse = mock(ResponseFuture.class);
+    Response<BatchCreateIdResponse<String>> response = mock(Response.class);
+    ResponseFuture<Datastream> getDatastreamResponse = mock(ResponseFuture.class);
+    RestLiResponseException notFoundException = mock(RestLiResponseException.class);
+    when(httpRestClient.sendRequest(any(Request.class))).thenReturn(batchCreateResponse, getDatastreamResponse);
+    when(batchCreateResponse.getResponse()).thenReturn(response);
+    ErrorResponse error = new ErrorResponse().setStatus(HttpStatus.S_409_CONFLICT.getCode()).setMessage("conflict");
+    when(response.getEntity()).thenReturn(new BatchCreateIdResponse<>(Collections.singletonList(
+        new CreateIdStatus<>(HttpStatus.S_409_CONFLICT.getCode(), datastream.getName(), error,
+            AllProtocolVersions.BASELINE_PROTOCOL_VERSION))));
+    // the conflicting datastream is deleted before it can be read
+    when(getDatastreamResponse.getResponseEntity()).thenThrow(notFoundException);
+    when(notFoundException.getStatus()).thenReturn(HttpStatus.S_404_NOT_FOUND.getCode());
+
+    Properties restClientConfig = new Properties();
+    restClientConfig.put(DatastreamRestClient.CONFIG_RETRY_PERIOD_MS, "10");
+    restClientConfig.put(DatastreamRestClient.CONFIG_RETRY_TIMEOUT_MS, "200");
+    DatastreamRestClient restClient = new DatastreamRestClient(httpRestClient, restClientConfig);
+    Assert.assertEquals(restClient.createDatastreams(Collections.singletonList(datastream)),
+        Collections.singletonMap(datastream.getName(), "conflict"));
+  }
+
   @Test(expectedExceptions = DatastreamNotFoundException.class)
   public void testDeleteDatastream() throws Exception {
     Datastream datastream = generateDatastream(2);
@@ -5,6 +5,9 @@
  */
 package com.linkedin.diagnostics;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import org.apache.log4j.Level;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +79,24 @@ public class TestServerComponentHealthRestClient extends TestRestliClientBase {
     Assert.assertEquals(response, null);
   }
 
+  @Test
+  public void testGetStatusAsync() throws Exception {
+    ServerComponentHealthRestClient restClient = createRestClient();
+    ServerComponentHealth response = restClient.getStatusAsync("Connector", "DummyConnector", "topic=datastream").get();
+    Assert.assertEquals(response.isSucceeded(), Boolean.TRUE);
+    Assert.assertEquals(response.getStatus(), "HEALTHY");
+
+    // invalid name, the future fails with the REST exception
+    CompletableFuture<ServerComponentHealth> future =
+        restClient.getStatusAsync("NonExistComponent", "DummyConnector", "topic=datastream");
+    try {
+      future.get();
+      Assert.fail("Expected the request to fail");
+    } catch (ExecutionException e) {
+      LOG.info("Request failed as expected", e.getCause());
+    }
+  }
+
   @Test
   public void testGetAllStatus() throws Exception {
     // happy path test case
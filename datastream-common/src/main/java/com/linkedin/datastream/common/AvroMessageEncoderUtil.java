@@ -7,9 +7,13 @@ package com.linkedin.datastream.common;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericDatumWriter;
@@ -23,11 +27,22 @@ import org.apache.commons.lang.Validate;
 
 
 /**
- * Utility class to simplify Avro message encoding
+ * Utility class to simplify Avro message encoding.
+ * Encoding is thread safe. Datum writers are cached per schema and the headers per schema id, and each thread
+ * reuses its own encoder and buffer across calls.
  */
 public class AvroMessageEncoderUtil {
   public static final byte MAGIC_BYTE = 0x0;
 
+  // Bounds of the caches, which are cleared when full so that schemas generated on the fly cannot leak
+  private static final int MAX_CACHED_SCHEMAS = 1000;
+  private static final int MAX_CACHED_SCHEMA_IDS = 1000;
+
+  private static final Map<Schema, DatumWriter<IndexedRecord>> GENERIC_WRITERS = new ConcurrentHashMap<>();
+  private static final Map<Schema, DatumWriter<IndexedRecord>> SPECIFIC_WRITERS = new ConcurrentHashMap<>();
+  private static final Map<String, byte[]> HEADERS = new ConcurrentHashMap<>();
+  private static final ThreadLocal<EncoderState> ENCODER_STATE = ThreadLocal.withInitial(EncoderState::new);
+
   /**
    * generates the md5 hash of the schemaId and appends it to the given byte array.
    * the byte array representing the payload of a BrooklinEnvelope
@@ -37,12 +52,11 @@ public class AvroMessageEncoderUtil {
    */
   public static byte[] encode(String schemaId, byte[] value) throws IOException {
     Validate.notNull(value, "cannot encode null byte array, schemaId: " + schemaId);
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    out.write(MAGIC_BYTE);
-    byte[] md5Bytes = hexToMd5(schemaId);
-    out.write(md5Bytes);
-    out.write(value);
-    return out.toByteArray();
+    byte[] header = getHeader(schemaId);
+    byte[] out = new byte[header.length + value.length];
+    System.arraycopy(header, 0, out, 0, header.length);
+    System.arraycopy(value, 0, out, header.length, value.length);
+    return out;
   }
 
   /**
@@ -56,28 +70,77 @@ public class AvroMessageEncoderUtil {
    */
   public static byte[] encode(String schemaId, IndexedRecord record) throws AvroEncodingException {
     Validate.notNull(record, "cannot encode null Record, schemaId: " + schemaId);
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    out.write(MAGIC_BYTE);
-    byte[] md5Bytes = hexToMd5(schemaId);
-
+    EncoderState state = ENCODER_STATE.get();
+    ByteArrayOutputStream out = state._buffer;
+    out.reset();
     try {
-      out.write(md5Bytes);
-      BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
-      DatumWriter<org.apache.avro.generic.IndexedRecord> writer;
-      if (record instanceof SpecificRecord) {
-        writer = new SpecificDatumWriter<IndexedRecord>(record.getSchema());
-      } else {
-        writer = new GenericDatumWriter<IndexedRecord>(record.getSchema());
-      }
-      writer.write(record, encoder);
-      encoder.flush(); //encoder may buffer
+      out.write(getHeader(schemaId));
+      state.write(record, out);
     } catch (IOException e) {
       throw new AvroEncodingException(e);
+    } finally {
+      state.trimBuffer();
     }
 
     return out.toByteArray();
   }
 
+  /**
+   * Same as {@link #encode(String, IndexedRecord)}, but writes the encoded message into the given buffer instead of
+   * returning a new byte array. Throws a {@link java.nio.BufferOverflowException} if the message does not fit in the
+   * remaining space of the buffer.
+   * @param schemaId Id of the schema of the record
+   * @param record Record to encode
+   * @param target Buffer to write the message into, starting at its position. The position is advanced past the
+   *               message.
+   * @return Number of bytes written
+   */
+  public static int encode(String schemaId, IndexedRecord record, ByteBuffer target) throws AvroEncodingException {
+    Validate.notNull(record, "cannot encode null Record, schemaId: " + schemaId);
+    Validate.notNull(target, "cannot encode into null buffer, schemaId: " + schemaId);
+    EncoderState state = ENCODER_STATE.get();
+    int start = target.position();
+    state._bufferStream._target = target;
+    try {
+      target.put(getHeader(schemaId));
+      state.write(record, state._bufferStream);
+    } catch (IOException e) {
+      throw new AvroEncodingException(e);
+    } finally {
+      state._bufferStream._target = null;
+    }
+
+    return target.position() - start;
+  }
+
+  private static byte[] getHeader(String schemaId) {
+    byte[] header = HEADERS.get(schemaId);
+    if (header == null) {
+      byte[] md5Bytes = hexToMd5(schemaId);
+      header = new byte[md5Bytes.length + 1];
+      header[0] = MAGIC_BYTE;
+      System.arraycopy(md5Bytes, 0, header, 1, md5Bytes.length);
+      if (HEADERS.size() >= MAX_CACHED_SCHEMA_IDS) {
+        HEADERS.clear();
+      }
+      HEADERS.put(schemaId, header);
+    }
+    return header;
+  }
+
+  private static DatumWriter<IndexedRecord> getWriter(Schema schema, boolean specific) {
+    Map<Schema, DatumWriter<IndexedRecord>> writers = specific ? SPECIFIC_WRITERS : GENERIC_WRITERS;
+    DatumWriter<IndexedRecord> writer = writers.get(schema);
+    if (writer == null) {
+      writer = specific ? new SpecificDatumWriter<>(schema) : new GenericDatumWriter<>(schema);
+      if (writers.size() >= MAX_CACHED_SCHEMAS) {
+        writers.clear();
+      }
+      writers.put(schema, writer);
+    }
+    return writer;
+  }
+
   /**
    * When registering a Schema with some Schema Registry it should return a Hex value
    * to be used to identify that schema.
@@ -128,4 +191,64 @@ public class AvroMessageEncoderUtil {
     }
     return data;
   }
+
+  /**
+   * Encoder, buffers and last used writer of a thread
+   */
+  private static class EncoderState {
+    // Buffers grown beyond this size by a large record are not kept for the next call
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private ByteArrayOutputStream _buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+    private final ByteBufferOutputStream _bufferStream = new ByteBufferOutputStream();
+    private BinaryEncoder _encoder;
+    // Checked by identity first, to skip hashing the schema for consecutive records of the same schema
+    private Schema _lastSchema;
+    private boolean _lastSpecific;
+    private DatumWriter<IndexedRecord> _lastWriter;
+
+    void write(IndexedRecord record, OutputStream out) throws IOException {
+      Schema schema = record.getSchema();
+      boolean specific = record instanceof SpecificRecord;
+      if (schema != _lastSchema || specific != _lastSpecific) {
+        _lastWriter = getWriter(schema, specific);
+        _lastSchema = schema;
+        _lastSpecific = specific;
+      }
+
+      try {
+        _encoder = EncoderFactory.get().binaryEncoder(out, _encoder);
+        _lastWriter.write(record, _encoder);
+        _encoder.flush(); //encoder may buffer
+      } catch (IOException | RuntimeException e) {
+        // Drop the encoder, which could otherwise flush the bytes it still buffers into the next message
+        _encoder = null;
+        throw e;
+      }
+    }
+
+    void trimBuffer() {
+      if (_buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+        _buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+      }
+    }
+  }
+
+  /**
+   * OutputStream writing into a ByteBuffer
+   */
+  private static class ByteBufferOutputStream extends OutputStream {
+    private ByteBuffer _target;
+
+    @Override
+    public void write(int b) {
+      _target.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      _target.put(b, off, len);
+    }
+  }
 }
@@ -0,0 +1,340 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants.DATABASE;
+import static com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP;
+import static com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants.OPCODE;
+import static com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants.SCN;
+import static com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants.SOURCE_TIMESTAMP;
+import static com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants.TABLE;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_CLUSTER;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_TOPIC;
+
+
+/**
+ * Compact metadata map for {@link BrooklinEnvelope}. The standard keys of {@link BrooklinEnvelopeMetadataConstants}
+ * and the Kafka origin keys of {@link com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants} are kept in
+ * fixed slots rather than in hash map entries, and other keys go to a hash map which is only created when needed.
+ *
+ * Numeric values set with {@link #putLong} are kept as primitives and only rendered as strings when they are read
+ * through the {@link Map} API, which the transport providers that don't forward the metadata never do.
+ *
+ * Like {@link HashMap}, this class is not thread-safe.
+ */
+public class BrooklinEnvelopeMetadata extends AbstractMap<String, String> {
+  // Keys of the slots, the numeric slots first
+  private static final String[] SLOT_KEYS = {
+      KAFKA_ORIGIN_PARTITION, KAFKA_ORIGIN_OFFSET, EVENT_TIMESTAMP, SOURCE_TIMESTAMP, SCN,
+      KAFKA_ORIGIN, KAFKA_ORIGIN_CLUSTER, KAFKA_ORIGIN_TOPIC, OPCODE, DATABASE, TABLE
+  };
+  private static final int NUM_NUMERIC_SLOTS = 5;
+  private static final int NO_SLOT = -1;
+
+  // Values of the slots. For a numeric slot, null with the rendered bit cleared means its value is in _longs.
+  private final String[] _strings = new String[SLOT_KEYS.length];
+  private final long[] _longs = new long[NUM_NUMERIC_SLOTS];
+
+  // Bit i is set if slot i holds a value
+  private int _present;
+
+  // Bit i is set if the value of slot i is in _strings
+  private int _rendered;
+
+  private Map<String, String> _others;
+
+  private EntrySet _entrySet;
+
+  /**
+   * Construct an empty BrooklinEnvelopeMetadata
+   */
+  public BrooklinEnvelopeMetadata() {
+  }
+
+  /**
+   * Construct a BrooklinEnvelopeMetadata holding the given metadata
+   * @param metadata the metadata to copy
+   */
+  public BrooklinEnvelopeMetadata(Map<String, String> metadata) {
+    putAll(metadata);
+  }
+
+  private static int slotOf(Object key) {
+    if (!(key instanceof String)) {
+      return NO_SLOT;
+    }
+    switch ((String) key) {
+      case KAFKA_ORIGIN_PARTITION:
+        return 0;
+      case KAFKA_ORIGIN_OFFSET:
+        return 1;
+      case EVENT_TIMESTAMP:
+        return 2;
+      case SOURCE_TIMESTAMP:
+        return 3;
+      case SCN:
+        return 4;
+      case KAFKA_ORIGIN:
+        return 5;
+      case KAFKA_ORIGIN_CLUSTER:
+        return 6;
+      case KAFKA_ORIGIN_TOPIC:
+        return 7;
+      case OPCODE:
+        return 8;
+      case DATABASE:
+        return 9;
+      case TABLE:
+        return 10;
+      default:
+        return NO_SLOT;
+    }
+  }
+
+  private boolean isPresent(int slot) {
+    return (_present & (1 << slot)) != 0;
+  }
+
+  private String getSlot(int slot) {
+    int bit = 1 << slot;
+    if ((_rendered & bit) == 0) {
+      _strings[slot] = String.valueOf(_longs[slot]);
+      _rendered |= bit;
+    }
+    return _strings[slot];
+  }
+
+  private void setSlot(int slot, String value) {
+    int bit = 1 << slot;
+    _strings[slot] = value;
+    _present |= bit;
+    _rendered |= bit;
+  }
+
+  private void clearSlot(int slot) {
+    int bit = ~(1 << slot);
+    _strings[slot] = null;
+    _present &= bit;
+    _rendered &= bit;
+  }
+
+  /**
+   * Associate a numeric value with a key, without rendering it as a string unless the key has no slot
+   * @param key the metadata key
+   * @param value the value
+   * @return this metadata, for chaining
+   */
+  public BrooklinEnvelopeMetadata putLong(String key, long value) {
+    int slot = slotOf(key);
+    if (slot == NO_SLOT || slot >= NUM_NUMERIC_SLOTS) {
+      put(key, String.valueOf(value));
+    } else {
+      int bit = 1 << slot;
+      _longs[slot] = value;
+      _strings[slot] = null;
+      _present |= bit;
+      _rendered &= ~bit;
+    }
+    return this;
+  }
+
+  @Override
+  public String get(Object key) {
+    int slot = slotOf(key);
+    if (slot == NO_SLOT) {
+      return _others == null ? null : _others.get(key);
+    }
+    return isPresent(slot) ? getSlot(slot) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int slot = slotOf(key);
+    if (slot == NO_SLOT) {
+      return _others != null && _others.containsKey(key);
+    }
+    return isPresent(slot);
+  }
+
+  @Override
+  public String put(String key, String value) {
+    int slot = slotOf(key);
+    if (slot == NO_SLOT) {
+      if (_others == null) {
+        _others = new HashMap<>();
+      }
+      return _others.put(key, value);
+    }
+    String previous = isPresent(slot) ? getSlot(slot) : null;
+    setSlot(slot, value);
+    return previous;
+  }
+
+  @Override
+  public String remove(Object key) {
+    int slot = slotOf(key);
+    if (slot == NO_SLOT) {
+      return _others == null ? null : _others.remove(key);
+    }
+    String previous = isPresent(slot) ? getSlot(slot) : null;
+    clearSlot(slot);
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return Integer.bitCount(_present) + (_others == null ? 0 : _others.size());
+  }
+
+  @Override
+  public void clear() {
+    for (int slot = 0; slot < SLOT_KEYS.length; slot++) {
+      _strings[slot] = null;
+    }
+    _present = 0;
+    _rendered = 0;
+    if (_others != null) {
+      _others.clear();
+    }
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    if (_entrySet == null) {
+      _entrySet = new EntrySet();
+    }
+    return _entrySet;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, String>> {
+    @Override
+    public Iterator<Entry<String, String>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return BrooklinEnvelopeMetadata.this.size();
+    }
+
+    @Override
+    public void clear() {
+      BrooklinEnvelopeMetadata.this.clear();
+    }
+  }
+
+  /**
+   * Iterates over the present slots, then over the other entries
+   */
+  private class EntryIterator implements Iterator<Entry<String, String>> {
+    private int _nextSlot = nextPresentSlot(0);
+    private int _lastSlot = NO_SLOT;
+    private Iterator<Entry<String, String>> _othersIterator;
+
+    private int nextPresentSlot(int from) {
+      int slot = from;
+      while (slot < SLOT_KEYS.length && !isPresent(slot)) {
+        slot++;
+      }
+      return slot;
+    }
+
+    private Iterator<Entry<String, String>> othersIterator() {
+      if (_othersIterator == null) {
+        _othersIterator = _others == null ? null : _others.entrySet().iterator();
+      }
+      return _othersIterator;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _nextSlot < SLOT_KEYS.length || (othersIterator() != null && othersIterator().hasNext());
+    }
+
+    @Override
+    public Entry<String, String> next() {
+      if (_nextSlot < SLOT_KEYS.length) {
+        _lastSlot = _nextSlot;
+        _nextSlot = nextPresentSlot(_nextSlot + 1);
+        return new SlotEntry(_lastSlot);
+      }
+      if (othersIterator() == null) {
+        throw new NoSuchElementException();
+      }
+      _lastSlot = NO_SLOT;
+      return othersIterator().next();
+    }
+
+    @Override
+    public void remove() {
+      if (_lastSlot != NO_SLOT) {
+        if (!isPresent(_lastSlot)) {
+          throw new IllegalStateException();
+        }
+        clearSlot(_lastSlot);
+      } else if (othersIterator() != null) {
+        othersIterator().remove();
+      } else {
+        throw new IllegalStateException();
+      }
+    }
+  }
+
+  private class SlotEntry implements Entry<String, String> {
+    private final int _slot;
+
+    SlotEntry(int slot) {
+      _slot = slot;
+    }
+
+    @Override
+    public String getKey() {
+      return SLOT_KEYS[_slot];
+    }
+
+    @Override
+    public String getValue() {
+      return getSlot(_slot);
+    }
+
+    @Override
+    public String setValue(String value) {
+      return put(SLOT_KEYS[_slot], value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> other = (Entry<?, ?>) o;
+      return getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      String value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
@@ -0,0 +1,276 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.avro.Schema;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+
+import com.linkedin.datastream.metrics.BrooklinHistogramInfo;
+import com.linkedin.datastream.metrics.BrooklinMeterInfo;
+import com.linkedin.datastream.metrics.BrooklinMetricInfo;
+import com.linkedin.datastream.metrics.DynamicMetricsManager;
+import com.linkedin.datastream.metrics.MetricsAware;
+
+
+/**
+ * {@link SchemaRegistryClient} decorator that caches the schemas fetched by id and the ids of the registered schemas.
+ * <ul>
+ *   <li>Schemas are kept in an LRU cache keyed by id.</li>
+ *   <li>Registrations are cached by topic and schema fingerprint, since registering the same schema again returns
+ *   the same id.</li>
+ *   <li>Concurrent misses on the same key share a single call to the underlying client.</li>
+ *   <li>Ids the underlying client has no schema for are remembered for a short time, so that a burst of messages
+ *   with an unknown id does not turn into a burst of remote lookups.</li>
+ * </ul>
+ * Configured from the serde domain properties with the {@value #CONFIG_DOMAIN} prefix.
+ */
+public class CachingSchemaRegistryClient implements SchemaRegistryClient {
+  public static final String CONFIG_DOMAIN = "schemaRegistryCache";
+  public static final String CONFIG_NAME = "name";
+  public static final String CONFIG_MAX_SCHEMAS = "maxSchemas";
+  public static final String CONFIG_MAX_REGISTRATIONS = "maxRegistrations";
+  public static final String CONFIG_NEGATIVE_CACHE_TTL_MS = "negativeCacheTtlMs";
+
+  public static final String SCHEMA_CACHE_HIT_RATE = "schemaCacheHitRate";
+  public static final String SCHEMA_CACHE_MISS_RATE = "schemaCacheMissRate";
+  public static final String NEGATIVE_CACHE_HIT_RATE = "negativeCacheHitRate";
+  public static final String REGISTER_CACHE_HIT_RATE = "registerCacheHitRate";
+  public static final String REGISTER_CACHE_MISS_RATE = "registerCacheMissRate";
+  public static final String GET_SCHEMA_LATENCY_MS = "getSchemaLatencyMs";
+  public static final String REGISTER_SCHEMA_LATENCY_MS = "registerSchemaLatencyMs";
+
+  private static final Logger LOG = LoggerFactory.getLogger(CachingSchemaRegistryClient.class);
+  private static final String CLASS_NAME = CachingSchemaRegistryClient.class.getSimpleName();
+  private static final String DEFAULT_NAME = "default";
+  private static final int DEFAULT_MAX_SCHEMAS = 1000;
+  private static final int DEFAULT_MAX_REGISTRATIONS = 1000;
+  private static final long DEFAULT_NEGATIVE_CACHE_TTL_MS = 30000;
+
+  private final SchemaRegistryClient _delegate;
+  private final long _negativeCacheTtlMs;
+  private final int _maxSchemas;
+
+  private final Map<String, Schema> _schemas;
+  private final Map<String, String> _registrations;
+  // Expiry time of the ids that the underlying client has no schema for
+  private final Map<String, Long> _missingSchemas = new ConcurrentHashMap<>();
+  private final Map<String, FutureTask<Schema>> _pendingLookups = new ConcurrentHashMap<>();
+  private final Map<String, FutureTask<String>> _pendingRegistrations = new ConcurrentHashMap<>();
+
+  private final Meter _schemaCacheHitRate;
+  private final Meter _schemaCacheMissRate;
+  private final Meter _negativeCacheHitRate;
+  private final Meter _registerCacheHitRate;
+  private final Meter _registerCacheMissRate;
+  private final Histogram _getSchemaLatencyMs;
+  private final Histogram _registerSchemaLatencyMs;
+
+  /**
+   * Constructor for CachingSchemaRegistryClient
+   * @param delegate Client to cache the schemas of
+   * @param props Serde domain properties, holding the cache configuration under the {@value #CONFIG_DOMAIN} domain
+   */
+  public CachingSchemaRegistryClient(SchemaRegistryClient delegate, Properties props) {
+    Validate.notNull(delegate, "null schema registry client");
+    _delegate = delegate;
+
+    VerifiableProperties config =
+        new VerifiableProperties(new VerifiableProperties(props).getDomainProperties(CONFIG_DOMAIN));
+    String name = config.getString(CONFIG_NAME, DEFAULT_NAME);
+    _maxSchemas = config.getIntInRange(CONFIG_MAX_SCHEMAS, DEFAULT_MAX_SCHEMAS, 1, Integer.MAX_VALUE);
+    int maxRegistrations = config.getIntInRange(CONFIG_MAX_REGISTRATIONS, DEFAULT_MAX_REGISTRATIONS, 1, Integer.MAX_VALUE);
+    _negativeCacheTtlMs = config.getLongInRange(CONFIG_NEGATIVE_CACHE_TTL_MS, DEFAULT_NEGATIVE_CACHE_TTL_MS, 0,
+        Long.MAX_VALUE);
+    _schemas = createLruCache(_maxSchemas);
+    _registrations = createLruCache(maxRegistrations);
+
+    DynamicMetricsManager dynamicMetricsManager = DynamicMetricsManager.getInstance();
+    _schemaCacheHitRate = dynamicMetricsManager.registerMetric(CLASS_NAME, name, SCHEMA_CACHE_HIT_RATE, Meter.class);
+    _schemaCacheMissRate = dynamicMetricsManager.registerMetric(CLASS_NAME, name, SCHEMA_CACHE_MISS_RATE, Meter.class);
+    _negativeCacheHitRate = dynamicMetricsManager.registerMetric(CLASS_NAME, name, NEGATIVE_CACHE_HIT_RATE, Meter.class);
+    _registerCacheHitRate = dynamicMetricsManager.registerMetric(CLASS_NAME, name, REGISTER_CACHE_HIT_RATE, Meter.class);
+    _registerCacheMissRate = dynamicMetricsManager.registerMetric(CLASS_NAME, name, REGISTER_CACHE_MISS_RATE, Meter.class);
+    _getSchemaLatencyMs = dynamicMetricsManager.registerMetric(CLASS_NAME, name, GET_SCHEMA_LATENCY_MS, Histogram.class);
+    _registerSchemaLatencyMs =
+        dynamicMetricsManager.registerMetric(CLASS_NAME, name, REGISTER_SCHEMA_LATENCY_MS, Histogram.class);
+    LOG.info("Caching schema registry client {} created with at most {} schemas, {} registrations and {} ms negative "
+        + "cache TTL", name, _maxSchemas, maxRegistrations, _negativeCacheTtlMs);
+  }
+
+  /**
+   * Map evicting its least recently accessed entry once it holds more than a maximum number of entries
+   */
+  private static class LruCache<V> extends LinkedHashMap<String, V> {
+    private static final long serialVersionUID = 1L;
+
+    private final int _maxSize;
+
+    LruCache(int maxSize) {
+      super(16, 0.75f, true);
+      _maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+      return size() > _maxSize;
+    }
+  }
+
+  private static <V> Map<String, V> createLruCache(int maxSize) {
+    return Collections.synchronizedMap(new LruCache<>(maxSize));
+  }
+
+  /**
+   * Whether the underlying client recently had no schema for the id
+   */
+  private boolean isKnownMissing(String id) {
+    Long expiry = _missingSchemas.get(id);
+    if (expiry == null) {
+      return false;
+    }
+    if (expiry > System.currentTimeMillis()) {
+      return true;
+    }
+    _missingSchemas.remove(id, expiry);
+    return false;
+  }
+
+  @Override
+  public Schema getSchemaByID(String id) {
+    Schema schema = _schemas.get(id);
+    if (schema != null) {
+      _schemaCacheHitRate.mark();
+      return schema;
+    }
+
+    if (isKnownMissing(id)) {
+      _negativeCacheHitRate.mark();
+      return null;
+    }
+
+    _schemaCacheMissRate.mark();
+    try {
+      return runOnce(_pendingLookups, id, () -> {
+        // A lookup of the same id may have completed since the cache was checked
+        Schema cached = _schemas.get(id);
+        if (cached != null || isKnownMissing(id)) {
+          return cached;
+        }
+        long start = System.currentTimeMillis();
+        Schema fetched = _delegate.getSchemaByID(id);
+        _getSchemaLatencyMs.update(System.currentTimeMillis() - start);
+        if (fetched != null) {
+          _schemas.put(id, fetched);
+        } else if (_negativeCacheTtlMs > 0) {
+          if (_missingSchemas.size() >= _maxSchemas) {
+            _missingSchemas.clear();
+          }
+          _missingSchemas.put(id, System.currentTimeMillis() + _negativeCacheTtlMs);
+        }
+        return fetched;
+      });
+    } catch (IOException e) {
+      // getSchemaByID does not throw checked exceptions
+      throw new DatastreamRuntimeException("Failed to get schema " + id, e);
+    }
+  }
+
+  @Override
+  public String registerSchema(String topic, Schema schema) throws IOException {
+    String fingerprint = AvroMessageEncoderUtil.schemaToHex(schema);
+    String key = topic + ":" + fingerprint;
+    String id = _registrations.get(key);
+    if (id != null) {
+      _registerCacheHitRate.mark();
+      return id;
+    }
+
+    _registerCacheMissRate.mark();
+    return runOnce(_pendingRegistrations, key, () -> {
+      // A registration of the same schema may have completed since the cache was checked
+      String cachedId = _registrations.get(key);
+      if (cachedId != null) {
+        return cachedId;
+      }
+      long start = System.currentTimeMillis();
+      String registeredId = _delegate.registerSchema(topic, schema);
+      _registerSchemaLatencyMs.update(System.currentTimeMillis() - start);
+      _registrations.put(key, registeredId);
+      _schemas.put(registeredId, schema);
+      _missingSchemas.remove(registeredId);
+      return registeredId;
+    });
+  }
+
+  /**
+   * Run the call, unless a call for the same key is already running, in which case wait for its result instead.
+   * The call is removed from the pending calls once it completes, so it must first check whether an earlier call for
+   * the same key has already cached its result.
+   */
+  private static <V> V runOnce(Map<String, FutureTask<V>> pendingCalls, String key, Callable<V> call)
+      throws IOException {
+    FutureTask<V> task = new FutureTask<>(call);
+    FutureTask<V> pendingTask = pendingCalls.putIfAbsent(key, task);
+    if (pendingTask == null) {
+      try {
+        task.run();
+      } finally {
+        pendingCalls.remove(key, task);
+      }
+    } else {
+      task = pendingTask;
+    }
+
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DatastreamRuntimeException("Interrupted while waiting for schema registry call for " + key, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new DatastreamRuntimeException("Schema registry call failed for " + key, cause);
+    }
+  }
+
+  /**
+   * Get the metrics info for the caching schema registry clients
+   */
+  public static List<BrooklinMetricInfo> getMetricInfos() {
+    String prefix = CLASS_NAME + MetricsAware.KEY_REGEX;
+    List<BrooklinMetricInfo> metrics = new ArrayList<>();
+    metrics.add(new BrooklinMeterInfo(prefix + SCHEMA_CACHE_HIT_RATE));
+    metrics.add(new BrooklinMeterInfo(prefix + SCHEMA_CACHE_MISS_RATE));
+    metrics.add(new BrooklinMeterInfo(prefix + NEGATIVE_CACHE_HIT_RATE));
+    metrics.add(new BrooklinMeterInfo(prefix + REGISTER_CACHE_HIT_RATE));
+    metrics.add(new BrooklinMeterInfo(prefix + REGISTER_CACHE_MISS_RATE));
+    metrics.add(new BrooklinHistogramInfo(prefix + GET_SCHEMA_LATENCY_MS));
+    metrics.add(new BrooklinHistogramInfo(prefix + REGISTER_SCHEMA_LATENCY_MS));
+    return Collections.unmodifiableList(metrics);
+  }
+}
@@ -0,0 +1,36 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common;
+
+import java.util.Properties;
+
+import org.apache.commons.lang.StringUtils;
+
+
+/**
+ * Factory wrapping the clients of another {@link SchemaRegistryClientFactory} in a {@link CachingSchemaRegistryClient}.
+ * The factory to wrap is configured with {@value #CONFIG_FACTORY} in the {@value CachingSchemaRegistryClient#CONFIG_DOMAIN}
+ * domain, along with the cache configuration.
+ */
+public class CachingSchemaRegistryClientFactory implements SchemaRegistryClientFactory {
+  public static final String CONFIG_FACTORY = "factory";
+
+  @Override
+  public SchemaRegistryClient createSchemaRegistryClient(Properties props) {
+    VerifiableProperties config = new VerifiableProperties(
+        new VerifiableProperties(props).getDomainProperties(CachingSchemaRegistryClient.CONFIG_DOMAIN));
+    String factoryClass = config.getString(CONFIG_FACTORY, null);
+    if (StringUtils.isBlank(factoryClass)) {
+      throw new DatastreamRuntimeException("Schema registry client factory to cache is not configured");
+    }
+
+    SchemaRegistryClientFactory factory = ReflectionUtils.createInstance(factoryClass);
+    if (factory == null) {
+      throw new DatastreamRuntimeException("Failed to create schema registry client factory " + factoryClass);
+    }
+    return new CachingSchemaRegistryClient(factory.createSchemaRegistryClient(props), props);
+  }
+}
@@ -104,4 +104,10 @@ public class DatastreamMetadataConstants {
    * Key to set consumer group ID of the datastream.
    */
   public static final String GROUP_ID = "group.id";
+
+  /**
+   * Number of tasks the datastream group of the datastream was resized to by an elastic assignment strategy. It is
+   * set on all the datastreams of the group, and overrides the configured number of tasks while elastic sizing is on.
+   */
+  public static final String ELASTIC_TASK_COUNT = "system.elasticTaskCount";
 }
@@ -12,10 +12,16 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.sql.DataSource;
 
 import org.apache.avro.Schema;
@@ -26,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import com.linkedin.datastream.avrogenerator.DatabaseSource;
 import com.linkedin.datastream.avrogenerator.SchemaGenerationException;
+import com.linkedin.datastream.common.AvroEncodingException;
 import com.linkedin.datastream.common.DatastreamRuntimeException;
 import com.linkedin.datastream.common.ErrorLogger;
 import com.linkedin.datastream.common.databases.DatabaseRow;
@@ -62,6 +69,7 @@ public class DatabaseChunkedReader implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(DatabaseChunkedReader.class);
 
   private final DatabaseSource _databaseSource;
+  private final DataSource _dataSource;
   private final Connection _connection;
 
   private final DatabaseChunkedReaderConfig _databaseChunkedReaderConfig;
@@ -80,12 +88,22 @@ public class DatabaseChunkedReader implements Closeable {
   private final String _table;
   private final ChunkedQueryManager _chunkedQueryManager;
   private final boolean _skipBadMessagesEnabled;
+  private final boolean _prefetchEnabled;
 
   // Ordered list of keys and max values seen in previous query, needed for chunking.
   // The order is based on the index definition in the Database.
-  private final LinkedHashMap<String, Object> _chunkingKeys = new LinkedHashMap<>();
+  private final List<String> _chunkingKeys = new ArrayList<>();
+  private Object[] _chunkingKeyValues;
+
+  // Key ranges to read in order, when reading key ranges instead of hash partitions, and their checkpoints
+  private final List<KeyRange> _keyRanges = new ArrayList<>();
+  private Map<Integer, Map<String, Object>> _keyRangeCheckpoints;
+  private int _keyRangeIndex;
+  private KeyRange _currentKeyRange;
 
   private boolean _initialized = false;
+  // Set once all the rows have been read, e.g. when subscribed to no key range at all
+  private boolean _exhausted = false;
   private int _numPartitions;
   private String _chunkedQuery;
   private PreparedStatement _firstStmt;
@@ -94,6 +112,23 @@ public class DatabaseChunkedReader implements Closeable {
   private long _numRowsInResult = 0;
   private Schema _tableSchema;
 
+  // Column metadata of the current result set, resolved once when its first row is read.
+  // For each column, the index of the chunking key it holds or -1 if it is not a chunking key.
+  private DatabaseRowView _rowView;
+  private int[] _columnChunkingKeyIndexes;
+
+  // Second connection used to query the next chunk in the background while the current chunk is being read.
+  // Chunks alternate between the two connections, so that the connection of the chunk being read is never reused
+  // for the next query.
+  private Connection _prefetchConnection;
+  private PreparedStatement _prefetchStmt;
+  private ExecutorService _prefetchExecutor;
+  private Future<ResultSet> _prefetchedResultSet;
+  private boolean _readingFromPrefetchConnection = false;
+
+  // Created on the first pollAvro call, from the table schema
+  private DatabaseRowAvroEncoder _avroEncoder;
+
   private DatabaseChunkedReaderMetrics _metrics;
 
   /**
@@ -113,9 +148,28 @@ public class DatabaseChunkedReader implements Closeable {
    */
   public DatabaseChunkedReader(Properties props, DataSource source, String sourceQuery, String db, String table,
       DatabaseSource databaseSource, String id) throws SQLException {
-    _databaseChunkedReaderConfig = new DatabaseChunkedReaderConfig(props);
+    this(new DatabaseChunkedReaderConfig(props), source, sourceQuery, db, table, databaseSource, id);
+  }
+
+  /**
+   * Create a DatabaseChunkedReader instance from a configuration which can be shared by several readers, e.g. the
+   * readers of the key ranges of a table, so that the query manager and SQL type interpreter are only created once
+   * @param config Configuration
+   * @param source JDBC DataSource object to use for connecting
+   * @param sourceQuery Query to execute on the source in chunked mode, see
+   *                    {@link #DatabaseChunkedReader(Properties, DataSource, String, String, String, DatabaseSource, String)}
+   * @param db Database that the DataSource is connected to. If null, connection string from DataSource is used to
+   *           derive the string. Only used for creating metric names.
+   * @param table table to use for getting unique key column(s) information to add the chunking predicate
+   * @param databaseSource DatabaseSource implementation to query table metadata needed for constructing the chunk query
+   * @param id Name to identify the reader instance in logs
+   */
+  public DatabaseChunkedReader(DatabaseChunkedReaderConfig config, DataSource source, String sourceQuery, String db,
+      String table, DatabaseSource databaseSource, String id) throws SQLException {
+    _databaseChunkedReaderConfig = config;
     _sourceQuery = sourceQuery;
     _databaseSource = databaseSource;
+    _dataSource = source;
     _readerId = id;
     _table = table;
     _fetchSize = _databaseChunkedReaderConfig.getFetchSize();
@@ -125,6 +179,7 @@ public class DatabaseChunkedReader implements Closeable {
     Validate.notNull(_connection, "getConnection returned null for source" + source);
     _chunkedQueryManager = _databaseChunkedReaderConfig.getChunkedQueryManager();
     _skipBadMessagesEnabled = _databaseChunkedReaderConfig.getShouldSkipBadMessage();
+    _prefetchEnabled = _databaseChunkedReaderConfig.getPrefetchNextChunk();
 
     if (StringUtils.isBlank(db)) {
       _database = _connection.getMetaData().getUserName();
@@ -137,12 +192,9 @@ public class DatabaseChunkedReader implements Closeable {
     validateQuery(sourceQuery);
   }
 
-  private void initializeDatabaseMetadata(List<Integer> partitions) throws SQLException, SchemaGenerationException {
-    // Verify the partitions are valid.
-    _numPartitions = _databaseSource.getPartitionCount();
-    partitions.forEach(p -> Validate.isTrue(p >= 0 && p < _numPartitions));
-
-    _databaseSource.getPrimaryKeyFields(_table).stream().forEach(k -> _chunkingKeys.put(k, null));
+  private void initializeDatabaseMetadata() throws SQLException, SchemaGenerationException {
+    _chunkingKeys.addAll(_databaseSource.getPrimaryKeyFields(_table));
+    _chunkingKeyValues = new Object[_chunkingKeys.size()];
     if (_chunkingKeys.isEmpty()) {
       _metrics.updateErrorRate();
 
@@ -162,53 +214,162 @@ public class DatabaseChunkedReader implements Closeable {
   }
 
   private void generateChunkedQueries() throws SQLException {
-    String firstQuery =
-        _chunkedQueryManager.generateFirstQuery(_sourceQuery, new ArrayList<String>(_chunkingKeys.keySet()), _rowCountLimit,
-            _numPartitions, _partitions);
+    String firstQuery;
+    if (_currentKeyRange != null) {
+      boolean hasUpperBound = _currentKeyRange.getUpperBound() != null;
+      KeyRangeChunkedQueryManager queryManager = (KeyRangeChunkedQueryManager) _chunkedQueryManager;
+      firstQuery = queryManager.generateFirstRangeQuery(_sourceQuery, new ArrayList<>(_chunkingKeys), _rowCountLimit,
+          hasUpperBound);
+      _chunkedQuery = queryManager.generateChunkedRangeQuery(_sourceQuery, new ArrayList<>(_chunkingKeys),
+          _rowCountLimit, hasUpperBound);
+    } else {
+      firstQuery = _chunkedQueryManager.generateFirstQuery(_sourceQuery, new ArrayList<String>(_chunkingKeys),
+          _rowCountLimit, _numPartitions, _partitions);
+      _chunkedQuery = _chunkedQueryManager.generateChunkedQuery(_sourceQuery, new ArrayList<String>(_chunkingKeys),
+          _rowCountLimit, _numPartitions, _partitions);
+    }
     _firstStmt = _connection.prepareStatement(firstQuery);
     _firstStmt.setFetchSize(_fetchSize);
     _firstStmt.setQueryTimeout(_queryTimeoutSecs);
 
-    _chunkedQuery =
-        _chunkedQueryManager.generateChunkedQuery(_sourceQuery, new ArrayList<String>(_chunkingKeys.keySet()), _rowCountLimit,
-            _numPartitions, _partitions);
     _queryStmt = _connection.prepareStatement(_chunkedQuery);
     _queryStmt.setFetchSize(_fetchSize);
     _queryStmt.setQueryTimeout(_queryTimeoutSecs);
+
+    if (_prefetchEnabled) {
+      if (_prefetchConnection == null) {
+        _prefetchConnection = _dataSource.getConnection();
+        Validate.notNull(_prefetchConnection, "getConnection returned null for prefetch connection of source" + _dataSource);
+        _prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+          Thread t = new Thread(r);
+          t.setDaemon(true);
+          t.setName(String.format("%s prefetch thread", _readerId));
+          return t;
+        });
+      }
+      _prefetchStmt = _prefetchConnection.prepareStatement(_chunkedQuery);
+      _prefetchStmt.setFetchSize(_fetchSize);
+      _prefetchStmt.setQueryTimeout(_queryTimeoutSecs);
+    }
   }
 
   /**
    * Fill in the key values from previous query result
    */
   private void prepareChunkedQuery(PreparedStatement stmt, List<Object> keys) throws SQLException {
-    _chunkedQueryManager.prepareChunkedQuery(stmt, keys);
+    if (_currentKeyRange != null) {
+      ((KeyRangeChunkedQueryManager) _chunkedQueryManager).prepareRangeQuery(stmt, keys, _currentKeyRange.getUpperBound());
+    } else {
+      _chunkedQueryManager.prepareChunkedQuery(stmt, keys);
+    }
   }
 
   private void executeChunkedQuery(PreparedStatement stmt) throws SQLException {
     long timeStart = System.currentTimeMillis();
     _queryResultSet = stmt.executeQuery();
-    _metrics.updateQueryExecutionDuration(System.currentTimeMillis() - timeStart);
+    _rowView = null;
+    long duration = System.currentTimeMillis() - timeStart;
+    _metrics.updateQueryExecutionDuration(duration);
     _metrics.updateQueryExecutionRate();
+    _metrics.updateQueryWaitDuration(duration);
   }
 
   private void executeFirstChunkedQuery() throws SQLException {
     // Based on checkpoint state execute the first chunked query or the chunked query with checkpointed key values
-    boolean checkpointsSaved = _chunkingKeys.values().iterator().next() != null;
+    boolean checkpointsSaved = _chunkingKeyValues[0] != null;
     if (checkpointsSaved) {
       executeNextChunkedQuery();
     } else {
+      if (_currentKeyRange != null) {
+        prepareChunkedQuery(_firstStmt, Collections.emptyList());
+      }
       executeChunkedQuery(_firstStmt);
     }
   }
 
   private void executeNextChunkedQuery() throws SQLException {
-    prepareChunkedQuery(_queryStmt, new ArrayList<>(_chunkingKeys.values()));
+    prepareChunkedQuery(_queryStmt, new ArrayList<>(Arrays.asList(_chunkingKeyValues)));
     executeChunkedQuery(_queryStmt);
   }
 
+  /**
+   * Start querying the next chunk on the connection that is not serving the current chunk. Called once the
+   * last row of a full chunk is read, since its key values are what the next chunk query starts from.
+   */
+  private void startPrefetch() throws SQLException {
+    PreparedStatement stmt = _readingFromPrefetchConnection ? _queryStmt : _prefetchStmt;
+    prepareChunkedQuery(stmt, new ArrayList<>(Arrays.asList(_chunkingKeyValues)));
+    _prefetchedResultSet = _prefetchExecutor.submit(() -> {
+      long timeStart = System.currentTimeMillis();
+      ResultSet resultSet = stmt.executeQuery();
+      _metrics.updateQueryExecutionDuration(System.currentTimeMillis() - timeStart);
+      _metrics.updateQueryExecutionRate();
+      return resultSet;
+    });
+  }
+
+  /**
+   * Make the prefetched chunk the current one, waiting for its query to complete if it has not yet
+   */
+  private void switchToPrefetchedResultSet() throws SQLException {
+    Future<ResultSet> prefetchedResultSet = _prefetchedResultSet;
+    _prefetchedResultSet = null;
+    if (prefetchedResultSet.isDone()) {
+      _metrics.updatePrefetchStallsAvoidedRate();
+    }
+
+    long timeStart = System.currentTimeMillis();
+    ResultSet resultSet;
+    try {
+      resultSet = prefetchedResultSet.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DatastreamRuntimeException("Interrupted while waiting for the next chunk of reader " + _readerId, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw new DatastreamRuntimeException("Failed to query the next chunk of reader " + _readerId, e.getCause());
+    } finally {
+      _metrics.updateQueryWaitDuration(System.currentTimeMillis() - timeStart);
+    }
+
+    _queryResultSet.close();
+    _queryResultSet = resultSet;
+    _rowView = null;
+    _readingFromPrefetchConnection = !_readingFromPrefetchConnection;
+  }
+
   private void releaseResources(String msg) {
     LOG.info(msg);
     LOG.info("Releasing resources");
+    if (_prefetchedResultSet != null && !_prefetchedResultSet.cancel(true)) {
+      try {
+        _prefetchedResultSet.get().close();
+      } catch (Exception e) {
+        LOG.warn("Failed to close prefetched ResultSet for reader {}. Might cause resource leak", _readerId, e);
+      }
+    }
+
+    closeQueries();
+
+    if (_prefetchConnection != null) {
+      try {
+        _prefetchConnection.close();
+      } catch (SQLException e) {
+        LOG.warn("Failed to close prefetch Connection for reader {}. Might cause resource leak", _readerId, e);
+      }
+    }
+
+    if (_prefetchExecutor != null) {
+      _prefetchExecutor.shutdownNow();
+    }
+
+    _metrics.deregister();
+    _initialized = false;
+  }
+
+  private void closeQueries() {
     if (_queryResultSet != null) {
       try {
         _queryResultSet.close();
@@ -233,8 +394,13 @@ public class DatabaseChunkedReader implements Closeable {
       }
     }
 
-    _metrics.deregister();
-    _initialized = false;
+    if (_prefetchStmt != null) {
+      try {
+        _prefetchStmt.close();
+      } catch (SQLException e) {
+        LOG.warn("Failed to close prefetch PreparedStatement for reader {}. Might cause resource leak", _readerId, e);
+      }
+    }
   }
 
   /**
@@ -253,15 +419,84 @@ public class DatabaseChunkedReader implements Closeable {
     }
 
     _metrics = new DatabaseChunkedReaderMetrics(String.join(".", _database, _table), _readerId);
+    // Verify the partitions are valid.
+    _numPartitions = _databaseSource.getPartitionCount();
+    partitions.forEach(p -> Validate.isTrue(p >= 0 && p < _numPartitions));
     _partitions.addAll(partitions);
-    initializeDatabaseMetadata(partitions);
+    initializeDatabaseMetadata();
     generateChunkedQueries();
     loadCheckpoint(checkpoint);
     _initialized = true;
   }
 
+  /**
+   * Prepare reader for poll over key ranges instead of hash partitions. The ranges are read one after the other,
+   * in key order, each with index seeking chunked queries bounded by the range. Requires a query manager that
+   * implements {@link KeyRangeChunkedQueryManager}. Calling subscribe on a reader multiple times, is not allowed.
+   * @param keyRanges Key ranges to read, as planned by {@link KeyRangePlanner} and assigned to this reader
+   * @param checkpoints Per range checkpoint, keyed by the partition of the range. The range is read from the row
+   *                    following the checkpointed row, as in {@link #subscribe(List, Map)}. Ranges without checkpoint
+   *                    are read from their lower bound. A range is complete once its checkpoint is its upper bound.
+   */
+  public void subscribeKeyRanges(List<KeyRange> keyRanges, Map<Integer, Map<String, Object>> checkpoints)
+      throws SQLException, SchemaGenerationException {
+    if (_initialized) {
+      throw new DatastreamRuntimeException("Subscribing an already subscribed reader");
+    }
+    if (!(_chunkedQueryManager instanceof KeyRangeChunkedQueryManager)) {
+      throw new DatastreamRuntimeException("Query manager does not support key ranges: "
+          + _chunkedQueryManager.getClass().getName());
+    }
+
+    _metrics = new DatabaseChunkedReaderMetrics(String.join(".", _database, _table), _readerId);
+    _keyRanges.addAll(keyRanges);
+    _keyRanges.sort(Comparator.comparingInt(KeyRange::getPartition));
+    _keyRangeCheckpoints = checkpoints == null ? Collections.emptyMap() : checkpoints;
+    initializeDatabaseMetadata();
+    _keyRangeIndex = -1;
+    _initialized = true;
+    // A table can have fewer key ranges than partitions, so a reader may have no range to read
+    _exhausted = !startNextKeyRange();
+  }
+
+  /**
+   * Move to the next key range, if reading key ranges
+   * @return false if there is no key range left to read
+   */
+  private boolean startNextKeyRange() throws SQLException {
+    if (_keyRangeIndex + 1 >= _keyRanges.size()) {
+      return false;
+    }
+
+    closeQueries();
+    _queryResultSet = null;
+    _numRowsInResult = 0;
+    _readingFromPrefetchConnection = false;
+    _currentKeyRange = _keyRanges.get(++_keyRangeIndex);
+    LOG.info("Reader {} starting {}", _readerId, _currentKeyRange);
+    generateChunkedQueries();
+    loadCheckpoint(_keyRangeCheckpoints.get(_currentKeyRange.getPartition()));
+    return true;
+  }
+
+  /**
+   * Get the key range the last polled row belongs to, so that the caller can checkpoint it per range
+   * @return Current key range, or null if the reader was not subscribed to key ranges
+   */
+  public KeyRange getCurrentKeyRange() {
+    return _currentKeyRange;
+  }
+
   private void loadCheckpoint(Map<String, Object> checkpoint) {
     if (checkpoint == null || checkpoint.isEmpty()) {
+      if (_currentKeyRange != null) {
+        // Without checkpoint, a key range is read from its lower bound as if it was checkpointed
+        List<Object> lowerBound = _currentKeyRange.getLowerBound();
+        for (int i = 0; i < _chunkingKeyValues.length; i++) {
+          _chunkingKeyValues[i] = lowerBound == null ? null : lowerBound.get(i);
+        }
+        return;
+      }
       LOG.warn("No checkpoints supplied. Skipping checkpoint load");
       return;
     }
@@ -269,32 +504,56 @@ public class DatabaseChunkedReader implements Closeable {
     Validate.isTrue(checkpoint.size() == _chunkingKeys.size(),
         String.format("Load checkpoint called with %s keys when expected %s. Checkpoint supplied %s",
             checkpoint.size(), _chunkingKeys.size(), checkpoint));
-    _chunkingKeys.keySet().forEach(k -> {
+    for (int i = 0; i < _chunkingKeys.size(); i++) {
+      String k = _chunkingKeys.get(i);
       Validate.isTrue(checkpoint.containsKey(k),
           String.format("Load checkpoint called without key %s. Checkpoint map supplied : %s", k, checkpoint));
-      _chunkingKeys.put(k, checkpoint.get(k));
-    });
+      _chunkingKeyValues[i] = checkpoint.get(k);
+    }
+  }
+
+  /**
+   * Resolve the column names, types and chunking key positions of the current result set
+   */
+  private void resolveColumnMetadata() throws SQLException {
+    ResultSetMetaData rsmd = _queryResultSet.getMetaData();
+    int colCount = rsmd.getColumnCount();
+    String[] columnNames = new String[colCount];
+    int[] sqlTypes = new int[colCount];
+    _columnChunkingKeyIndexes = new int[colCount];
+    for (int i = 0; i < colCount; i++) {
+      columnNames[i] = rsmd.getColumnName(i + 1);
+      sqlTypes[i] = rsmd.getColumnType(i + 1);
+      _columnChunkingKeyIndexes[i] = _chunkingKeys.indexOf(columnNames[i]);
+    }
+    _rowView = new DatabaseRowView(columnNames, sqlTypes);
   }
 
-  private DatabaseRow getNextRow() throws SQLException {
+  /**
+   * Read the current row of the result set into the row view
+   * @return false if the row could not be read and was skipped
+   */
+  private boolean readCurrentRow() throws SQLException {
     _numRowsInResult++;
     try {
-      ResultSetMetaData rsmd = _queryResultSet.getMetaData();
-      int colCount = rsmd.getColumnCount();
-      DatabaseRow payloadRecord = new DatabaseRow();
-      for (int i = 1; i <= colCount; i++) {
-        String columnName = rsmd.getColumnName(i);
-        Object columnValue = _queryResultSet.getObject(i);
-        payloadRecord.addField(columnName, columnValue, rsmd.getColumnType(i));
+      if (_rowView == null) {
+        resolveColumnMetadata();
+      }
+
+      for (int i = 0; i < _columnChunkingKeyIndexes.length; i++) {
+        Object columnValue = _queryResultSet.getObject(i + 1);
+        _rowView.setValue(i, columnValue);
         // If column is one of the key values, save the result from query to perform chunking query in the future
-        if (_chunkingKeys.containsKey(columnName)) {
+        int keyIndex = _columnChunkingKeyIndexes[i];
+        if (keyIndex >= 0) {
           if (columnValue == null) {
-            ErrorLogger.logAndThrowDatastreamRuntimeException(LOG, columnName + " field is not expected to be null");
+            ErrorLogger.logAndThrowDatastreamRuntimeException(LOG,
+                _rowView.getColumnName(i) + " field is not expected to be null");
           }
-          _chunkingKeys.put(columnName, columnValue);
+          _chunkingKeyValues[keyIndex] = columnValue;
         }
       }
-      return payloadRecord;
+      return true;
     } catch (SQLException e) {
       _metrics.updateErrorRate();
 
@@ -304,7 +563,7 @@ public class DatabaseChunkedReader implements Closeable {
       } else {
         ErrorLogger.logAndThrowDatastreamRuntimeException(LOG, "Failed to interpret row and skipBadMessage not enabled", e);
       }
-      return null;
+      return false;
     }
   }
 
@@ -317,33 +576,84 @@ public class DatabaseChunkedReader implements Closeable {
    *         a GenericRecord with schema specified per getTableSchema call on the DatabaseSource for the source table.
    */
   public DatabaseRow poll() throws SQLException {
+    DatabaseRowView row = pollView();
+    return row == null ? null : row.toDatabaseRow();
+  }
+
+  /**
+   * Same as {@link #poll()}, but returns the next row as a view that is reused across calls instead of allocating
+   * a new {@link DatabaseRow} per row. Meant for consumers that process each row before polling the next one.
+   * @return Null if end of records or a view of the next row, which is only valid until the next poll
+   */
+  public DatabaseRowView pollView() throws SQLException {
     if (!_initialized) {
       throw new DatastreamRuntimeException("Cannot poll on unsubscribed reader. Call subscribe() first");
     }
 
-    if (_queryResultSet == null) {
-      executeFirstChunkedQuery();
+    if (_exhausted) {
+      return null;
     }
 
-    DatabaseRow row = null;
-    while (row == null) {
+    boolean rowRead = false;
+    while (!rowRead) {
+      if (_queryResultSet == null) {
+        executeFirstChunkedQuery();
+      }
+
       if (!_queryResultSet.next()) {
-        // If previous query read less than requested chunks, we are at the end of the table.
-        // No more chunks to fetch, indicate end of records.
+        // If previous query read less than requested chunks, we are at the end of the table or key range.
+        // No more chunks to fetch, indicate end of records unless there is another key range to read.
         if (_numRowsInResult < _rowCountLimit) {
-          return null;
+          if (!startNextKeyRange()) {
+            _exhausted = true;
+            return null;
+          }
+          continue;
         }
 
-        // Perform the next chunked query
+        // Perform the next chunked query, unless it was already started in the background
         _numRowsInResult = 0;
-        executeNextChunkedQuery();
-        if (!_queryResultSet.next()) {
-          return null;
+        if (_prefetchedResultSet != null) {
+          switchToPrefetchedResultSet();
+        } else {
+          executeNextChunkedQuery();
+        }
+        continue;
+      }
+      rowRead = readCurrentRow();
+      if (_prefetchEnabled && _numRowsInResult == _rowCountLimit) {
+        startPrefetch();
+      }
+    }
+    return _rowView;
+  }
+
+  /**
+   * Same as {@link #poll()}, but returns the next row encoded as an Avro binary record of the table schema, as
+   * returned by {@link DatabaseSource#getTableSchema(String)}. Rows are encoded straight from the row view, with the
+   * SqlTypeInterpreter configured by {@link DatabaseChunkedReaderConfig#SQL_TYPE_INTERPRETER_CLASS_NAME}.
+   * @return Null if end of records or the Avro binary encoding of the next row
+   */
+  public byte[] pollAvro() throws SQLException {
+    if (_avroEncoder == null && _initialized) {
+      _avroEncoder = new DatabaseRowAvroEncoder(_tableSchema, _databaseChunkedReaderConfig.getSqlTypeInterpreter());
+    }
+
+    for (DatabaseRowView row = pollView(); row != null; row = pollView()) {
+      try {
+        return _avroEncoder.encode(row);
+      } catch (AvroEncodingException e) {
+        _metrics.updateErrorRate();
+
+        if (_skipBadMessagesEnabled) {
+          LOG.warn("Skipping row due to Avro encoding failure", e);
+          _metrics.updateSkipBadMessagesRate();
+        } else {
+          ErrorLogger.logAndThrowDatastreamRuntimeException(LOG, "Failed to encode row and skipBadMessage not enabled", e);
         }
       }
-      row = getNextRow();
     }
-    return row;
+    return null;
   }
 
   /**
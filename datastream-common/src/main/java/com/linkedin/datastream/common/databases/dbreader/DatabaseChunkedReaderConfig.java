@@ -14,11 +14,14 @@ import org.slf4j.LoggerFactory;
 
 import com.linkedin.datastream.common.DatastreamRuntimeException;
 import com.linkedin.datastream.common.ReflectionUtils;
+import com.linkedin.datastream.common.SqlTypeInterpreter;
 import com.linkedin.datastream.common.VerifiableProperties;
+import com.linkedin.datastream.common.databases.PassThroughSqlTypeInterpreter;
 
 
 /**
- * Configurations for the DatabaseChunkedReader class.
+ * Configurations for the DatabaseChunkedReader class. The query manager and SQL type interpreter are created once, when
+ * the configuration is loaded, and shared by all the readers created from the same configuration.
  */
 public class DatabaseChunkedReaderConfig {
   public static final String DB_READER_DOMAIN_CONFIG = "dbReader";
@@ -33,17 +36,25 @@ public class DatabaseChunkedReaderConfig {
   // only look for first 1000 matches that match the specified constraints and will do a full row fetch only for these.
   public static final String ROW_COUNT_LIMIT = "chunk.rowCountLimit";
   public static final String DATABASE_QUERY_MANAGER_CLASS_NAME = "database.queryManager";
+  // Interpreter used to encode rows into Avro with DatabaseChunkedReader.pollAvro
+  public static final String SQL_TYPE_INTERPRETER_CLASS_NAME = "database.sqlTypeInterpreter";
+  // When enabled, the next chunk is queried on a second connection as soon as the last key of the current chunk is
+  // read, so that switching chunks does not wait for the query round trip.
+  public static final String PREFETCH_NEXT_CHUNK = "chunk.prefetch";
   private static final Logger LOG = LoggerFactory.getLogger(DatabaseChunkedReaderConfig.class);
   private static final int DEFAULT_QUERY_TIMEOUT_SECS = 0;
   private static final int DEFAULT_FETCH_SIZE = 10000;
   private static final long DEFAULT_ROW_COUNT_LIMIT = 50000;
   private static final boolean DEFAULT_SKIP_BAD_MESSAGE = false;
+  private static final boolean DEFAULT_PREFETCH_NEXT_CHUNK = false;
 
   private final int _queryTimeout;
   private final int _fetchSize;
   private final long _rowCountLimit;
   private ChunkedQueryManager _chunkedQueryManager;
+  private SqlTypeInterpreter _sqlTypeInterpreter;
   private boolean _shouldSkipBadMessage;
+  private final boolean _prefetchNextChunk;
 
   /**
    * Constructor for DatabaseChunkedReaderConfig
@@ -61,6 +72,7 @@ public class DatabaseChunkedReaderConfig {
     Validate.inclusiveBetween(0, Long.MAX_VALUE, _fetchSize);
     Validate.inclusiveBetween(0, Long.MAX_VALUE, _fetchSize);
     _shouldSkipBadMessage = verifiableProperties.getBoolean(SKIP_BAD_MESSAGE, DEFAULT_SKIP_BAD_MESSAGE);
+    _prefetchNextChunk = verifiableProperties.getBoolean(PREFETCH_NEXT_CHUNK, DEFAULT_PREFETCH_NEXT_CHUNK);
 
     String queryManagerClass = verifiableProperties.getString(DATABASE_QUERY_MANAGER_CLASS_NAME);
     if (StringUtils.isBlank(queryManagerClass)) {
@@ -70,6 +82,15 @@ public class DatabaseChunkedReaderConfig {
     }
     _chunkedQueryManager = ReflectionUtils.createInstance(queryManagerClass);
 
+    String sqlTypeInterpreterClass = verifiableProperties.getString(SQL_TYPE_INTERPRETER_CLASS_NAME,
+        PassThroughSqlTypeInterpreter.class.getName());
+    _sqlTypeInterpreter = ReflectionUtils.createInstance(sqlTypeInterpreterClass);
+    if (_sqlTypeInterpreter == null) {
+      String msg = "Failed to create SQL type interpreter " + sqlTypeInterpreterClass;
+      LOG.error(msg);
+      throw new DatastreamRuntimeException(msg);
+    }
+
     verifiableProperties.verify();
   }
 
@@ -89,7 +110,15 @@ public class DatabaseChunkedReaderConfig {
     return _chunkedQueryManager;
   }
 
+  public SqlTypeInterpreter getSqlTypeInterpreter() {
+    return _sqlTypeInterpreter;
+  }
+
   public boolean getShouldSkipBadMessage() {
     return _shouldSkipBadMessage;
   }
+
+  public boolean getPrefetchNextChunk() {
+    return _prefetchNextChunk;
+  }
 }
@@ -26,6 +26,10 @@ import com.linkedin.datastream.metrics.MetricsAware;
  */
 class DatabaseChunkedReaderMetrics extends BrooklinMetrics {
   public static final String SKIPPED_BAD_MESSAGES_RATE = "skippedBadMessagesRate";
+  // Time the poll thread spent blocked on the database to get a chunk, including waits on a prefetched chunk
+  public static final String QUERY_WAIT_DURATION = "queryWaitDurationMs";
+  // Chunk switches served by a prefetched chunk that was already available
+  public static final String PREFETCH_STALLS_AVOIDED_RATE = "prefetchStallsAvoidedRate";
   protected static final DynamicMetricsManager DYNAMIC_METRICS_MANAGER = DynamicMetricsManager.getInstance();
 
   private static final String CLASS_NAME = DatabaseChunkedReader.class.getSimpleName();
@@ -39,12 +43,16 @@ class DatabaseChunkedReaderMetrics extends BrooklinMetrics {
   private final Meter _readerQueryExecutionRate;
   private final Meter _readerErrorRate;
   private final Meter _readerSkippedBadMessagesRate;
+  private final Histogram _readerQueryWaitDurationMs;
+  private final Meter _readerPrefetchStallsAvoidedRate;
 
   // Per source aggregated metrics
   private final Histogram _sourceQueryExecutionDurationMs;
   private final Meter _sourceQueryExecutionRate;
   private final Meter _sourceErrorRate;
   private final Meter _sourceSkippedBadMessagesRate;
+  private final Histogram _sourceQueryWaitDurationMs;
+  private final Meter _sourcePrefetchStallsAvoidedRate;
   private final String _source;
 
   /**
@@ -60,12 +68,18 @@ class DatabaseChunkedReaderMetrics extends BrooklinMetrics {
     _readerQueryExecutionRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, key, QUERY_EXECUTION_RATE, Meter.class);
     _readerErrorRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, key, ERROR_RATE, Meter.class);
     _readerSkippedBadMessagesRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, key, SKIPPED_BAD_MESSAGES_RATE, Meter.class);
+    _readerQueryWaitDurationMs = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, key, QUERY_WAIT_DURATION, Histogram.class);
+    _readerPrefetchStallsAvoidedRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, key,
+        PREFETCH_STALLS_AVOIDED_RATE, Meter.class);
 
     _sourceQueryExecutionDurationMs = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, source,
         QUERY_EXECUTION_DURATION, Histogram.class);
     _sourceQueryExecutionRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, source, QUERY_EXECUTION_RATE, Meter.class);
     _sourceErrorRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, source, ERROR_RATE, Meter.class);
     _sourceSkippedBadMessagesRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, source, SKIPPED_BAD_MESSAGES_RATE, Meter.class);
+    _sourceQueryWaitDurationMs = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, source, QUERY_WAIT_DURATION, Histogram.class);
+    _sourcePrefetchStallsAvoidedRate = DYNAMIC_METRICS_MANAGER.registerMetric(CLASS_NAME, source,
+        PREFETCH_STALLS_AVOIDED_RATE, Meter.class);
   }
 
   @Override
@@ -75,6 +89,8 @@ class DatabaseChunkedReaderMetrics extends BrooklinMetrics {
     DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _key, QUERY_EXECUTION_RATE);
     DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _key, ERROR_RATE);
     DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _key, SKIPPED_BAD_MESSAGES_RATE);
+    DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _key, QUERY_WAIT_DURATION);
+    DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _key, PREFETCH_STALLS_AVOIDED_RATE);
   }
 
   @Override
@@ -83,6 +99,8 @@ class DatabaseChunkedReaderMetrics extends BrooklinMetrics {
     DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _source, QUERY_EXECUTION_RATE);
     DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _source, ERROR_RATE);
     DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _source, SKIPPED_BAD_MESSAGES_RATE);
+    DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _source, QUERY_WAIT_DURATION);
+    DYNAMIC_METRICS_MANAGER.unregisterMetric(_className, _source, PREFETCH_STALLS_AVOIDED_RATE);
   }
 
   static List<BrooklinMetricInfo> getMetricInfos() {
@@ -91,6 +109,8 @@ class DatabaseChunkedReaderMetrics extends BrooklinMetrics {
     metrics.add(new BrooklinMeterInfo(SOURCE_METRICS_PREFIX_REGEX + QUERY_EXECUTION_RATE));
     metrics.add(new BrooklinMeterInfo(SOURCE_METRICS_PREFIX_REGEX + ERROR_RATE));
     metrics.add(new BrooklinMeterInfo(SOURCE_METRICS_PREFIX_REGEX + SKIPPED_BAD_MESSAGES_RATE));
+    metrics.add(new BrooklinHistogramInfo(SOURCE_METRICS_PREFIX_REGEX + QUERY_WAIT_DURATION));
+    metrics.add(new BrooklinMeterInfo(SOURCE_METRICS_PREFIX_REGEX + PREFETCH_STALLS_AVOIDED_RATE));
 
     return Collections.unmodifiableList(metrics);
   }
@@ -122,4 +142,14 @@ class DatabaseChunkedReaderMetrics extends BrooklinMetrics {
   void updateSkipBadMessagesRate() {
     updateSkipBadMessagesRate(1);
   }
+
+  void updateQueryWaitDuration(long waitDurationMs) {
+    _readerQueryWaitDurationMs.update(waitDurationMs);
+    _sourceQueryWaitDurationMs.update(waitDurationMs);
+  }
+
+  void updatePrefetchStallsAvoidedRate() {
+    _readerPrefetchStallsAvoidedRate.mark();
+    _sourcePrefetchStallsAvoidedRate.mark();
+  }
 }
@@ -0,0 +1,211 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common.databases.dbreader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+
+import com.linkedin.datastream.common.AvroEncodingException;
+import com.linkedin.datastream.common.DatastreamRuntimeException;
+import com.linkedin.datastream.common.SqlTypeInterpreter;
+
+
+/**
+ * Encodes the rows of a {@link DatabaseChunkedReader} straight into Avro binary per the table schema, without
+ * building a {@link com.linkedin.datastream.common.databases.DatabaseRow} or a GenericRecord first.
+ * The mapping of the result set columns to the schema fields is compiled once, from the first row encoded, and the
+ * same buffer and encoder are reused for every row. Not thread safe.
+ */
+public class DatabaseRowAvroEncoder {
+  private final Schema _schema;
+  private final SqlTypeInterpreter _sqlTypeInterpreter;
+  private final ByteArrayOutputStream _buffer = new ByteArrayOutputStream();
+  private final BinaryEncoder _encoder = EncoderFactory.get().directBinaryEncoder(_buffer, null);
+
+  // One entry per schema field, in schema order, which is the order of the fields in the binary encoding
+  private FieldPlan[] _plan;
+  private int _columnCount;
+
+  /**
+   * Constructor for DatabaseRowAvroEncoder
+   * @param schema Avro record schema of the table
+   * @param sqlTypeInterpreter Interpreter mapping the column names to field names and the column values to Avro
+   */
+  public DatabaseRowAvroEncoder(Schema schema, SqlTypeInterpreter sqlTypeInterpreter) {
+    if (schema.getType() != Schema.Type.RECORD) {
+      throw new DatastreamRuntimeException("Table schema is not a record schema: " + schema);
+    }
+    _schema = schema;
+    _sqlTypeInterpreter = sqlTypeInterpreter;
+  }
+
+  /**
+   * Encode a row as an Avro binary record of the table schema
+   * @param row Row to encode. All the rows must come from the same query.
+   * @return Avro binary encoding of the row
+   */
+  public byte[] encode(DatabaseRowView row) throws SQLException, AvroEncodingException {
+    if (_plan == null) {
+      _plan = compile(row);
+      _columnCount = row.getColumnCount();
+    } else if (row.getColumnCount() != _columnCount) {
+      throw new AvroEncodingException(String.format("Row has %d columns when %d were expected",
+          row.getColumnCount(), _columnCount));
+    }
+
+    _buffer.reset();
+    try {
+      for (FieldPlan field : _plan) {
+        Object value = null;
+        if (field._column >= 0) {
+          value = _sqlTypeInterpreter.sqlObjectToAvro(row.getValue(field._column), row.getColumnName(field._column),
+              field._schema);
+        }
+        field.write(value, _encoder);
+      }
+      _encoder.flush();
+    } catch (IOException | AvroRuntimeException | AvroEncodingException e) {
+      throw new AvroEncodingException("Failed to encode row " + row + " with schema " + _schema.getFullName(), e);
+    }
+    return _buffer.toByteArray();
+  }
+
+  private FieldPlan[] compile(DatabaseRowView row) {
+    List<Schema.Field> fields = _schema.getFields();
+    int[] columns = new int[fields.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = -1;
+    }
+    for (int column = 0; column < row.getColumnCount(); column++) {
+      Schema.Field field = _schema.getField(_sqlTypeInterpreter.formatColumnName(row.getColumnName(column)));
+      if (field != null) {
+        columns[field.pos()] = column;
+      }
+    }
+
+    FieldPlan[] plan = new FieldPlan[fields.size()];
+    for (Schema.Field field : fields) {
+      plan[field.pos()] = new FieldPlan(field, columns[field.pos()]);
+    }
+    return plan;
+  }
+
+  /**
+   * Compiled encoding of a schema field. Primitive and nullable primitive fields are written straight with the
+   * encoder, and any other field with a datum writer. Values are checked against the field type before they are
+   * written, so that a value which doesn't fit is reported rather than failing in the middle of the encoding.
+   */
+  private static class FieldPlan {
+    private final String _name;
+    private final Schema _schema;
+    private final int _column;
+    // For a union with null, the branch indexes of null and of the value, -1 if the field is not such a union
+    private final int _nullBranch;
+    private final int _valueBranch;
+    private final Schema _valueSchema;
+    private GenericDatumWriter<Object> _datumWriter;
+
+    FieldPlan(Schema.Field field, int column) {
+      _name = field.name();
+      _schema = field.schema();
+      _column = column;
+
+      int nullBranch = -1;
+      int valueBranch = -1;
+      Schema valueSchema = _schema;
+      if (_schema.getType() == Schema.Type.UNION && _schema.getTypes().size() == 2) {
+        List<Schema> branches = _schema.getTypes();
+        nullBranch = branches.get(0).getType() == Schema.Type.NULL ? 0
+            : branches.get(1).getType() == Schema.Type.NULL ? 1 : -1;
+        if (nullBranch >= 0) {
+          valueBranch = 1 - nullBranch;
+          valueSchema = branches.get(valueBranch);
+        }
+      }
+      _nullBranch = nullBranch;
+      _valueBranch = valueBranch;
+      _valueSchema = valueSchema;
+
+      if (column < 0 && _nullBranch < 0 && _schema.getType() != Schema.Type.NULL) {
+        throw new DatastreamRuntimeException("No column for non nullable field " + field.name());
+      }
+    }
+
+    void write(Object value, BinaryEncoder encoder) throws IOException, AvroEncodingException {
+      if (_nullBranch >= 0) {
+        if (value == null) {
+          encoder.writeIndex(_nullBranch);
+          return;
+        }
+        encoder.writeIndex(_valueBranch);
+      } else if (value == null && _valueSchema.getType() != Schema.Type.NULL) {
+        throw invalidValue(null);
+      }
+
+      switch (_valueSchema.getType()) {
+        case NULL:
+          encoder.writeNull();
+          break;
+        case BOOLEAN:
+          encoder.writeBoolean(checkType(value, Boolean.class));
+          break;
+        case INT:
+          encoder.writeInt(checkType(value, Number.class).intValue());
+          break;
+        case LONG:
+          encoder.writeLong(checkType(value, Number.class).longValue());
+          break;
+        case FLOAT:
+          encoder.writeFloat(checkType(value, Number.class).floatValue());
+          break;
+        case DOUBLE:
+          encoder.writeDouble(checkType(value, Number.class).doubleValue());
+          break;
+        case STRING:
+          encoder.writeString(value.toString());
+          break;
+        case BYTES:
+          if (value instanceof byte[]) {
+            encoder.writeBytes((byte[]) value);
+          } else {
+            encoder.writeBytes(checkType(value, ByteBuffer.class));
+          }
+          break;
+        default:
+          if (!GenericData.get().validate(_valueSchema, value)) {
+            throw invalidValue(value);
+          }
+          if (_datumWriter == null) {
+            _datumWriter = new GenericDatumWriter<>(_valueSchema);
+          }
+          _datumWriter.write(value, encoder);
+          break;
+      }
+    }
+
+    private <T> T checkType(Object value, Class<T> type) throws AvroEncodingException {
+      if (!type.isInstance(value)) {
+        throw invalidValue(value);
+      }
+      return type.cast(value);
+    }
+
+    private AvroEncodingException invalidValue(Object value) {
+      return new AvroEncodingException(String.format("Invalid value %s%s for field %s of type %s", value,
+          value == null ? "" : " of class " + value.getClass().getName(), _name, _valueSchema.getType()));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common.databases.dbreader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.linkedin.datastream.common.databases.DatabaseColumnRecord;
+import com.linkedin.datastream.common.databases.DatabaseRow;
+
+
+/**
+ * Reusable, read-only view of the current row of a {@link DatabaseChunkedReader}, as returned by
+ * {@link DatabaseChunkedReader#pollView()}. The same instance is updated in place as the reader advances, so
+ * it is only valid until the next poll on the reader. Use {@link #toDatabaseRow()} to keep a copy of the row.
+ * Column indexes are 0-based.
+ */
+public class DatabaseRowView {
+  private final String[] _columnNames;
+  private final int[] _sqlTypes;
+  private final Object[] _values;
+
+  DatabaseRowView(String[] columnNames, int[] sqlTypes) {
+    _columnNames = columnNames;
+    _sqlTypes = sqlTypes;
+    _values = new Object[columnNames.length];
+  }
+
+  public int getColumnCount() {
+    return _columnNames.length;
+  }
+
+  /**
+   * Get the name of the column at the given index
+   */
+  public String getColumnName(int index) {
+    return _columnNames[index];
+  }
+
+  /**
+   * Get the {@link java.sql.Types} type of the column at the given index
+   */
+  public int getSqlType(int index) {
+    return _sqlTypes[index];
+  }
+
+  /**
+   * Get the value of the column at the given index in the current row
+   */
+  public Object getValue(int index) {
+    return _values[index];
+  }
+
+  void setValue(int index, Object value) {
+    _values[index] = value;
+  }
+
+  /**
+   * Copy the current row into a new {@link DatabaseRow}
+   */
+  public DatabaseRow toDatabaseRow() {
+    List<DatabaseColumnRecord> fields = new ArrayList<>(_columnNames.length);
+    for (int i = 0; i < _columnNames.length; i++) {
+      fields.add(new DatabaseColumnRecord(_columnNames[i], _values[i], _sqlTypes[i]));
+    }
+    return new DatabaseRow(fields);
+  }
+
+  @Override
+  public String toString() {
+    return toDatabaseRow().toString();
+  }
+}
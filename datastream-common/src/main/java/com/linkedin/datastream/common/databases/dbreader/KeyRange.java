@@ -0,0 +1,69 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common.databases.dbreader;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * A contiguous range of the unique keys of a table, assigned to a partition. The range includes the keys greater
+ * than the lower bound and lower or equal to the upper bound. Bounds hold the key values in the order of the key
+ * columns, and are null if the range is not bounded on that side.
+ */
+public class KeyRange {
+  private final int _partition;
+  private final List<Object> _lowerBound;
+  private final List<Object> _upperBound;
+
+  /**
+   * Constructor for KeyRange
+   * @param partition Partition the range is assigned to
+   * @param lowerBound Exclusive lower bound of the range, or null if the range starts at the beginning of the table
+   * @param upperBound Inclusive upper bound of the range, or null if the range ends at the end of the table
+   */
+  public KeyRange(int partition, List<Object> lowerBound, List<Object> upperBound) {
+    _partition = partition;
+    _lowerBound = lowerBound == null ? null : Collections.unmodifiableList(lowerBound);
+    _upperBound = upperBound == null ? null : Collections.unmodifiableList(upperBound);
+  }
+
+  public int getPartition() {
+    return _partition;
+  }
+
+  public List<Object> getLowerBound() {
+    return _lowerBound;
+  }
+
+  public List<Object> getUpperBound() {
+    return _upperBound;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    KeyRange keyRange = (KeyRange) o;
+    return _partition == keyRange._partition && Objects.equals(_lowerBound, keyRange._lowerBound)
+        && Objects.equals(_upperBound, keyRange._upperBound);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_partition, _lowerBound, _upperBound);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("KeyRange %d: (%s, %s]", _partition, _lowerBound, _upperBound);
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common.databases.dbreader;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+
+/**
+ * Abstraction for query managers that can also chunk a read over contiguous ranges of the unique keys, as planned
+ * by {@link KeyRangePlanner}, instead of hashing the keys into partitions. Each range is bounded by key values
+ * instead of a hash predicate, so that every range query can seek the index rather than scanning the whole table.
+ * A range includes the keys greater than its lower bound, and lower or equal to its upper bound.
+ */
+public interface KeyRangeChunkedQueryManager extends ChunkedQueryManager {
+  /**
+   * Generate the query returning the keys of the rows at which the rows of the nested query are split into
+   * {@code partitionCount} ranges of about the same size, in key order. Row {@code floor(i * rowCount / partitionCount)}
+   * (counting from 1) is the upper bound of range {@code i - 1}, for i from 1 to partitionCount - 1. A row is returned
+   * once even if several ranges would end at it, and the last row is never returned, so that no range is empty.
+   * Only these rows are sent back, rather than the keys of the whole table.
+   * @param nestedQuery Query to filter columns
+   * @param keys Primary keys to use for chunking rows
+   * @param partitionCount Number of ranges to split the rows into
+   * @return Boundary query to the database
+   */
+  String generateKeyRangeBoundaryQuery(String nestedQuery, List<String> keys, int partitionCount);
+
+  /**
+   * Generate the first query of a key range without lower bound.
+   * @param nestedQuery Query to filter columns
+   * @param keys Primary keys to use for chunking rows
+   * @param chunkSize Number of rows to chunk in a query
+   * @param hasUpperBound Whether the range has an upper bound
+   * @return First chunked query of the key range
+   */
+  String generateFirstRangeQuery(String nestedQuery, List<String> keys, long chunkSize, boolean hasUpperBound);
+
+  /**
+   * Generate the query returning the chunk of a key range that follows previously seen rows or the lower bound of
+   * the range.
+   * @param nestedQuery Query to filter columns
+   * @param keys Primary keys to use for chunking rows
+   * @param chunkSize Number of rows to chunk in a query
+   * @param hasUpperBound Whether the range has an upper bound
+   * @return Chunked query of the key range which ignores previously seen rows
+   */
+  String generateChunkedRangeQuery(String nestedQuery, List<String> keys, long chunkSize, boolean hasUpperBound);
+
+  /**
+   * Set the variables in a key range query.
+   * Assumes query generated from {@code ::generateFirstRangeQuery()} or {@code ::generateChunkedRangeQuery()}
+   * @param stmt PreparedStatement to populate the variables into
+   * @param values Key values to start after, empty for the first range query
+   * @param upperBound Key values of the upper bound of the range, or null if the range has no upper bound
+   */
+  void prepareRangeQuery(PreparedStatement stmt, List<Object> values, List<Object> upperBound) throws SQLException;
+}
@@ -0,0 +1,92 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common.databases.dbreader;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import javax.sql.DataSource;
+
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.datastream.avrogenerator.DatabaseSource;
+import com.linkedin.datastream.avrogenerator.SchemaGenerationException;
+import com.linkedin.datastream.common.DatastreamRuntimeException;
+
+
+/**
+ * Plans the key ranges for reading a table in parallel with
+ * {@link DatabaseChunkedReader#subscribeKeyRanges(List, java.util.Map)}. The boundaries are the primary keys at evenly
+ * spaced ranks of the table, so that each range holds about the same number of rows. They are computed by the
+ * database, which only returns the boundary rows. The plan should be computed once and shared by all the readers,
+ * since planning again after the table changed can move the boundaries.
+ */
+public class KeyRangePlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(KeyRangePlanner.class);
+
+  private KeyRangePlanner() {
+  }
+
+  /**
+   * Split the rows of the source query into contiguous key ranges
+   * @param props Configuration, as used by the readers
+   * @param source JDBC DataSource object to use for connecting
+   * @param sourceQuery Query the readers execute on the source in chunked mode
+   * @param table table to use for getting unique key column(s) information
+   * @param databaseSource DatabaseSource implementation to query table metadata
+   * @param partitionCount Number of ranges to split the rows into
+   * @return Ranges ordered by key and assigned to partitions 0 to partitionCount - 1. There are fewer ranges than
+   *         partitions if the table has fewer rows than partitions.
+   */
+  public static List<KeyRange> planKeyRanges(Properties props, DataSource source, String sourceQuery, String table,
+      DatabaseSource databaseSource, int partitionCount) throws SQLException, SchemaGenerationException {
+    Validate.isTrue(partitionCount > 0, "Partition count must be positive");
+    DatabaseChunkedReaderConfig config = new DatabaseChunkedReaderConfig(props);
+    if (!(config.getChunkedQueryManager() instanceof KeyRangeChunkedQueryManager)) {
+      throw new DatastreamRuntimeException("Query manager does not support key ranges: "
+          + config.getChunkedQueryManager().getClass().getName());
+    }
+    KeyRangeChunkedQueryManager queryManager = (KeyRangeChunkedQueryManager) config.getChunkedQueryManager();
+    queryManager.validateQuery(sourceQuery);
+
+    List<String> keys = databaseSource.getPrimaryKeyFields(table);
+    if (keys.isEmpty()) {
+      String msg = "Failed to get primary keys for table " + table + ". Cannot plan key ranges without it";
+      throw new DatastreamRuntimeException(msg, new InvalidKeyException());
+    }
+
+    long timeStart = System.currentTimeMillis();
+    List<List<Object>> boundaries = new ArrayList<>();
+    // Only the boundary rows are returned, ranked by the database in key order
+    String boundaryQuery = queryManager.generateKeyRangeBoundaryQuery(sourceQuery, keys, partitionCount);
+    try (Connection connection = source.getConnection();
+        PreparedStatement stmt = connection.prepareStatement(boundaryQuery)) {
+      stmt.setQueryTimeout(config.getQueryTimeout());
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        while (resultSet.next()) {
+          List<Object> boundary = new ArrayList<>(keys.size());
+          for (int i = 1; i <= keys.size(); i++) {
+            boundary.add(resultSet.getObject(i));
+          }
+          boundaries.add(boundary);
+        }
+      }
+    }
+
+    List<KeyRange> ranges = new ArrayList<>(boundaries.size() + 1);
+    for (int i = 0; i <= boundaries.size(); i++) {
+      ranges.add(new KeyRange(i, i == 0 ? null : boundaries.get(i - 1), i == boundaries.size() ? null : boundaries.get(i)));
+    }
+    LOG.info("Planned {} key ranges for table {} in {} ms", ranges.size(), table, System.currentTimeMillis() - timeStart);
+    return ranges;
+  }
+}
@@ -7,6 +7,7 @@ package com.linkedin.datastream.common.databases.dbreader;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
@@ -15,7 +16,7 @@ import org.apache.commons.lang.Validate;
 /**
  * Query manager for Mysql
  */
-public class MySqlChunkedQueryManager implements ChunkedQueryManager {
+public class MySqlChunkedQueryManager implements KeyRangeChunkedQueryManager {
   private static final String SELECT_FROM = "SELECT * FROM ( ";
 
   /** Generate base predicate for sharding keys to given number of partitions.
@@ -56,19 +57,34 @@ public class MySqlChunkedQueryManager implements ChunkedQueryManager {
   }
 
   private static String generateKeyChunkingPredicate(List<String> keys) {
+    return generateKeyComparisonPredicate(keys, ">", ">");
+  }
+
+  /** Generate predicate for keys lower or equal to the upper bound of a key range :
+   *  Ex: ( K1 < ? ) OR ( K1 = ? AND K2 <= ? ) for a table with 2 keys {K1, K2}
+   */
+  private static String generateKeyUpperBoundPredicate(List<String> keys) {
+    return generateKeyComparisonPredicate(keys, "<", "<=");
+  }
+
+  private static String generateKeyComparisonPredicate(List<String> keys, String operator, String lastKeyOperator) {
     StringBuilder str = new StringBuilder();
     int numkeys = keys.size();
-    str.append("( " + keys.get(0) + " > ? )");
+    str.append("( " + keys.get(0) + " " + (numkeys == 1 ? lastKeyOperator : operator) + " ? )");
     for (int i = 1; i < numkeys; i++) {
       str.append(" OR ( ");
       for (int j = 0; j < i; j++) {
         str.append(keys.get(j) + " = ? AND ");
       }
-      str.append(keys.get(i) + " > ? )");
+      str.append(keys.get(i) + " " + (i == numkeys - 1 ? lastKeyOperator : operator) + " ? )");
     }
     return str.toString();
   }
 
+  private static String generateOrderBy(List<String> keys) {
+    return " ORDER BY " + String.join(" , ", keys);
+  }
+
   private static String generateChunkedQuery(String nestedQuery, List<String> keys, long chunkSize, int partitionCount,
       List<Integer> partitions, boolean isFirstRun) {
     Validate.isTrue(!keys.isEmpty(), "Need keys to generate chunked query. No keys supplied");
@@ -106,9 +122,68 @@ public class MySqlChunkedQueryManager implements ChunkedQueryManager {
     return generateChunkedQuery(nestedQuery, keys, chunkSize, partitionCount, partitions, false);
   }
 
+  private static String generateRangeQuery(String nestedQuery, List<String> keys, long chunkSize, boolean hasUpperBound,
+      boolean isFirstRun) {
+    Validate.isTrue(!keys.isEmpty(), "Need keys to generate range query. No keys supplied");
+
+    List<String> predicates = new ArrayList<>();
+    if (!isFirstRun) {
+      predicates.add("( " + generateKeyChunkingPredicate(keys) + " )");
+    }
+    if (hasUpperBound) {
+      predicates.add("( " + generateKeyUpperBoundPredicate(keys) + " )");
+    }
+
+    StringBuilder query = new StringBuilder();
+    query.append(SELECT_FROM);
+    query.append(nestedQuery);
+    query.append(" ) nestedTab1");
+    if (!predicates.isEmpty()) {
+      query.append(" WHERE ").append(String.join(" AND ", predicates));
+    }
+    query.append(generateOrderBy(keys));
+
+    query.insert(0, SELECT_FROM).append(" ) as nestedTab2 LIMIT " + chunkSize);
+    return query.toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   * Ranks the rows with window functions, which requires MySQL 8.0 or later.
+   */
+  @Override
+  public String generateKeyRangeBoundaryQuery(String nestedQuery, List<String> keys, int partitionCount) {
+    Validate.isTrue(!keys.isEmpty(), "Need keys to generate key range boundary query. No keys supplied");
+    String keyList = String.join(" , ", keys);
+    // Row r is a boundary if some i verifies r = floor(i * rowCount / partitionCount), which with integer division is
+    // ( r * partitionCount - 1 ) DIV rowCount < ( ( r + 1 ) * partitionCount - 1 ) DIV rowCount
+    return "SELECT " + keyList + " FROM ( SELECT " + keyList + " , ROW_NUMBER() OVER (" + generateOrderBy(keys)
+        + " ) AS rowNum , COUNT(*) OVER () AS rowCount FROM ( " + nestedQuery + " ) nestedTab1 ) nestedTab2"
+        + " WHERE rowNum < rowCount AND ( rowNum * " + partitionCount + " - 1 ) DIV rowCount < ( ( rowNum + 1 ) * "
+        + partitionCount + " - 1 ) DIV rowCount" + generateOrderBy(keys);
+  }
+
+  @Override
+  public String generateFirstRangeQuery(String nestedQuery, List<String> keys, long chunkSize, boolean hasUpperBound) {
+    return generateRangeQuery(nestedQuery, keys, chunkSize, hasUpperBound, true);
+  }
+
+  @Override
+  public String generateChunkedRangeQuery(String nestedQuery, List<String> keys, long chunkSize, boolean hasUpperBound) {
+    return generateRangeQuery(nestedQuery, keys, chunkSize, hasUpperBound, false);
+  }
+
+  @Override
+  public void prepareRangeQuery(PreparedStatement stmt, List<Object> values, List<Object> upperBound) throws SQLException {
+    // The lower bound variables come first, followed by the upper bound ones, as generated by generateRangeQuery
+    int index = bindKeyComparisonVariables(stmt, values, 1);
+    if (upperBound != null) {
+      bindKeyComparisonVariables(stmt, upperBound, index);
+    }
+  }
+
   @Override
   public void prepareChunkedQuery(PreparedStatement stmt, List<Object> values) throws SQLException {
-    int count = values.size();
 
     // Bind all variables in the PreparedStatement i.e. the '?' to values supplied in the list.
 
@@ -126,10 +201,21 @@ public class MySqlChunkedQueryManager implements ChunkedQueryManager {
     //
     // the value for KEY1 and KEY2 needs to be plugged in order. The index values for PreparedStatement.setObject start
     // at 1.
-    for (int i = 0, index = 1; i < count; i++) {
+    bindKeyComparisonVariables(stmt, values, 1);
+  }
+
+  /**
+   * Bind the variables of a predicate generated by generateKeyComparisonPredicate, starting at the given index
+   * @return Index of the variable following the predicate
+   */
+  private static int bindKeyComparisonVariables(PreparedStatement stmt, List<Object> values, int index)
+      throws SQLException {
+    int count = values.size();
+    for (int i = 0; i < count; i++) {
       for (int j = 0; j <= i; j++, index++) {
         stmt.setObject(index, values.get(j));
       }
     }
+    return index;
   }
 }
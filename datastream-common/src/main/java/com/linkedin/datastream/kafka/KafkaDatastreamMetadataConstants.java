@@ -22,4 +22,21 @@ public class KafkaDatastreamMetadataConstants {
 
   // Enable topic auto creation for this Kafka data stream
   public static final String ENABLE_TOPIC_AUTO_CREATION = "system.enableTopicAutoCreation";
+
+  // Metadata of the events read from Kafka, set in the metadata of their BrooklinEnvelope
+
+  // Connection string of the source of a Kafka datastream the event was read from
+  public static final String KAFKA_ORIGIN = "kafka-origin";
+
+  // Brokers of the Kafka cluster a Kafka MirrorMaker datastream read the event from
+  public static final String KAFKA_ORIGIN_CLUSTER = "kafka-origin-cluster";
+
+  // Topic the event was read from
+  public static final String KAFKA_ORIGIN_TOPIC = "kafka-origin-topic";
+
+  // Partition the event was read from
+  public static final String KAFKA_ORIGIN_PARTITION = "kafka-origin-partition";
+
+  // Offset of the event in the partition it was read from
+  public static final String KAFKA_ORIGIN_OFFSET = "kafka-origin-offset";
 }
@@ -5,9 +5,16 @@
  */
 package com.linkedin.datastream.metrics;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
@@ -27,10 +34,21 @@ import com.codahale.metrics.Timer;
 
 /**
  * Manages dynamic metrics and supports creating/updating metrics on the fly.
+ *
+ * Keyed metrics created through the createOrUpdate APIs (e.g. per topic metrics) are bounded: once a class has
+ * maxKeysPerClass keys, metrics for new keys are rolled into the {@value #OVERFLOW_KEY} key. Optionally, the
+ * metrics of a key that hasn't been updated for keyIdleTtl are removed, and recreated from scratch if the key
+ * is updated again. Metrics obtained through registerMetric and registerGauge are never evicted.
  */
 public class DynamicMetricsManager {
   static final String NO_KEY_PLACEHOLDER = "NO_KEY";
+  static final String OVERFLOW_KEY = "_other_";
+  static final String NUM_KEYED_METRICS = "numKeyedMetrics";
+  public static final int DEFAULT_MAX_KEYS_PER_CLASS = 10000;
+
   private static final Logger LOG = LoggerFactory.getLogger(DynamicMetricsManager.class);
+  private static final String CLASS_NAME = DynamicMetricsManager.class.getSimpleName();
+  private static final long MIN_EVICTION_INTERVAL_MS = 1000;
   private static DynamicMetricsManager _instance = null;
   // Metrics indexed by simple class name, key (if exists), and metric name
   // Simple class name -> key -> metric name -> Metric object
@@ -43,8 +61,30 @@ public class DynamicMetricsManager {
   // part of the full metric name helps to avoid too many String concatenations, which impacts performance.
   // This is created solely for the createOrUpdate APIs, not by registerMetric because the former can be called
   // repeatedly to update the metric whereas the latter is typically only called once per metric during initialization.
-  private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, Metric>>> _indexedMetrics;
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, KeyMetrics>> _indexedMetrics;
+  // Full names of the metrics handed out by registerMetric and registerGauge, which callers may hold on to
+  private final Set<String> _registeredMetricNames = ConcurrentHashMap.newKeySet();
+  // Classes which have reached the key limit, to only warn once per class
+  private final Set<String> _overflowedClasses = ConcurrentHashMap.newKeySet();
+  private final AtomicLong _nextEvictionMs = new AtomicLong();
   private MetricRegistry _metricRegistry;
+  private volatile int _maxKeysPerClass = DEFAULT_MAX_KEYS_PER_CLASS;
+  private volatile long _keyIdleTtlMs = 0;
+
+  /**
+   * The metrics of a single key, along with the last time any of them was updated through the createOrUpdate APIs
+   */
+  private static class KeyMetrics {
+    private final ConcurrentHashMap<String, Metric> _metrics = new ConcurrentHashMap<>();
+    private volatile long _lastUpdatedMs = System.currentTimeMillis();
+
+    void touch(long nowMs) {
+      // Avoid the volatile write when several updates land in the same millisecond
+      if (_lastUpdatedMs != nowMs) {
+        _lastUpdatedMs = nowMs;
+      }
+    }
+  }
 
   private DynamicMetricsManager(MetricRegistry metricRegistry) {
     _metricRegistry = metricRegistry;
@@ -78,10 +118,14 @@ public class DynamicMetricsManager {
         // if we swap it out behind the scene.
         _instance._metricRegistry = metricRegistry;
         _instance._indexedMetrics.clear();
+        _instance._registeredMetricNames.clear();
+        _instance._overflowedClasses.clear();
+        _instance.setKeyedMetricsLimits(DEFAULT_MAX_KEYS_PER_CLASS, Duration.ZERO);
 
         LOG.info("Returning the instance for unit test {}.", testName);
       }
 
+      _instance.registerGauge(CLASS_NAME, NUM_KEYED_METRICS, _instance::getNumKeyedMetrics);
       return _instance;
     }
   }
@@ -96,22 +140,137 @@ public class DynamicMetricsManager {
     return _instance;
   }
 
+  /**
+   * Get the metrics of the dynamic metrics manager itself
+   */
+  public static List<BrooklinMetricInfo> getMetricInfos() {
+    return Collections.singletonList(new BrooklinGaugeInfo(MetricRegistry.name(CLASS_NAME, NUM_KEYED_METRICS)));
+  }
+
+  /**
+   * Bound the metrics created for keys through the createOrUpdate APIs
+   * @param maxKeysPerClass maximum number of keys per class; the metrics of additional keys are rolled into the
+   *                        {@value #OVERFLOW_KEY} key
+   * @param keyIdleTtl time after which the metrics of a key that hasn't been updated are removed, or zero to
+   *                   never remove them
+   */
+  public void setKeyedMetricsLimits(int maxKeysPerClass, Duration keyIdleTtl) {
+    Validate.isTrue(maxKeysPerClass > 0, "maxKeysPerClass must be greater than zero");
+    Validate.isTrue(!keyIdleTtl.isNegative(), "keyIdleTtl must not be negative");
+    _maxKeysPerClass = maxKeysPerClass;
+    _keyIdleTtlMs = keyIdleTtl.toMillis();
+    LOG.info("Keyed metrics are limited to {} keys per class, idle TTL {}", maxKeysPerClass, keyIdleTtl);
+  }
+
+  /**
+   * Get the number of metrics currently held for keys created through the createOrUpdate APIs
+   */
+  int getNumKeyedMetrics() {
+    int count = 0;
+    for (ConcurrentHashMap<String, KeyMetrics> classMetrics : _indexedMetrics.values()) {
+      for (Map.Entry<String, KeyMetrics> entry : classMetrics.entrySet()) {
+        if (!entry.getKey().equals(NO_KEY_PLACEHOLDER)) {
+          count += entry.getValue()._metrics.size();
+        }
+      }
+    }
+    return count;
+  }
+
   Optional<Metric> checkCache(String simpleClassName, String key, String metric) {
     String keyIndex = key == null ? NO_KEY_PLACEHOLDER : key;
     return Optional.of(getClassMetrics(simpleClassName))
         .map(classMetrics -> classMetrics.get(keyIndex))
-        .map(keyMetrics -> keyMetrics.get(metric));
+        .map(keyMetrics -> keyMetrics._metrics.get(metric));
   }
 
-  private void updateCache(String simpleClassName, String key, String metricName, Metric metric) {
-    String keyIndex = key == null ? NO_KEY_PLACEHOLDER : key;
-    ConcurrentHashMap<String, Metric> keyMetrics =
-        getClassMetrics(simpleClassName).computeIfAbsent(keyIndex, k -> new ConcurrentHashMap<>());
-    keyMetrics.put(metricName, metric);
+  private ConcurrentHashMap<String, KeyMetrics> getClassMetrics(String simpleClassName) {
+    return _indexedMetrics.computeIfAbsent(simpleClassName, k -> new ConcurrentHashMap<>());
   }
 
-  private ConcurrentHashMap<String, ConcurrentHashMap<String, Metric>> getClassMetrics(String simpleClassName) {
-    return _indexedMetrics.computeIfAbsent(simpleClassName, k -> new ConcurrentHashMap<>());
+  /**
+   * Get the metric of the createOrUpdate APIs for the specified key/metricName pair, creating it with the given
+   * factory if it doesn't exist. A new key beyond the per class limit is replaced with {@value #OVERFLOW_KEY}.
+   */
+  private Metric getOrCreateIndexedMetric(String classSimpleName, String key, String metricName,
+      Function<String, Metric> metricFactory) {
+    ConcurrentHashMap<String, KeyMetrics> classMetrics = getClassMetrics(classSimpleName);
+    String metricKey = key;
+    KeyMetrics keyMetrics = classMetrics.get(key == null ? NO_KEY_PLACEHOLDER : key);
+    if (keyMetrics == null) {
+      if (key != null && countKeys(classMetrics) >= _maxKeysPerClass) {
+        if (_overflowedClasses.add(classSimpleName)) {
+          LOG.warn("{} has reached the limit of {} metric keys, metrics of new keys are reported under {}",
+              classSimpleName, _maxKeysPerClass, OVERFLOW_KEY);
+        }
+        metricKey = OVERFLOW_KEY;
+      }
+      keyMetrics = classMetrics.computeIfAbsent(metricKey == null ? NO_KEY_PLACEHOLDER : metricKey,
+          k -> new KeyMetrics());
+    }
+
+    long keyIdleTtlMs = _keyIdleTtlMs;
+    if (keyIdleTtlMs > 0) {
+      long nowMs = System.currentTimeMillis();
+      keyMetrics.touch(nowMs);
+      maybeEvictIdleKeys(nowMs, keyIdleTtlMs);
+    }
+
+    Metric metric = keyMetrics._metrics.get(metricName);
+    if (metric == null) {
+      metric = metricFactory.apply(MetricRegistry.name(classSimpleName, metricKey, metricName));
+      keyMetrics._metrics.put(metricName, metric);
+    }
+    return metric;
+  }
+
+  private static int countKeys(ConcurrentHashMap<String, KeyMetrics> classMetrics) {
+    int count = classMetrics.size();
+    if (classMetrics.containsKey(NO_KEY_PLACEHOLDER)) {
+      count--;
+    }
+    if (classMetrics.containsKey(OVERFLOW_KEY)) {
+      count--;
+    }
+    return count;
+  }
+
+  private void maybeEvictIdleKeys(long nowMs, long keyIdleTtlMs) {
+    long nextEvictionMs = _nextEvictionMs.get();
+    if (nowMs >= nextEvictionMs && _nextEvictionMs.compareAndSet(nextEvictionMs,
+        nowMs + Math.max(keyIdleTtlMs / 2, MIN_EVICTION_INTERVAL_MS))) {
+      evictIdleKeys(nowMs - keyIdleTtlMs);
+    }
+  }
+
+  /**
+   * Remove the metrics of the keys which haven't been updated since the given time. An update racing with the
+   * eviction of its key may be lost.
+   */
+  void evictIdleKeys(long idleSinceMs) {
+    int evictedKeys = 0;
+    for (Map.Entry<String, ConcurrentHashMap<String, KeyMetrics>> classEntry : _indexedMetrics.entrySet()) {
+      String classSimpleName = classEntry.getKey();
+      ConcurrentHashMap<String, KeyMetrics> classMetrics = classEntry.getValue();
+      for (Map.Entry<String, KeyMetrics> keyEntry : classMetrics.entrySet()) {
+        String key = keyEntry.getKey();
+        KeyMetrics keyMetrics = keyEntry.getValue();
+        if (key.equals(NO_KEY_PLACEHOLDER) || keyMetrics._lastUpdatedMs >= idleSinceMs
+            || !classMetrics.remove(key, keyMetrics)) {
+          continue;
+        }
+        for (String metricName : keyMetrics._metrics.keySet()) {
+          String fullMetricName = MetricRegistry.name(classSimpleName, key, metricName);
+          if (!_registeredMetricNames.contains(fullMetricName)) {
+            _metricRegistry.remove(fullMetricName);
+          }
+        }
+        evictedKeys++;
+      }
+    }
+    if (evictedKeys > 0) {
+      LOG.info("Evicted the metrics of {} idle keys", evictedKeys);
+    }
   }
 
   /**
@@ -161,6 +320,7 @@ public class DynamicMetricsManager {
     String fullMetricName = MetricRegistry.name(simpleName, key, metricName);
 
     Metric metric = getMetric(fullMetricName, metricClass);
+    _registeredMetricNames.add(fullMetricName);
 
     if (metric != null && metric instanceof ResettableGauge) {
       Validate.notNull(supplier, "null supplier to Gauge");
@@ -246,10 +406,11 @@ public class DynamicMetricsManager {
       _metricRegistry.remove(fullMetricName);
     } finally {
       // Always update our the index
+      _registeredMetricNames.remove(fullMetricName);
       if (_indexedMetrics.containsKey(simpleName)) {
         String keyIndex = key == null ? NO_KEY_PLACEHOLDER : key;
         if (_indexedMetrics.get(simpleName).containsKey(keyIndex)) {
-          _indexedMetrics.get(simpleName).get(keyIndex).remove(metricName);
+          _indexedMetrics.get(simpleName).get(keyIndex)._metrics.remove(metricName);
         }
       }
     }
@@ -277,11 +438,8 @@ public class DynamicMetricsManager {
     validateArguments(classSimpleName, metricName);
 
     // create and register the metric if it does not exist
-    Counter counter = (Counter) checkCache(classSimpleName, key, metricName).orElseGet(() -> {
-      Counter newCounter = _metricRegistry.counter(MetricRegistry.name(classSimpleName, key, metricName));
-      updateCache(classSimpleName, key, metricName, newCounter);
-      return newCounter;
-    });
+    Counter counter =
+        (Counter) getOrCreateIndexedMetric(classSimpleName, key, metricName, _metricRegistry::counter);
     counter.inc(value);
   }
 
@@ -307,11 +465,7 @@ public class DynamicMetricsManager {
     validateArguments(classSimpleName, metricName);
 
     // create and register the metric if it does not exist
-    Meter meter = (Meter) checkCache(classSimpleName, key, metricName).orElseGet(() -> {
-      Meter newMeter = _metricRegistry.meter(MetricRegistry.name(classSimpleName, key, metricName));
-      updateCache(classSimpleName, key, metricName, newMeter);
-      return newMeter;
-    });
+    Meter meter = (Meter) getOrCreateIndexedMetric(classSimpleName, key, metricName, _metricRegistry::meter);
     meter.mark(value);
   }
 
@@ -325,7 +479,7 @@ public class DynamicMetricsManager {
     createOrUpdateMeter(classSimpleName, null, metricName, value);
   }
 
-  // This function should only be called after "checkCache". So using "synchronized" shouldn't be a problem. The race
+  // This function should only be called after checking the index. So using "synchronized" shouldn't be a problem. The race
   // will only happen briefly after the process starts and before the cache is populated.
   private synchronized Histogram registerAndGetSlidingWindowHistogram(String fullMetricName, long windowTimeMs) {
     Histogram histogram = new Histogram(new SlidingTimeWindowReservoir(windowTimeMs, TimeUnit.MILLISECONDS));
@@ -352,12 +506,8 @@ public class DynamicMetricsManager {
   public void createOrUpdateSlidingWindowHistogram(String classSimpleName, String key, String metricName,
       long windowTimeMs, long value) {
     validateArguments(classSimpleName, metricName);
-    Histogram histogram = (Histogram) checkCache(classSimpleName, key, metricName).orElseGet(() -> {
-      Histogram newHistogram =
-          registerAndGetSlidingWindowHistogram(MetricRegistry.name(classSimpleName, key, metricName), windowTimeMs);
-      updateCache(classSimpleName, key, metricName, newHistogram);
-      return newHistogram;
-    });
+    Histogram histogram = (Histogram) getOrCreateIndexedMetric(classSimpleName, key, metricName,
+        fullMetricName -> registerAndGetSlidingWindowHistogram(fullMetricName, windowTimeMs));
     histogram.update(value);
   }
 
@@ -371,11 +521,8 @@ public class DynamicMetricsManager {
   public void createOrUpdateHistogram(String classSimpleName, String key, String metricName, long value) {
     validateArguments(classSimpleName, metricName);
     // create and register the metric if it does not exist
-    Histogram histogram = (Histogram) checkCache(classSimpleName, key, metricName).orElseGet(() -> {
-      Histogram newHistogram = _metricRegistry.histogram(MetricRegistry.name(classSimpleName, key, metricName));
-      updateCache(classSimpleName, key, metricName, newHistogram);
-      return newHistogram;
-    });
+    Histogram histogram =
+        (Histogram) getOrCreateIndexedMetric(classSimpleName, key, metricName, _metricRegistry::histogram);
     histogram.update(value);
   }
 
@@ -0,0 +1,206 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+
+
+/**
+ * Latency of the stages an event goes through inside a task, from polling the source to committing the source
+ * position, so that source-bound, CPU-bound and destination-bound tasks can be told apart.
+ *
+ * Each task that wants its stages timed registers itself with {@link #register(String)}. The stages are then
+ * recorded through {@link #record(String, Stage, long)} by whichever component runs them, which is a no-op for
+ * the tasks that are not registered. Latencies are reported in microseconds as histograms keyed by task name
+ * and by {@value #AGGREGATE}.
+ */
+public class PipelineStageMetrics {
+  public static final String AGGREGATE = "aggregate";
+
+  private static final String CLASS_NAME = PipelineStageMetrics.class.getSimpleName();
+  private static final Map<String, PipelineStageMetrics> TASK_METRICS = new ConcurrentHashMap<>();
+
+  /**
+   * The timed stages. Stages run on the task thread are nested as follows: {@link #SEND} includes
+   * {@link #SERIALIZE} and {@link #PRODUCER_SEND}. {@link #ACK} runs asynchronously, from the time an event is
+   * handed to the transport until the transport acknowledges it.
+   */
+  public enum Stage {
+    POLL("pollLatencyUs"),
+    TRANSLATE("translateLatencyUs"),
+    SEND("sendBlockedLatencyUs"),
+    SERIALIZE("serializeLatencyUs"),
+    PRODUCER_SEND("producerSendBlockedLatencyUs"),
+    ACK("ackLatencyUs"),
+    COMMIT("commitLatencyUs");
+
+    private final String _metricName;
+
+    Stage(String metricName) {
+      _metricName = metricName;
+    }
+
+    public String getMetricName() {
+      return _metricName;
+    }
+  }
+
+  /**
+   * What a task spends most of its time waiting on
+   */
+  public enum Bound {
+    SOURCE,
+    CPU,
+    DESTINATION
+  }
+
+  private final String _taskName;
+  private final Histogram[] _histograms;
+  private final Histogram[] _aggregatedHistograms;
+  private final LongAdder[] _totalNanos;
+
+  private PipelineStageMetrics(String taskName) {
+    DynamicMetricsManager dynamicMetricsManager = DynamicMetricsManager.getInstance();
+    Stage[] stages = Stage.values();
+    _taskName = taskName;
+    _histograms = new Histogram[stages.length];
+    _aggregatedHistograms = new Histogram[stages.length];
+    _totalNanos = new LongAdder[stages.length];
+    for (Stage stage : stages) {
+      _histograms[stage.ordinal()] =
+          dynamicMetricsManager.registerMetric(CLASS_NAME, taskName, stage.getMetricName(), Histogram.class);
+      _aggregatedHistograms[stage.ordinal()] =
+          dynamicMetricsManager.registerMetric(CLASS_NAME, AGGREGATE, stage.getMetricName(), Histogram.class);
+      _totalNanos[stage.ordinal()] = new LongAdder();
+    }
+  }
+
+  /**
+   * Start timing the stages of the given task, replacing any previous registration under the same task name
+   * @param taskName the datastream task name
+   * @return the stage metrics of the task
+   */
+  public static PipelineStageMetrics register(String taskName) {
+    PipelineStageMetrics metrics = new PipelineStageMetrics(taskName);
+    TASK_METRICS.put(taskName, metrics);
+    return metrics;
+  }
+
+  /**
+   * Stop timing the stages of the task and remove its metrics, unless the task has been registered again since
+   */
+  public void deregister() {
+    if (TASK_METRICS.remove(_taskName, this)) {
+      DynamicMetricsManager dynamicMetricsManager = DynamicMetricsManager.getInstance();
+      for (Stage stage : Stage.values()) {
+        dynamicMetricsManager.unregisterMetric(CLASS_NAME, _taskName, stage.getMetricName());
+      }
+    }
+  }
+
+  /**
+   * Record the time a stage took for the given task, if the task is registered
+   * @param taskName the datastream task name
+   * @param stage the stage
+   * @param durationNanos the duration of the stage in nanoseconds
+   */
+  public static void record(String taskName, Stage stage, long durationNanos) {
+    PipelineStageMetrics metrics = TASK_METRICS.get(taskName);
+    if (metrics != null) {
+      metrics.record(stage, durationNanos);
+    }
+  }
+
+  /**
+   * Get the stage metrics of the given task, or null if the task is not registered
+   */
+  public static PipelineStageMetrics get(String taskName) {
+    return TASK_METRICS.get(taskName);
+  }
+
+  /**
+   * Record the time a stage took
+   * @param stage the stage
+   * @param durationNanos the duration of the stage in nanoseconds
+   */
+  public void record(Stage stage, long durationNanos) {
+    long durationUs = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+    _histograms[stage.ordinal()].update(durationUs);
+    _aggregatedHistograms[stage.ordinal()].update(durationUs);
+    _totalNanos[stage.ordinal()].add(durationNanos);
+  }
+
+  public String getTaskName() {
+    return _taskName;
+  }
+
+  /**
+   * Classify the task by the stages it has spent the most time in so far: polling the source, translating and
+   * serializing events, or waiting on the transport and committing.
+   */
+  public Bound getBound() {
+    long source = totalNanos(Stage.POLL);
+    long cpu = totalNanos(Stage.TRANSLATE) + totalNanos(Stage.SERIALIZE);
+    long destination = Math.max(0, totalNanos(Stage.SEND) - totalNanos(Stage.SERIALIZE)) + totalNanos(Stage.COMMIT);
+    if (source >= cpu && source >= destination) {
+      return Bound.SOURCE;
+    }
+    return cpu >= destination ? Bound.CPU : Bound.DESTINATION;
+  }
+
+  /**
+   * Get a summary of the stage latencies of the task, for diagnostics
+   */
+  public Map<String, Object> getSummary() {
+    Map<String, Object> stages = new LinkedHashMap<>();
+    for (Stage stage : Stage.values()) {
+      Histogram histogram = _histograms[stage.ordinal()];
+      if (histogram.getCount() == 0) {
+        continue;
+      }
+      Snapshot snapshot = histogram.getSnapshot();
+      Map<String, Object> stageSummary = new LinkedHashMap<>();
+      stageSummary.put("count", histogram.getCount());
+      stageSummary.put("meanUs", (long) snapshot.getMean());
+      stageSummary.put("p50Us", (long) snapshot.getMedian());
+      stageSummary.put("p99Us", (long) snapshot.get99thPercentile());
+      stageSummary.put("maxUs", snapshot.getMax());
+      stageSummary.put("totalMs", TimeUnit.NANOSECONDS.toMillis(totalNanos(stage)));
+      stages.put(stage.getMetricName(), stageSummary);
+    }
+
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("task", _taskName);
+    summary.put("bound", getBound());
+    summary.put("stages", stages);
+    return summary;
+  }
+
+  private long totalNanos(Stage stage) {
+    return _totalNanos[stage.ordinal()].sum();
+  }
+
+  /**
+   * Get the metrics of the pipeline stages
+   */
+  public static List<BrooklinMetricInfo> getMetricInfos() {
+    List<BrooklinMetricInfo> metrics = new ArrayList<>();
+    for (Stage stage : Stage.values()) {
+      metrics.add(new BrooklinHistogramInfo(CLASS_NAME + MetricsAware.KEY_REGEX + stage.getMetricName()));
+    }
+    return Collections.unmodifiableList(metrics);
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for {@link AvroMessageEncoderUtil}.
+ */
+public class TestAvroMessageEncoderUtil {
+  private static final Schema SCHEMA = new Schema.Parser().parse(
+      "{\"type\":\"record\",\"name\":\"TestRecord\",\"namespace\":\"com.linkedin.datastream.test\",\"fields\":["
+          + "{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"string\"}]}");
+  private static final String SCHEMA_ID = AvroMessageEncoderUtil.schemaToHex(SCHEMA);
+  private static final int HEADER_SIZE = 17;
+
+  private static GenericRecord createRecord(long id, String name) {
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("id", id);
+    record.put("name", name);
+    return record;
+  }
+
+  private static GenericRecord decode(byte[] message) throws Exception {
+    Assert.assertEquals(message[0], AvroMessageEncoderUtil.MAGIC_BYTE);
+    return new GenericDatumReader<GenericRecord>(SCHEMA).read(null,
+        DecoderFactory.get().binaryDecoder(message, HEADER_SIZE, message.length - HEADER_SIZE, null));
+  }
+
+  @Test
+  public void testEncodeRecord() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      GenericRecord record = createRecord(i, "name" + i);
+      byte[] message = AvroMessageEncoderUtil.encode(SCHEMA_ID, record);
+      Assert.assertEquals(decode(message).toString(), record.toString());
+
+      // Header and payload encoded separately give the same message
+      byte[] payload = Arrays.copyOfRange(message, HEADER_SIZE, message.length);
+      Assert.assertEquals(AvroMessageEncoderUtil.encode(SCHEMA_ID, payload), message);
+    }
+  }
+
+  @Test
+  public void testEncodeIntoByteBuffer() throws Exception {
+    GenericRecord record = createRecord(42, "name");
+    byte[] expected = AvroMessageEncoderUtil.encode(SCHEMA_ID, record);
+
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    buffer.put((byte) 1);
+    int written = AvroMessageEncoderUtil.encode(SCHEMA_ID, record, buffer);
+    Assert.assertEquals(written, expected.length);
+    Assert.assertEquals(buffer.position(), expected.length + 1);
+    Assert.assertEquals(Arrays.copyOfRange(buffer.array(), 1, expected.length + 1), expected);
+  }
+
+  @Test(expectedExceptions = BufferOverflowException.class)
+  public void testEncodeIntoSmallByteBuffer() throws Exception {
+    AvroMessageEncoderUtil.encode(SCHEMA_ID, createRecord(42, "name"), ByteBuffer.allocate(HEADER_SIZE + 1));
+  }
+
+  @Test
+  public void testConcurrentEncode() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Callable<Boolean>> encoders = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        long id = i;
+        encoders.add(() -> {
+          for (int j = 0; j < 100; j++) {
+            GenericRecord decoded = decode(AvroMessageEncoderUtil.encode(SCHEMA_ID, createRecord(id, "name" + j)));
+            if ((long) decoded.get("id") != id || !decoded.get("name").toString().equals("name" + j)) {
+              return false;
+            }
+          }
+          return true;
+        });
+      }
+      for (Future<Boolean> result : executor.invokeAll(encoders)) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
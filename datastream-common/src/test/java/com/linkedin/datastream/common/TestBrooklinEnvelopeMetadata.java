@@ -0,0 +1,96 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants;
+
+
+/**
+ * Tests for {@link BrooklinEnvelopeMetadata}
+ */
+public class TestBrooklinEnvelopeMetadata {
+
+  @Test
+  public void testMapApi() {
+    BrooklinEnvelopeMetadata metadata = new BrooklinEnvelopeMetadata();
+    Map<String, String> expected = new HashMap<>();
+    Assert.assertTrue(metadata.isEmpty());
+
+    metadata.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN, "kafka://localhost:9092/topic");
+    expected.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN, "kafka://localhost:9092/topic");
+    metadata.putLong(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION, 3);
+    expected.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION, "3");
+    metadata.putLong(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET, 1234567890123L);
+    expected.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET, "1234567890123");
+    metadata.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, "42");
+    expected.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, "42");
+    metadata.putLong(BrooklinEnvelopeMetadataConstants.TABLE, 7);
+    expected.put(BrooklinEnvelopeMetadataConstants.TABLE, "7");
+    metadata.put("custom", "value");
+    expected.put("custom", "value");
+    metadata.putLong("customLong", 8);
+    expected.put("customLong", "8");
+
+    Assert.assertEquals(metadata, expected);
+    Assert.assertEquals(expected, metadata);
+    Assert.assertEquals(metadata.hashCode(), expected.hashCode());
+    Assert.assertEquals(metadata.size(), 7);
+    Assert.assertEquals(new HashMap<>(metadata), expected);
+    Assert.assertEquals(new BrooklinEnvelopeMetadata(expected), expected);
+    Assert.assertEquals(metadata.get(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET), "1234567890123");
+    Assert.assertNull(metadata.get(BrooklinEnvelopeMetadataConstants.SCN));
+    Assert.assertNull(metadata.get("unknown"));
+    Assert.assertFalse(metadata.containsKey(BrooklinEnvelopeMetadataConstants.SOURCE_TIMESTAMP));
+    Assert.assertTrue(metadata.containsKey("custom"));
+
+    // Overwriting and removing slots
+    Assert.assertEquals(metadata.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION, "4"), "3");
+    metadata.putLong(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, 43);
+    Assert.assertEquals(metadata.get(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP), "43");
+    Assert.assertEquals(metadata.remove(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET), "1234567890123");
+    Assert.assertNull(metadata.remove(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET));
+    Assert.assertEquals(metadata.remove("custom"), "value");
+    Assert.assertEquals(metadata.size(), 5);
+    Assert.assertFalse(metadata.containsKey(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET));
+
+    metadata.clear();
+    Assert.assertTrue(metadata.isEmpty());
+    Assert.assertEquals(metadata, new HashMap<>());
+  }
+
+  @Test
+  public void testEntrySet() {
+    BrooklinEnvelopeMetadata metadata = new BrooklinEnvelopeMetadata();
+    metadata.putLong(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION, 1);
+    metadata.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_TOPIC, "topic");
+    metadata.put("custom", "value");
+
+    for (Map.Entry<String, String> entry : metadata.entrySet()) {
+      entry.setValue(entry.getValue() + "!");
+    }
+    Map<String, String> expected = new HashMap<>();
+    expected.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION, "1!");
+    expected.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_TOPIC, "topic!");
+    expected.put("custom", "value!");
+    Assert.assertEquals(metadata, expected);
+
+    Iterator<Map.Entry<String, String>> iterator = metadata.entrySet().iterator();
+    while (iterator.hasNext()) {
+      if (!iterator.next().getKey().equals(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_TOPIC)) {
+        iterator.remove();
+      }
+    }
+    Assert.assertEquals(metadata.keySet().size(), 1);
+    Assert.assertEquals(metadata.get(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_TOPIC), "topic!");
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import com.linkedin.datastream.metrics.DynamicMetricsManager;
+
+
+/**
+ * Tests for {@link CachingSchemaRegistryClient}.
+ */
+public class TestCachingSchemaRegistryClient {
+  private static final Schema SCHEMA1 = createSchema("Record1");
+  private static final Schema SCHEMA2 = createSchema("Record2");
+  private static final Schema SCHEMA3 = createSchema("Record3");
+
+  private DynamicMetricsManager _dynamicMetricsManager;
+
+  private static Schema createSchema(String name) {
+    return new Schema.Parser().parse(
+        "{\"type\":\"record\",\"name\":\"" + name + "\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}");
+  }
+
+  private static Properties createProperties(int maxSchemas, long negativeCacheTtlMs) {
+    Properties props = new Properties();
+    props.put(CachingSchemaRegistryClient.CONFIG_DOMAIN + "." + CachingSchemaRegistryClient.CONFIG_NAME, "test");
+    props.put(CachingSchemaRegistryClient.CONFIG_DOMAIN + "." + CachingSchemaRegistryClient.CONFIG_MAX_SCHEMAS,
+        String.valueOf(maxSchemas));
+    props.put(CachingSchemaRegistryClient.CONFIG_DOMAIN + "." + CachingSchemaRegistryClient.CONFIG_NEGATIVE_CACHE_TTL_MS,
+        String.valueOf(negativeCacheTtlMs));
+    return props;
+  }
+
+  private long getMeterCount(String metricName) {
+    Meter meter = _dynamicMetricsManager.getMetric(
+        MetricRegistry.name(CachingSchemaRegistryClient.class.getSimpleName(), "test", metricName));
+    return meter.getCount();
+  }
+
+  @BeforeMethod
+  public void setup(Method method) {
+    _dynamicMetricsManager = DynamicMetricsManager.createInstance(new MetricRegistry(), method.getName());
+  }
+
+  @Test
+  public void testSchemaLruCache() {
+    SchemaRegistryClient delegate = Mockito.mock(SchemaRegistryClient.class);
+    Mockito.when(delegate.getSchemaByID("id1")).thenReturn(SCHEMA1);
+    Mockito.when(delegate.getSchemaByID("id2")).thenReturn(SCHEMA2);
+    Mockito.when(delegate.getSchemaByID("id3")).thenReturn(SCHEMA3);
+    CachingSchemaRegistryClient client = new CachingSchemaRegistryClient(delegate, createProperties(2, 0));
+
+    Assert.assertEquals(client.getSchemaByID("id1"), SCHEMA1);
+    Assert.assertEquals(client.getSchemaByID("id2"), SCHEMA2);
+    Assert.assertEquals(client.getSchemaByID("id1"), SCHEMA1);
+    Mockito.verify(delegate, Mockito.times(1)).getSchemaByID("id1");
+
+    // id2 is the least recently used schema, and is evicted by id3
+    Assert.assertEquals(client.getSchemaByID("id3"), SCHEMA3);
+    Assert.assertEquals(client.getSchemaByID("id1"), SCHEMA1);
+    Assert.assertEquals(client.getSchemaByID("id2"), SCHEMA2);
+    Mockito.verify(delegate, Mockito.times(1)).getSchemaByID("id1");
+    Mockito.verify(delegate, Mockito.times(2)).getSchemaByID("id2");
+
+    Assert.assertEquals(getMeterCount(CachingSchemaRegistryClient.SCHEMA_CACHE_HIT_RATE), 2);
+    Assert.assertEquals(getMeterCount(CachingSchemaRegistryClient.SCHEMA_CACHE_MISS_RATE), 4);
+  }
+
+  @Test
+  public void testNegativeCache() throws Exception {
+    SchemaRegistryClient delegate = Mockito.mock(SchemaRegistryClient.class);
+    CachingSchemaRegistryClient client = new CachingSchemaRegistryClient(delegate, createProperties(10, 200));
+
+    Assert.assertNull(client.getSchemaByID("unknown"));
+    Assert.assertNull(client.getSchemaByID("unknown"));
+    Mockito.verify(delegate, Mockito.times(1)).getSchemaByID("unknown");
+    Assert.assertEquals(getMeterCount(CachingSchemaRegistryClient.NEGATIVE_CACHE_HIT_RATE), 1);
+
+    // Unknown ids are looked up again once the negative cache entry expires
+    Mockito.when(delegate.getSchemaByID("unknown")).thenReturn(SCHEMA1);
+    Thread.sleep(250);
+    Assert.assertEquals(client.getSchemaByID("unknown"), SCHEMA1);
+    Mockito.verify(delegate, Mockito.times(2)).getSchemaByID("unknown");
+  }
+
+  @Test
+  public void testRegisterCache() throws Exception {
+    SchemaRegistryClient delegate = Mockito.mock(SchemaRegistryClient.class);
+    Mockito.when(delegate.registerSchema(Mockito.anyString(), Mockito.eq(SCHEMA1))).thenReturn("id1");
+    CachingSchemaRegistryClient client = new CachingSchemaRegistryClient(delegate, createProperties(10, 0));
+
+    Assert.assertEquals(client.registerSchema("topic1", SCHEMA1), "id1");
+    Assert.assertEquals(client.registerSchema("topic1", createSchema("Record1")), "id1");
+    Assert.assertEquals(client.registerSchema("topic2", SCHEMA1), "id1");
+    Mockito.verify(delegate, Mockito.times(1)).registerSchema("topic1", SCHEMA1);
+    Mockito.verify(delegate, Mockito.times(1)).registerSchema("topic2", SCHEMA1);
+
+    // Registered schemas are served by id without a lookup
+    Assert.assertEquals(client.getSchemaByID("id1"), SCHEMA1);
+    Mockito.verify(delegate, Mockito.never()).getSchemaByID(Mockito.anyString());
+    Assert.assertEquals(getMeterCount(CachingSchemaRegistryClient.REGISTER_CACHE_HIT_RATE), 1);
+  }
+
+  @Test
+  public void testConcurrentMissesShareLookup() throws Exception {
+    CountDownLatch lookupStarted = new CountDownLatch(1);
+    CountDownLatch lookupReleased = new CountDownLatch(1);
+    CountDownLatch followersStarted = new CountDownLatch(3);
+    SchemaRegistryClient delegate = Mockito.mock(SchemaRegistryClient.class);
+    Mockito.when(delegate.getSchemaByID("id1")).thenAnswer(invocation -> {
+      lookupStarted.countDown();
+      lookupReleased.await();
+      return SCHEMA1;
+    });
+    CachingSchemaRegistryClient client = new CachingSchemaRegistryClient(delegate, createProperties(10, 0));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Schema>> results = new ArrayList<>();
+      Callable<Schema> lookup = () -> client.getSchemaByID("id1");
+      results.add(executor.submit(lookup));
+      Assert.assertTrue(lookupStarted.await(10, TimeUnit.SECONDS));
+      for (int i = 0; i < 3; i++) {
+        results.add(executor.submit(() -> {
+          followersStarted.countDown();
+          return client.getSchemaByID("id1");
+        }));
+      }
+      // The other lookups either wait for the pending one or find its result in the cache, depending on whether they
+      // get to it before it completes
+      Assert.assertTrue(followersStarted.await(10, TimeUnit.SECONDS));
+      lookupReleased.countDown();
+      for (Future<Schema> result : results) {
+        Assert.assertEquals(result.get(10, TimeUnit.SECONDS), SCHEMA1);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Mockito.verify(delegate, Mockito.times(1)).getSchemaByID("id1");
+  }
+}
@@ -22,10 +22,14 @@ import java.util.Properties;
 import javax.sql.DataSource;
 
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
 import org.mockito.Mockito;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import junit.framework.Assert;
@@ -40,6 +44,7 @@ import com.linkedin.datastream.metrics.DynamicMetricsManager;
 import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.DATABASE_QUERY_MANAGER_CLASS_NAME;
 import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.DB_READER_DOMAIN_CONFIG;
 import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.FETCH_SIZE;
+import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.PREFETCH_NEXT_CHUNK;
 import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.QUERY_TIMEOUT_SECS;
 import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.ROW_COUNT_LIMIT;
 import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.SKIP_BAD_MESSAGE;
@@ -266,18 +271,19 @@ public class TestDatabaseChunkedReader {
     ResultSet mockRs = Mockito.mock(ResultSet.class);
     DatabaseColumnRecord field = new DatabaseColumnRecord("key1", 1, Types.INTEGER);
 
-    Mockito.when(mockRs.getObject(1)).thenReturn(field.getValue());
-    // First call to ResultSetMetadata.getColumnCount throws exception, the next returns a data,
+    // Column metadata is only read once per result set, so the bad rows are simulated on the column reads:
+    // first call to ResultSet.getObject throws exception, the next returns a data,
     // the next throws an exception and the next returns data. We are done with testing, so 4 next() calls return
     // true and the last a false to break poll loop.
+    Mockito.when(mockRs.getObject(1))
+        .thenThrow(new SQLException("Bad row - test skip bad message test"))
+        .thenReturn(field.getValue())
+        .thenThrow(new SQLException("Bad row - test skip bad message test"))
+        .thenReturn(field.getValue());
     Mockito.when(mockRs.next()).thenReturn(true).thenReturn(true).thenReturn(true).thenReturn(true).thenReturn(false);
     ResultSetMetaData mockRsmd = Mockito.mock(ResultSetMetaData.class);
     Mockito.when(mockRs.getMetaData()).thenReturn(mockRsmd);
-    Mockito.when(mockRsmd.getColumnCount())
-        .thenThrow(new SQLException("Bad row - test skip bad message test"))
-        .thenReturn(1)
-        .thenThrow(new SQLException("Bad row - test skip bad message test"))
-        .thenReturn(1);
+    Mockito.when(mockRsmd.getColumnCount()).thenReturn(1);
     Mockito.when(mockRsmd.getColumnName(anyInt())).thenReturn(field.getColName());
     Mockito.when(mockRsmd.getColumnType(anyInt())).thenReturn(field.getSqlType());
     Mockito.when(mockStmt.executeQuery()).thenReturn(mockRs);
@@ -305,6 +311,263 @@ public class TestDatabaseChunkedReader {
     reader.close();
   }
 
+  @Test
+  public void testPollViewReusesRow() throws SQLException, SchemaGenerationException {
+    DatabaseSource mockDBSource = Mockito.mock(DatabaseSource.class);
+    Mockito.when(mockDBSource.getPrimaryKeyFields(anyString())).thenReturn(TEST_SIMPLE_KEYS);
+    Mockito.when(mockDBSource.getTableSchema(anyString())).thenReturn(TEST_SIMPLE_SCHEMA);
+    Mockito.when(mockDBSource.getPartitionCount()).thenReturn(1);
+
+    Properties props = createTestDBReaderProperties(10);
+    DataSource mockDs = Mockito.mock(DataSource.class);
+    Connection mockConnection = Mockito.mock(Connection.class);
+    PreparedStatement mockStmt = Mockito.mock(PreparedStatement.class);
+    ResultSet mockRs = Mockito.mock(ResultSet.class);
+    ResultSetMetaData mockRsmd = Mockito.mock(ResultSetMetaData.class);
+    Mockito.when(mockRs.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    Mockito.when(mockRs.getObject(1)).thenReturn(1).thenReturn(2);
+    Mockito.when(mockRs.getMetaData()).thenReturn(mockRsmd);
+    Mockito.when(mockRsmd.getColumnCount()).thenReturn(1);
+    Mockito.when(mockRsmd.getColumnName(1)).thenReturn("key1");
+    Mockito.when(mockRsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    Mockito.when(mockStmt.executeQuery()).thenReturn(mockRs);
+    Mockito.when(mockConnection.prepareStatement(anyString())).thenReturn(mockStmt);
+    Mockito.when(mockDs.getConnection()).thenReturn(mockConnection);
+
+    DatabaseChunkedReader reader =
+        new DatabaseChunkedReader(props, mockDs, TEST_SIMPLE_QUERY, "TEST_DB", TEST_SIMPLE_KEY_TABLE, mockDBSource,
+            "testPollViewReusesRow");
+    reader.subscribe(Collections.singletonList(new Integer(0)), null);
+
+    DatabaseRowView first = reader.pollView();
+    Assert.assertEquals(1, first.getColumnCount());
+    Assert.assertEquals("key1", first.getColumnName(0));
+    Assert.assertEquals(Types.INTEGER, first.getSqlType(0));
+    Assert.assertEquals(1, first.getValue(0));
+    DatabaseRow copy = first.toDatabaseRow();
+
+    DatabaseRowView second = reader.pollView();
+    Assert.assertSame(first, second);
+    Assert.assertEquals(2, second.getValue(0));
+    Assert.assertEquals(new DatabaseRow(Collections.singletonList(new DatabaseColumnRecord("key1", 1, Types.INTEGER))),
+        copy);
+    Assert.assertNull(reader.pollView());
+
+    // Column metadata is resolved once per result set, not per row
+    Mockito.verify(mockRs, Mockito.times(1)).getMetaData();
+    reader.close();
+  }
+
+  static ResultSet createSimpleKeyResultSet(Integer... keys) throws SQLException {
+    ResultSet mockRs = Mockito.mock(ResultSet.class);
+    ResultSetMetaData mockRsmd = Mockito.mock(ResultSetMetaData.class);
+    Mockito.when(mockRsmd.getColumnCount()).thenReturn(1);
+    Mockito.when(mockRsmd.getColumnName(1)).thenReturn("key1");
+    Mockito.when(mockRsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    Mockito.when(mockRs.getMetaData()).thenReturn(mockRsmd);
+
+    int[] position = {0};
+    Mockito.when(mockRs.next()).thenAnswer(invocation -> ++position[0] <= keys.length);
+    Mockito.when(mockRs.getObject(1)).thenAnswer(invocation -> keys[position[0] - 1]);
+    return mockRs;
+  }
+
+  @Test
+  public void testPrefetchNextChunk() throws SQLException, SchemaGenerationException {
+    DatabaseSource mockDBSource = Mockito.mock(DatabaseSource.class);
+    Mockito.when(mockDBSource.getPrimaryKeyFields(anyString())).thenReturn(TEST_SIMPLE_KEYS);
+    Mockito.when(mockDBSource.getTableSchema(anyString())).thenReturn(TEST_SIMPLE_SCHEMA);
+    Mockito.when(mockDBSource.getPartitionCount()).thenReturn(1);
+
+    Properties props = createTestDBReaderProperties(2);
+    props.setProperty(DB_READER_DOMAIN_CONFIG + "." + PREFETCH_NEXT_CHUNK, "true");
+
+    // Chunks are read alternately from the reader connection and the prefetch connection
+    ResultSet firstChunk = createSimpleKeyResultSet(1, 2);
+    ResultSet secondChunk = createSimpleKeyResultSet(3, 4);
+    ResultSet lastChunk = createSimpleKeyResultSet(5);
+    PreparedStatement firstStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement queryStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement prefetchStmt = Mockito.mock(PreparedStatement.class);
+    Mockito.when(firstStmt.executeQuery()).thenReturn(firstChunk);
+    Mockito.when(prefetchStmt.executeQuery()).thenReturn(secondChunk);
+    Mockito.when(queryStmt.executeQuery()).thenReturn(lastChunk);
+    Connection mockConnection = Mockito.mock(Connection.class);
+    Connection mockPrefetchConnection = Mockito.mock(Connection.class);
+    Mockito.when(mockConnection.prepareStatement(anyString())).thenReturn(firstStmt).thenReturn(queryStmt);
+    Mockito.when(mockPrefetchConnection.prepareStatement(anyString())).thenReturn(prefetchStmt);
+    DataSource mockDs = Mockito.mock(DataSource.class);
+    Mockito.when(mockDs.getConnection()).thenReturn(mockConnection).thenReturn(mockPrefetchConnection);
+
+    String readerId = "testPrefetchNextChunk";
+    DatabaseChunkedReader reader =
+        new DatabaseChunkedReader(props, mockDs, TEST_SIMPLE_QUERY, "TEST_DB", TEST_SIMPLE_KEY_TABLE, mockDBSource, readerId);
+    reader.subscribe(Collections.singletonList(new Integer(0)), null);
+    List<Object> keys = new ArrayList<>();
+    for (DatabaseRowView row = reader.pollView(); row != null; row = reader.pollView()) {
+      keys.add(row.getValue(0));
+    }
+    Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), keys);
+
+    // Each chunk query starts from the last key of the previous chunk
+    Mockito.verify(prefetchStmt).setObject(1, 2);
+    Mockito.verify(queryStmt).setObject(1, 4);
+    Mockito.verify(firstChunk).close();
+    Mockito.verify(secondChunk).close();
+
+    // One wait for the first chunk and one per switch to a prefetched chunk
+    String fullMetricName = MetricRegistry.name(DatabaseChunkedReader.class.getSimpleName(), readerId,
+        DatabaseChunkedReaderMetrics.QUERY_WAIT_DURATION);
+    Assert.assertEquals(3, ((Histogram) _dynamicMetricsManager.getMetric(fullMetricName)).getCount());
+
+    reader.close();
+    Mockito.verify(mockPrefetchConnection).close();
+  }
+
+  @Test
+  public void testKeyRangeReader() throws SQLException, SchemaGenerationException {
+    DatabaseSource mockDBSource = Mockito.mock(DatabaseSource.class);
+    Mockito.when(mockDBSource.getPrimaryKeyFields(anyString())).thenReturn(TEST_SIMPLE_KEYS);
+    Mockito.when(mockDBSource.getTableSchema(anyString())).thenReturn(TEST_SIMPLE_SCHEMA);
+
+    // Range 0 is read from the start of the table to key 2 and range 1 after its checkpoint at key 3
+    PreparedStatement range0FirstStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement range0QueryStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement range1FirstStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement range1QueryStmt = Mockito.mock(PreparedStatement.class);
+    ResultSet range0FirstChunk = createSimpleKeyResultSet(1, 2);
+    ResultSet range0LastChunk = createSimpleKeyResultSet();
+    ResultSet range1Chunk = createSimpleKeyResultSet(4);
+    Mockito.when(range0FirstStmt.executeQuery()).thenReturn(range0FirstChunk);
+    Mockito.when(range0QueryStmt.executeQuery()).thenReturn(range0LastChunk);
+    Mockito.when(range1QueryStmt.executeQuery()).thenReturn(range1Chunk);
+    Connection mockConnection = Mockito.mock(Connection.class);
+    Mockito.when(mockConnection.prepareStatement(anyString()))
+        .thenReturn(range0FirstStmt, range0QueryStmt, range1FirstStmt, range1QueryStmt);
+    DataSource mockDs = Mockito.mock(DataSource.class);
+    Mockito.when(mockDs.getConnection()).thenReturn(mockConnection);
+
+    KeyRange range0 = new KeyRange(0, null, Collections.singletonList(2));
+    KeyRange range1 = new KeyRange(1, Collections.singletonList(2), null);
+    Map<Integer, Map<String, Object>> checkpoints =
+        Collections.singletonMap(1, Collections.singletonMap("key1", 3));
+
+    // The configuration can be loaded once and shared by the readers of all the ranges
+    DatabaseChunkedReaderConfig config = new DatabaseChunkedReaderConfig(createTestDBReaderProperties(2));
+    DatabaseChunkedReader reader = new DatabaseChunkedReader(config, mockDs, TEST_SIMPLE_QUERY, "TEST_DB",
+        TEST_SIMPLE_KEY_TABLE, mockDBSource, "testKeyRangeReader");
+    reader.subscribeKeyRanges(Arrays.asList(range1, range0), checkpoints);
+    List<Object> keys = new ArrayList<>();
+    List<Integer> keyRanges = new ArrayList<>();
+    for (DatabaseRowView row = reader.pollView(); row != null; row = reader.pollView()) {
+      keys.add(row.getValue(0));
+      keyRanges.add(reader.getCurrentKeyRange().getPartition());
+    }
+    Assert.assertEquals(Arrays.asList(1, 2, 4), keys);
+    Assert.assertEquals(Arrays.asList(0, 0, 1), keyRanges);
+
+    // Range queries are bounded by the upper bound of the range, and start from the last key or the checkpoint
+    Mockito.verify(range0FirstStmt).setObject(1, 2);
+    Mockito.verify(range0QueryStmt).setObject(1, 2);
+    Mockito.verify(range0QueryStmt).setObject(2, 2);
+    Mockito.verify(range1FirstStmt, Mockito.never()).executeQuery();
+    Mockito.verify(range1QueryStmt).setObject(1, 3);
+    Mockito.verify(range1QueryStmt, Mockito.times(1)).setObject(anyInt(), Mockito.any());
+    Mockito.verify(range0FirstStmt).close();
+    reader.close();
+  }
+
+  @Test
+  public void testKeyRangeReaderWithoutRanges() throws SQLException, SchemaGenerationException {
+    DatabaseSource mockDBSource = Mockito.mock(DatabaseSource.class);
+    Mockito.when(mockDBSource.getPrimaryKeyFields(anyString())).thenReturn(TEST_SIMPLE_KEYS);
+    Mockito.when(mockDBSource.getTableSchema(anyString())).thenReturn(TEST_SIMPLE_SCHEMA);
+    Connection mockConnection = Mockito.mock(Connection.class);
+    DataSource mockDs = Mockito.mock(DataSource.class);
+    Mockito.when(mockDs.getConnection()).thenReturn(mockConnection);
+
+    // A table can be split in fewer ranges than there are partitions, leaving a reader without any range to read
+    DatabaseChunkedReader reader = new DatabaseChunkedReader(createTestDBReaderProperties(2), mockDs,
+        TEST_SIMPLE_QUERY, "TEST_DB", TEST_SIMPLE_KEY_TABLE, mockDBSource, "testKeyRangeReaderWithoutRanges");
+    reader.subscribeKeyRanges(Collections.emptyList(), Collections.emptyMap());
+    Assert.assertNull(reader.pollView());
+    Assert.assertNull(reader.poll());
+    Assert.assertNull(reader.getCurrentKeyRange());
+    Mockito.verify(mockConnection, Mockito.never()).prepareStatement(anyString());
+    reader.close();
+  }
+
+  @Test
+  public void testKeyRangeReaderWithCompletedRange() throws SQLException, SchemaGenerationException {
+    DatabaseSource mockDBSource = Mockito.mock(DatabaseSource.class);
+    Mockito.when(mockDBSource.getPrimaryKeyFields(anyString())).thenReturn(TEST_SIMPLE_KEYS);
+    Mockito.when(mockDBSource.getTableSchema(anyString())).thenReturn(TEST_SIMPLE_SCHEMA);
+
+    // Range 0 is checkpointed at its upper bound, so its query finds no row past the checkpoint
+    PreparedStatement range0FirstStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement range0QueryStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement range1FirstStmt = Mockito.mock(PreparedStatement.class);
+    PreparedStatement range1QueryStmt = Mockito.mock(PreparedStatement.class);
+    ResultSet range0Chunk = createSimpleKeyResultSet();
+    ResultSet range1Chunk = createSimpleKeyResultSet(3);
+    Mockito.when(range0QueryStmt.executeQuery()).thenReturn(range0Chunk);
+    Mockito.when(range1QueryStmt.executeQuery()).thenReturn(range1Chunk);
+    Connection mockConnection = Mockito.mock(Connection.class);
+    Mockito.when(mockConnection.prepareStatement(anyString()))
+        .thenReturn(range0FirstStmt, range0QueryStmt, range1FirstStmt, range1QueryStmt);
+    DataSource mockDs = Mockito.mock(DataSource.class);
+    Mockito.when(mockDs.getConnection()).thenReturn(mockConnection);
+
+    KeyRange range0 = new KeyRange(0, null, Collections.singletonList(2));
+    KeyRange range1 = new KeyRange(1, Collections.singletonList(2), null);
+    Map<Integer, Map<String, Object>> checkpoints =
+        Collections.singletonMap(0, Collections.singletonMap("key1", 2));
+
+    DatabaseChunkedReader reader = new DatabaseChunkedReader(createTestDBReaderProperties(2), mockDs,
+        TEST_SIMPLE_QUERY, "TEST_DB", TEST_SIMPLE_KEY_TABLE, mockDBSource, "testKeyRangeReaderWithCompletedRange");
+    reader.subscribeKeyRanges(Arrays.asList(range0, range1), checkpoints);
+    DatabaseRowView row = reader.pollView();
+    Assert.assertNotNull(row);
+    Assert.assertEquals(row.getValue(0), 3);
+    Assert.assertEquals(reader.getCurrentKeyRange(), range1);
+    Assert.assertNull(reader.pollView());
+    Assert.assertNull(reader.pollView());
+
+    Mockito.verify(range0FirstStmt, Mockito.never()).executeQuery();
+    Mockito.verify(range0QueryStmt).setObject(1, 2);
+    Mockito.verify(range0QueryStmt).setObject(2, 2);
+    Mockito.verify(range1QueryStmt).setObject(1, 2);
+    Mockito.verify(range1QueryStmt, Mockito.times(1)).executeQuery();
+    reader.close();
+  }
+
+  @Test
+  public void testPollAvro() throws Exception {
+    DatabaseSource mockDBSource = Mockito.mock(DatabaseSource.class);
+    Mockito.when(mockDBSource.getPrimaryKeyFields(anyString())).thenReturn(TEST_SIMPLE_KEYS);
+    Mockito.when(mockDBSource.getTableSchema(anyString())).thenReturn(TEST_SIMPLE_SCHEMA);
+    Mockito.when(mockDBSource.getPartitionCount()).thenReturn(1);
+
+    ResultSet mockRs = createSimpleKeyResultSet(1, 2);
+    PreparedStatement mockStmt = Mockito.mock(PreparedStatement.class);
+    Mockito.when(mockStmt.executeQuery()).thenReturn(mockRs);
+    Connection mockConnection = Mockito.mock(Connection.class);
+    Mockito.when(mockConnection.prepareStatement(anyString())).thenReturn(mockStmt);
+    DataSource mockDs = Mockito.mock(DataSource.class);
+    Mockito.when(mockDs.getConnection()).thenReturn(mockConnection);
+
+    DatabaseChunkedReader reader = new DatabaseChunkedReader(createTestDBReaderProperties(10), mockDs,
+        TEST_SIMPLE_QUERY, "TEST_DB", TEST_SIMPLE_KEY_TABLE, mockDBSource, "testPollAvro");
+    reader.subscribe(Collections.singletonList(new Integer(0)), null);
+    GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>(TEST_SIMPLE_SCHEMA);
+    List<Object> keys = new ArrayList<>();
+    for (byte[] payload = reader.pollAvro(); payload != null; payload = reader.pollAvro()) {
+      keys.add(datumReader.read(null, DecoderFactory.get().binaryDecoder(payload, null)).get("key1"));
+    }
+    Assert.assertEquals(Arrays.asList(1L, 2L), keys);
+    reader.close();
+  }
+
   @Test
   public void testCheckpointedChunkedReader() throws SQLException, SchemaGenerationException {
     // Verify the first query is a chunked query.
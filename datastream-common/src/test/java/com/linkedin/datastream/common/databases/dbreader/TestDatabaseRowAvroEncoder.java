@@ -0,0 +1,102 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common.databases.dbreader;
+
+import java.sql.Types;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.util.Utf8;
+import org.testng.annotations.Test;
+
+import junit.framework.Assert;
+
+import com.linkedin.datastream.common.AvroEncodingException;
+import com.linkedin.datastream.common.SqlTypeInterpreter;
+import com.linkedin.datastream.common.databases.PassThroughSqlTypeInterpreter;
+
+
+/**
+ * Tests for {@link DatabaseRowAvroEncoder}.
+ */
+public class TestDatabaseRowAvroEncoder {
+  private static final Schema SCHEMA = new Schema.Parser().parse(
+      "{\"type\":\"record\",\"name\":\"TEST_TABLE\",\"namespace\":\"com.linkedin.events.test\",\"fields\":["
+          + "{\"name\":\"id\",\"type\":\"long\"},"
+          + "{\"name\":\"name\",\"type\":[\"null\",\"string\"],\"default\":null},"
+          + "{\"name\":\"score\",\"type\":[\"double\",\"null\"]},"
+          + "{\"name\":\"comment\",\"type\":[\"null\",\"string\"],\"default\":null}"
+          + "]}");
+
+  private static DatabaseRowView createRow(Object id, Object name, Object score) {
+    // The columns are not in schema order, and there is no column for the comment field
+    DatabaseRowView row = new DatabaseRowView(new String[]{"SCORE", "ID", "NAME"},
+        new int[]{Types.DOUBLE, Types.BIGINT, Types.VARCHAR});
+    row.setValue(0, score);
+    row.setValue(1, id);
+    row.setValue(2, name);
+    return row;
+  }
+
+  private static GenericRecord decode(byte[] payload) throws Exception {
+    return new GenericDatumReader<GenericRecord>(SCHEMA).read(null, DecoderFactory.get().binaryDecoder(payload, null));
+  }
+
+  @Test
+  public void testEncodeRows() throws Exception {
+    SqlTypeInterpreter interpreter = new PassThroughSqlTypeInterpreter() {
+      @Override
+      public String formatColumnName(String dbColName) {
+        return dbColName.toLowerCase();
+      }
+    };
+    DatabaseRowAvroEncoder encoder = new DatabaseRowAvroEncoder(SCHEMA, interpreter);
+
+    GenericRecord record = decode(encoder.encode(createRow(1, "first", 0.5)));
+    GenericData.Record expected = new GenericData.Record(SCHEMA);
+    expected.put("id", 1L);
+    expected.put("name", new Utf8("first"));
+    expected.put("score", 0.5);
+    Assert.assertEquals(expected, record);
+
+    record = decode(encoder.encode(createRow(2L, null, null)));
+    expected.put("id", 2L);
+    expected.put("name", null);
+    expected.put("score", null);
+    Assert.assertEquals(expected, record);
+  }
+
+  private static void assertInvalidValue(DatabaseRowView row, String field) throws Exception {
+    DatabaseRowAvroEncoder encoder = new DatabaseRowAvroEncoder(SCHEMA, new PassThroughSqlTypeInterpreter() {
+      @Override
+      public String formatColumnName(String dbColName) {
+        return dbColName.toLowerCase();
+      }
+    });
+    try {
+      encoder.encode(row);
+      Assert.fail("Encoding an invalid value should fail");
+    } catch (AvroEncodingException e) {
+      // The invalid value is detected before it is written, and reported with its field
+      Assert.assertTrue(e.getCause() instanceof AvroEncodingException);
+      Assert.assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("field " + field));
+    }
+  }
+
+  @Test
+  public void testEncodeInvalidValue() throws Exception {
+    assertInvalidValue(createRow("not a number", "name", 1.0), "id");
+    assertInvalidValue(createRow(1L, "name", "not a number"), "score");
+  }
+
+  @Test
+  public void testEncodeNullIntoNonNullableField() throws Exception {
+    assertInvalidValue(createRow(null, "name", 1.0), "id");
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.common.databases.dbreader;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import javax.sql.DataSource;
+
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import junit.framework.Assert;
+
+import com.linkedin.datastream.avrogenerator.DatabaseSource;
+
+import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.DATABASE_QUERY_MANAGER_CLASS_NAME;
+import static com.linkedin.datastream.common.databases.dbreader.DatabaseChunkedReaderConfig.DB_READER_DOMAIN_CONFIG;
+import static org.mockito.Matchers.anyString;
+
+
+/**
+ * Tests for {@link KeyRangePlanner}.
+ */
+public class TestKeyRangePlanner {
+  private static final String TABLE = "TEST_TABLE";
+  private static final String QUERY = "SELECT * FROM " + TABLE + " ORDER BY KEY1";
+
+  /**
+   * Plan the key ranges of a table for which the database returns the given boundary keys
+   */
+  private static List<KeyRange> planKeyRanges(int partitionCount, Integer... boundaries) throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DB_READER_DOMAIN_CONFIG + "." + DATABASE_QUERY_MANAGER_CLASS_NAME,
+        MySqlChunkedQueryManager.class.getName());
+
+    DatabaseSource mockDBSource = Mockito.mock(DatabaseSource.class);
+    Mockito.when(mockDBSource.getPrimaryKeyFields(anyString())).thenReturn(Collections.singletonList("KEY1"));
+
+    ResultSet boundaryResult = TestDatabaseChunkedReader.createSimpleKeyResultSet(boundaries);
+    PreparedStatement boundaryStmt = Mockito.mock(PreparedStatement.class);
+    Mockito.when(boundaryStmt.executeQuery()).thenReturn(boundaryResult);
+
+    Connection mockConnection = Mockito.mock(Connection.class);
+    String boundaryQuery =
+        new MySqlChunkedQueryManager().generateKeyRangeBoundaryQuery(QUERY, Collections.singletonList("KEY1"),
+            partitionCount);
+    Mockito.when(mockConnection.prepareStatement(boundaryQuery)).thenReturn(boundaryStmt);
+    DataSource mockDs = Mockito.mock(DataSource.class);
+    Mockito.when(mockDs.getConnection()).thenReturn(mockConnection);
+
+    List<KeyRange> ranges = KeyRangePlanner.planKeyRanges(props, mockDs, QUERY, TABLE, mockDBSource, partitionCount);
+    // Only the boundary query is sent to the database
+    Mockito.verify(mockConnection).prepareStatement(anyString());
+    Mockito.verify(mockConnection).close();
+    Mockito.verify(boundaryStmt).close();
+    return ranges;
+  }
+
+  @Test
+  public void testEvenSplit() throws Exception {
+    List<KeyRange> ranges = planKeyRanges(3, 3, 6);
+    Assert.assertEquals(Arrays.asList(
+        new KeyRange(0, null, Collections.singletonList(3)),
+        new KeyRange(1, Collections.singletonList(3), Collections.singletonList(6)),
+        new KeyRange(2, Collections.singletonList(6), null)), ranges);
+  }
+
+  @Test
+  public void testFewerRowsThanPartitions() throws Exception {
+    // Two rows split into four partitions only have one boundary, and a single row has none
+    Assert.assertEquals(Arrays.asList(
+        new KeyRange(0, null, Collections.singletonList(1)),
+        new KeyRange(1, Collections.singletonList(1), null)), planKeyRanges(4, 1));
+
+    Assert.assertEquals(Collections.singletonList(new KeyRange(0, null, null)), planKeyRanges(4));
+  }
+}
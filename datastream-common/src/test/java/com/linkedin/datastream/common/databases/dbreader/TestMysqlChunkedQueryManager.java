@@ -5,14 +5,23 @@
  */
 package com.linkedin.datastream.common.databases.dbreader;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 import org.testng.annotations.Test;
 
+import junit.framework.Assert;
+
 
 /**
  * Tests for {@link MySqlChunkedQueryManager}.
  */
 public class TestMysqlChunkedQueryManager extends TestChunkedQueryManagerBase {
   private static final ChunkedQueryManager MANAGER = new MySqlChunkedQueryManager();
+  private static final KeyRangeChunkedQueryManager RANGE_MANAGER = new MySqlChunkedQueryManager();
 
   /**
    * Test query string when a single KEY is involved in chunking with a single PARTITION assigned.
@@ -156,4 +165,57 @@ public class TestMysqlChunkedQueryManager extends TestChunkedQueryManagerBase {
     testQueryString(MANAGER, firstExpected, chunkedExpected, NESTED_QUERY, KEYS, CHUNK_SIZE, PARTITION_COUNT,
         PARTITIONS);
   }
+
+  @Test
+  public void testKeyRangeBoundaryQuery() {
+    Assert.assertEquals("SELECT KEY1 , KEY2 FROM ( SELECT KEY1 , KEY2 , ROW_NUMBER() OVER ( ORDER BY KEY1 , KEY2 ) AS rowNum , "
+            + "COUNT(*) OVER () AS rowCount FROM ( SELECT * FROM TABLE ) nestedTab1 ) nestedTab2 "
+            + "WHERE rowNum < rowCount AND ( rowNum * 3 - 1 ) DIV rowCount < ( ( rowNum + 1 ) * 3 - 1 ) DIV rowCount "
+            + "ORDER BY KEY1 , KEY2",
+        RANGE_MANAGER.generateKeyRangeBoundaryQuery(NESTED_QUERY, KEYS, 3));
+  }
+
+  @Test
+  public void testSimpleKeyRange() {
+    Assert.assertEquals("SELECT * FROM ( SELECT * FROM ( SELECT * FROM TABLE ) nestedTab1 ORDER BY KEY1 ) as nestedTab2 LIMIT 10",
+        RANGE_MANAGER.generateFirstRangeQuery(NESTED_QUERY, KEY, CHUNK_SIZE, false));
+    Assert.assertEquals("SELECT * FROM ( SELECT * FROM ( SELECT * FROM TABLE ) nestedTab1 WHERE ( ( KEY1 <= ? ) ) "
+            + "ORDER BY KEY1 ) as nestedTab2 LIMIT 10",
+        RANGE_MANAGER.generateFirstRangeQuery(NESTED_QUERY, KEY, CHUNK_SIZE, true));
+    Assert.assertEquals("SELECT * FROM ( SELECT * FROM ( SELECT * FROM TABLE ) nestedTab1 WHERE ( ( KEY1 > ? ) ) "
+            + "ORDER BY KEY1 ) as nestedTab2 LIMIT 10",
+        RANGE_MANAGER.generateChunkedRangeQuery(NESTED_QUERY, KEY, CHUNK_SIZE, false));
+    Assert.assertEquals("SELECT * FROM ( SELECT * FROM ( SELECT * FROM TABLE ) nestedTab1 WHERE ( ( KEY1 > ? ) ) "
+            + "AND ( ( KEY1 <= ? ) ) ORDER BY KEY1 ) as nestedTab2 LIMIT 10",
+        RANGE_MANAGER.generateChunkedRangeQuery(NESTED_QUERY, KEY, CHUNK_SIZE, true));
+  }
+
+  @Test
+  public void testCompositeKeyRange() throws SQLException {
+    /**
+     *   SELECT * FROM
+     *   (
+     *       SELECT * FROM
+     *           (
+     *               SELECT * FROM TABLE
+     *           ) nestedTab1
+     *       WHERE ( ( KEY1 > ? ) OR ( KEY1 = ? AND KEY2 > ? ) ) AND ( ( KEY1 < ? ) OR ( KEY1 = ? AND KEY2 <= ? ) )
+     *       ORDER BY KEY1 , KEY2
+     *   ) as nestedTab2 LIMIT 10;
+     */
+    Assert.assertEquals("SELECT * FROM ( SELECT * FROM ( SELECT * FROM TABLE ) nestedTab1 "
+            + "WHERE ( ( KEY1 > ? ) OR ( KEY1 = ? AND KEY2 > ? ) ) AND ( ( KEY1 < ? ) OR ( KEY1 = ? AND KEY2 <= ? ) ) "
+            + "ORDER BY KEY1 , KEY2 ) as nestedTab2 LIMIT 10",
+        RANGE_MANAGER.generateChunkedRangeQuery(NESTED_QUERY, KEYS, CHUNK_SIZE, true));
+
+    PreparedStatement stmt = Mockito.mock(PreparedStatement.class);
+    RANGE_MANAGER.prepareRangeQuery(stmt, Arrays.asList(1, 2), Arrays.asList(5, 6));
+    InOrder inOrder = Mockito.inOrder(stmt);
+    inOrder.verify(stmt).setObject(1, 1);
+    inOrder.verify(stmt).setObject(2, 1);
+    inOrder.verify(stmt).setObject(3, 2);
+    inOrder.verify(stmt).setObject(4, 5);
+    inOrder.verify(stmt).setObject(5, 5);
+    inOrder.verify(stmt).setObject(6, 6);
+  }
 }
@@ -6,12 +6,14 @@
 package com.linkedin.datastream.metrics;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
@@ -225,4 +227,55 @@ public class TestDynamicMetricsManager {
     Assert.assertTrue(_metricsManager.checkCache(CLASS_NAME, null, eventLatency).isPresent());
     Assert.assertTrue(_metricsManager.checkCache(CLASS_NAME, someKey, eventLatency).isPresent());
   }
+
+  @Test
+  public void testKeyLimit() {
+    String eventRate = "eventRate";
+    _metricsManager.setKeyedMetricsLimits(2, Duration.ZERO);
+    _metricsManager.createOrUpdateMeter(CLASS_NAME, eventRate, 1);
+    _metricsManager.createOrUpdateMeter(CLASS_NAME, "key1", eventRate, 1);
+    _metricsManager.createOrUpdateMeter(CLASS_NAME, "key2", eventRate, 1);
+    _metricsManager.createOrUpdateMeter(CLASS_NAME, "key3", eventRate, 1);
+    _metricsManager.createOrUpdateMeter(CLASS_NAME, "key4", eventRate, 1);
+    // existing keys keep being updated once the limit is reached
+    _metricsManager.createOrUpdateMeter(CLASS_NAME, "key1", eventRate, 1);
+
+    Meter key1Meter = _metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "key1", eventRate));
+    Assert.assertEquals(key1Meter.getCount(), 2);
+    Assert.assertNull(_metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "key3", eventRate)));
+    Meter overflowMeter = _metricsManager.getMetric(
+        MetricRegistry.name(CLASS_NAME, DynamicMetricsManager.OVERFLOW_KEY, eventRate));
+    Assert.assertEquals(overflowMeter.getCount(), 2);
+
+    Gauge<Integer> numKeyedMetrics = _metricsManager.getMetric(
+        MetricRegistry.name(DynamicMetricsManager.class.getSimpleName(), DynamicMetricsManager.NUM_KEYED_METRICS));
+    Assert.assertEquals(numKeyedMetrics.getValue().intValue(), 3);
+  }
+
+  @Test
+  public void testIdleKeyEviction() throws Exception {
+    String numEvents = "numEvents";
+    _metricsManager.setKeyedMetricsLimits(DynamicMetricsManager.DEFAULT_MAX_KEYS_PER_CLASS, Duration.ofHours(1));
+    _metricsManager.createOrUpdateCounter(CLASS_NAME, numEvents, 1);
+    _metricsManager.createOrUpdateCounter(CLASS_NAME, "idleKey", numEvents, 1);
+    Counter registeredCounter = _metricsManager.registerMetric(CLASS_NAME, "registeredKey", numEvents, Counter.class);
+    _metricsManager.createOrUpdateCounter(CLASS_NAME, "registeredKey", numEvents, 1);
+    Thread.sleep(10);
+    long idleSinceMs = System.currentTimeMillis();
+    _metricsManager.createOrUpdateCounter(CLASS_NAME, "activeKey", numEvents, 1);
+
+    _metricsManager.evictIdleKeys(idleSinceMs);
+    Assert.assertEquals(_metricsManager.getNumKeyedMetrics(), 1);
+    Assert.assertNull(_metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "idleKey", numEvents)));
+    Assert.assertNotNull(_metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, numEvents)));
+    Assert.assertNotNull(_metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "activeKey", numEvents)));
+    // metrics handed out by registerMetric stay in the registry
+    Assert.assertSame(_metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "registeredKey", numEvents)),
+        registeredCounter);
+
+    // an evicted key starts over when it's updated again
+    _metricsManager.createOrUpdateCounter(CLASS_NAME, "idleKey", numEvents, 5);
+    Counter counter = _metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "idleKey", numEvents));
+    Assert.assertEquals(counter.getCount(), 5);
+  }
 }
@@ -0,0 +1,86 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+
+
+/**
+ * Tests for {@link PipelineStageMetrics}.
+ */
+public class TestPipelineStageMetrics {
+  private static final String CLASS_NAME = PipelineStageMetrics.class.getSimpleName();
+
+  private DynamicMetricsManager _metricsManager;
+
+  @BeforeMethod
+  public void setup(Method method) {
+    _metricsManager = DynamicMetricsManager.createInstance(new MetricRegistry(), method.getName());
+  }
+
+  @Test
+  public void testRecordOnlyRegisteredTasks() {
+    String stageMetric = PipelineStageMetrics.Stage.SERIALIZE.getMetricName();
+    PipelineStageMetrics metrics = PipelineStageMetrics.register("task1");
+    PipelineStageMetrics.record("task1", PipelineStageMetrics.Stage.SERIALIZE, TimeUnit.MICROSECONDS.toNanos(5));
+    PipelineStageMetrics.record("task2", PipelineStageMetrics.Stage.SERIALIZE, TimeUnit.MICROSECONDS.toNanos(7));
+
+    Histogram taskHistogram = _metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "task1", stageMetric));
+    Assert.assertEquals(taskHistogram.getCount(), 1);
+    Assert.assertEquals(taskHistogram.getSnapshot().getMax(), 5);
+    Assert.assertNull(_metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "task2", stageMetric)));
+    Histogram aggregatedHistogram = _metricsManager.getMetric(
+        MetricRegistry.name(CLASS_NAME, PipelineStageMetrics.AGGREGATE, stageMetric));
+    Assert.assertEquals(aggregatedHistogram.getCount(), 1);
+
+    metrics.deregister();
+    Assert.assertNull(PipelineStageMetrics.get("task1"));
+    Assert.assertNull(_metricsManager.getMetric(MetricRegistry.name(CLASS_NAME, "task1", stageMetric)));
+  }
+
+  @Test
+  public void testReregisteredTaskKeepsMetrics() {
+    PipelineStageMetrics oldMetrics = PipelineStageMetrics.register("task");
+    PipelineStageMetrics newMetrics = PipelineStageMetrics.register("task");
+    oldMetrics.deregister();
+    Assert.assertSame(PipelineStageMetrics.get("task"), newMetrics);
+    newMetrics.deregister();
+  }
+
+  @Test
+  public void testBound() {
+    PipelineStageMetrics metrics = PipelineStageMetrics.register("task");
+    metrics.record(PipelineStageMetrics.Stage.POLL, TimeUnit.MILLISECONDS.toNanos(10));
+    Assert.assertEquals(metrics.getBound(), PipelineStageMetrics.Bound.SOURCE);
+
+    // serialization happens within send, so it counts as CPU rather than destination time
+    metrics.record(PipelineStageMetrics.Stage.TRANSLATE, TimeUnit.MILLISECONDS.toNanos(8));
+    metrics.record(PipelineStageMetrics.Stage.SEND, TimeUnit.MILLISECONDS.toNanos(10));
+    metrics.record(PipelineStageMetrics.Stage.SERIALIZE, TimeUnit.MILLISECONDS.toNanos(4));
+    Assert.assertEquals(metrics.getBound(), PipelineStageMetrics.Bound.CPU);
+
+    metrics.record(PipelineStageMetrics.Stage.SEND, TimeUnit.MILLISECONDS.toNanos(20));
+    Assert.assertEquals(metrics.getBound(), PipelineStageMetrics.Bound.DESTINATION);
+
+    Map<String, Object> summary = metrics.getSummary();
+    Assert.assertEquals(summary.get("bound"), PipelineStageMetrics.Bound.DESTINATION);
+    @SuppressWarnings("unchecked")
+    Map<String, Map<String, Object>> stages = (Map<String, Map<String, Object>>) summary.get("stages");
+    Assert.assertEquals(stages.get(PipelineStageMetrics.Stage.SEND.getMetricName()).get("count"), 2L);
+    Assert.assertEquals(stages.get(PipelineStageMetrics.Stage.SEND.getMetricName()).get("totalMs"), 30L);
+    Assert.assertFalse(stages.containsKey(PipelineStageMetrics.Stage.ACK.getMetricName()));
+    metrics.deregister();
+  }
+}
@@ -7,24 +7,42 @@ package com.linkedin.datastream.connectors.directory;
 
 import java.io.IOException;
 import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.sun.nio.file.SensitivityWatchEventModifier;
 
 import com.linkedin.datastream.common.BrooklinEnvelope;
+import com.linkedin.datastream.metrics.BrooklinMeterInfo;
+import com.linkedin.datastream.metrics.BrooklinMetricInfo;
+import com.linkedin.datastream.metrics.DynamicMetricsManager;
+import com.linkedin.datastream.metrics.MetricsAware;
 import com.linkedin.datastream.server.DatastreamEventProducer;
 import com.linkedin.datastream.server.DatastreamProducerRecordBuilder;
 import com.linkedin.datastream.server.DatastreamTask;
@@ -38,16 +56,88 @@ import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 /**
  * Encapsulates the logic for watching for change events in a source directory
  * in the file system, and propagating them to a {@link DatastreamEventProducer}.
+ *
+ * A single write often triggers several watch events for the same path. Events are therefore debounced:
+ * a path is only propagated once it has not changed for the debounce window (or once it has been changing
+ * for ten windows), and the event sent is the net change between the last state
+ * propagated for the path and its current state. For instance, a file created and deleted within the window
+ * produces no event, and a file deleted and created again produces a single {@link DirectoryEvent#ENTRY_MODIFIED}.
+ * If the watch service loses events ({@code OVERFLOW}), the whole directory is rescanned against that state.
  */
 public class DirectoryChangeProcessor implements Runnable, AutoCloseable {
+  public static final Duration DEFAULT_DEBOUNCE_WINDOW = Duration.ofSeconds(1);
+
   private static final Logger LOG = LoggerFactory.getLogger(DirectoryChangeProcessor.class);
   private static final Duration ACQUIRE_TIMEOUT = Duration.ofMinutes(5);
+  private static final int MAX_DEBOUNCE_WINDOWS = 10;
+  private static final long IDLE_POLL_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(1);
+
+  private static final String CLASS_NAME = DirectoryChangeProcessor.class.getSimpleName();
+  private static final String AGGREGATE = "aggregate";
+  private static final String EVENTS_RECEIVED_RATE = "eventsReceivedRate";
+  private static final String EVENTS_SENT_RATE = "eventsSentRate";
+  private static final String EVENTS_SUPPRESSED_RATE = "eventsSuppressedRate";
+  private static final String OVERFLOW_RESCAN_RATE = "overflowRescanRate";
+  private static final List<String> METRICS =
+      Collections.unmodifiableList(Arrays.asList(EVENTS_RECEIVED_RATE, EVENTS_SENT_RATE,
+          EVENTS_SUPPRESSED_RATE, OVERFLOW_RESCAN_RATE));
 
   private final DatastreamTask _task;
   private final DatastreamEventProducer _producer;
   private final Path _dirPath;
   private final WatchService _watchService;
   private final WatchKey _watchKey;
+  private final long _debounceWindowMs;
+  private final DynamicMetricsManager _dynamicMetricsManager;
+  private final String _metricsKey;
+
+  // Last state propagated for each entry of the directory
+  private final Map<Path, EntryState> _entries = new HashMap<>();
+  // Entries changed since they were last propagated, in the order they first changed
+  private final Map<Path, PendingChange> _pendingChanges = new LinkedHashMap<>();
+
+  /**
+   * Size and modification time of a directory entry
+   */
+  private static class EntryState {
+    private final long _size;
+    private final long _lastModifiedMs;
+
+    EntryState(BasicFileAttributes attributes) {
+      _size = attributes.size();
+      _lastModifiedMs = attributes.lastModifiedTime().toMillis();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      EntryState other = (EntryState) o;
+      return _size == other._size && _lastModifiedMs == other._lastModifiedMs;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_size, _lastModifiedMs);
+    }
+  }
+
+  /**
+   * Watch events received for a path that has not been propagated yet
+   */
+  private static class PendingChange {
+    private final long _firstEventMs;
+    private long _lastEventMs;
+    private int _numEvents;
+
+    PendingChange(long now) {
+      _firstEventMs = now;
+    }
+  }
 
   /**
    * Directory change event types
@@ -77,8 +167,22 @@ public class DirectoryChangeProcessor implements Runnable, AutoCloseable {
    * @throws IOException if an I/O error occurs
    */
   public DirectoryChangeProcessor(DatastreamTask datastreamTask, DatastreamEventProducer producer) throws IOException {
+    this(datastreamTask, producer, DEFAULT_DEBOUNCE_WINDOW);
+  }
+
+  /**
+   * Constructor for DirectoryChangeProcessor
+   * @param datastreamTask The datastream task this processor is responsible for
+   * @param producer The event producer this connector uses to send change events
+   *                 to the underlying {@link com.linkedin.datastream.server.api.transport.TransportProvider}.
+   * @param debounceWindow How long a path must stay unchanged before its net change is sent
+   * @throws IOException if an I/O error occurs
+   */
+  public DirectoryChangeProcessor(DatastreamTask datastreamTask, DatastreamEventProducer producer,
+      Duration debounceWindow) throws IOException {
     Validate.notNull(datastreamTask);
     Validate.notNull(producer);
+    Validate.isTrue(!debounceWindow.isNegative(), "debounce window cannot be negative");
 
     final String path = datastreamTask.getDatastreamSource().getConnectionString();
     Validate.isTrue(isDirectory(path), "path does not refer to a valid directory");
@@ -89,6 +193,20 @@ public class DirectoryChangeProcessor implements Runnable, AutoCloseable {
     _watchService = FileSystems.getDefault().newWatchService();
     _watchKey = _dirPath.register(_watchService, new WatchEvent.Kind<?>[] {ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE},
         SensitivityWatchEventModifier.HIGH);
+    _debounceWindowMs = debounceWindow.toMillis();
+    _dynamicMetricsManager = DynamicMetricsManager.getInstance();
+    _metricsKey = datastreamTask.getDatastreamTaskName();
+  }
+
+  /**
+   * Get the metrics of all the directory change processors
+   */
+  public static List<BrooklinMetricInfo> getMetricInfos() {
+    List<BrooklinMetricInfo> metrics = new ArrayList<>();
+    for (String metric : METRICS) {
+      metrics.add(new BrooklinMeterInfo(CLASS_NAME + MetricsAware.KEY_REGEX + metric));
+    }
+    return metrics;
   }
 
   /**
@@ -109,6 +227,10 @@ public class DirectoryChangeProcessor implements Runnable, AutoCloseable {
       _task.acquire(ACQUIRE_TIMEOUT);
 
       LOG.info("Started watching directory {}", _dirPath);
+      // Entries that exist before the processor starts are not propagated
+      for (Map.Entry<Path, EntryState> entry : listDirectory().entrySet()) {
+        _entries.put(entry.getKey(), entry.getValue());
+      }
 
       boolean isWatchKeyValid = true;
       for (WatchKey key = pollWatchService(); isWatchKeyValid; key = pollWatchService()) {
@@ -120,30 +242,17 @@ public class DirectoryChangeProcessor implements Runnable, AutoCloseable {
              * We may get an OVERFLOW event even though we have not registered for it.
              * https://docs.oracle.com/javase/tutorial/essential/io/notification.html#register
              */
-            if (kind != OVERFLOW) {
+            if (kind == OVERFLOW) {
+              rescan();
+            } else {
               @SuppressWarnings("unchecked")
               Path filename = ((WatchEvent<Path>) event).context();
-              Path absolutePath = _dirPath.resolve(filename).toAbsolutePath();
-
-              BrooklinEnvelope envelope = new BrooklinEnvelope(absolutePath, getCorrespondingDirectoryEvent(kind), null,
-                  Collections.emptyMap());
-
-              DatastreamProducerRecordBuilder builder = new DatastreamProducerRecordBuilder();
-              builder.addEvent(envelope);
-              builder.setEventsSourceTimestamp(System.currentTimeMillis());
-              builder.setPartition(0);
-
-              _producer.send(builder.build(), ((metadata, exception) -> {
-                if (exception == null) {
-                  LOG.info("Sending event succeeded");
-                } else {
-                  LOG.error("Sending event failed", exception);
-                }
-              }));
+              addPendingChange(_dirPath.resolve(filename).toAbsolutePath(), 1);
             }
           }
           isWatchKeyValid = key.reset();
         }
+        sendSettledChanges(System.currentTimeMillis());
       }
 
       LOG.warn("Watch key no longer valid. Path {} might have been altered or removed.", _dirPath);
@@ -160,6 +269,7 @@ public class DirectoryChangeProcessor implements Runnable, AutoCloseable {
 
   @Override
   public void close() {
+    METRICS.forEach(metric -> _dynamicMetricsManager.unregisterMetric(CLASS_NAME, _metricsKey, metric));
     _watchKey.cancel();
     try {
       _watchService.close();
@@ -168,23 +278,133 @@ public class DirectoryChangeProcessor implements Runnable, AutoCloseable {
     }
   }
 
-  private WatchKey pollWatchService() throws InterruptedException {
-    return _watchService.poll(1, TimeUnit.MINUTES);
+  /**
+   * Wait for watch events until the next pending change is due
+   */
+  @VisibleForTesting
+  WatchKey pollWatchService() throws InterruptedException {
+    long timeoutMs = IDLE_POLL_TIMEOUT_MS;
+    long now = System.currentTimeMillis();
+    for (PendingChange change : _pendingChanges.values()) {
+      timeoutMs = Math.min(timeoutMs, getDueTime(change) - now);
+    }
+    return timeoutMs > 0 ? _watchService.poll(timeoutMs, TimeUnit.MILLISECONDS) : _watchService.poll();
   }
 
-  private static DirectoryEvent getCorrespondingDirectoryEvent(WatchEvent.Kind<?> kind) {
-    if (kind == ENTRY_CREATE) {
-      return DirectoryEvent.ENTRY_CREATED;
+  private long getDueTime(PendingChange change) {
+    return Math.min(change._lastEventMs + _debounceWindowMs,
+        change._firstEventMs + MAX_DEBOUNCE_WINDOWS * _debounceWindowMs);
+  }
+
+  private void addPendingChange(Path path, int numEvents) {
+    long now = System.currentTimeMillis();
+    PendingChange change = _pendingChanges.computeIfAbsent(path, p -> new PendingChange(now));
+    change._lastEventMs = now;
+    change._numEvents += numEvents;
+    updateMeter(EVENTS_RECEIVED_RATE, numEvents);
+  }
+
+  /**
+   * List the directory to find the changes missed because the watch service lost events
+   */
+  private void rescan() throws IOException {
+    LOG.warn("Watch events were lost for {}, rescanning the directory", _dirPath);
+    updateMeter(OVERFLOW_RESCAN_RATE, 1);
+    Map<Path, EntryState> current = listDirectory();
+    Set<Path> changed = new HashSet<>(_entries.keySet());
+    changed.addAll(current.keySet());
+    for (Path path : changed) {
+      if (!Objects.equals(_entries.get(path), current.get(path))) {
+        addPendingChange(path, 0);
+      }
     }
+  }
 
-    if (kind == ENTRY_MODIFY) {
-      return DirectoryEvent.ENTRY_MODIFIED;
+  private Map<Path, EntryState> listDirectory() throws IOException {
+    Map<Path, EntryState> entries = new HashMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(_dirPath)) {
+      for (Path path : stream) {
+        Path absolutePath = path.toAbsolutePath();
+        EntryState state = getEntryState(absolutePath);
+        if (state != null) {
+          entries.put(absolutePath, state);
+        }
+      }
     }
+    return entries;
+  }
 
-    if (kind == ENTRY_DELETE) {
-      return DirectoryEvent.ENTRY_DELETED;
+  private static EntryState getEntryState(Path path) throws IOException {
+    try {
+      return new EntryState(Files.readAttributes(path, BasicFileAttributes.class));
+    } catch (NoSuchFileException e) {
+      return null;
     }
+  }
 
-    throw new IllegalArgumentException(String.format("Unsupported event kind %s", kind));
+  /**
+   * Send the net change of each pending path that is due
+   */
+  private void sendSettledChanges(long now) throws IOException {
+    Iterator<Map.Entry<Path, PendingChange>> it = _pendingChanges.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Path, PendingChange> entry = it.next();
+      if (getDueTime(entry.getValue()) > now) {
+        continue;
+      }
+      it.remove();
+
+      Path path = entry.getKey();
+      EntryState previous = _entries.get(path);
+      EntryState current = getEntryState(path);
+      DirectoryEvent event = null;
+      if (previous == null && current != null) {
+        event = DirectoryEvent.ENTRY_CREATED;
+      } else if (previous != null && current == null) {
+        event = DirectoryEvent.ENTRY_DELETED;
+      } else if (previous != null && !previous.equals(current)) {
+        event = DirectoryEvent.ENTRY_MODIFIED;
+      }
+
+      if (current != null) {
+        _entries.put(path, current);
+      } else {
+        _entries.remove(path);
+      }
+
+      int numEvents = entry.getValue()._numEvents;
+      if (event == null) {
+        LOG.debug("Suppressed {} events for {} with no net change", numEvents, path);
+        updateMeter(EVENTS_SUPPRESSED_RATE, numEvents);
+      } else {
+        updateMeter(EVENTS_SUPPRESSED_RATE, Math.max(0, numEvents - 1));
+        send(path, event);
+      }
+    }
+  }
+
+  private void send(Path path, DirectoryEvent event) {
+    BrooklinEnvelope envelope = new BrooklinEnvelope(path, event, null, Collections.emptyMap());
+
+    DatastreamProducerRecordBuilder builder = new DatastreamProducerRecordBuilder();
+    builder.addEvent(envelope);
+    builder.setEventsSourceTimestamp(System.currentTimeMillis());
+    builder.setPartition(0);
+
+    _producer.send(builder.build(), ((metadata, exception) -> {
+      if (exception == null) {
+        LOG.info("Sending event succeeded");
+      } else {
+        LOG.error("Sending event failed", exception);
+      }
+    }));
+    updateMeter(EVENTS_SENT_RATE, 1);
+  }
+
+  private void updateMeter(String metric, long count) {
+    if (count > 0) {
+      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, _metricsKey, metric, count);
+      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, AGGREGATE, metric, count);
+    }
   }
 }
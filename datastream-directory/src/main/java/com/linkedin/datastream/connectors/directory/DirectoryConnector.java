@@ -8,6 +8,7 @@ package com.linkedin.datastream.connectors.directory;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -23,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.Sets;
 
 import com.linkedin.datastream.common.Datastream;
+import com.linkedin.datastream.metrics.BrooklinMetricInfo;
 import com.linkedin.datastream.server.DatastreamTask;
 import com.linkedin.datastream.server.api.connector.Connector;
 import com.linkedin.datastream.server.api.connector.DatastreamValidationException;
@@ -42,6 +44,7 @@ public class DirectoryConnector implements Connector {
 
   private final ConcurrentMap<DatastreamTask, DirectoryChangeProcessor> _directoryProcessors;
   private final ExecutorService _executorService;
+  private final Duration _debounceWindow;
 
   /**
    * Constructor for DirectoryConnector
@@ -49,10 +52,21 @@ public class DirectoryConnector implements Connector {
    *                       for watching and processing directory changes.
    */
   public DirectoryConnector(int threadPoolSize) {
+    this(threadPoolSize, DirectoryChangeProcessor.DEFAULT_DEBOUNCE_WINDOW);
+  }
+
+  /**
+   * Constructor for DirectoryConnector
+   * @param threadPoolSize Number of threads in the thread pool used
+   *                       for watching and processing directory changes.
+   * @param debounceWindow How long a path must stay unchanged before its net change is propagated
+   */
+  public DirectoryConnector(int threadPoolSize, Duration debounceWindow) {
     Validate.isTrue(threadPoolSize > 0, "Thread pool size must be greater than zero");
 
     _directoryProcessors = new ConcurrentHashMap<>();
     _executorService = Executors.newFixedThreadPool(threadPoolSize);
+    _debounceWindow = debounceWindow;
   }
 
   @Override
@@ -109,7 +123,8 @@ public class DirectoryConnector implements Connector {
   private void startTaskProcessors(Iterable<DatastreamTask> datastreamTasks) {
     for (DatastreamTask datastreamTask : datastreamTasks) {
       try {
-        DirectoryChangeProcessor processor = new DirectoryChangeProcessor(datastreamTask, datastreamTask.getEventProducer());
+        DirectoryChangeProcessor processor =
+            new DirectoryChangeProcessor(datastreamTask, datastreamTask.getEventProducer(), _debounceWindow);
         _directoryProcessors.put(datastreamTask, processor);
         _executorService.submit(processor);
       } catch (IOException ex) {
@@ -128,6 +143,11 @@ public class DirectoryConnector implements Connector {
     }
   }
 
+  @Override
+  public List<BrooklinMetricInfo> getMetricInfos() {
+    return DirectoryChangeProcessor.getMetricInfos();
+  }
+
   private static void validateDirectoryPath(String path) throws DatastreamValidationException {
     if (!DirectoryChangeProcessor.isDirectory(path)) {
       throw new DatastreamValidationException(String.format("Path %s is not a directory", path));
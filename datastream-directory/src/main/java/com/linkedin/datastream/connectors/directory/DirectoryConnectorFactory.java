@@ -5,6 +5,7 @@
  */
 package com.linkedin.datastream.connectors.directory;
 
+import java.time.Duration;
 import java.util.Properties;
 
 import org.apache.commons.lang3.Validate;
@@ -18,6 +19,7 @@ import com.linkedin.datastream.server.api.connector.ConnectorFactory;
 public class DirectoryConnectorFactory implements ConnectorFactory<DirectoryConnector> {
   private static final String CFG_DEFAULT_MAX_POOL_SIZE = "5";
   private static final String CFG_THREAD_POOL_SIZE = "maxExecProcessors";
+  private static final String CFG_DEBOUNCE_WINDOW_MS = "debounceWindowMs";
 
   @Override
   public DirectoryConnector createConnector(String connectorName, Properties config, String clusterName) {
@@ -25,7 +27,9 @@ public class DirectoryConnectorFactory implements ConnectorFactory<DirectoryConn
     Validate.notNull(config);
     Validate.notEmpty(clusterName);
 
+    Duration debounceWindow = Duration.ofMillis(Long.parseLong(config.getProperty(CFG_DEBOUNCE_WINDOW_MS,
+        String.valueOf(DirectoryChangeProcessor.DEFAULT_DEBOUNCE_WINDOW.toMillis()))));
     return new DirectoryConnector(Integer.parseInt(config.getProperty(CFG_THREAD_POOL_SIZE,
-        CFG_DEFAULT_MAX_POOL_SIZE)));
+        CFG_DEFAULT_MAX_POOL_SIZE)), debounceWindow);
   }
 }
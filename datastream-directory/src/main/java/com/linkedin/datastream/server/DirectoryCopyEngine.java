@@ -0,0 +1,335 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+
+import com.linkedin.datastream.metrics.BrooklinGaugeInfo;
+import com.linkedin.datastream.metrics.BrooklinMeterInfo;
+import com.linkedin.datastream.metrics.BrooklinMetricInfo;
+import com.linkedin.datastream.metrics.DynamicMetricsManager;
+import com.linkedin.datastream.metrics.MetricsAware;
+
+
+/**
+ * Copies files and directory trees into a destination directory on a bounded pool of workers.
+ *
+ * Operations are spread across single-threaded lanes by destination path, so the operations on the same path are
+ * applied in the order they were submitted while different paths are copied in parallel. Each lane has a bounded
+ * queue, and submitting to a full lane blocks the caller.
+ *
+ * Files are copied with {@link FileChannel#transferTo} into a temporary file next to the target, which is then
+ * renamed over the target, so readers of the destination never see a partially copied file. The modification
+ * time of the source is carried over, and files whose size and modification time (or, optionally, checksum)
+ * already match the source are skipped.
+ *
+ * The metrics of an engine are keyed by its name, so that the engines of different transport providers don't share
+ * them.
+ */
+class DirectoryCopyEngine implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectoryCopyEngine.class);
+  private static final String CLASS_NAME = DirectoryCopyEngine.class.getSimpleName();
+  private static final String TEMP_FILE_PREFIX = ".brooklin-";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+  static final String BYTES_COPIED_RATE = "bytesCopiedRate";
+  static final String FILES_COPIED_RATE = "filesCopiedRate";
+  static final String FILES_SKIPPED_RATE = "filesSkippedRate";
+  static final String COPY_ERROR_RATE = "copyErrorRate";
+  static final String QUEUE_DEPTH = "queueDepth";
+
+  private final String _name;
+  private final List<ThreadPoolExecutor> _lanes;
+  private final boolean _verifyChecksum;
+  private final Meter _bytesCopiedRate;
+  private final Meter _filesCopiedRate;
+  private final Meter _filesSkippedRate;
+  private final Meter _copyErrorRate;
+
+  /**
+   * Constructor for DirectoryCopyEngine
+   * @param name the name of the engine, which keys its metrics
+   * @param numThreads number of copy workers
+   * @param queueSize maximum number of pending operations per worker
+   * @param verifyChecksum whether to compare the checksums of files that have the same size but a different
+   *                       modification time before copying them
+   */
+  DirectoryCopyEngine(String name, int numThreads, int queueSize, boolean verifyChecksum) {
+    Validate.notEmpty(name, "copy engine name must not be empty");
+    Validate.isTrue(numThreads > 0, "number of copy threads must be greater than zero");
+    Validate.isTrue(queueSize > 0, "copy queue size must be greater than zero");
+
+    _name = name;
+    _verifyChecksum = verifyChecksum;
+    _lanes = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      String threadName = "DirectoryCopyWorker-" + i;
+      ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueSize), r -> {
+        Thread t = new Thread(r);
+        t.setDaemon(true);
+        t.setName(threadName);
+        return t;
+      }, (r, executor) -> {
+        // Block the caller until the lane has room, rather than reordering or dropping the operation
+        if (executor.isShutdown()) {
+          throw new RejectedExecutionException("Copy engine is closed");
+        }
+        try {
+          executor.getQueue().put(r);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RejectedExecutionException("Interrupted while waiting for the copy queue", e);
+        }
+        // The lane may have been shut down while the caller was blocked, in which case its worker may be gone
+        // and would never run the operation
+        if (executor.isShutdown() && executor.getQueue().remove(r)) {
+          throw new RejectedExecutionException("Copy engine is closed");
+        }
+      });
+      _lanes.add(lane);
+    }
+
+    DynamicMetricsManager dynamicMetricsManager = DynamicMetricsManager.getInstance();
+    _bytesCopiedRate = dynamicMetricsManager.registerMetric(CLASS_NAME, _name, BYTES_COPIED_RATE, Meter.class);
+    _filesCopiedRate = dynamicMetricsManager.registerMetric(CLASS_NAME, _name, FILES_COPIED_RATE, Meter.class);
+    _filesSkippedRate = dynamicMetricsManager.registerMetric(CLASS_NAME, _name, FILES_SKIPPED_RATE, Meter.class);
+    _copyErrorRate = dynamicMetricsManager.registerMetric(CLASS_NAME, _name, COPY_ERROR_RATE, Meter.class);
+    dynamicMetricsManager.registerGauge(CLASS_NAME, _name, QUEUE_DEPTH, this::getQueueDepth);
+  }
+
+  /**
+   * Get the metrics of the copy engines
+   */
+  static List<BrooklinMetricInfo> getMetricInfos() {
+    String prefix = CLASS_NAME + MetricsAware.KEY_REGEX;
+    List<BrooklinMetricInfo> metrics = new ArrayList<>();
+    metrics.add(new BrooklinMeterInfo(prefix + BYTES_COPIED_RATE));
+    metrics.add(new BrooklinMeterInfo(prefix + FILES_COPIED_RATE));
+    metrics.add(new BrooklinMeterInfo(prefix + FILES_SKIPPED_RATE));
+    metrics.add(new BrooklinMeterInfo(prefix + COPY_ERROR_RATE));
+    metrics.add(new BrooklinGaugeInfo(prefix + QUEUE_DEPTH));
+    return metrics;
+  }
+
+  /**
+   * Number of operations waiting to be applied
+   */
+  int getQueueDepth() {
+    return _lanes.stream().mapToInt(lane -> lane.getQueue().size()).sum();
+  }
+
+  /**
+   * Asynchronously make the entry of the destination directory with the same name as the source file or
+   * directory a copy of it. A directory is synchronized recursively, removing the entries the source no longer has.
+   */
+  void copy(Path source, Path destinationDir) {
+    Path target = destinationDir.resolve(source.getFileName());
+    submit(target, () -> {
+      if (Files.isDirectory(source)) {
+        syncDirectory(source, target);
+      } else {
+        syncFile(source, target);
+      }
+    });
+  }
+
+  /**
+   * Asynchronously delete the entry of the destination directory with the given name
+   */
+  void delete(Path destinationDir, Path name) {
+    Path target = destinationDir.resolve(name);
+    submit(target, () -> {
+      if (FileUtils.deleteQuietly(target.toFile())) {
+        LOG.info("Successfully deleted {}", target);
+      } else {
+        LOG.warn("Path '{}' did not exist in destination directory", target);
+      }
+    });
+  }
+
+  /**
+   * Wait until all the operations submitted so far have been applied
+   */
+  void flush() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(_lanes.size());
+    for (ThreadPoolExecutor lane : _lanes) {
+      try {
+        lane.execute(latch::countDown);
+      } catch (RejectedExecutionException e) {
+        // The engine is closed, and the lane only has the operations submitted so far left to apply
+        lane.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        latch.countDown();
+      }
+    }
+    latch.await();
+  }
+
+  /**
+   * Stop accepting operations and unregister the metrics. The operations submitted so far are still applied.
+   */
+  @Override
+  public void close() {
+    _lanes.forEach(ThreadPoolExecutor::shutdown);
+    DynamicMetricsManager dynamicMetricsManager = DynamicMetricsManager.getInstance();
+    Arrays.asList(BYTES_COPIED_RATE, FILES_COPIED_RATE, FILES_SKIPPED_RATE, COPY_ERROR_RATE, QUEUE_DEPTH)
+        .forEach(metricName -> dynamicMetricsManager.unregisterMetric(CLASS_NAME, _name, metricName));
+  }
+
+  @FunctionalInterface
+  private interface CopyOperation {
+    void apply() throws IOException;
+  }
+
+  private void submit(Path target, CopyOperation operation) {
+    ThreadPoolExecutor lane = _lanes.get((target.hashCode() & Integer.MAX_VALUE) % _lanes.size());
+    lane.execute(() -> {
+      try {
+        operation.apply();
+      } catch (Exception e) {
+        _copyErrorRate.mark();
+        LOG.error("Encountered an error while updating {}", target, e);
+      }
+    });
+  }
+
+  private void syncDirectory(Path source, Path target) throws IOException {
+    if (Files.exists(target) && !Files.isDirectory(target)) {
+      Files.delete(target);
+    }
+    Files.createDirectories(target);
+
+    Set<Path> names = new HashSet<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(source)) {
+      for (Path child : stream) {
+        Path name = child.getFileName();
+        names.add(name);
+        if (Files.isDirectory(child)) {
+          syncDirectory(child, target.resolve(name));
+        } else {
+          syncFile(child, target.resolve(name));
+        }
+      }
+    }
+
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(target)) {
+      for (Path child : stream) {
+        if (!names.contains(child.getFileName())) {
+          FileUtils.deleteQuietly(child.toFile());
+        }
+      }
+    }
+  }
+
+  private void syncFile(Path source, Path target) throws IOException {
+    BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+    if (isUnchanged(source, sourceAttributes, target)) {
+      _filesSkippedRate.mark();
+      LOG.debug("Skipped unchanged file {}", target);
+      return;
+    }
+    if (Files.isDirectory(target)) {
+      FileUtils.deleteDirectory(target.toFile());
+    }
+
+    Path tempFile = target.resolveSibling(TEMP_FILE_PREFIX + target.getFileName() + "." + UUID.randomUUID()
+        + TEMP_FILE_SUFFIX);
+    long startTime = System.currentTimeMillis();
+    try {
+      long size;
+      try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+          FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        size = in.size();
+        long position = 0;
+        while (position < size) {
+          long transferred = in.transferTo(position, size - position, out);
+          if (transferred <= 0) {
+            // The source was truncated while being copied
+            break;
+          }
+          position += transferred;
+        }
+        size = position;
+      }
+      Files.setLastModifiedTime(tempFile, sourceAttributes.lastModifiedTime());
+      try {
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      _bytesCopiedRate.mark(size);
+      _filesCopiedRate.mark();
+      LOG.info("Successfully copied {} ({} bytes) to {} in {}", source, size, target,
+          Duration.ofMillis(System.currentTimeMillis() - startTime));
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private boolean isUnchanged(Path source, BasicFileAttributes sourceAttributes, Path target) throws IOException {
+    if (!Files.isRegularFile(target)) {
+      return false;
+    }
+    BasicFileAttributes targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+    if (sourceAttributes.size() != targetAttributes.size()) {
+      return false;
+    }
+    FileTime sourceModifiedTime = sourceAttributes.lastModifiedTime();
+    if (sourceModifiedTime.equals(targetAttributes.lastModifiedTime())) {
+      return true;
+    }
+    if (_verifyChecksum && checksum(source) == checksum(target)) {
+      // Carry over the modification time so the next check doesn't need the checksum
+      Files.setLastModifiedTime(target, sourceModifiedTime);
+      return true;
+    }
+    return false;
+  }
+
+  private static long checksum(Path path) throws IOException {
+    CRC32 crc = new CRC32();
+    ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      while (channel.read(buffer) > 0) {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        buffer.clear();
+      }
+    }
+    return crc.getValue();
+  }
+}
@@ -5,13 +5,9 @@
  */
 package com.linkedin.datastream.server;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +24,8 @@ import static com.linkedin.datastream.connectors.directory.DirectoryChangeProces
  * from a source directory in the file system by reflecting them to a destination
  * directory to keep it in sync.
  *
+ * Changes are applied asynchronously by a {@link DirectoryCopyEngine}, which copies
+ * different paths in parallel while keeping the changes to the same path in order.
  * However, this does not cover copying the initial contents of the source directory
  * or wiping the initial contents of the destination directory.
  * <br/>
@@ -36,6 +34,17 @@ import static com.linkedin.datastream.connectors.directory.DirectoryChangeProces
 public class DirectoryTransportProvider implements TransportProvider {
   private static final Logger LOG = LoggerFactory.getLogger(DirectoryTransportProvider.class);
 
+  private final DirectoryCopyEngine _copyEngine;
+
+  /**
+   * Constructor for DirectoryTransportProvider
+   * @param copyEngine the engine applying the changes to the destination directories
+   */
+  DirectoryTransportProvider(DirectoryCopyEngine copyEngine) {
+    Validate.notNull(copyEngine);
+    _copyEngine = copyEngine;
+  }
+
   @Override
   public void send(String destination, DatastreamProducerRecord record, SendCallback onComplete) {
     Validate.notEmpty(destination);
@@ -47,18 +56,16 @@ public class DirectoryTransportProvider implements TransportProvider {
     for (BrooklinEnvelope envelope : record.getEvents()) {
       Path sourcePath = (Path) envelope.key().get();
       DirectoryEvent changeEvent = (DirectoryEvent) envelope.value().get();
-      LOG.info("Received change event {} in path {}", changeEvent, sourcePath);
+      LOG.debug("Received change event {} in path {}", changeEvent, sourcePath);
 
       switch (changeEvent) {
         case ENTRY_CREATED:
-          copyPathToDir(sourcePath, destinationPath);
-          break;
         case ENTRY_MODIFIED:
-          deleteSubPath(destinationPath, sourcePath.getFileName());
-          copyPathToDir(sourcePath, destinationPath);
+          // The copy engine only rewrites what differs, so a modified path doesn't need to be deleted first
+          _copyEngine.copy(sourcePath, destinationPath);
           break;
         case ENTRY_DELETED:
-          deleteSubPath(destinationPath, sourcePath.getFileName());
+          _copyEngine.delete(destinationPath, sourcePath.getFileName());
           break;
         default:
           throw new IllegalArgumentException(String.format("Unrecognized DirectoryEvent: %s", changeEvent));
@@ -68,38 +75,18 @@ public class DirectoryTransportProvider implements TransportProvider {
     // Deliberately not invoking onComplete because there is no progress info to checkpoint
   }
 
-  private static void copyPathToDir(Path sourcePath, Path destinationDir) {
-    ThrowingBinFunction<File, File> copyFn = Files.isDirectory(sourcePath) ?
-        FileUtils::copyDirectoryToDirectory :
-        FileUtils::copyFileToDirectory;
-
-    try {
-      copyFn.apply(sourcePath.toFile(), destinationDir.toFile());
-      LOG.info("Successfully copied {} to {}", sourcePath, destinationDir);
-    } catch (IOException e) {
-      LOG.error("Encountered an error while copying {} to {}: ", sourcePath, destinationDir, e.getMessage());
-    }
-  }
-
-  private void deleteSubPath(Path parentPath, Path subPath) {
-    Path deletePath = parentPath.resolve(subPath);
-    if (FileUtils.deleteQuietly(deletePath.toFile())) {
-      LOG.info("Successfully deleted {}", deletePath);
-    } else {
-      LOG.warn("Path '{}' did not exist in destination directory", deletePath);
-    }
-  }
-
   @Override
   public void close() {
+    _copyEngine.close();
   }
 
   @Override
   public void flush() {
-  }
-
-  @FunctionalInterface
-  private interface ThrowingBinFunction<T, U> {
-    void apply(T t, U u) throws IOException;
+    try {
+      _copyEngine.flush();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.warn("Interrupted while waiting for pending copies to complete");
+    }
   }
 }
@@ -9,6 +9,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
@@ -16,6 +18,8 @@ import org.apache.commons.lang3.Validate;
 import com.linkedin.datastream.common.Datastream;
 import com.linkedin.datastream.common.DatastreamDestination;
 import com.linkedin.datastream.common.DatastreamRuntimeException;
+import com.linkedin.datastream.common.VerifiableProperties;
+import com.linkedin.datastream.metrics.BrooklinMetricInfo;
 import com.linkedin.datastream.server.api.connector.DatastreamValidationException;
 import com.linkedin.datastream.server.api.transport.TransportProvider;
 import com.linkedin.datastream.server.api.transport.TransportProviderAdmin;
@@ -25,14 +29,40 @@ import com.linkedin.datastream.server.api.transport.TransportProviderAdmin;
  * A {@link TransportProviderAdmin} implementation for {@link DirectoryTransportProvider}.
  */
 public class DirectoryTransportProviderAdmin implements TransportProviderAdmin {
-  private static final DirectoryTransportProvider DIRECTORY_TRANSPORT_PROVIDER =
-      new DirectoryTransportProvider();
+  public static final String CONFIG_COPY_THREADS = "copyThreads";
+  public static final String CONFIG_COPY_QUEUE_SIZE = "copyQueueSize";
+  public static final String CONFIG_VERIFY_CHECKSUM = "verifyChecksum";
 
+  private static final int DEFAULT_COPY_THREADS = 4;
+  private static final int DEFAULT_COPY_QUEUE_SIZE = 1000;
   private static final Duration DATASTREAM_RETENTION = Duration.ofDays(1);
 
+  private final DirectoryTransportProvider _transportProvider;
+
+  /**
+   * Constructor for DirectoryTransportProviderAdmin
+   * @param transportProviderName the name of the transport provider, which keys the metrics of its copy engine
+   * @param props the transport provider properties. Supported properties are
+   *              <ul>
+   *                <li>copyThreads: number of threads copying files, 4 by default</li>
+   *                <li>copyQueueSize: maximum number of pending changes per copy thread, 1000 by default</li>
+   *                <li>verifyChecksum: whether to compare the contents of files with the same size but a
+   *                different modification time before copying them, false by default</li>
+   *              </ul>
+   */
+  public DirectoryTransportProviderAdmin(String transportProviderName, Properties props) {
+    VerifiableProperties config = new VerifiableProperties(props);
+    int copyThreads = config.getIntInRange(CONFIG_COPY_THREADS, DEFAULT_COPY_THREADS, 1, Integer.MAX_VALUE);
+    int copyQueueSize = config.getIntInRange(CONFIG_COPY_QUEUE_SIZE, DEFAULT_COPY_QUEUE_SIZE, 1, Integer.MAX_VALUE);
+    boolean verifyChecksum = config.getBoolean(CONFIG_VERIFY_CHECKSUM, false);
+    _transportProvider =
+        new DirectoryTransportProvider(
+            new DirectoryCopyEngine(transportProviderName, copyThreads, copyQueueSize, verifyChecksum));
+  }
+
   @Override
   public TransportProvider assignTransportProvider(DatastreamTask task) {
-    return DIRECTORY_TRANSPORT_PROVIDER;
+    return _transportProvider;
   }
 
   @Override
@@ -76,4 +106,9 @@ public class DirectoryTransportProviderAdmin implements TransportProviderAdmin {
   public Duration getRetention(Datastream datastream) {
     return DATASTREAM_RETENTION;
   }
+
+  @Override
+  public List<BrooklinMetricInfo> getMetricInfos() {
+    return DirectoryCopyEngine.getMetricInfos();
+  }
 }
@@ -18,6 +18,6 @@ public class DirectoryTransportProviderAdminFactory implements TransportProvider
   @Override
   public TransportProviderAdmin createTransportProviderAdmin(String transportProviderName,
       Properties transportProviderProperties) {
-    return new DirectoryTransportProviderAdmin();
+    return new DirectoryTransportProviderAdmin(transportProviderName, transportProviderProperties);
   }
 }
@@ -0,0 +1,257 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.connectors.directory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.Watchable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import com.linkedin.datastream.common.DatastreamSource;
+import com.linkedin.datastream.common.PollUtils;
+import com.linkedin.datastream.connectors.directory.DirectoryChangeProcessor.DirectoryEvent;
+import com.linkedin.datastream.metrics.DynamicMetricsManager;
+import com.linkedin.datastream.server.DatastreamEventProducer;
+import com.linkedin.datastream.server.DatastreamProducerRecord;
+import com.linkedin.datastream.server.DatastreamTask;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests for {@link DirectoryChangeProcessor}
+ */
+public class TestDirectoryChangeProcessor {
+  private static final long TIMEOUT_MS = 10000;
+  private static final Duration DEBOUNCE_WINDOW = Duration.ofMillis(300);
+  private static final String TASK_NAME = "testDirectoryChangeProcessor_0";
+
+  private Path _directory;
+  private DynamicMetricsManager _metricsManager;
+  private ExecutorService _executor;
+  private final List<DatastreamProducerRecord> _records = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * A processor that drops the watch events it receives once asked to, and reports an OVERFLOW instead when asked
+   * to, as the watch service does when it loses events
+   */
+  private static class LossyDirectoryChangeProcessor extends DirectoryChangeProcessor {
+    private final CountDownLatch _started = new CountDownLatch(1);
+    private volatile boolean _dropEvents;
+    private volatile boolean _overflow;
+
+    LossyDirectoryChangeProcessor(DatastreamTask task, DatastreamEventProducer producer) throws IOException {
+      super(task, producer, DEBOUNCE_WINDOW);
+    }
+
+    @Override
+    WatchKey pollWatchService() throws InterruptedException {
+      _started.countDown();
+      if (_overflow) {
+        _overflow = false;
+        return new OverflowWatchKey();
+      }
+      WatchKey key = super.pollWatchService();
+      if (key != null && _dropEvents) {
+        key.pollEvents();
+        key.reset();
+        return null;
+      }
+      return key;
+    }
+  }
+
+  private static class OverflowWatchKey implements WatchKey {
+    @Override
+    public boolean isValid() {
+      return true;
+    }
+
+    @Override
+    public List<WatchEvent<?>> pollEvents() {
+      return Collections.singletonList(new WatchEvent<Object>() {
+        @Override
+        public Kind<Object> kind() {
+          return StandardWatchEventKinds.OVERFLOW;
+        }
+
+        @Override
+        public int count() {
+          return 1;
+        }
+
+        @Override
+        public Object context() {
+          return null;
+        }
+      });
+    }
+
+    @Override
+    public boolean reset() {
+      return true;
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    @Override
+    public Watchable watchable() {
+      return null;
+    }
+  }
+
+  @BeforeMethod
+  public void setup(Method method) throws IOException {
+    _metricsManager = DynamicMetricsManager.createInstance(new MetricRegistry(), method.getName());
+    _directory = Files.createTempDirectory("testDirectoryChangeProcessor").toAbsolutePath();
+    _executor = Executors.newSingleThreadExecutor();
+    _records.clear();
+  }
+
+  @AfterMethod
+  public void teardown() throws InterruptedException {
+    _executor.shutdownNow();
+    _executor.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    FileUtils.deleteQuietly(_directory.toFile());
+  }
+
+  private DatastreamTask createTask() {
+    DatastreamTask task = mock(DatastreamTask.class);
+    when(task.getDatastreamSource()).thenReturn(new DatastreamSource().setConnectionString(_directory.toString()));
+    when(task.getDatastreamTaskName()).thenReturn(TASK_NAME);
+    return task;
+  }
+
+  private DatastreamEventProducer createProducer() {
+    DatastreamEventProducer producer = mock(DatastreamEventProducer.class);
+    doAnswer(invocation -> {
+      _records.add((DatastreamProducerRecord) invocation.getArguments()[0]);
+      return null;
+    }).when(producer).send(any(), any());
+    return producer;
+  }
+
+  private LossyDirectoryChangeProcessor startProcessor() throws Exception {
+    LossyDirectoryChangeProcessor processor = new LossyDirectoryChangeProcessor(createTask(), createProducer());
+    _executor.submit(processor);
+    Assert.assertTrue(processor._started.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    return processor;
+  }
+
+  /**
+   * Get the events sent so far as {@code <file name>=<event>}
+   */
+  private List<String> getEvents() {
+    synchronized (_records) {
+      return _records.stream()
+          .flatMap(record -> record.getEvents().stream())
+          .map(event -> ((Path) event.key().get()).getFileName() + "=" + event.value().get())
+          .collect(Collectors.toList());
+    }
+  }
+
+  private boolean waitForEvents(int count) {
+    return PollUtils.poll(() -> getEvents().size() >= count, 50, TIMEOUT_MS);
+  }
+
+  private long getCount(String metricName) {
+    Meter meter = _metricsManager.getMetric(
+        MetricRegistry.name(DirectoryChangeProcessor.class.getSimpleName(), TASK_NAME, metricName));
+    return meter == null ? 0 : meter.getCount();
+  }
+
+  private static void append(Path path, String content) throws IOException {
+    Files.write(path, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  @Test
+  public void testCoalesceBursts() throws Exception {
+    Path existing = _directory.resolve("existing.txt");
+    append(existing, "existing");
+    try (LossyDirectoryChangeProcessor processor = startProcessor()) {
+      // A burst of writes to a new file is sent as a single creation
+      Path created = _directory.resolve("created.txt");
+      for (int i = 0; i < 10; i++) {
+        append(created, "line" + i + "\n");
+      }
+      // A file created and deleted within the window is not sent at all
+      Path temporary = _directory.resolve("temporary.txt");
+      append(temporary, "temporary");
+      Files.delete(temporary);
+      Assert.assertTrue(waitForEvents(1));
+
+      // A file deleted and created again is sent as a single modification
+      Files.delete(existing);
+      append(existing, "existing again");
+      Assert.assertTrue(waitForEvents(2));
+      Thread.sleep(DEBOUNCE_WINDOW.toMillis() * 2);
+
+      Assert.assertEquals(getEvents(),
+          Arrays.asList("created.txt=" + DirectoryEvent.ENTRY_CREATED,
+              "existing.txt=" + DirectoryEvent.ENTRY_MODIFIED));
+      Assert.assertEquals(getCount("eventsSentRate"), 2);
+      Assert.assertTrue(getCount("eventsSuppressedRate") > 0);
+      Assert.assertEquals(getCount("eventsReceivedRate"),
+          getCount("eventsSentRate") + getCount("eventsSuppressedRate"));
+    }
+  }
+
+  @Test
+  public void testRescanAfterOverflow() throws Exception {
+    Path modified = _directory.resolve("modified.txt");
+    append(modified, "content");
+    Path deleted = _directory.resolve("deleted.txt");
+    append(deleted, "content");
+    try (LossyDirectoryChangeProcessor processor = startProcessor()) {
+      // The watch events of these changes are lost, so only a rescan can find them
+      processor._dropEvents = true;
+      append(modified, " and more content");
+      Files.delete(deleted);
+      append(_directory.resolve("created.txt"), "content");
+      processor._overflow = true;
+      // Wake up the processor in case it is waiting for events
+      append(modified, "!");
+      Assert.assertTrue(waitForEvents(3));
+      Thread.sleep(DEBOUNCE_WINDOW.toMillis() * 2);
+
+      Assert.assertEquals(getEvents().stream().sorted().collect(Collectors.toList()),
+          Arrays.asList("created.txt=" + DirectoryEvent.ENTRY_CREATED,
+              "deleted.txt=" + DirectoryEvent.ENTRY_DELETED, "modified.txt=" + DirectoryEvent.ENTRY_MODIFIED));
+      Assert.assertEquals(getCount("overflowRescanRate"), 1);
+    }
+  }
+}
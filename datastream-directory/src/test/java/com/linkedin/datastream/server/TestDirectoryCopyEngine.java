@@ -0,0 +1,186 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import com.linkedin.datastream.metrics.DynamicMetricsManager;
+
+
+/**
+ * Tests for {@link DirectoryCopyEngine}
+ */
+public class TestDirectoryCopyEngine {
+  private static final String ENGINE_NAME = "testCopyEngine";
+
+  private Path _sourceDir;
+  private Path _destinationDir;
+  private DynamicMetricsManager _metricsManager;
+
+  @BeforeMethod
+  public void setup(Method method) throws IOException {
+    _metricsManager = DynamicMetricsManager.createInstance(new MetricRegistry(), method.getName());
+    _sourceDir = Files.createTempDirectory("testCopyEngineSource");
+    _destinationDir = Files.createTempDirectory("testCopyEngineDestination");
+  }
+
+  @AfterMethod
+  public void teardown() {
+    FileUtils.deleteQuietly(_sourceDir.toFile());
+    FileUtils.deleteQuietly(_destinationDir.toFile());
+  }
+
+  private static Path write(Path path, String content) throws IOException {
+    Files.createDirectories(path.getParent());
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(Path path) throws IOException {
+    return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+  }
+
+  private long getCount(String engineName, String metricName) {
+    Meter meter = _metricsManager.getMetric(
+        MetricRegistry.name(DirectoryCopyEngine.class.getSimpleName(), engineName, metricName));
+    return meter.getCount();
+  }
+
+  @Test
+  public void testCopyFile() throws Exception {
+    Path source = write(_sourceDir.resolve("file.txt"), "content");
+    Files.setLastModifiedTime(source, FileTime.fromMillis(1_000_000));
+    Path target = _destinationDir.resolve("file.txt");
+
+    try (DirectoryCopyEngine engine = new DirectoryCopyEngine(ENGINE_NAME, 2, 10, false)) {
+      engine.copy(source, _destinationDir);
+      engine.flush();
+      Assert.assertEquals(read(target), "content");
+      Assert.assertEquals(Files.getLastModifiedTime(target), Files.getLastModifiedTime(source));
+      Assert.assertEquals(getCount(ENGINE_NAME, DirectoryCopyEngine.FILES_COPIED_RATE), 1);
+      Assert.assertEquals(getCount(ENGINE_NAME, DirectoryCopyEngine.BYTES_COPIED_RATE), "content".length());
+
+      // An unchanged file is skipped
+      engine.copy(source, _destinationDir);
+      engine.flush();
+      Assert.assertEquals(getCount(ENGINE_NAME, DirectoryCopyEngine.FILES_COPIED_RATE), 1);
+      Assert.assertEquals(getCount(ENGINE_NAME, DirectoryCopyEngine.FILES_SKIPPED_RATE), 1);
+
+      // A modified file is copied over the target, without leaving temporary files behind
+      write(source, "new content");
+      engine.copy(source, _destinationDir);
+      engine.flush();
+      Assert.assertEquals(read(target), "new content");
+      try (Stream<Path> files = Files.list(_destinationDir)) {
+        Assert.assertEquals(files.collect(Collectors.toList()), Arrays.asList(target));
+      }
+
+      engine.delete(_destinationDir, source.getFileName());
+      engine.flush();
+      Assert.assertFalse(Files.exists(target));
+    }
+  }
+
+  @Test
+  public void testSyncDirectory() throws Exception {
+    Path sourceTree = _sourceDir.resolve("tree");
+    write(sourceTree.resolve("a.txt"), "a");
+    write(sourceTree.resolve("sub").resolve("b.txt"), "b");
+    Path targetTree = _destinationDir.resolve("tree");
+    write(targetTree.resolve("stale.txt"), "stale");
+    write(targetTree.resolve("sub"), "a file where the source has a directory");
+
+    try (DirectoryCopyEngine engine = new DirectoryCopyEngine(ENGINE_NAME, 2, 10, false)) {
+      engine.copy(sourceTree, _destinationDir);
+      engine.flush();
+    }
+
+    Assert.assertEquals(read(targetTree.resolve("a.txt")), "a");
+    Assert.assertEquals(read(targetTree.resolve("sub").resolve("b.txt")), "b");
+    Assert.assertFalse(Files.exists(targetTree.resolve("stale.txt")));
+  }
+
+  @Test
+  public void testVerifyChecksum() throws Exception {
+    Path source = write(_sourceDir.resolve("file.txt"), "content");
+    Path target = write(_destinationDir.resolve("file.txt"), "content");
+    Files.setLastModifiedTime(target, FileTime.fromMillis(1_000_000));
+
+    try (DirectoryCopyEngine engine = new DirectoryCopyEngine(ENGINE_NAME, 1, 10, true)) {
+      // Same size and content, but a different modification time
+      engine.copy(source, _destinationDir);
+      engine.flush();
+      Assert.assertEquals(getCount(ENGINE_NAME, DirectoryCopyEngine.FILES_SKIPPED_RATE), 1);
+      Assert.assertEquals(Files.getLastModifiedTime(target), Files.getLastModifiedTime(source));
+
+      // Same size, but a different content
+      write(source, "CONTENT");
+      Files.setLastModifiedTime(source, FileTime.fromMillis(2_000_000));
+      engine.copy(source, _destinationDir);
+      engine.flush();
+      Assert.assertEquals(read(target), "CONTENT");
+      Assert.assertEquals(getCount(ENGINE_NAME, DirectoryCopyEngine.FILES_COPIED_RATE), 1);
+    }
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    Path source = write(_sourceDir.resolve("file.txt"), "content");
+    DirectoryCopyEngine engine = new DirectoryCopyEngine(ENGINE_NAME, 2, 1, false);
+    engine.copy(source, _destinationDir);
+    engine.close();
+
+    // The operations submitted before closing are still applied, and flushing a closed engine doesn't hang
+    engine.flush();
+    Assert.assertEquals(read(_destinationDir.resolve("file.txt")), "content");
+    try {
+      engine.copy(source, _destinationDir);
+      Assert.fail("Copying with a closed engine should be rejected");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testMetricsPerEngine() throws Exception {
+    Path source = write(_sourceDir.resolve("file.txt"), "content");
+    MetricRegistry registry = _metricsManager.getMetricRegistry();
+    String gaugeName = MetricRegistry.name(DirectoryCopyEngine.class.getSimpleName(), "engine1",
+        DirectoryCopyEngine.QUEUE_DEPTH);
+
+    try (DirectoryCopyEngine engine1 = new DirectoryCopyEngine("engine1", 1, 10, false);
+        DirectoryCopyEngine engine2 = new DirectoryCopyEngine("engine2", 1, 10, false)) {
+      engine1.copy(source, _destinationDir);
+      engine1.flush();
+      Assert.assertEquals(getCount("engine1", DirectoryCopyEngine.FILES_COPIED_RATE), 1);
+      Assert.assertEquals(getCount("engine2", DirectoryCopyEngine.FILES_COPIED_RATE), 0);
+      Assert.assertEquals(((Gauge<?>) registry.getMetrics().get(gaugeName)).getValue(), 0);
+    }
+
+    // Closing the engines unregisters their metrics
+    Assert.assertTrue(registry.getNames()
+        .stream()
+        .noneMatch(name -> name.startsWith(DirectoryCopyEngine.class.getSimpleName())));
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.connectors.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Watches directories for changes on behalf of all the file processors of the connector. A single
+ * {@link WatchService} and thread serve all directories, and each directory is registered only once no matter
+ * how many processors watch it. Listeners are called on the watcher thread, so they must return quickly.
+ */
+class DirectoryWatcher implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+  /**
+   * Receives the changes of a watched directory
+   */
+  interface Listener {
+    /**
+     * Called when an entry of the directory is created, modified or deleted. If events were lost, kind is
+     * {@link StandardWatchEventKinds#OVERFLOW} and path is the directory itself.
+     */
+    void onChange(WatchEvent.Kind<?> kind, Path path);
+  }
+
+  private final WatchService _watchService;
+  private final Map<Path, WatchKey> _keys = new HashMap<>();
+  private final Map<WatchKey, Set<Listener>> _listeners = new HashMap<>();
+  private final Thread _thread;
+
+  /**
+   * Constructor for DirectoryWatcher
+   */
+  DirectoryWatcher() throws IOException {
+    _watchService = FileSystems.getDefault().newWatchService();
+    _thread = new Thread(this::run);
+    _thread.setDaemon(true);
+    _thread.setName("FileConnectorDirectoryWatcher");
+    _thread.start();
+  }
+
+  /**
+   * Start notifying the listener of changes in the given directory
+   */
+  synchronized void register(Path directory, Listener listener) throws IOException {
+    WatchKey key = _keys.get(directory);
+    if (key == null) {
+      key = directory.register(_watchService, StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+      _keys.put(directory, key);
+      LOG.info("Watching directory {}", directory);
+    }
+    _listeners.computeIfAbsent(key, k -> new CopyOnWriteArraySet<>()).add(listener);
+  }
+
+  /**
+   * Stop notifying the listener of changes in the given directory. The directory is no longer watched once
+   * its last listener is unregistered.
+   */
+  synchronized void unregister(Path directory, Listener listener) {
+    WatchKey key = _keys.get(directory);
+    if (key == null) {
+      return;
+    }
+    Set<Listener> listeners = _listeners.get(key);
+    listeners.remove(listener);
+    if (listeners.isEmpty()) {
+      key.cancel();
+      _keys.remove(directory);
+      _listeners.remove(key);
+      LOG.info("Stopped watching directory {}", directory);
+    }
+  }
+
+  private synchronized Set<Listener> getListeners(WatchKey key) {
+    return _listeners.get(key);
+  }
+
+  private void run() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = _watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        LOG.info("Directory watcher stopped");
+        return;
+      }
+
+      Path directory = (Path) key.watchable();
+      Set<Listener> listeners = getListeners(key);
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (listeners == null) {
+          continue;
+        }
+        Path changed = event.kind() == StandardWatchEventKinds.OVERFLOW ? directory
+            : directory.resolve((Path) event.context());
+        for (Listener listener : listeners) {
+          try {
+            listener.onChange(event.kind(), changed);
+          } catch (Exception e) {
+            LOG.warn("Directory listener failed for {}", changed, e);
+          }
+        }
+      }
+      key.reset();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    _watchService.close();
+  }
+}
@@ -6,8 +6,9 @@
 package com.linkedin.datastream.connectors.file;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -25,6 +27,7 @@ import com.google.common.collect.ImmutableMap;
 
 import com.linkedin.datastream.common.Datastream;
 import com.linkedin.datastream.common.DatastreamRuntimeException;
+import com.linkedin.datastream.common.DatastreamUtils;
 import com.linkedin.datastream.common.DiagnosticsAware;
 import com.linkedin.datastream.common.JsonUtils;
 import com.linkedin.datastream.common.PollUtils;
@@ -39,20 +42,31 @@ import com.linkedin.datastream.server.providers.CheckpointProvider;
  * Connector reads the text file line by line and produces events.
  * Connector uses the simple strategy, so the datastream can go to any instance. In a distributed environment,
  *   source should be  network files. local files can be used only in a standalone environment.
- * Uses a single thread per file
+ * Uses a single thread per file. Sources that are a directory or a glob on file names prefixed with "glob:", e.g.
+ *   glob:/var/log/app/*.log, tail all the matching files on a shared pool of numReaderThreads threads, see
+ *   {@link MultiFileProcessor}.
  */
 public class FileConnector implements Connector, DiagnosticsAware {
   public static final String CONNECTOR_NAME = "file";
   public static final String CFG_MAX_EXEC_PROCS = "maxExecProcessors";
   public static final String CFG_NUM_PARTITIONS = "numPartitions";
+  public static final String CFG_READ_BUFFER_SIZE = "readBufferSize";
+  public static final String CFG_MAX_LINES_PER_BATCH = "maxLinesPerBatch";
+  public static final String CFG_MAX_IDLE_WAIT_MS = "maxIdleWaitMs";
+  public static final String CFG_NUM_READER_THREADS = "numReaderThreads";
+  public static final String CFG_RESCAN_INTERVAL_MS = "rescanIntervalMs";
+  public static final String CFG_BYTE_OFFSET_CHECKPOINTS = "byteOffsetCheckpoints";
 
   private static final Logger LOG = LoggerFactory.getLogger(FileConnector.class);
-  private static final String DEFAULT_MAX_EXEC_PROCS = "5";
   private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMillis(5000);
 
+  private final FileConnectorConfig _config;
   private final ExecutorService _executorService;
-  private final int _numPartitions;
+  private final ExecutorService _acquirePool;
+  private final ScheduledExecutorService _readerPool;
+  private final DirectoryWatcher _directoryWatcher;
   private final ConcurrentHashMap<DatastreamTask, FileProcessor> _fileProcessors;
+  private final ConcurrentHashMap<DatastreamTask, MultiFileProcessor> _multiFileProcessors;
 
   private enum DiagnosticsRequestType {
     POSITION
@@ -63,11 +77,32 @@ public class FileConnector implements Connector, DiagnosticsAware {
    * @param config Connector configuration properties
    */
   public FileConnector(Properties config) {
-    _executorService =
-        Executors.newFixedThreadPool(Integer.parseInt(config.getProperty(CFG_MAX_EXEC_PROCS, DEFAULT_MAX_EXEC_PROCS)));
+    _config = new FileConnectorConfig(config);
+    _executorService = Executors.newFixedThreadPool(_config.getMaxExecProcessors());
+    // Multi-file tasks wait for their previous owner to release them on this pool, whose threads only live as long
+    // as the waits
+    _acquirePool = Executors.newCachedThreadPool(r -> {
+      Thread t = new Thread(r);
+      t.setDaemon(true);
+      t.setName("FileConnectorAcquire");
+      return t;
+    });
+    _readerPool = Executors.newScheduledThreadPool(_config.getNumReaderThreads(), r -> {
+      Thread t = new Thread(r);
+      t.setDaemon(true);
+      t.setName("FileConnectorReader");
+      return t;
+    });
 
-    _numPartitions = Integer.parseInt(config.getProperty(CFG_NUM_PARTITIONS, "1"));
+    DirectoryWatcher directoryWatcher = null;
+    try {
+      directoryWatcher = new DirectoryWatcher();
+    } catch (IOException e) {
+      LOG.warn("Failed to create the directory watcher, polling for file changes", e);
+    }
+    _directoryWatcher = directoryWatcher;
     _fileProcessors = new ConcurrentHashMap<>();
+    _multiFileProcessors = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -78,10 +113,23 @@ public class FileConnector implements Connector, DiagnosticsAware {
   @Override
   public synchronized void stop() {
     // Stop all current processors
-    stopProcessorForTasks(_fileProcessors.keySet());
-    if (!ThreadUtils.shutdownExecutor(_executorService, SHUTDOWN_TIMEOUT, LOG)) {
+    Set<DatastreamTask> tasks = new HashSet<>(_fileProcessors.keySet());
+    tasks.addAll(_multiFileProcessors.keySet());
+    stopProcessorForTasks(tasks);
+    // Shut down all the executors, even if one of them fails to
+    boolean executorStopped = ThreadUtils.shutdownExecutor(_executorService, SHUTDOWN_TIMEOUT, LOG);
+    boolean acquirePoolStopped = ThreadUtils.shutdownExecutor(_acquirePool, SHUTDOWN_TIMEOUT, LOG);
+    boolean readerPoolStopped = ThreadUtils.shutdownExecutor(_readerPool, SHUTDOWN_TIMEOUT, LOG);
+    if (!executorStopped || !acquirePoolStopped || !readerPoolStopped) {
       LOG.warn("Failed shut down cleanly.");
     }
+    if (_directoryWatcher != null) {
+      try {
+        _directoryWatcher.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close the directory watcher", e);
+      }
+    }
     LOG.info("FileConnector is stopped.");
   }
 
@@ -89,18 +137,28 @@ public class FileConnector implements Connector, DiagnosticsAware {
     // Initiate stops for all unassigned tasks
     for (DatastreamTask task : unassigned) {
       FileProcessor processor = _fileProcessors.get(task);
-      if (!processor.isStopped()) {
+      if (processor != null && !processor.isStopped()) {
         processor.stop();
       }
+      MultiFileProcessor multiFileProcessor = _multiFileProcessors.get(task);
+      if (multiFileProcessor != null) {
+        multiFileProcessor.stop();
+      }
     }
 
     // Ensure the processors have actually stopped
     for (DatastreamTask task : unassigned) {
       FileProcessor processor = _fileProcessors.get(task);
-      if (!PollUtils.poll(processor::isStopped, 200, SHUTDOWN_TIMEOUT.toMillis())) {
+      if (processor != null && !PollUtils.poll(processor::isStopped, 200, SHUTDOWN_TIMEOUT.toMillis())) {
+        throw new RuntimeException("Failed to stop processor for " + task);
+      }
+      MultiFileProcessor multiFileProcessor = _multiFileProcessors.get(task);
+      if (multiFileProcessor != null
+          && !PollUtils.poll(multiFileProcessor::isStopped, 200, SHUTDOWN_TIMEOUT.toMillis())) {
         throw new RuntimeException("Failed to stop processor for " + task);
       }
       _fileProcessors.remove(task);
+      _multiFileProcessors.remove(task);
       LOG.info("Processor stopped for task: " + task);
     }
   }
@@ -109,19 +167,30 @@ public class FileConnector implements Connector, DiagnosticsAware {
   public synchronized void onAssignmentChange(List<DatastreamTask> tasks) {
     LOG.info("onAssignmentChange called with datastream tasks {}", tasks);
     Set<DatastreamTask> unassigned = new HashSet<>(_fileProcessors.keySet());
+    unassigned.addAll(_multiFileProcessors.keySet());
     unassigned.removeAll(tasks);
 
     // Stop any processors for unassigned tasks
     stopProcessorForTasks(unassigned);
 
     for (DatastreamTask task : tasks) {
-      if (!_fileProcessors.containsKey(task)) {
+      if (_fileProcessors.containsKey(task) || _multiFileProcessors.containsKey(task)) {
+        continue;
+      }
+      if (MultiFileProcessor.isMultiFileSource(task.getDatastreamSource().getConnectionString())) {
+        LOG.info("Creating multi-file processor for " + task);
+        MultiFileProcessor processor =
+            new MultiFileProcessor(task, task.getEventProducer(), _directoryWatcher, _acquirePool, _readerPool,
+                _config);
+        _multiFileProcessors.put(task, processor);
+        processor.start();
+      } else {
         try {
           LOG.info("Creating file processor for " + task);
-          FileProcessor processor = new FileProcessor(task, task.getEventProducer());
+          FileProcessor processor = new FileProcessor(task, task.getEventProducer(), _directoryWatcher, _config);
           _fileProcessors.put(task, processor);
           _executorService.submit(processor);
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
           throw new RuntimeException("FileProcessor threw an exception", e);
         }
       }
@@ -132,13 +201,37 @@ public class FileConnector implements Connector, DiagnosticsAware {
   public void initializeDatastream(Datastream stream, List<Datastream> allDatastreams)
       throws DatastreamValidationException {
     LOG.info("validating datastream " + stream.toString());
-    File streamFile = new File(stream.getSource().getConnectionString());
-    if (!streamFile.exists() || !streamFile.isFile()) {
-      throw new DatastreamValidationException(String.format("File %s doesn't exists", streamFile.getAbsolutePath()));
+    String source = stream.getSource().getConnectionString();
+    if (MultiFileProcessor.isMultiFileSource(source)) {
+      validateMultiFileSource(stream, source);
+    } else {
+      File streamFile = new File(source);
+      if (!streamFile.exists() || !streamFile.isFile()) {
+        throw new DatastreamValidationException(
+            String.format("File %s doesn't exists", streamFile.getAbsolutePath()));
+      }
+    }
+
+    if (_config.getNumPartitions() != 1) {
+      stream.getSource().setPartitions(_config.getNumPartitions());
     }
+  }
 
-    if (_numPartitions != 1) {
-      stream.getSource().setPartitions(_numPartitions);
+  private void validateMultiFileSource(Datastream stream, String source) throws DatastreamValidationException {
+    File directory = MultiFileProcessor.getDirectory(source).toFile();
+    if (!directory.isDirectory()) {
+      throw new DatastreamValidationException(
+          String.format("Directory %s doesn't exists", directory.getAbsolutePath()));
+    }
+    try {
+      MultiFileProcessor.getFileNameMatcher(source);
+    } catch (IllegalArgumentException e) {
+      throw new DatastreamValidationException(String.format("Invalid glob %s", source), e);
+    }
+    // Lines are sent to the destination partition of their file, which must exist
+    if (DatastreamUtils.isUserManagedDestination(stream)) {
+      throw new DatastreamValidationException(
+          String.format("Multi-file source %s doesn't support user managed destinations", source));
     }
   }
 
@@ -184,7 +277,9 @@ public class FileConnector implements Connector, DiagnosticsAware {
   private String processPositionRequest() {
     final List<Object> positions = _fileProcessors.values().stream()
         .map(processor -> ImmutableMap.of("key", processor.getPositionKey(), "value", processor.getPositionValue()))
-        .collect(Collectors.toList());
+        .collect(Collectors.toCollection(ArrayList::new));
+    _multiFileProcessors.values().forEach(processor -> processor.getPositions()
+        .forEach((key, value) -> positions.add(ImmutableMap.of("key", key, "value", value))));
     return JsonUtils.toJson(positions);
   }
 
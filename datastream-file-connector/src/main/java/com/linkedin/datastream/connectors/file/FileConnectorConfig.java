@@ -0,0 +1,91 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.connectors.file;
+
+import java.util.Properties;
+
+import com.linkedin.datastream.common.VerifiableProperties;
+
+
+/**
+ * Configuration of the {@link FileConnector}, see the CFG_ constants of the connector for the property names.
+ */
+class FileConnectorConfig {
+  private static final int DEFAULT_MAX_EXEC_PROCS = 5;
+  private static final int DEFAULT_READ_BUFFER_SIZE = 64 * 1024;
+  private static final int DEFAULT_MAX_LINES_PER_BATCH = 100;
+  private static final long DEFAULT_MAX_IDLE_WAIT_MS = 500;
+  private static final int DEFAULT_NUM_READER_THREADS = 2;
+  private static final long DEFAULT_RESCAN_INTERVAL_MS = 5000;
+
+  private final int _maxExecProcessors;
+  private final int _numPartitions;
+  private final int _readBufferSize;
+  private final int _maxLinesPerBatch;
+  private final long _maxIdleWaitMs;
+  private final int _numReaderThreads;
+  private final long _rescanIntervalMs;
+  private final boolean _byteOffsetCheckpoints;
+
+  /**
+   * Constructor for FileConnectorConfig
+   * @param properties the connector configuration properties
+   */
+  FileConnectorConfig(Properties properties) {
+    VerifiableProperties props = new VerifiableProperties(properties);
+    _maxExecProcessors = props.getIntInRange(FileConnector.CFG_MAX_EXEC_PROCS, DEFAULT_MAX_EXEC_PROCS, 1,
+        Integer.MAX_VALUE);
+    _numPartitions = props.getIntInRange(FileConnector.CFG_NUM_PARTITIONS, 1, 1, Integer.MAX_VALUE);
+    _readBufferSize = props.getIntInRange(FileConnector.CFG_READ_BUFFER_SIZE, DEFAULT_READ_BUFFER_SIZE, 1,
+        Integer.MAX_VALUE);
+    _maxLinesPerBatch = props.getIntInRange(FileConnector.CFG_MAX_LINES_PER_BATCH, DEFAULT_MAX_LINES_PER_BATCH, 1,
+        Integer.MAX_VALUE);
+    _maxIdleWaitMs = props.getLongInRange(FileConnector.CFG_MAX_IDLE_WAIT_MS, DEFAULT_MAX_IDLE_WAIT_MS, 1,
+        Long.MAX_VALUE);
+    _numReaderThreads = props.getIntInRange(FileConnector.CFG_NUM_READER_THREADS, DEFAULT_NUM_READER_THREADS, 1,
+        Integer.MAX_VALUE);
+    _rescanIntervalMs = props.getLongInRange(FileConnector.CFG_RESCAN_INTERVAL_MS, DEFAULT_RESCAN_INTERVAL_MS, 1,
+        Long.MAX_VALUE);
+    _byteOffsetCheckpoints = props.getBoolean(FileConnector.CFG_BYTE_OFFSET_CHECKPOINTS, false);
+  }
+
+  int getMaxExecProcessors() {
+    return _maxExecProcessors;
+  }
+
+  int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  int getReadBufferSize() {
+    return _readBufferSize;
+  }
+
+  int getMaxLinesPerBatch() {
+    return _maxLinesPerBatch;
+  }
+
+  long getMaxIdleWaitMs() {
+    return _maxIdleWaitMs;
+  }
+
+  int getNumReaderThreads() {
+    return _numReaderThreads;
+  }
+
+  long getRescanIntervalMs() {
+    return _rescanIntervalMs;
+  }
+
+  /**
+   * Whether single-file tasks checkpoint the byte offset of their last line along with its line number, so that
+   * they resume without reading the file again. Versions that predate these checkpoints fail to parse them, so this
+   * is off by default, and should only be turned on once a rollback to such a version is ruled out.
+   */
+  boolean isByteOffsetCheckpoints() {
+    return _byteOffsetCheckpoints;
+  }
+}
@@ -5,23 +5,21 @@
  */
 package com.linkedin.datastream.connectors.file;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.io.CountingInputStream;
-
 import com.linkedin.datastream.common.BrooklinEnvelope;
+import com.linkedin.datastream.common.BrooklinEnvelopeMetadata;
 import com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants;
 import com.linkedin.datastream.connectors.file.diag.FilePositionKey;
 import com.linkedin.datastream.connectors.file.diag.FilePositionValue;
@@ -30,37 +28,68 @@ import com.linkedin.datastream.server.DatastreamProducerRecordBuilder;
 import com.linkedin.datastream.server.DatastreamTask;
 
 
+/**
+ * Tails a single file and sends its lines as events. The file is read through large NIO buffers and lines are
+ * forwarded as raw bytes. When the destination partition is chosen by the connector, up to maxLinesPerBatch lines
+ * are sent in a single record. At the end of the file the processor waits for a change notification from the
+ * {@link DirectoryWatcher}, falling back to polling every maxIdleWaitMs.
+ *
+ * The checkpoint of the task is the number of the last line sent, or {@code <lineNo>:<byteOffset>} when
+ * byteOffsetCheckpoints is on, which lets the processor resume by seeking to the offset instead of skipping the
+ * lines one by one. Both forms are read, but older versions only read the line number, so byteOffsetCheckpoints
+ * must stay off until they can't be rolled back to.
+ */
 class FileProcessor implements Runnable {
   private static final Logger LOG = LoggerFactory.getLogger(FileConnector.class);
 
   private static final int PARTITION = 0;
-  private static final int POLL_WAIT_MS = 100;
   private static final Duration ACQUIRE_TIMEOUT = Duration.ofMinutes(5);
 
   private final DatastreamTask _task;
   private final String _fileName;
+  private final Path _path;
   private final DatastreamEventProducer _producer;
-  private final BufferedReader _fileReader;
-  private final CountingInputStream _inputStream;
+  private final DirectoryWatcher _directoryWatcher;
+  private final DirectoryWatcher.Listener _listener;
+  private final Semaphore _changes;
+  private final FileTailer _tailer;
+  private final int _maxLinesPerBatch;
+  private final long _maxIdleWaitMs;
+  private final boolean _byteOffsetCheckpoints;
   private final FilePositionKey _positionKey;
   private final FilePositionValue _positionValue;
-  private boolean _cancelRequested;
-  private boolean _isStopped;
+  private volatile boolean _cancelRequested;
+  private volatile boolean _isStopped;
 
   private volatile Integer _lineNo;
 
-  public FileProcessor(DatastreamTask datastreamTask, DatastreamEventProducer producer) throws FileNotFoundException {
+  /**
+   * Constructor for FileProcessor
+   * @param datastreamTask the task to process
+   * @param producer the event producer of the task
+   * @param directoryWatcher the watcher notifying changes of the file, or null to poll for changes
+   * @param config the connector configuration
+   */
+  public FileProcessor(DatastreamTask datastreamTask, DatastreamEventProducer producer,
+      DirectoryWatcher directoryWatcher, FileConnectorConfig config) throws IOException {
     _task = datastreamTask;
     _fileName = datastreamTask.getDatastreamSource().getConnectionString();
     _positionKey = new FilePositionKey(_task.getTaskPrefix(), _task.getDatastreamTaskName(), Instant.now(), _fileName);
     _positionValue = new FilePositionValue();
 
-    // Set up input streams/readers
+    // Set up input channel
     final File file = new File(_fileName);
+    _path = file.getAbsoluteFile().toPath();
     _positionValue.setFileLengthBytes(file.length());
-    _inputStream = new CountingInputStream(new FileInputStream(file));
-    _fileReader = new BufferedReader(new InputStreamReader(_inputStream));
+    _tailer = new FileTailer(file, config.getReadBufferSize());
 
+    // Lines of a user managed destination are partitioned by their own key, so they can't share a record
+    _maxLinesPerBatch = _task.isUserManagedDestination() ? 1 : config.getMaxLinesPerBatch();
+    _maxIdleWaitMs = config.getMaxIdleWaitMs();
+    _byteOffsetCheckpoints = config.isByteOffsetCheckpoints();
+    _directoryWatcher = directoryWatcher;
+    _changes = new Semaphore(0);
+    _listener = this::onDirectoryChange;
     _producer = producer;
     _isStopped = false;
     _cancelRequested = false;
@@ -68,20 +97,38 @@ class FileProcessor implements Runnable {
   }
 
   private int loadCheckpoint() throws IOException {
+    long startTime = System.currentTimeMillis();
     int lineNo = 0;
+    long offset = 0;
     Map<Integer, String> savedCheckpoints = _task.getCheckpoints();
     String cpString = savedCheckpoints.getOrDefault(PARTITION, null);
     if (cpString != null && !cpString.isEmpty()) {
-      // Resume from last saved line number
-      lineNo = Integer.valueOf(cpString);
+      long[] checkpoint = FileTailer.parseCheckpoint(cpString);
+      lineNo = (int) checkpoint[0];
+      offset = checkpoint[1];
+      if (offset > _tailer.size()) {
+        // The file has been truncated or replaced since the checkpoint was made
+        LOG.warn("Checkpoint offset {} is beyond the end of {}, resuming from beginning", offset, _fileName);
+        lineNo = 0;
+        offset = 0;
+      }
+    }
 
-      // Must skip line by line as we can't get the actual file position of the
-      // last newline character due to the buffering done by BufferedReader.
+    if (offset >= 0) {
+      _tailer.seek(offset);
+    } else {
+      // Legacy line number checkpoint: skip line by line as the byte position is unknown
       for (int i = 0; i < lineNo; i++) {
-        _fileReader.readLine();
+        if (_tailer.readLine() == null) {
+          break;
+        }
       }
+    }
 
-      LOG.info("Resumed from line " + lineNo);
+    _positionValue.setResumeTimeMs(System.currentTimeMillis() - startTime);
+    if (lineNo > 0) {
+      LOG.info("Resumed from line {} at byte offset {} in {} ms", lineNo, _tailer.getOffset(),
+          _positionValue.getResumeTimeMs());
     } else {
       LOG.info("Resumed from beginning");
     }
@@ -89,6 +136,52 @@ class FileProcessor implements Runnable {
     return lineNo + 1;
   }
 
+  private void onDirectoryChange(WatchEvent.Kind<?> kind, Path path) {
+    if (path.equals(_path) || path.equals(_path.getParent())) {
+      _changes.release();
+    }
+  }
+
+  private void startWatching() {
+    if (_directoryWatcher == null) {
+      return;
+    }
+    try {
+      _directoryWatcher.register(_path.getParent(), _listener);
+    } catch (IOException e) {
+      LOG.warn("Failed to watch {}, polling for changes every {} ms", _path.getParent(), _maxIdleWaitMs, e);
+    }
+  }
+
+  /**
+   * Wait until the file changes or maxIdleWaitMs elapses
+   */
+  private void waitForData() throws InterruptedException {
+    _changes.tryAcquire(_maxIdleWaitMs, TimeUnit.MILLISECONDS);
+    _changes.drainPermits();
+  }
+
+  private void sendBatch(DatastreamProducerRecordBuilder builder, long sourceTimestamp, int firstLineNo) {
+    builder.setEventsSourceTimestamp(sourceTimestamp);
+    // If the destination is user managed, we will use the key to decide the partition.
+    if (!_task.isUserManagedDestination()) {
+      builder.setPartition(0);
+    } else {
+      builder.setPartitionKey(String.valueOf(firstLineNo));
+    }
+
+    String checkpoint = _byteOffsetCheckpoints ? FileTailer.formatCheckpoint(_lineNo - 1, _tailer.getOffset())
+        : String.valueOf(_lineNo - 1);
+    builder.setSourceCheckpoint(checkpoint);
+    _producer.send(builder.build(), (metadata, exception) -> {
+      if (exception != null) {
+        LOG.error(String.format("Sending events up to checkpoint %s failed, metadata:{%s}", checkpoint, metadata),
+            exception);
+      }
+    });
+    LOG.debug("Sent lines {} to {} of {}", firstLineNo, _lineNo - 1, _fileName);
+  }
+
   @Override
   public void run() {
     try {
@@ -96,48 +189,43 @@ class FileProcessor implements Runnable {
 
       _lineNo = loadCheckpoint();
       _positionValue.setLinesRead(Long.valueOf(_lineNo));
+      startWatching();
       while (!_cancelRequested) {
-        String text;
-        try {
-          text = _fileReader.readLine();
-          _positionValue.setBytesRead(_inputStream.getCount());
-        } catch (IOException e) {
-          throw new RuntimeException("Reading file failed.", e);
-        }
-        if (text != null) {
-          // Using the line# as the key
-
-          HashMap<String, String> eventMetadata = new HashMap<>();
-          long currentTimeMillis = System.currentTimeMillis();
-          eventMetadata.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, String.valueOf(currentTimeMillis));
-          BrooklinEnvelope event =
-              new BrooklinEnvelope(_lineNo.toString().getBytes(), text.getBytes(), null, eventMetadata);
-
-          LOG.info("sending event " + text);
-          DatastreamProducerRecordBuilder builder = new DatastreamProducerRecordBuilder();
-          builder.addEvent(event);
-          builder.setEventsSourceTimestamp(currentTimeMillis);
-          // If the destination is user managed, we will use the key to decide the partition.
-          if (!_task.isUserManagedDestination()) {
-            builder.setPartition(0);
-          } else {
-            builder.setPartitionKey(_lineNo.toString());
+        DatastreamProducerRecordBuilder builder = null;
+        long currentTimeMillis = System.currentTimeMillis();
+        String timestamp = String.valueOf(currentTimeMillis);
+        int firstLineNo = _lineNo;
+        int lineCount = 0;
+        while (lineCount < _maxLinesPerBatch) {
+          byte[] line;
+          try {
+            line = _tailer.readLine();
+          } catch (IOException e) {
+            throw new RuntimeException("Reading file failed.", e);
+          }
+          if (line == null) {
+            break;
           }
 
-          builder.setSourceCheckpoint(_lineNo.toString());
-          _producer.send(builder.build(), (metadata, exception) -> {
-            if (exception == null) {
-              LOG.info("Sending event:{} succeeded, metadata:{}", text, metadata);
-            } else {
-              LOG.error(String.format("Sending event:{%s} failed, metadata:{%s}", text, metadata), exception);
-            }
-          });
+          if (builder == null) {
+            builder = new DatastreamProducerRecordBuilder();
+          }
+          // Using the line# as the key
+          BrooklinEnvelopeMetadata eventMetadata = new BrooklinEnvelopeMetadata();
+          eventMetadata.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, timestamp);
+          builder.addEvent(new BrooklinEnvelope(_lineNo.toString().getBytes(), line, null, eventMetadata));
           ++_lineNo;
+          ++lineCount;
+        }
+        _positionValue.setBytesRead(_tailer.getOffset());
+
+        if (builder != null) {
+          sendBatch(builder, currentTimeMillis, firstLineNo);
           _positionValue.setLinesRead(Long.valueOf(_lineNo));
         } else {
           try {
             // Wait for new data
-            Thread.sleep(POLL_WAIT_MS);
+            waitForData();
           } catch (InterruptedException e) {
             LOG.info("Interrupted");
             break;
@@ -146,6 +234,10 @@ class FileProcessor implements Runnable {
       }
 
       _task.release();
+      if (_directoryWatcher != null) {
+        _directoryWatcher.unregister(_path.getParent(), _listener);
+      }
+      _tailer.close();
       _isStopped = true;
       LOG.info("Stopped at line " + _lineNo + " task=" + _task);
     } catch (Throwable e) {
@@ -159,6 +251,8 @@ class FileProcessor implements Runnable {
 
   public void stop() {
     _cancelRequested = true;
+    // Wake up the processor if it is waiting for changes
+    _changes.release();
   }
 
   public Integer getLineNumber() {
@@ -0,0 +1,184 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.connectors.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+
+/**
+ * Reads the complete lines of a growing file through a large NIO buffer, tracking the byte offset right after
+ * the last line returned. Lines are returned as raw bytes, without their line terminator.
+ */
+class FileTailer implements Closeable {
+  private static final char CHECKPOINT_SEPARATOR = ':';
+
+  private final FileInputStream _fileStream;
+  private final FileChannel _fileChannel;
+  private final String _fileId;
+
+  // Holds the bytes read from the file that have not been consumed yet, in read mode between calls
+  private ByteBuffer _readBuffer;
+  // Position in _readBuffer up to which the unconsumed bytes are known not to contain a newline
+  private int _scanPosition;
+  // Byte offset in the file right after the last complete line consumed
+  private long _offset;
+
+  /**
+   * Constructor for FileTailer
+   * @param file the file to read
+   * @param readBufferSize initial size of the read buffer in bytes; the buffer grows to fit longer lines
+   */
+  FileTailer(File file, int readBufferSize) throws IOException {
+    _fileStream = new FileInputStream(file);
+    _fileChannel = _fileStream.getChannel();
+    _fileId = getFileId(file);
+    _readBuffer = ByteBuffer.allocate(readBufferSize);
+    _readBuffer.flip();
+  }
+
+  /**
+   * Parse a checkpoint of the form {@code <lineNo>:<byteOffset>}, where byteOffset is the file position right
+   * after the line. Checkpoints written by older versions only hold the line number, in which case the returned
+   * offset is -1.
+   */
+  static long[] parseCheckpoint(String cpString) {
+    int separator = cpString.indexOf(CHECKPOINT_SEPARATOR);
+    if (separator < 0) {
+      return new long[]{Long.parseLong(cpString), -1};
+    }
+    int end = cpString.indexOf(CHECKPOINT_SEPARATOR, separator + 1);
+    return new long[]{Long.parseLong(cpString.substring(0, separator)),
+        Long.parseLong(cpString.substring(separator + 1, end < 0 ? cpString.length() : end))};
+  }
+
+  /**
+   * Parse the fingerprint of a checkpoint of the form {@code <lineNo>:<byteOffset>:<fingerprint>}, see
+   * {@link #getFingerprint(long)}. Returns -1 if the checkpoint doesn't have one.
+   */
+  static long parseFingerprint(String cpString) {
+    int separator = cpString.lastIndexOf(CHECKPOINT_SEPARATOR);
+    if (separator < 0 || cpString.indexOf(CHECKPOINT_SEPARATOR) == separator) {
+      return -1;
+    }
+    return Long.parseLong(cpString.substring(separator + 1));
+  }
+
+  static String formatCheckpoint(long lineNo, long byteOffset) {
+    return String.valueOf(lineNo) + CHECKPOINT_SEPARATOR + byteOffset;
+  }
+
+  static String formatCheckpoint(long lineNo, long byteOffset, long fingerprint) {
+    return formatCheckpoint(lineNo, byteOffset) + CHECKPOINT_SEPARATOR + fingerprint;
+  }
+
+  /**
+   * Get an identifier of the file that stays the same when the file is renamed, such as its inode. Falls back
+   * to the absolute path of the file when the file system doesn't provide one.
+   */
+  static String getFileId(File file) throws IOException {
+    Object fileKey = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+    return fileKey != null ? fileKey.toString() : file.getAbsolutePath();
+  }
+
+  /**
+   * Move to the given byte offset, which must be the start of a line
+   */
+  void seek(long offset) throws IOException {
+    _fileChannel.position(offset);
+    _readBuffer.clear();
+    _readBuffer.flip();
+    _scanPosition = 0;
+    _offset = offset;
+  }
+
+  /**
+   * Reads the next complete line, without its line terminator. Returns null if there is no complete line
+   * available yet; a partially written line is kept and completed on a later call.
+   */
+  byte[] readLine() throws IOException {
+    while (true) {
+      int start = _readBuffer.position();
+      int limit = _readBuffer.limit();
+      byte[] array = _readBuffer.array();
+      for (int i = _scanPosition; i < limit; i++) {
+        if (array[i] == '\n') {
+          int end = (i > start && array[i - 1] == '\r') ? i - 1 : i;
+          _readBuffer.position(i + 1);
+          _scanPosition = i + 1;
+          _offset += i + 1 - start;
+          return Arrays.copyOfRange(array, start, end);
+        }
+      }
+
+      // No newline in the buffered bytes, read more from the file
+      _readBuffer.compact();
+      _scanPosition = _readBuffer.position();
+      if (!_readBuffer.hasRemaining()) {
+        // The line doesn't fit in the buffer
+        ByteBuffer larger = ByteBuffer.allocate(_readBuffer.capacity() * 2);
+        _readBuffer.flip();
+        larger.put(_readBuffer);
+        _readBuffer = larger;
+      }
+      int bytesRead = _fileChannel.read(_readBuffer);
+      _readBuffer.flip();
+      if (bytesRead <= 0) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Byte offset in the file right after the last complete line read
+   */
+  long getOffset() {
+    return _offset;
+  }
+
+  /**
+   * Check whether the file is now shorter than the current offset, i.e. it has been truncated
+   */
+  boolean isTruncated() throws IOException {
+    return _fileChannel.size() < _offset;
+  }
+
+  /**
+   * Get the CRC32 of the first length bytes of the file, or of the whole file if it is shorter. Tells whether
+   * a file with the id of a checkpointed file is still the same file, as file ids such as inodes can be reused.
+   */
+  long getFingerprint(long length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, _fileChannel.size()));
+    int bytesRead = 0;
+    while (buffer.hasRemaining() && bytesRead >= 0) {
+      bytesRead = _fileChannel.read(buffer, buffer.position());
+    }
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    return crc.getValue();
+  }
+
+  long size() throws IOException {
+    return _fileChannel.size();
+  }
+
+  String getFileId() {
+    return _fileId;
+  }
+
+  @Override
+  public void close() throws IOException {
+    _fileStream.close();
+  }
+}
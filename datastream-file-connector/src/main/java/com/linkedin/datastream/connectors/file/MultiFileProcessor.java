@@ -0,0 +1,536 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.connectors.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codehaus.jackson.type.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.datastream.common.BrooklinEnvelope;
+import com.linkedin.datastream.common.BrooklinEnvelopeMetadata;
+import com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants;
+import com.linkedin.datastream.common.DatastreamSource;
+import com.linkedin.datastream.common.JsonUtils;
+import com.linkedin.datastream.connectors.file.diag.FilePositionKey;
+import com.linkedin.datastream.connectors.file.diag.FilePositionValue;
+import com.linkedin.datastream.server.DatastreamEventProducer;
+import com.linkedin.datastream.server.DatastreamProducerRecordBuilder;
+import com.linkedin.datastream.server.DatastreamTask;
+
+
+/**
+ * Tails all the files of a directory that match a glob, given as a source prefixed with {@value #GLOB_PREFIX}, e.g.
+ * {@code glob:/var/log/app/*.log}, or all the files of a directory when the source is the directory itself. Without
+ * the prefix, a source is never treated as a glob, so file names containing glob characters can still be tailed as
+ * single files. Instead of a thread per file, the reads of all the files are
+ * multiplexed on the reader pool of the connector: a file is scheduled on the pool when the {@link DirectoryWatcher}
+ * reports a change, and reads a few batches before yielding the thread to the other files.
+ *
+ * Each file is assigned to a source partition by hashing its file id (see {@link FileTailer#getFileId(File)}), so
+ * that a file keeps its partition when it is rotated by renaming it. The task only reads the files of its own
+ * partitions, and sends their lines to the destination partition of the same number. The checkpoint of a
+ * partition is a JSON map from the id to the {@code <lineNo>:<byteOffset>:<fingerprint>} position of each of its
+ * files, where the fingerprint is a checksum of the first bytes of the file that guards against file ids reused by
+ * another file.
+ *
+ * Files that are renamed keep being read under their new name if it still matches, files that are deleted or
+ * renamed out of the glob are read to their end and closed, and files that are truncated are read again from the
+ * start.
+ */
+class MultiFileProcessor {
+  private static final Logger LOG = LoggerFactory.getLogger(FileConnector.class);
+
+  static final String GLOB_PREFIX = "glob:";
+
+  private static final Duration ACQUIRE_TIMEOUT = Duration.ofMinutes(5);
+  private static final int MAX_BATCHES_PER_TURN = 10;
+  private static final int FINGERPRINT_LENGTH = 1024;
+  private static final TypeReference<Map<String, String>> CHECKPOINT_TYPE = new TypeReference<Map<String, String>>() {
+  };
+
+  private final DatastreamTask _task;
+  private final DatastreamEventProducer _producer;
+  private final DirectoryWatcher _directoryWatcher;
+  private final DirectoryWatcher.Listener _listener;
+  private final Executor _acquireExecutor;
+  private final ScheduledExecutorService _readerPool;
+  private final Path _directory;
+  private final PathMatcher _matcher;
+  private final int _numPartitions;
+  private final Set<Integer> _partitions;
+  private final int _readBufferSize;
+  private final int _maxLinesPerBatch;
+  private final long _scanIntervalMs;
+
+  // Files being read, by file id
+  private final Map<String, TailedFile> _files = new ConcurrentHashMap<>();
+  private final Map<Integer, Object> _partitionLocks = new ConcurrentHashMap<>();
+  private final AtomicBoolean _rescanPending = new AtomicBoolean();
+  private final AtomicLong _rescanRequests = new AtomicLong();
+  // Positions restored from the checkpoints, by file id, until the file is found
+  private final Map<String, String> _savedPositions = new HashMap<>();
+  private volatile Map<Path, TailedFile> _filesByPath = new HashMap<>();
+  // Paths of all the matching files found by the last scan, including those of the partitions of other tasks
+  private volatile Set<Path> _scannedPaths = new HashSet<>();
+  private ScheduledFuture<?> _scanFuture;
+  private boolean _started;
+  private volatile boolean _cancelRequested;
+  private volatile boolean _isStopped;
+
+  private class TailedFile {
+    private final String _id;
+    private final FileTailer _tailer;
+    private final int _partition;
+    private final FilePositionKey _positionKey;
+    private final FilePositionValue _positionValue;
+    private final AtomicBoolean _scheduled = new AtomicBoolean();
+    private volatile Path _path;
+    private volatile boolean _dirty;
+    private volatile boolean _removed;
+    private volatile String _position;
+    private int _lineNo = 1;
+    private long _fingerprint;
+    private long _fingerprintLength = -1;
+
+    TailedFile(String id, Path path, int partition) throws IOException {
+      _id = id;
+      _path = path;
+      _partition = partition;
+      _tailer = new FileTailer(path.toFile(), _readBufferSize);
+      _positionKey = new FilePositionKey(_task.getTaskPrefix(), _task.getDatastreamTaskName(), Instant.now(),
+          path.toString());
+      _positionValue = new FilePositionValue();
+    }
+  }
+
+  /**
+   * Check whether the source of a datastream is a glob or a directory rather than a single file
+   */
+  static boolean isMultiFileSource(String source) {
+    return isGlob(source) || new File(source).isDirectory();
+  }
+
+  private static boolean isGlob(String source) {
+    return source.startsWith(GLOB_PREFIX);
+  }
+
+  /**
+   * Get the directory of a multi-file source
+   */
+  static Path getDirectory(String source) {
+    if (isGlob(source)) {
+      return new File(source.substring(GLOB_PREFIX.length())).getAbsoluteFile().getParentFile().toPath();
+    }
+    return new File(source).getAbsoluteFile().toPath();
+  }
+
+  /**
+   * Get the matcher for the names of the files of a multi-file source
+   * @throws IllegalArgumentException if the glob is invalid
+   */
+  static PathMatcher getFileNameMatcher(String source) {
+    if (isGlob(source)) {
+      String fileNameGlob = new File(source.substring(GLOB_PREFIX.length())).getName();
+      return FileSystems.getDefault().getPathMatcher(GLOB_PREFIX + fileNameGlob);
+    }
+    return path -> true;
+  }
+
+  /**
+   * Constructor for MultiFileProcessor
+   * @param task the task to process
+   * @param producer the event producer of the task
+   * @param directoryWatcher the watcher notifying the changes of the directory, or null to poll for changes
+   * @param acquireExecutor the executor acquiring the task, which may block for a while
+   * @param readerPool the pool reading the files
+   * @param config the connector configuration
+   */
+  MultiFileProcessor(DatastreamTask task, DatastreamEventProducer producer, DirectoryWatcher directoryWatcher,
+      Executor acquireExecutor, ScheduledExecutorService readerPool, FileConnectorConfig config) {
+    _task = task;
+    _producer = producer;
+    _directoryWatcher = directoryWatcher;
+    _listener = this::onDirectoryChange;
+    _acquireExecutor = acquireExecutor;
+    _readerPool = readerPool;
+
+    DatastreamSource source = task.getDatastreamSource();
+    _directory = getDirectory(source.getConnectionString());
+    _matcher = getFileNameMatcher(source.getConnectionString());
+    _numPartitions = source.hasPartitions() ? Math.max(1, source.getPartitions()) : 1;
+    _partitions = new HashSet<>(task.getPartitions());
+    _readBufferSize = config.getReadBufferSize();
+    _maxLinesPerBatch = config.getMaxLinesPerBatch();
+    // Without change notifications, scan often enough to pick up new lines
+    _scanIntervalMs = directoryWatcher != null ? config.getRescanIntervalMs() : config.getMaxIdleWaitMs();
+    LOG.info("Created MultiFileProcessor for {} reading partitions {} of {}", task, _partitions, _numPartitions);
+  }
+
+  /**
+   * Start reading the files on the reader pool, once the task is acquired. The task is acquired on the acquire
+   * executor rather than on the reader pool, so that waiting for its previous owner to release it doesn't hold up the
+   * reads of the other tasks.
+   */
+  void start() {
+    _acquireExecutor.execute(() -> {
+      try {
+        _task.acquire(ACQUIRE_TIMEOUT);
+      } catch (Exception e) {
+        LOG.error("Failed to acquire task " + _task, e);
+        _isStopped = true;
+        return;
+      }
+
+      synchronized (this) {
+        _started = true;
+        if (_cancelRequested) {
+          return;
+        }
+        try {
+          loadCheckpoints();
+          if (_directoryWatcher != null) {
+            _directoryWatcher.register(_directory, _listener);
+          }
+        } catch (Exception e) {
+          LOG.warn("Failed to watch {}, polling for changes every {} ms", _directory, _scanIntervalMs, e);
+        }
+        _scanFuture = _readerPool.scheduleWithFixedDelay(this::scan, 0, _scanIntervalMs, TimeUnit.MILLISECONDS);
+      }
+    });
+  }
+
+  private void loadCheckpoints() {
+    for (int partition : _partitions) {
+      String checkpoint = _task.getCheckpoints().get(partition);
+      if (checkpoint != null && !checkpoint.isEmpty()) {
+        _savedPositions.putAll(JsonUtils.fromJson(checkpoint, CHECKPOINT_TYPE));
+      }
+    }
+    LOG.info("Loaded positions of {} files for task {}", _savedPositions.size(), _task);
+  }
+
+  private int getPartition(String fileId) {
+    return (fileId.hashCode() & Integer.MAX_VALUE) % _numPartitions;
+  }
+
+  private void onDirectoryChange(WatchEvent.Kind<?> kind, Path path) {
+    if (_cancelRequested) {
+      return;
+    }
+    TailedFile file = _filesByPath.get(path);
+    if (file != null) {
+      schedule(file);
+    }
+    // Files of other partitions are modified all the time, only rescan for the files not seen yet
+    if (kind != StandardWatchEventKinds.ENTRY_MODIFY
+        || (file == null && _matcher.matches(path.getFileName()) && !_scannedPaths.contains(path))) {
+      requestRescan();
+    }
+  }
+
+  private void requestRescan() {
+    if (_rescanPending.compareAndSet(false, true)) {
+      _rescanRequests.incrementAndGet();
+      try {
+        _readerPool.execute(() -> {
+          _rescanPending.set(false);
+          rescan();
+        });
+      } catch (RejectedExecutionException e) {
+        _rescanPending.set(false);
+      }
+    }
+  }
+
+  /**
+   * Rescan the directory and check all the files for new lines, in case change notifications were missed
+   */
+  private void scan() {
+    rescan();
+    _files.values().forEach(this::schedule);
+  }
+
+  /**
+   * List the directory to find the new, renamed and removed files
+   */
+  private synchronized void rescan() {
+    if (_cancelRequested) {
+      return;
+    }
+
+    Map<String, Path> current = new HashMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(_directory)) {
+      for (Path path : stream) {
+        if (Files.isRegularFile(path) && _matcher.matches(path.getFileName())) {
+          try {
+            current.put(FileTailer.getFileId(path.toFile()), path);
+          } catch (IOException e) {
+            LOG.debug("{} was removed while scanning", path, e);
+          }
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to list directory {}", _directory, e);
+      return;
+    }
+    _scannedPaths = new HashSet<>(current.values());
+
+    for (TailedFile file : _files.values()) {
+      Path path = current.remove(file._id);
+      if (path == null) {
+        if (!file._removed) {
+          LOG.info("{} was removed, reading it to the end", file._path);
+          file._removed = true;
+          schedule(file);
+        }
+      } else if (!path.equals(file._path)) {
+        LOG.info("{} was renamed to {}", file._path, path);
+        file._path = path;
+      }
+    }
+
+    for (Map.Entry<String, Path> entry : current.entrySet()) {
+      String id = entry.getKey();
+      int partition = getPartition(id);
+      if (_partitions.contains(partition)) {
+        try {
+          TailedFile file = new TailedFile(id, entry.getValue(), partition);
+          restorePosition(file);
+          _files.put(id, file);
+          schedule(file);
+        } catch (IOException e) {
+          LOG.warn("Failed to open {}", entry.getValue(), e);
+        }
+      }
+    }
+
+    Map<Path, TailedFile> filesByPath = new HashMap<>();
+    _files.values().stream().filter(file -> !file._removed).forEach(file -> filesByPath.put(file._path, file));
+    _filesByPath = filesByPath;
+  }
+
+  private void restorePosition(TailedFile file) throws IOException {
+    String saved = _savedPositions.remove(file._id);
+    if (saved != null) {
+      long[] position = FileTailer.parseCheckpoint(saved);
+      long fingerprint = FileTailer.parseFingerprint(saved);
+      if (position[1] < 0 || position[1] > file._tailer.size()) {
+        LOG.warn("Checkpoint {} is beyond the end of {}, reading it from the beginning", saved, file._path);
+      } else if (fingerprint >= 0 && fingerprint != getFingerprint(file, position[1])) {
+        LOG.warn("{} doesn't start with the bytes of checkpoint {}, reading it from the beginning", file._path, saved);
+      } else {
+        file._tailer.seek(position[1]);
+        file._lineNo = (int) position[0] + 1;
+        file._position = saved;
+        LOG.info("Resuming {} from line {} at byte offset {}", file._path, position[0], position[1]);
+        return;
+      }
+    }
+    LOG.info("Reading {} from the beginning", file._path);
+  }
+
+  /**
+   * Get the fingerprint of the first bytes of the file up to the given offset, recomputing it only until the
+   * offset reaches {@link #FINGERPRINT_LENGTH}
+   */
+  private long getFingerprint(TailedFile file, long offset) throws IOException {
+    long length = Math.min(offset, FINGERPRINT_LENGTH);
+    if (length != file._fingerprintLength) {
+      file._fingerprint = file._tailer.getFingerprint(length);
+      file._fingerprintLength = length;
+    }
+    return file._fingerprint;
+  }
+
+  private void schedule(TailedFile file) {
+    file._dirty = true;
+    if (!_cancelRequested && file._scheduled.compareAndSet(false, true)) {
+      try {
+        _readerPool.execute(() -> readFile(file));
+      } catch (RejectedExecutionException e) {
+        file._scheduled.set(false);
+      }
+    }
+  }
+
+  private void readFile(TailedFile file) {
+    boolean hasMore = false;
+    file._dirty = false;
+    try {
+      if (!_cancelRequested) {
+        if (file._tailer.isTruncated()) {
+          LOG.info("{} was truncated, reading it from the beginning", file._path);
+          file._tailer.seek(0);
+          file._lineNo = 1;
+          file._fingerprintLength = -1;
+        }
+        for (int i = 0; i < MAX_BATCHES_PER_TURN && !_cancelRequested; i++) {
+          hasMore = sendBatch(file);
+          if (!hasMore) {
+            break;
+          }
+        }
+        if (!hasMore && file._removed) {
+          closeFile(file);
+          return;
+        }
+      }
+    } catch (Exception e) {
+      LOG.error("Failed to read " + file._path + " for task " + _task, e);
+    } finally {
+      file._scheduled.set(false);
+    }
+
+    if (hasMore || file._dirty) {
+      schedule(file);
+    }
+  }
+
+  /**
+   * Read up to maxLinesPerBatch lines of the file and send them in a single record
+   * @return true if the batch is full, i.e. there may be more lines to read
+   */
+  private boolean sendBatch(TailedFile file) throws IOException {
+    DatastreamProducerRecordBuilder builder = null;
+    long currentTimeMillis = System.currentTimeMillis();
+    String timestamp = String.valueOf(currentTimeMillis);
+    String fileName = file._path.getFileName().toString();
+    int lineCount = 0;
+    while (lineCount < _maxLinesPerBatch) {
+      byte[] line = file._tailer.readLine();
+      if (line == null) {
+        break;
+      }
+      if (builder == null) {
+        builder = new DatastreamProducerRecordBuilder();
+      }
+      // Using the file name and line# as the key
+      BrooklinEnvelopeMetadata eventMetadata = new BrooklinEnvelopeMetadata();
+      eventMetadata.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, timestamp);
+      byte[] key = (fileName + ":" + file._lineNo).getBytes();
+      builder.addEvent(new BrooklinEnvelope(key, line, null, eventMetadata));
+      ++file._lineNo;
+      ++lineCount;
+    }
+    file._positionValue.setBytesRead(file._tailer.getOffset());
+    file._positionValue.setFileLengthBytes(file._tailer.size());
+    if (builder == null) {
+      return false;
+    }
+
+    builder.setEventsSourceTimestamp(currentTimeMillis);
+    builder.setPartition(file._partition);
+    long offset = file._tailer.getOffset();
+    long fingerprint = getFingerprint(file, offset);
+    // Serialize the sends of a partition so that its checkpoints only cover lines sent before them
+    synchronized (_partitionLocks.computeIfAbsent(file._partition, p -> new Object())) {
+      file._position = FileTailer.formatCheckpoint(file._lineNo - 1, offset, fingerprint);
+      String checkpoint = getCheckpoint(file._partition);
+      builder.setSourceCheckpoint(checkpoint);
+      _producer.send(builder.build(), (metadata, exception) -> {
+        if (exception != null) {
+          LOG.error(String.format("Sending events of %s up to line %d failed, metadata:{%s}", file._path,
+              file._lineNo - 1, metadata), exception);
+        }
+      });
+    }
+    file._positionValue.setLinesRead((long) file._lineNo);
+    return lineCount == _maxLinesPerBatch;
+  }
+
+  private String getCheckpoint(int partition) {
+    Map<String, String> positions = new TreeMap<>();
+    for (TailedFile file : _files.values()) {
+      if (file._partition == partition && file._position != null) {
+        positions.put(file._id, file._position);
+      }
+    }
+    return JsonUtils.toJson(positions);
+  }
+
+  private void closeFile(TailedFile file) {
+    _files.remove(file._id, file);
+    try {
+      file._tailer.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close {}", file._path, e);
+    }
+    LOG.info("Stopped reading {} at line {}", file._path, file._lineNo - 1);
+  }
+
+  /**
+   * Request the processor to stop, see {@link #isStopped()}
+   */
+  synchronized void stop() {
+    _cancelRequested = true;
+    if (_scanFuture != null) {
+      _scanFuture.cancel(false);
+    }
+    if (_directoryWatcher != null) {
+      _directoryWatcher.unregister(_directory, _listener);
+    }
+  }
+
+  /**
+   * Check whether the processor has stopped, i.e. no read is in progress anymore. Closes the files and releases
+   * the task once it has.
+   */
+  synchronized boolean isStopped() {
+    if (_isStopped || !_cancelRequested || !_started) {
+      return _isStopped;
+    }
+    if (_files.values().stream().anyMatch(file -> file._scheduled.get())) {
+      return false;
+    }
+    _files.values().forEach(this::closeFile);
+    _task.release();
+    _isStopped = true;
+    LOG.info("Stopped MultiFileProcessor for {}", _task);
+    return true;
+  }
+
+  /**
+   * Get the number of rescans requested by the changes of the directory, for testing
+   */
+  long getRescanRequests() {
+    return _rescanRequests.get();
+  }
+
+  /**
+   * Get the positions of the files being read
+   */
+  Map<FilePositionKey, FilePositionValue> getPositions() {
+    Map<FilePositionKey, FilePositionValue> positions = new LinkedHashMap<>();
+    _files.values().forEach(file -> positions.put(file._positionKey, file._positionValue));
+    return positions;
+  }
+}
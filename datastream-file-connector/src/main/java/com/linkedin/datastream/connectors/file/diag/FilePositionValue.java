@@ -31,6 +31,11 @@ public class FilePositionValue implements PositionValue {
    */
   private Long fileLengthBytes;
 
+  /**
+   * The time in milliseconds it took to restore the position from the last checkpoint.
+   */
+  private Long resumeTimeMs;
+
   /**
    * Constructor for FilePositionValue.
    */
@@ -51,7 +56,7 @@ public class FilePositionValue implements PositionValue {
    * @param bytes the number of bytes read
    */
   public void setBytesRead(final Long bytes) {
-    this.bytesRead = bytesRead;
+    this.bytesRead = bytes;
   }
 
   /**
@@ -87,4 +92,21 @@ public class FilePositionValue implements PositionValue {
   public void setFileLengthBytes(final Long bytes) {
     this.fileLengthBytes = bytes;
   }
-}
\ No newline at end of file
+
+  /**
+   * Gets the time it took to restore the position from the last checkpoint.
+   * @return the resume time in milliseconds
+   */
+  @Nullable
+  public Long getResumeTimeMs() {
+    return resumeTimeMs;
+  }
+
+  /**
+   * Sets the time it took to restore the position from the last checkpoint.
+   * @param millis the resume time in milliseconds
+   */
+  public void setResumeTimeMs(final Long millis) {
+    this.resumeTimeMs = millis;
+  }
+}
@@ -0,0 +1,237 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.connectors.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.linkedin.datastream.common.DatastreamSource;
+import com.linkedin.datastream.common.FileUtils;
+import com.linkedin.datastream.common.PollUtils;
+import com.linkedin.datastream.server.DatastreamEventProducer;
+import com.linkedin.datastream.server.DatastreamProducerRecord;
+import com.linkedin.datastream.server.DatastreamTask;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests for {@link FileProcessor}
+ */
+public class TestFileProcessor {
+  private static final long TIMEOUT_MS = 10000;
+
+  private File _file;
+  private ExecutorService _executor;
+  private final List<DatastreamProducerRecord> _records = Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeMethod
+  public void setup() throws IOException {
+    _file = new File(FileUtils.constructRandomDirectoryInTempDir("testFileProcessor"), "test.log");
+    _executor = Executors.newCachedThreadPool();
+    _records.clear();
+  }
+
+  @AfterMethod
+  public void teardown() {
+    _executor.shutdownNow();
+  }
+
+  private void append(String... lines) throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (String line : lines) {
+      content.append(line).append('\n');
+    }
+    Files.write(_file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  private FileProcessor startProcessor(Map<Integer, String> checkpoints, Properties props) throws IOException {
+    return startProcessor(checkpoints, props, null, false);
+  }
+
+  private FileProcessor startProcessor(Map<Integer, String> checkpoints, Properties props,
+      DirectoryWatcher directoryWatcher, boolean isUserManagedDestination) throws IOException {
+    DatastreamTask task = mock(DatastreamTask.class);
+    when(task.getDatastreamSource()).thenReturn(new DatastreamSource().setConnectionString(_file.getPath()));
+    when(task.getCheckpoints()).thenReturn(checkpoints);
+    when(task.isUserManagedDestination()).thenReturn(isUserManagedDestination);
+    when(task.getTaskPrefix()).thenReturn("testFileProcessor");
+    when(task.getDatastreamTaskName()).thenReturn("testFileProcessor_0");
+
+    DatastreamEventProducer producer = mock(DatastreamEventProducer.class);
+    doAnswer(invocation -> {
+      _records.add((DatastreamProducerRecord) invocation.getArguments()[0]);
+      return null;
+    }).when(producer).send(any(), any());
+
+    FileProcessor processor = new FileProcessor(task, producer, directoryWatcher, new FileConnectorConfig(props));
+    _executor.submit(processor);
+    return processor;
+  }
+
+  private void stopProcessor(FileProcessor processor) {
+    processor.stop();
+    Assert.assertTrue(PollUtils.poll(processor::isStopped, 50, TIMEOUT_MS));
+  }
+
+  /**
+   * Get the events sent so far as {@code <lineNo>=<line>}
+   */
+  private List<String> getLines() {
+    synchronized (_records) {
+      return _records.stream()
+          .flatMap(record -> record.getEvents().stream())
+          .map(event -> new String((byte[]) event.key().get()) + "=" + new String((byte[]) event.value().get()))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private boolean waitForLines(int count) {
+    return PollUtils.poll(() -> getLines().size() >= count, 50, TIMEOUT_MS);
+  }
+
+  private List<Integer> getBatchSizes() {
+    synchronized (_records) {
+      return _records.stream().map(record -> record.getEvents().size()).collect(Collectors.toList());
+    }
+  }
+
+  private String getLastCheckpoint() {
+    synchronized (_records) {
+      return _records.get(_records.size() - 1).getCheckpoint();
+    }
+  }
+
+  @Test
+  public void testParseAndFormatCheckpoint() {
+    Assert.assertEquals(FileTailer.parseCheckpoint(FileTailer.formatCheckpoint(12, 3456)), new long[]{12, 3456});
+    // Legacy checkpoints only hold the line number
+    Assert.assertEquals(FileTailer.parseCheckpoint("12"), new long[]{12, -1});
+  }
+
+  @Test
+  public void testResumeFromByteOffset() throws Exception {
+    append("line1", "line2", "line3");
+    Properties props = new Properties();
+    props.put(FileConnector.CFG_BYTE_OFFSET_CHECKPOINTS, "true");
+    // The offset is right after "line2\n"; the line number is only used to number the following lines
+    FileProcessor processor =
+        startProcessor(Collections.singletonMap(0, FileTailer.formatCheckpoint(2, 12)), props);
+    Assert.assertTrue(waitForLines(1));
+    append("line4");
+    Assert.assertTrue(waitForLines(2));
+    stopProcessor(processor);
+
+    Assert.assertEquals(getLines(), Arrays.asList("3=line3", "4=line4"));
+    Assert.assertEquals(getLastCheckpoint(), FileTailer.formatCheckpoint(4, 24));
+    Assert.assertNotNull(processor.getPositionValue().getResumeTimeMs());
+    Assert.assertTrue(processor.getPositionValue().getResumeTimeMs() >= 0);
+  }
+
+  @Test
+  public void testResumeFromLegacyCheckpoint() throws Exception {
+    append("line1", "line2", "line3");
+    FileProcessor processor = startProcessor(Collections.singletonMap(0, "2"), new Properties());
+    Assert.assertTrue(waitForLines(1));
+    stopProcessor(processor);
+
+    Assert.assertEquals(getLines(), Collections.singletonList("3=line3"));
+    // Without byteOffsetCheckpoints, the checkpoints stay readable by older versions
+    Assert.assertEquals(getLastCheckpoint(), "3");
+    Assert.assertNotNull(processor.getPositionValue().getResumeTimeMs());
+  }
+
+  @Test
+  public void testResumeAfterTruncation() throws Exception {
+    append("line1");
+    Properties props = new Properties();
+    props.put(FileConnector.CFG_BYTE_OFFSET_CHECKPOINTS, "true");
+    // The checkpoint was made before the file was truncated to a single line
+    FileProcessor processor =
+        startProcessor(Collections.singletonMap(0, FileTailer.formatCheckpoint(5, 100)), props);
+    Assert.assertTrue(waitForLines(1));
+    stopProcessor(processor);
+
+    Assert.assertEquals(getLines(), Collections.singletonList("1=line1"));
+    Assert.assertEquals(getLastCheckpoint(), FileTailer.formatCheckpoint(1, 6));
+  }
+
+  @Test
+  public void testBatchedReads() throws Exception {
+    append("line1", "line2", "line3", "line4", "line5");
+    Properties props = new Properties();
+    props.put(FileConnector.CFG_MAX_LINES_PER_BATCH, "2");
+    // A small buffer makes the lines span several reads
+    props.put(FileConnector.CFG_READ_BUFFER_SIZE, "4");
+    FileProcessor processor = startProcessor(Collections.emptyMap(), props);
+    Assert.assertTrue(waitForLines(5));
+    stopProcessor(processor);
+
+    Assert.assertEquals(getLines(), Arrays.asList("1=line1", "2=line2", "3=line3", "4=line4", "5=line5"));
+    Assert.assertEquals(getBatchSizes(), Arrays.asList(2, 2, 1));
+    Assert.assertEquals(getLastCheckpoint(), "5");
+    synchronized (_records) {
+      _records.forEach(record -> Assert.assertEquals(record.getPartition().get(), Integer.valueOf(0)));
+    }
+  }
+
+  @Test
+  public void testUserManagedDestinationIsNotBatched() throws Exception {
+    append("line1", "line2", "line3");
+    Properties props = new Properties();
+    props.put(FileConnector.CFG_MAX_LINES_PER_BATCH, "2");
+    FileProcessor processor = startProcessor(Collections.emptyMap(), props, null, true);
+    Assert.assertTrue(waitForLines(3));
+    stopProcessor(processor);
+
+    // Each line is partitioned by its own key
+    Assert.assertEquals(getBatchSizes(), Arrays.asList(1, 1, 1));
+    synchronized (_records) {
+      Assert.assertEquals(_records.stream().map(record -> record.getPartitionKey().get()).collect(Collectors.toList()),
+          Arrays.asList("1", "2", "3"));
+    }
+  }
+
+  @Test
+  public void testWaitForChanges() throws Exception {
+    append("line1");
+    Properties props = new Properties();
+    // Without the change notifications, new lines would only be read after a minute
+    props.put(FileConnector.CFG_MAX_IDLE_WAIT_MS, "60000");
+    try (DirectoryWatcher directoryWatcher = new DirectoryWatcher()) {
+      FileProcessor processor = startProcessor(Collections.emptyMap(), props, directoryWatcher, false);
+      Assert.assertTrue(waitForLines(1));
+      append("line2");
+      Assert.assertTrue(waitForLines(2));
+      append("line3", "line4");
+      Assert.assertTrue(waitForLines(4));
+      stopProcessor(processor);
+    }
+
+    Assert.assertEquals(getLines(), Arrays.asList("1=line1", "2=line2", "3=line3", "4=line4"));
+  }
+}
@@ -0,0 +1,323 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.connectors.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.linkedin.datastream.common.DatastreamSource;
+import com.linkedin.datastream.common.FileUtils;
+import com.linkedin.datastream.common.PollUtils;
+import com.linkedin.datastream.server.DatastreamEventProducer;
+import com.linkedin.datastream.server.DatastreamProducerRecord;
+import com.linkedin.datastream.server.DatastreamTask;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests for {@link MultiFileProcessor}
+ */
+public class TestMultiFileProcessor {
+  private static final long TIMEOUT_MS = 10000;
+
+  private File _directory;
+  private DirectoryWatcher _directoryWatcher;
+  private ScheduledExecutorService _readerPool;
+  private FileConnectorConfig _config;
+
+  @BeforeMethod
+  public void setup() throws IOException {
+    _directory = FileUtils.constructRandomDirectoryInTempDir("testMultiFile");
+    _directoryWatcher = new DirectoryWatcher();
+    _readerPool = Executors.newScheduledThreadPool(2);
+    Properties props = new Properties();
+    props.put(FileConnector.CFG_MAX_LINES_PER_BATCH, "2");
+    props.put(FileConnector.CFG_RESCAN_INTERVAL_MS, "200");
+    _config = new FileConnectorConfig(props);
+  }
+
+  @AfterMethod
+  public void teardown() throws IOException {
+    _readerPool.shutdownNow();
+    _directoryWatcher.close();
+  }
+
+  private static class RecordCollector {
+    private final List<DatastreamProducerRecord> _records = Collections.synchronizedList(new ArrayList<>());
+
+    DatastreamEventProducer createProducer() {
+      DatastreamEventProducer producer = mock(DatastreamEventProducer.class);
+      doAnswer(invocation -> {
+        _records.add((DatastreamProducerRecord) invocation.getArguments()[0]);
+        return null;
+      }).when(producer).send(any(), any());
+      return producer;
+    }
+
+    List<String> getLines() {
+      synchronized (_records) {
+        return _records.stream()
+            .flatMap(record -> record.getEvents().stream())
+            .map(event -> new String((byte[]) event.key().get()) + "=" + new String((byte[]) event.value().get()))
+            .sorted()
+            .collect(Collectors.toList());
+      }
+    }
+
+    /**
+     * Get the last checkpoint sent to each partition
+     */
+    Map<Integer, String> getCheckpoints() {
+      Map<Integer, String> checkpoints = new HashMap<>();
+      synchronized (_records) {
+        _records.forEach(record -> checkpoints.put(record.getPartition().get(), record.getCheckpoint()));
+      }
+      return checkpoints;
+    }
+
+    boolean waitForLines(int count) {
+      return PollUtils.poll(() -> getLines().size() >= count, 50, TIMEOUT_MS);
+    }
+  }
+
+  private String glob(String fileNameGlob) {
+    return MultiFileProcessor.GLOB_PREFIX + new File(_directory, fileNameGlob).getPath();
+  }
+
+  private DatastreamTask createTask(String source, int numPartitions, List<Integer> partitions,
+      Map<Integer, String> checkpoints) {
+    DatastreamTask task = mock(DatastreamTask.class);
+    when(task.getDatastreamSource()).thenReturn(
+        new DatastreamSource().setConnectionString(source).setPartitions(numPartitions));
+    when(task.getPartitions()).thenReturn(partitions);
+    when(task.getCheckpoints()).thenReturn(checkpoints);
+    when(task.getTaskPrefix()).thenReturn("testMultiFile");
+    when(task.getDatastreamTaskName()).thenReturn("testMultiFile_0");
+    return task;
+  }
+
+  private MultiFileProcessor startProcessor(DatastreamTask task, RecordCollector collector) {
+    MultiFileProcessor processor =
+        new MultiFileProcessor(task, collector.createProducer(), _directoryWatcher, _readerPool, _readerPool, _config);
+    processor.start();
+    return processor;
+  }
+
+  private void stopProcessor(MultiFileProcessor processor) {
+    processor.stop();
+    Assert.assertTrue(PollUtils.poll(processor::isStopped, 50, TIMEOUT_MS));
+  }
+
+  private Path append(String fileName, String... lines) throws IOException {
+    Path path = new File(_directory, fileName).toPath();
+    StringBuilder content = new StringBuilder();
+    Arrays.stream(lines).forEach(line -> content.append(line).append('\n'));
+    Files.write(path, content.toString().getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    return path;
+  }
+
+  @Test
+  public void testMultiFileSource() throws Exception {
+    Path starFile = append("*.log", "s1");
+    Assert.assertTrue(MultiFileProcessor.isMultiFileSource(_directory.getPath()));
+    Assert.assertTrue(MultiFileProcessor.isMultiFileSource(glob("*.log")));
+    // Without the prefix, a path with glob characters is a single file
+    Assert.assertFalse(MultiFileProcessor.isMultiFileSource(starFile.toString()));
+
+    Assert.assertEquals(MultiFileProcessor.getDirectory(glob("*.log")), _directory.getAbsoluteFile().toPath());
+    Assert.assertEquals(MultiFileProcessor.getDirectory(_directory.getPath()), _directory.getAbsoluteFile().toPath());
+    Assert.assertTrue(MultiFileProcessor.getFileNameMatcher(glob("*.log")).matches(starFile.getFileName()));
+    Assert.assertFalse(MultiFileProcessor.getFileNameMatcher(glob("*.log")).matches(Paths.get("a.txt")));
+    Assert.assertTrue(MultiFileProcessor.getFileNameMatcher(_directory.getPath()).matches(Paths.get("a.txt")));
+  }
+
+  @Test
+  public void testTailMatchingFiles() throws Exception {
+    append("a.log", "a1", "a2", "a3");
+    append("b.log", "b1");
+    append("c.txt", "c1");
+
+    RecordCollector collector = new RecordCollector();
+    MultiFileProcessor processor = startProcessor(
+        createTask(glob("*.log"), 1, Collections.singletonList(0), new HashMap<>()),
+        collector);
+    Assert.assertTrue(collector.waitForLines(4));
+
+    append("a.log", "a4");
+    append("d.log", "d1", "d2");
+    Assert.assertTrue(collector.waitForLines(7));
+    Assert.assertEquals(processor.getPositions().size(), 3);
+    stopProcessor(processor);
+
+    Assert.assertEquals(collector.getLines(),
+        Arrays.asList("a.log:1=a1", "a.log:2=a2", "a.log:3=a3", "a.log:4=a4", "b.log:1=b1", "d.log:1=d1",
+            "d.log:2=d2"));
+  }
+
+  @Test
+  public void testResumeFromCheckpoint() throws Exception {
+    append("a.log", "a1", "a2", "a3");
+    append("b.log", "b1");
+    String source = _directory.getPath();
+
+    RecordCollector collector = new RecordCollector();
+    MultiFileProcessor processor =
+        startProcessor(createTask(source, 1, Collections.singletonList(0), new HashMap<>()), collector);
+    Assert.assertTrue(collector.waitForLines(4));
+    stopProcessor(processor);
+
+    append("a.log", "a4");
+    append("b.log", "b2");
+    RecordCollector resumed = new RecordCollector();
+    processor = startProcessor(createTask(source, 1, Collections.singletonList(0), collector.getCheckpoints()),
+        resumed);
+    Assert.assertTrue(resumed.waitForLines(2));
+    stopProcessor(processor);
+
+    Assert.assertEquals(resumed.getLines(), Arrays.asList("a.log:4=a4", "b.log:2=b2"));
+  }
+
+  @Test
+  public void testReplacedFileNotResumed() throws Exception {
+    Path log = append("a.log", "a1", "a2");
+    String source = _directory.getPath();
+
+    RecordCollector collector = new RecordCollector();
+    MultiFileProcessor processor =
+        startProcessor(createTask(source, 1, Collections.singletonList(0), new HashMap<>()), collector);
+    Assert.assertTrue(collector.waitForLines(2));
+    stopProcessor(processor);
+
+    // Rewrite the file in place, as a new file reusing the inode of the old one would look like
+    try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+      file.setLength(0);
+    }
+    append("a.log", "x1", "x2", "x3");
+    RecordCollector resumed = new RecordCollector();
+    processor = startProcessor(createTask(source, 1, Collections.singletonList(0), collector.getCheckpoints()),
+        resumed);
+    Assert.assertTrue(resumed.waitForLines(3));
+    stopProcessor(processor);
+
+    Assert.assertEquals(resumed.getLines(), Arrays.asList("a.log:1=x1", "a.log:2=x2", "a.log:3=x3"));
+  }
+
+  @Test
+  public void testRotationAndTruncation() throws Exception {
+    Path log = append("app.log", "l1", "l2");
+    append("other.log", "o1", "o2", "o3");
+
+    RecordCollector collector = new RecordCollector();
+    MultiFileProcessor processor = startProcessor(
+        createTask(glob("*.log*"), 1, Collections.singletonList(0), new HashMap<>()),
+        collector);
+    Assert.assertTrue(collector.waitForLines(5));
+
+    // Rotate app.log by renaming it, the lines written to the renamed file are still read
+    Files.move(log, new File(_directory, "app.log.1").toPath());
+    append("app.log.1", "l3");
+    append("app.log", "n1");
+    Assert.assertTrue(collector.waitForLines(7));
+
+    // Truncate other.log, its new content is read from the beginning
+    try (RandomAccessFile file = new RandomAccessFile(new File(_directory, "other.log"), "rw")) {
+      file.setLength(0);
+    }
+    append("other.log", "t1");
+    Assert.assertTrue(collector.waitForLines(8));
+    stopProcessor(processor);
+
+    // The key of l3 may still have the old file name if it's read before the rename is noticed
+    List<String> lines = collector.getLines();
+    Assert.assertEquals(lines.stream().map(line -> line.substring(line.indexOf('=') + 1)).sorted()
+        .collect(Collectors.toList()), Arrays.asList("l1", "l2", "l3", "n1", "o1", "o2", "o3", "t1"));
+    Assert.assertTrue(lines.contains("app.log:1=n1"));
+    Assert.assertTrue(lines.contains("other.log:1=t1"));
+  }
+
+  @Test
+  public void testSpreadFilesAcrossPartitions() throws Exception {
+    int numFiles = 20;
+    for (int i = 0; i < numFiles; i++) {
+      append("file" + i + ".log", "line");
+    }
+    String source = glob("*.log");
+
+    RecordCollector collector = new RecordCollector();
+    MultiFileProcessor processor1 =
+        startProcessor(createTask(source, 4, Arrays.asList(0, 1), new HashMap<>()), collector);
+    MultiFileProcessor processor2 =
+        startProcessor(createTask(source, 4, Arrays.asList(2, 3), new HashMap<>()), collector);
+    Assert.assertTrue(collector.waitForLines(numFiles));
+    // Give the processors a chance to read any file twice
+    Thread.sleep(500);
+    Assert.assertEquals(processor1.getPositions().size() + processor2.getPositions().size(), numFiles);
+    stopProcessor(processor1);
+    stopProcessor(processor2);
+
+    List<String> lines = collector.getLines();
+    Assert.assertEquals(lines.size(), numFiles);
+    Assert.assertEquals(lines.stream().distinct().count(), numFiles);
+  }
+
+  @Test
+  public void testNoRescanOnChangesOfOtherPartitions() throws Exception {
+    int numFiles = 10;
+    for (int i = 0; i < numFiles; i++) {
+      append("file" + i + ".log", "line");
+    }
+    String source = glob("*.log");
+
+    RecordCollector collector = new RecordCollector();
+    MultiFileProcessor processor1 =
+        startProcessor(createTask(source, 2, Collections.singletonList(0), new HashMap<>()), collector);
+    MultiFileProcessor processor2 =
+        startProcessor(createTask(source, 2, Collections.singletonList(1), new HashMap<>()), collector);
+    Assert.assertTrue(collector.waitForLines(numFiles));
+    long rescans1 = processor1.getRescanRequests();
+    long rescans2 = processor2.getRescanRequests();
+
+    // Every file belongs to one of the processors, so appending to the files doesn't make any of them rescan
+    for (int i = 0; i < numFiles; i++) {
+      append("file" + i + ".log", "more");
+    }
+    Assert.assertTrue(collector.waitForLines(2 * numFiles));
+    Assert.assertEquals(processor1.getRescanRequests(), rescans1);
+    Assert.assertEquals(processor2.getRescanRequests(), rescans2);
+
+    // A new file makes both of them rescan
+    append("new.log", "new");
+    Assert.assertTrue(collector.waitForLines(2 * numFiles + 1));
+    Assert.assertTrue(PollUtils.poll(() -> processor1.getRescanRequests() > rescans1
+        && processor2.getRescanRequests() > rescans2, 50, TIMEOUT_MS));
+    stopProcessor(processor1);
+    stopProcessor(processor2);
+  }
+}
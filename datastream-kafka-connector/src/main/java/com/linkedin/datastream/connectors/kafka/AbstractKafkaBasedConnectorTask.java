@@ -54,9 +54,11 @@ import com.linkedin.datastream.common.PollUtils;
 import com.linkedin.datastream.connectors.CommonConnectorMetrics;
 import com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants;
 import com.linkedin.datastream.metrics.BrooklinMetricInfo;
+import com.linkedin.datastream.metrics.PipelineStageMetrics;
 import com.linkedin.datastream.server.DatastreamEventProducer;
 import com.linkedin.datastream.server.DatastreamProducerRecord;
 import com.linkedin.datastream.server.DatastreamTask;
+import com.linkedin.datastream.server.DatastreamTaskLoad;
 import com.linkedin.datastream.server.DatastreamTaskStatus;
 import com.linkedin.datastream.server.api.transport.SendCallback;
 
@@ -120,8 +122,12 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
   protected final Map<TopicPartition, PausedSourcePartitionMetadata> _autoPausedSourcePartitions = new ConcurrentHashMap<>();
 
   protected final KafkaBasedConnectorTaskMetrics _consumerMetrics;
+  protected final PipelineStageMetrics _stageMetrics;
 
   private final Optional<KafkaPositionTracker> _kafkaPositionTracker;
+  private final long _loadReportIntervalMillis;
+  private long _lastLoadReportTimeMillis;
+  private long _recordsSinceLastLoadReport;
 
   private volatile int _pollAttempts;
 
@@ -164,9 +170,12 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
     _retrySleepDuration = config.getRetrySleepDuration();
     _commitTimeout = config.getCommitTimeout();
     _consumerMetrics = createKafkaBasedConnectorTaskMetrics(metricsPrefix, _datastreamName, _logger);
+    _stageMetrics = PipelineStageMetrics.register(_taskName);
 
     _pollAttempts = 0;
     _kafkaPositionTracker = Optional.ofNullable(createKafkaPositionTracker(config));
+    _loadReportIntervalMillis = config.getTaskLoadReportIntervalMillis();
+    _lastLoadReportTimeMillis = System.currentTimeMillis();
   }
 
   protected static String generateMetricsPrefix(String connectorName, String simpleClassName) {
@@ -217,6 +226,9 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
    * @param readTime the instant the records were successfully polled from the Kafka source
    */
   protected void translateAndSendBatch(ConsumerRecords<?, ?> records, Instant readTime) {
+    // time the stages over the whole batch rather than reporting each record
+    long translateNanos = 0;
+    long sendNanos = 0;
     // iterate through each topic partition one at a time, for better isolation
     for (TopicPartition topicPartition : records.partitions()) {
       for (ConsumerRecord<?, ?> record : records.records(topicPartition)) {
@@ -226,9 +238,13 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
             seekToLastCheckpoint(Collections.singleton(topicPartition));
             break;
           } else {
+            long translateStart = System.nanoTime();
             DatastreamProducerRecord datastreamProducerRecord = translate(record, readTime);
+            long sendStart = System.nanoTime();
+            translateNanos += sendStart - translateStart;
             int numBytes = record.serializedKeySize() + record.serializedValueSize();
             sendDatastreamProducerRecord(datastreamProducerRecord, topicPartition, numBytes, null);
+            sendNanos += System.nanoTime() - sendStart;
           }
         } catch (Exception e) {
           _logger.warn("Got exception while sending record {}", record);
@@ -238,6 +254,8 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
         }
       }
     }
+    _stageMetrics.record(PipelineStageMetrics.Stage.TRANSLATE, translateNanos);
+    _stageMetrics.record(PipelineStageMetrics.Stage.SEND, sendNanos);
   }
 
   protected void rewindAndPausePartitionOnException(TopicPartition srcTopicPartition, Exception ex) {
@@ -361,6 +379,15 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
       _consumer.wakeup();
     }
     _consumerMetrics.deregisterMetrics();
+    _stageMetrics.deregister();
+  }
+
+  /**
+   * Release what the task holds on behalf of its {@link DatastreamTask}, e.g. the task lock, so that another
+   * instance can take it over. Called by the connector once the task has stopped and done its final commit,
+   * when the datastream task is no longer assigned to this instance.
+   */
+  public void releaseDatastreamTask() {
   }
 
   /**
@@ -410,7 +437,9 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
     try {
       long curPollTime = System.currentTimeMillis();
       _lastPolledTimeMillis = curPollTime;
+      long pollStart = System.nanoTime();
       records = consumerPoll(pollInterval);
+      _stageMetrics.record(PipelineStageMetrics.Stage.POLL, System.nanoTime() - pollStart);
       long pollDurationMillis = System.currentTimeMillis() - curPollTime;
       if (pollDurationMillis > pollInterval + POLL_BUFFER_TIME_MILLIS) {
         // record poll time exceeding client poll timeout
@@ -427,6 +456,7 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
       _pollAttempts = 0;
 
       sendPollInfoToPositionTracker(_consumer, records);
+      maybeReportLoad(records.count());
 
       return records;
     } catch (NoOffsetForPartitionException e) {
@@ -441,6 +471,37 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
     }
   }
 
+  /**
+   * Periodically saves the lag and the throughput of the task to its state, so that the leader can size the
+   * datastream group by load. The lag is taken from the position tracker, so it is only reported when it's enabled.
+   *
+   * @param numRecords the number of records received by the last poll
+   */
+  private void maybeReportLoad(int numRecords) {
+    if (_loadReportIntervalMillis <= 0 || !_kafkaPositionTracker.isPresent()) {
+      return;
+    }
+    _recordsSinceLastLoadReport += numRecords;
+    long now = System.currentTimeMillis();
+    long elapsedMillis = now - _lastLoadReportTimeMillis;
+    if (elapsedMillis < _loadReportIntervalMillis) {
+      return;
+    }
+
+    try {
+      long lag = _kafkaPositionTracker.get().getPositions().values().stream()
+          .filter(position -> position.getBrokerOffset() != null && position.getConsumerOffset() != null)
+          .mapToLong(position -> Math.max(0, position.getBrokerOffset() - position.getConsumerOffset()))
+          .sum();
+      double eventsPerSec = _recordsSinceLastLoadReport * 1000.0 / elapsedMillis;
+      _datastreamTask.saveState(DatastreamTaskLoad.STATE_KEY, new DatastreamTaskLoad(lag, eventsPerSec, now).toJson());
+    } catch (Exception e) {
+      _logger.warn("Failed to report the load of task {}", _taskName, e);
+    }
+    _lastLoadReportTimeMillis = now;
+    _recordsSinceLastLoadReport = 0;
+  }
+
   /**
    * Sends the result of the consumer's {@link Consumer#poll(Duration)} to the position tracker.
    *
@@ -564,6 +625,7 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
 
   protected void commitWithRetries(Consumer<?, ?> consumer, Optional<Map<TopicPartition, OffsetAndMetadata>> offsets)
       throws DatastreamRuntimeException {
+    long commitStart = System.nanoTime();
     boolean result = PollUtils.poll(() -> {
       try {
         if (offsets.isPresent()) {
@@ -583,6 +645,7 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
 
       return true;
     }, COMMIT_RETRY_INTERVAL_MILLIS, COMMIT_RETRY_TIMEOUT_MILLIS);
+    _stageMetrics.record(PipelineStageMetrics.Stage.COMMIT, System.nanoTime() - commitStart);
 
     if (!result) {
       String msg = "Commit failed after several retries, Giving up.";
@@ -897,6 +960,7 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
     metrics.addAll(KafkaBasedConnectorTaskMetrics.getEventPollMetrics(prefix));
     metrics.addAll(KafkaBasedConnectorTaskMetrics.getPartitionSpecificMetrics(prefix));
     metrics.addAll(KafkaBasedConnectorTaskMetrics.getKafkaBasedConnectorTaskSpecificMetrics(prefix));
+    metrics.addAll(PipelineStageMetrics.getMetricInfos());
     return metrics;
   }
 
@@ -985,4 +1049,11 @@ abstract public class AbstractKafkaBasedConnectorTask implements Runnable, Consu
   public Optional<KafkaPositionTracker> getKafkaPositionTracker() {
     return _kafkaPositionTracker;
   }
+
+  /**
+   * Gets the latency of the pipeline stages of this task
+   */
+  public PipelineStageMetrics getStageMetrics() {
+    return _stageMetrics;
+  }
 }
@@ -11,8 +11,10 @@ import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -20,7 +22,10 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -34,6 +39,7 @@ import org.apache.kafka.common.PartitionInfo;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 
@@ -45,6 +51,10 @@ import com.linkedin.datastream.common.DatastreamSource;
 import com.linkedin.datastream.common.DatastreamUtils;
 import com.linkedin.datastream.common.DiagnosticsAware;
 import com.linkedin.datastream.common.JsonUtils;
+import com.linkedin.datastream.metrics.BrooklinHistogramInfo;
+import com.linkedin.datastream.metrics.BrooklinMetricInfo;
+import com.linkedin.datastream.metrics.DynamicMetricsManager;
+import com.linkedin.datastream.metrics.PipelineStageMetrics;
 import com.linkedin.datastream.server.DatastreamTask;
 import com.linkedin.datastream.server.api.connector.Connector;
 import com.linkedin.datastream.server.api.connector.DatastreamValidationException;
@@ -67,6 +77,8 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
   public static final String IS_GROUP_ID_HASHING_ENABLED = "isGroupIdHashingEnabled";
 
   private static final Duration CANCEL_TASK_TIMEOUT = Duration.ofSeconds(30);
+  private static final String CLASS_NAME = AbstractKafkaConnector.class.getSimpleName();
+  private static final String TASK_HANDOFF_LATENCY_MS = "taskHandoffLatencyMs";
   static final Duration MIN_DAEMON_THREAD_STARTUP_DELAY = Duration.ofMinutes(2);
 
 
@@ -81,6 +93,8 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
   private final AtomicInteger _threadCounter = new AtomicInteger(0);
   private final ConcurrentHashMap<DatastreamTask, Thread> _taskThreads = new ConcurrentHashMap<>();
 
+  // A bounded executor to stop the tasks that are moved off this instance concurrently
+  private final ExecutorService _taskHandoffExecutor;
 
   // A daemon executor to constantly check whether all tasks are running and restart them if not.
   private ScheduledExecutorService _daemonThreadExecutorService =
@@ -96,7 +110,8 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
 
   enum DiagnosticsRequestType {
     DATASTREAM_STATE,
-    POSITION
+    POSITION,
+    STAGE_LATENCY
   }
 
   /**
@@ -114,6 +129,12 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
     _clusterName = clusterName;
     _config = new KafkaBasedConnectorConfig(config);
     _groupIdConstructor = groupIdConstructor;
+    _taskHandoffExecutor = Executors.newFixedThreadPool(_config.getTaskHandoffThreads(), r -> {
+      Thread t = new Thread(r);
+      t.setDaemon(true);
+      t.setName(String.format("%s task handoff thread %d", _connectorName, _threadCounter.incrementAndGet()));
+      return t;
+    });
   }
 
   protected abstract AbstractKafkaBasedConnectorTask createKafkaBasedConnectorTask(DatastreamTask task);
@@ -121,16 +142,33 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
   @Override
   public synchronized void onAssignmentChange(List<DatastreamTask> tasks) {
     _logger.info("onAssignmentChange called with tasks {}", tasks);
+    long startAt = System.currentTimeMillis();
 
     HashSet<DatastreamTask> toCancel = new HashSet<>(_runningTasks.keySet());
     toCancel.removeAll(tasks);
 
+    // Signal all the outgoing tasks to stop first, then wait for them on the handoff executor so that their
+    // final commits run concurrently and each lock is released as soon as its own task is done.
+    AtomicInteger remainingHandoffs = new AtomicInteger(toCancel.size());
     for (DatastreamTask task : toCancel) {
       AbstractKafkaBasedConnectorTask connectorTask = _runningTasks.remove(task);
+      Thread taskThread = _taskThreads.remove(task);
       connectorTask.stop();
-      _taskThreads.remove(task);
+      _taskHandoffExecutor.submit(() -> {
+        try {
+          awaitStopAndRelease(task, connectorTask, taskThread);
+        } finally {
+          if (remainingHandoffs.decrementAndGet() == 0) {
+            long handoffLatency = System.currentTimeMillis() - startAt;
+            _logger.info("Handed off {} tasks in {} ms", toCancel.size(), handoffLatency);
+            DynamicMetricsManager.getInstance()
+                .createOrUpdateHistogram(CLASS_NAME, _connectorName, TASK_HANDOFF_LATENCY_MS, handoffLatency);
+          }
+        }
+      });
     }
 
+    // Incoming tasks are started right away, each on its own thread, without waiting for the outgoing ones
     for (DatastreamTask task : tasks) {
       AbstractKafkaBasedConnectorTask kafkaBasedConnectorTask = _runningTasks.get(task);
       if (kafkaBasedConnectorTask != null) {
@@ -144,6 +182,42 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
     }
   }
 
+  /**
+   * Wait for a stopped task to complete its final commit and release its datastream task, unless the
+   * datastream task has been assigned back to this instance in the meantime.
+   */
+  private void awaitStopAndRelease(DatastreamTask datastreamTask, AbstractKafkaBasedConnectorTask kafkaTask,
+      Thread taskThread) {
+    try {
+      if (!kafkaTask.awaitStop(CANCEL_TASK_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+        _logger.warn("Task {} took longer than {} ms to stop. Interrupting the thread.", datastreamTask,
+            CANCEL_TASK_TIMEOUT.toMillis());
+        if (taskThread != null) {
+          taskThread.interrupt();
+        }
+      }
+    } catch (InterruptedException e) {
+      _logger.warn("Interrupted while waiting for the datastream task {} to stop", datastreamTask, e);
+      Thread.currentThread().interrupt();
+    }
+
+    if (!_runningTasks.containsKey(datastreamTask)) {
+      try {
+        kafkaTask.releaseDatastreamTask();
+      } catch (Exception e) {
+        _logger.warn("Failed to release the datastream task {}", datastreamTask, e);
+      }
+    }
+  }
+
+  /**
+   * Get the metrics reported by the connector itself, in addition to the ones of its tasks
+   */
+  protected static List<BrooklinMetricInfo> getConnectorMetricInfos(String connectorName) {
+    return Collections.singletonList(new BrooklinHistogramInfo(
+        MetricRegistry.name(CLASS_NAME, connectorName, TASK_HANDOFF_LATENCY_MS)));
+  }
+
   /**
    * Create a thread to run the provided {@link AbstractKafkaBasedConnectorTask} without starting it.
    */
@@ -240,9 +314,27 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
   @Override
   public void stop() {
     _daemonThreadExecutorService.shutdown();
-    // Try to stop the the tasks
-    _runningTasks.keySet().forEach(this::stopTask);
+    // Try to stop the the tasks, all of them at once
+    Map<DatastreamTask, AbstractKafkaBasedConnectorTask> tasks = new HashMap<>(_runningTasks);
     _runningTasks.clear();
+    List<Future<?>> futures = new ArrayList<>();
+    tasks.forEach((datastreamTask, kafkaTask) -> {
+      Thread taskThread = _taskThreads.remove(datastreamTask);
+      kafkaTask.stop();
+      futures.add(_taskHandoffExecutor.submit(() -> awaitStopAndRelease(datastreamTask, kafkaTask, taskThread)));
+    });
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        _logger.warn("Interrupted while waiting for the tasks to stop", e);
+        Thread.currentThread().interrupt();
+        break;
+      } catch (ExecutionException e) {
+        _logger.warn("Failed to stop a task", e);
+      }
+    }
+    _taskHandoffExecutor.shutdown();
     _taskThreads.clear();
     _logger.info("Connector stopped.");
   }
@@ -334,7 +426,8 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
 
   /**
    * Process requests made to the ServerComponentHealthResources diagnostics endpoint. Currently able to process
-   * requests for datastream_state, for which it will return sets of auto and manually paused topic partitions.
+   * requests for datastream_state, for which it will return sets of auto and manually paused topic partitions,
+   * position, and stage_latency, for which it will return the pipeline stage latencies of each running task.
    * Sample query: /datastream_state?datastream=PizzaDatastream
    * Sample response: {"datastream":"testProcessDatastreamStates",
    *      "autoPausedPartitions":{"SaltyPizza-6":{"reason":"SEND_ERROR"},"SaltyPizza-17":{"reason":"SEND_ERROR"}},
@@ -356,6 +449,10 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
         final String response = processPositionRequest();
         _logger.trace("Query: {} returns response: {}", query, response);
         return response;
+      } else if (path != null && path.equalsIgnoreCase(DiagnosticsRequestType.STAGE_LATENCY.toString())) {
+        final String response = processStageLatencyRequest();
+        _logger.trace("Query: {} returns response: {}", query, response);
+        return response;
       } else {
         _logger.warn("Could not process query {} with path {}", query, path);
       }
@@ -408,6 +505,29 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
     return JsonUtils.toJson(positions);
   }
 
+  /**
+   * Returns a JSON list with the pipeline stage latencies of each running task, along with whether the task is
+   * mostly waiting on its source, on CPU or on its destination:
+   * <pre>
+   * [
+   *   {
+   *     "task": "...",
+   *     "bound": "SOURCE",
+   *     "stages": {"pollLatencyUs": {"count": ..., "meanUs": ..., "p50Us": ..., "p99Us": ..., "maxUs": ...,
+   *                "totalMs": ...}, ...}
+   *   },
+   *   ...
+   * ]
+   * </pre>
+   */
+  private String processStageLatencyRequest() {
+    final List<Object> summaries = _runningTasks.values().stream()
+        .map(AbstractKafkaBasedConnectorTask::getStageMetrics)
+        .map(PipelineStageMetrics::getSummary)
+        .collect(Collectors.toList());
+    return JsonUtils.toJson(summaries);
+  }
+
   /**
    * Aggregates the responses from all the instances into a single JSON response.
    * Sample query: /datastream_state?datastream=PizzaDatastream
@@ -432,7 +552,8 @@ public abstract class AbstractKafkaConnector implements Connector, DiagnosticsAw
       String path = getPath(query, _logger);
       if (path != null
           && (path.equalsIgnoreCase(DiagnosticsRequestType.DATASTREAM_STATE.toString())
-          || path.equalsIgnoreCase(DiagnosticsRequestType.POSITION.toString()))) {
+          || path.equalsIgnoreCase(DiagnosticsRequestType.POSITION.toString())
+          || path.equalsIgnoreCase(DiagnosticsRequestType.STAGE_LATENCY.toString()))) {
         return JsonUtils.toJson(responses);
       }
     } catch (Exception e) {
@@ -34,6 +34,9 @@ public class KafkaBasedConnectorConfig {
   public static final String DAEMON_THREAD_INTERVAL_SECONDS = "daemonThreadIntervalInSeconds";
   public static final String NON_GOOD_STATE_THRESHOLD_MILLIS = "nonGoodStateThresholdMs";
   public static final String PROCESSING_DELAY_LOG_THRESHOLD_MILLIS = "processingDelayLogThreshold";
+  public static final String CONFIG_TASK_HANDOFF_THREADS = "taskHandoffThreads";
+  // interval at which tasks report their lag and throughput for sizing datastream groups, 0 to disable
+  public static final String CONFIG_TASK_LOAD_REPORT_INTERVAL_MILLIS = "taskLoadReportIntervalMs";
   // config value to enable Kafka partition management for KafkaMirrorConnector
   public static final String ENABLE_PARTITION_ASSIGNMENT = "enablePartitionAssignment";
   public static final long DEFAULT_NON_GOOD_STATE_THRESHOLD_MILLIS = Duration.ofMinutes(10).toMillis();
@@ -46,6 +49,7 @@ public class KafkaBasedConnectorConfig {
   private static final int DEFAULT_DAEMON_THREAD_INTERVAL_SECONDS = 300;
   private static final long DEFAULT_PROCESSING_DELAY_LOG_THRESHOLD_MILLIS = Duration.ofMinutes(1).toMillis();
   private static final long DEFAULT_COMMIT_TIMEOUT_MILLIS = Duration.ofSeconds(30).toMillis();
+  private static final int DEFAULT_TASK_HANDOFF_THREADS = 10;
 
   private final Properties _consumerProps;
   private final VerifiableProperties _connectorProps;
@@ -67,6 +71,8 @@ public class KafkaBasedConnectorConfig {
   private final int _daemonThreadIntervalSeconds;
   private final long _nonGoodStateThresholdMillis;
   private final boolean _enablePartitionAssignment;
+  private final int _taskHandoffThreads;
+  private final long _taskLoadReportIntervalMillis;
 
   /**
    * Constructor for KafkaBasedConnectorConfig.
@@ -103,6 +109,11 @@ public class KafkaBasedConnectorConfig {
     _enablePositionTracker = verifiableProperties.getBoolean(CONFIG_ENABLE_POSITION_TRACKER, true);
     _enableBrokerOffsetFetcher = verifiableProperties.getBoolean(CONFIG_ENABLE_BROKER_OFFSET_FETCHER, true);
     _enablePartitionAssignment = verifiableProperties.getBoolean(ENABLE_PARTITION_ASSIGNMENT, Boolean.FALSE);
+    _taskHandoffThreads =
+        verifiableProperties.getIntInRange(CONFIG_TASK_HANDOFF_THREADS, DEFAULT_TASK_HANDOFF_THREADS, 1,
+            Integer.MAX_VALUE);
+    _taskLoadReportIntervalMillis =
+        verifiableProperties.getLongInRange(CONFIG_TASK_LOAD_REPORT_INTERVAL_MILLIS, 0, 0, Long.MAX_VALUE);
 
     String factory =
         verifiableProperties.getString(CONFIG_CONSUMER_FACTORY_CLASS, KafkaConsumerFactoryImpl.class.getName());
@@ -191,4 +202,12 @@ public class KafkaBasedConnectorConfig {
   public boolean getEnablePartitionAssignment() {
     return _enablePartitionAssignment;
   }
+
+  public long getTaskLoadReportIntervalMillis() {
+    return _taskLoadReportIntervalMillis;
+  }
+
+  public int getTaskHandoffThreads() {
+    return _taskHandoffThreads;
+  }
 }
@@ -5,6 +5,7 @@
  */
 package com.linkedin.datastream.connectors.kafka;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -133,7 +134,9 @@ public class KafkaConnector extends AbstractKafkaConnector {
 
   @Override
   public List<BrooklinMetricInfo> getMetricInfos() {
-    return Collections.unmodifiableList(KafkaConnectorTask.getMetricInfos(_connectorName));
+    List<BrooklinMetricInfo> metrics = new ArrayList<>(KafkaConnectorTask.getMetricInfos(_connectorName));
+    metrics.addAll(getConnectorMetricInfos(_connectorName));
+    return Collections.unmodifiableList(metrics);
   }
 
   private Boolean isWhiteListedCluster(KafkaConnectionString connectionStr) {
@@ -7,7 +7,6 @@ package com.linkedin.datastream.connectors.kafka;
 
 import java.time.Instant;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -24,8 +23,10 @@ import org.slf4j.LoggerFactory;
 import com.google.common.annotations.VisibleForTesting;
 
 import com.linkedin.datastream.common.BrooklinEnvelope;
+import com.linkedin.datastream.common.BrooklinEnvelopeMetadata;
 import com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants;
 import com.linkedin.datastream.connectors.CommonConnectorMetrics;
+import com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants;
 import com.linkedin.datastream.metrics.BrooklinMetricInfo;
 import com.linkedin.datastream.metrics.MetricsAware;
 import com.linkedin.datastream.server.DatastreamProducerRecord;
@@ -43,6 +44,8 @@ public class KafkaConnectorTask extends AbstractKafkaBasedConnectorTask {
 
   private KafkaConnectionString _srcConnString =
       KafkaConnectionString.valueOf(_datastreamTask.getDatastreamSource().getConnectionString());
+  // Rendered once rather than for each record
+  private final String _kafkaOrigin = _srcConnString.toString();
   private final KafkaConsumerFactory<?, ?> _consumerFactory;
 
   GroupIdConstructor _groupIdConstructor;
@@ -124,23 +127,22 @@ public class KafkaConnectorTask extends AbstractKafkaBasedConnectorTask {
 
   @Override
   protected DatastreamProducerRecord translate(ConsumerRecord<?, ?> fromKafka, Instant readTime) {
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("kafka-origin", _srcConnString.toString());
+    BrooklinEnvelopeMetadata metadata = new BrooklinEnvelopeMetadata();
+    metadata.put(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN, _kafkaOrigin);
     int partition = fromKafka.partition();
-    String partitionStr = String.valueOf(partition);
-    metadata.put("kafka-origin-partition", partitionStr);
-    String offsetStr = String.valueOf(fromKafka.offset());
-    metadata.put("kafka-origin-offset", offsetStr);
+    metadata.putLong(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION, partition);
+    long offset = fromKafka.offset();
+    metadata.putLong(KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET, offset);
 
     long eventsSourceTimestamp = readTime.toEpochMilli();
     if (fromKafka.timestampType() == TimestampType.CREATE_TIME) {
       // If the Kafka header contains the create time. We store the event creation time as event timestamp
-      metadata.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, String.valueOf(fromKafka.timestamp()));
+      metadata.putLong(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, fromKafka.timestamp());
     } else if (fromKafka.timestampType() == TimestampType.LOG_APPEND_TIME) {
       // If the Kafka header contains the log append time, We use that as event source Timestamp
       // which will be used to calculate the SLA.
-      metadata.put(BrooklinEnvelopeMetadataConstants.SOURCE_TIMESTAMP, String.valueOf(fromKafka.timestamp()));
-      metadata.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, String.valueOf(readTime.toEpochMilli()));
+      metadata.putLong(BrooklinEnvelopeMetadataConstants.SOURCE_TIMESTAMP, fromKafka.timestamp());
+      metadata.putLong(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, readTime.toEpochMilli());
       eventsSourceTimestamp = fromKafka.timestamp();
     }
 
@@ -149,7 +151,7 @@ public class KafkaConnectorTask extends AbstractKafkaBasedConnectorTask {
     builder.addEvent(envelope);
     builder.setEventsSourceTimestamp(eventsSourceTimestamp);
     builder.setPartition(partition); // assume source partition count is same as dest
-    builder.setSourceCheckpoint(partitionStr + "-" + offsetStr);
+    builder.setSourceCheckpoint(partition + "-" + offset);
 
     return builder.build();
   }
@@ -8,17 +8,19 @@ package com.linkedin.datastream.connectors.kafka;
 import java.io.Closeable;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.apache.kafka.clients.consumer.Consumer;
@@ -46,6 +48,13 @@ import com.linkedin.datastream.server.DatastreamTask;
  * offset/position of the Connector task's consumer.
  *
  * The information stored can then be queried via the /diag endpoint for diagnostic and analytic purposes.
+ *
+ * Position data is kept as primitives in arrays indexed by the partition's slot in the current assignment. The
+ * consumer thread and the broker offset fetcher update these arrays in place under the write lock of a
+ * {@link StampedLock}, which acts as a seqlock: readers never block them, but read the arrays optimistically and retry
+ * if an update happened meanwhile. Readers are handed an immutable {@link PositionsSnapshot} of the arrays, which is
+ * only copied when it is requested after the position data has changed, so that updates never pay for copies nobody
+ * reads.
  */
 public class KafkaPositionTracker implements Closeable {
 
@@ -62,6 +71,16 @@ public class KafkaPositionTracker implements Closeable {
    */
   private static final int BROKER_OFFSETS_FETCH_SIZE = 250;
 
+  /**
+   * The value of a position field which has not been set.
+   */
+  private static final long UNSET = Long.MIN_VALUE;
+
+  /**
+   * The number of optimistic reads of the position data to attempt before falling back to a read lock.
+   */
+  private static final int MAX_OPTIMISTIC_READS = 3;
+
   /**
    * The task prefix for the DatastreamTask.
    * @see com.linkedin.datastream.server.DatastreamTask#getTaskPrefix()
@@ -83,29 +102,26 @@ public class KafkaPositionTracker implements Closeable {
   private final Instant _connectorTaskStartTime;
 
   /**
-   * The position data for this DatastreamTask.
+   * Guards the position data: updates take its write lock, and reads validate that no update happened while reading.
    */
-  @NotNull
-  private final ConcurrentMap<KafkaPositionKey, KafkaPositionValue> _positions = new ConcurrentHashMap<>();
+  private final StampedLock _lock = new StampedLock();
 
   /**
-   * A map of TopicPartitions to KafkaPositionKeys currently owned/operated on by this KafkaPositionTracker instance.
+   * The partitions currently assigned to us and their position data. Only replaced or updated under the write lock.
    */
   @NotNull
-  private final ConcurrentMap<TopicPartition, KafkaPositionKey> _ownedKeys = new ConcurrentHashMap<>();
+  private volatile Assignment _assignment = new Assignment(new TopicPartition[0]);
 
   /**
-   * A set of TopicPartitions which are assigned to us, but for which we have not yet received any records or
-   * consumer position data for.
+   * The number of updates of the position data so far, incremented under the write lock.
    */
-  @NotNull
-  private final Set<TopicPartition> _uninitializedPartitions = ConcurrentHashMap.newKeySet();
+  private volatile long _version;
 
   /**
-   * A look-up table of TopicPartition -> MetricName as they are encountered to speed consumer metric look up.
+   * The most recent copy of the position data handed to readers, which is stale if its version is not the current one.
    */
   @NotNull
-  private final Map<TopicPartition, MetricName> _metricNameCache = new HashMap<>();
+  private volatile PositionsSnapshot _snapshot = new PositionsSnapshot(_assignment, _version);
 
   /**
    * The client id of the Kafka consumer used by the Connector task. Used to fetch metrics.
@@ -132,6 +148,155 @@ public class KafkaPositionTracker implements Closeable {
   private final BrokerOffsetFetcher _brokerOffsetFetcher; // Defined to help investigation issues (when you have a
   // heap dump or are in a debugger)
 
+  /**
+   * The partitions assigned to us and their position data. Each field of the position data is stored in an array
+   * indexed by the partition's slot, with {@value #UNSET} standing for a field which has not been set.
+   *
+   * An assignment's partitions never change; assigning or revoking partitions replaces it with a new Assignment,
+   * carrying over the data of the partitions which are still assigned. Its arrays and counters are only updated under
+   * the tracker's write lock.
+   */
+  private final class Assignment {
+    private final TopicPartition[] _partitions;
+    private final KafkaPositionKey[] _keys;
+    private final Map<TopicPartition, Integer> _slots;
+    private final MetricName[] _metricNames;
+    private final boolean[] _uninitialized;
+    private final long[] _consumerOffsets;
+    private final long[] _brokerOffsets;
+    private final long[] _assignmentTimesMs;
+    private final long[] _lastRecordReceivedTimestampsMs;
+    private final long[] _lastBrokerQueriedTimesMs;
+    private final long[] _lastNonEmptyPollTimesMs;
+    private int _numUninitialized;
+
+    Assignment(@NotNull final TopicPartition[] partitions) {
+      final int size = partitions.length;
+      _partitions = partitions;
+      _keys = new KafkaPositionKey[size];
+      _slots = new HashMap<>(size * 2);
+      _metricNames = new MetricName[size];
+      _uninitialized = new boolean[size];
+      _consumerOffsets = newUnsetArray(size);
+      _brokerOffsets = newUnsetArray(size);
+      _assignmentTimesMs = newUnsetArray(size);
+      _lastRecordReceivedTimestampsMs = newUnsetArray(size);
+      _lastBrokerQueriedTimesMs = newUnsetArray(size);
+      _lastNonEmptyPollTimesMs = newUnsetArray(size);
+      for (int slot = 0; slot < size; slot++) {
+        final TopicPartition topicPartition = partitions[slot];
+        _keys[slot] = new KafkaPositionKey(topicPartition.topic(), topicPartition.partition(), _datastreamTaskPrefix,
+            _datastreamTaskName, _connectorTaskStartTime);
+        _slots.put(topicPartition, slot);
+      }
+    }
+
+    /**
+     * Returns the slot of the given TopicPartition, or -1 if it is not assigned.
+     */
+    int slotOf(@NotNull final TopicPartition topicPartition) {
+      final Integer slot = _slots.get(topicPartition);
+      return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Copies the position data of a partition from the given slot of another assignment.
+     */
+    void copyFrom(@NotNull final Assignment other, final int otherSlot, final int slot) {
+      _keys[slot] = other._keys[otherSlot];
+      _metricNames[slot] = other._metricNames[otherSlot];
+      _uninitialized[slot] = other._uninitialized[otherSlot];
+      _consumerOffsets[slot] = other._consumerOffsets[otherSlot];
+      _brokerOffsets[slot] = other._brokerOffsets[otherSlot];
+      _assignmentTimesMs[slot] = other._assignmentTimesMs[otherSlot];
+      _lastRecordReceivedTimestampsMs[slot] = other._lastRecordReceivedTimestampsMs[otherSlot];
+      _lastBrokerQueriedTimesMs[slot] = other._lastBrokerQueriedTimesMs[otherSlot];
+      _lastNonEmptyPollTimesMs[slot] = other._lastNonEmptyPollTimesMs[otherSlot];
+    }
+
+    void setUninitialized(final int slot, final boolean uninitialized) {
+      if (_uninitialized[slot] != uninitialized) {
+        _uninitialized[slot] = uninitialized;
+        _numUninitialized += uninitialized ? 1 : -1;
+      }
+    }
+
+    /**
+     * Returns the partitions which are not yet initialized.
+     */
+    @NotNull
+    Set<TopicPartition> getUninitializedPartitions() {
+      if (_numUninitialized == 0) {
+        return Collections.emptySet();
+      }
+      final Set<TopicPartition> uninitializedPartitions = new HashSet<>();
+      for (int slot = 0; slot < _partitions.length; slot++) {
+        if (_uninitialized[slot]) {
+          uninitializedPartitions.add(_partitions[slot]);
+        }
+      }
+      return Collections.unmodifiableSet(uninitializedPartitions);
+    }
+  }
+
+  /**
+   * An immutable copy of the position data of an assignment. The arrays are copied when the snapshot is taken, and the
+   * position values handed to readers are only built from the copies when first requested.
+   */
+  private static final class PositionsSnapshot {
+    private final long _version;
+    private final TopicPartition[] _partitions;
+    private final KafkaPositionKey[] _keys;
+    private final long[] _consumerOffsets;
+    private final long[] _brokerOffsets;
+    private final long[] _assignmentTimesMs;
+    private final long[] _lastRecordReceivedTimestampsMs;
+    private final long[] _lastBrokerQueriedTimesMs;
+    private final long[] _lastNonEmptyPollTimesMs;
+    private final Set<TopicPartition> _uninitializedPartitions;
+    @Nullable
+    private volatile Map<KafkaPositionKey, KafkaPositionValue> _positions;
+
+    PositionsSnapshot(@NotNull final Assignment assignment, final long version) {
+      _version = version;
+      // The partitions and keys of an assignment are no longer modified once it is in place
+      _partitions = assignment._partitions;
+      _keys = assignment._keys;
+      _consumerOffsets = assignment._consumerOffsets.clone();
+      _brokerOffsets = assignment._brokerOffsets.clone();
+      _assignmentTimesMs = assignment._assignmentTimesMs.clone();
+      _lastRecordReceivedTimestampsMs = assignment._lastRecordReceivedTimestampsMs.clone();
+      _lastBrokerQueriedTimesMs = assignment._lastBrokerQueriedTimesMs.clone();
+      _lastNonEmptyPollTimesMs = assignment._lastNonEmptyPollTimesMs.clone();
+      _uninitializedPartitions = assignment.getUninitializedPartitions();
+    }
+
+    /**
+     * Returns the position values of this snapshot, building them on first use. Readers racing to build them get equal
+     * maps, so the race is harmless.
+     */
+    @NotNull
+    Map<KafkaPositionKey, KafkaPositionValue> getPositions() {
+      @Nullable Map<KafkaPositionKey, KafkaPositionValue> positions = _positions;
+      if (positions == null) {
+        final Map<KafkaPositionKey, KafkaPositionValue> values = new HashMap<>(_partitions.length * 2);
+        for (int slot = 0; slot < _partitions.length; slot++) {
+          final KafkaPositionValue value = new KafkaPositionValue();
+          value.setConsumerOffset(toLong(_consumerOffsets[slot]));
+          value.setBrokerOffset(toLong(_brokerOffsets[slot]));
+          value.setAssignmentTime(toInstant(_assignmentTimesMs[slot]));
+          value.setLastRecordReceivedTimestamp(toInstant(_lastRecordReceivedTimestampsMs[slot]));
+          value.setLastBrokerQueriedTime(toInstant(_lastBrokerQueriedTimesMs[slot]));
+          value.setLastNonEmptyPollTime(toInstant(_lastNonEmptyPollTimesMs[slot]));
+          values.put(_keys[slot], value);
+        }
+        positions = Collections.unmodifiableMap(values);
+        _positions = positions;
+      }
+      return positions;
+    }
+  }
+
   /**
    * Describes the metrics format supported by a Kafka consumer.
    */
@@ -186,15 +351,13 @@ public class KafkaPositionTracker implements Closeable {
    *      task
    * @param topicPartitions the topic partitions which have been assigned
    */
-  public synchronized void onPartitionsAssigned(@NotNull final Collection<TopicPartition> topicPartitions) {
-    final Instant assignmentTime = Instant.now();
-    for (final TopicPartition topicPartition : topicPartitions) {
-      final KafkaPositionKey key = new KafkaPositionKey(topicPartition.topic(), topicPartition.partition(),
-          _datastreamTaskPrefix, _datastreamTaskName, _connectorTaskStartTime);
-      _ownedKeys.put(topicPartition, key);
-      _uninitializedPartitions.add(topicPartition);
-      final KafkaPositionValue value = _positions.computeIfAbsent(key, s -> new KafkaPositionValue());
-      value.setAssignmentTime(assignmentTime);
+  public void onPartitionsAssigned(@NotNull final Collection<TopicPartition> topicPartitions) {
+    final long stamp = _lock.writeLock();
+    try {
+      addPartitions(topicPartitions, System.currentTimeMillis());
+      _version++;
+    } finally {
+      _lock.unlockWrite(stamp);
     }
   }
 
@@ -206,59 +369,192 @@ public class KafkaPositionTracker implements Closeable {
    *      task
    * @param topicPartitions the topic partitions which were previously assigned
    */
-  public synchronized void onPartitionsRevoked(@NotNull final Collection<TopicPartition> topicPartitions) {
+  public void onPartitionsRevoked(@NotNull final Collection<TopicPartition> topicPartitions) {
+    final long stamp = _lock.writeLock();
+    try {
+      removePartitions(topicPartitions);
+    } finally {
+      _lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Removes the given partitions from the assignment. Must be called under the write lock.
+   */
+  private void removePartitions(@NotNull final Collection<TopicPartition> topicPartitions) {
+    final Assignment current = _assignment;
+    final Set<TopicPartition> revoked = new HashSet<>(topicPartitions);
+    final List<TopicPartition> retained = new ArrayList<>(current._partitions.length);
+    for (final TopicPartition topicPartition : current._partitions) {
+      if (!revoked.contains(topicPartition)) {
+        retained.add(topicPartition);
+      }
+    }
+    if (retained.size() == current._partitions.length) {
+      return;
+    }
+    replaceAssignment(current, retained.toArray(new TopicPartition[0]));
+    _version++;
+  }
+
+  /**
+   * Adds the given partitions to the assignment, marking them as needing initialization. Partitions which are already
+   * assigned keep their position data apart from the assignment time, which is updated if provided. Must be called
+   * under the write lock.
+   *
+   * @param topicPartitions the topic partitions to add
+   * @param assignmentTimeMs the time at which the partitions were assigned, or {@value #UNSET} if unknown
+   * @return the new assignment
+   */
+  @NotNull
+  private Assignment addPartitions(@NotNull final Collection<TopicPartition> topicPartitions,
+      final long assignmentTimeMs) {
+    final Assignment current = _assignment;
+    final Set<TopicPartition> partitions = new LinkedHashSet<>(current._slots.keySet());
+    partitions.addAll(topicPartitions);
+    final Assignment assignment = partitions.size() == current._partitions.length ? current
+        : replaceAssignment(current, partitions.toArray(new TopicPartition[0]));
     for (final TopicPartition topicPartition : topicPartitions) {
-      _metricNameCache.remove(topicPartition);
-      _uninitializedPartitions.remove(topicPartition);
-      @Nullable final KafkaPositionKey key = _ownedKeys.remove(topicPartition);
-      if (key != null) {
-        _positions.remove(key);
+      final int slot = assignment.slotOf(topicPartition);
+      assignment.setUninitialized(slot, true);
+      if (assignmentTimeMs != UNSET) {
+        assignment._assignmentTimesMs[slot] = assignmentTimeMs;
+      }
+    }
+    return assignment;
+  }
+
+  /**
+   * Replaces the current assignment with an assignment of the given partitions, carrying over the position data of the
+   * partitions which are already assigned.
+   */
+  @NotNull
+  private Assignment replaceAssignment(@NotNull final Assignment current, @NotNull final TopicPartition[] partitions) {
+    final Assignment assignment = new Assignment(partitions);
+    for (int slot = 0; slot < partitions.length; slot++) {
+      final int currentSlot = current.slotOf(partitions[slot]);
+      if (currentSlot >= 0) {
+        assignment.copyFrom(current, currentSlot, slot);
+        if (assignment._uninitialized[slot]) {
+          assignment._numUninitialized++;
+        }
       }
     }
+    _assignment = assignment;
+    return assignment;
+  }
+
+  /**
+   * Applies the given reader to the current assignment, without blocking the updates of the position data. The reader
+   * is retried if the position data was updated while it ran, in which case its result is discarded, and it is applied
+   * under the read lock after {@value #MAX_OPTIMISTIC_READS} failed attempts.
+   */
+  private <T> T readAssignment(@NotNull final Function<Assignment, T> reader) {
+    for (int attempt = 0; attempt < MAX_OPTIMISTIC_READS; attempt++) {
+      final long stamp = _lock.tryOptimisticRead();
+      if (stamp != 0) {
+        final T result = reader.apply(_assignment);
+        if (_lock.validate(stamp)) {
+          return result;
+        }
+      }
+    }
+    final long stamp = _lock.readLock();
+    try {
+      return reader.apply(_assignment);
+    } finally {
+      _lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the current position data, copying it only if it has been updated since the last snapshot.
+   */
+  @NotNull
+  private PositionsSnapshot getSnapshot() {
+    final PositionsSnapshot snapshot = _snapshot;
+    if (snapshot._version == _version) {
+      return snapshot;
+    }
+    // Readers racing to copy the data may publish an older snapshot last, which the next reader notices and replaces
+    final PositionsSnapshot newSnapshot = readAssignment(assignment -> new PositionsSnapshot(assignment, _version));
+    _snapshot = newSnapshot;
+    return newSnapshot;
+  }
+
+  /**
+   * Returns the slot of the given TopicPartition in the current assignment, adding the partition to the assignment if
+   * it is missing.
+   *
+   * It shouldn't be possible to have the partition missing here, because we have to have onPartitionsAssigned() called
+   * with this topicPartition before then, but it should be safe to add it here as this data should be coming from the
+   * consumer thread under the write lock.
+   */
+  @NotNull
+  private Assignment getAssignmentWith(@NotNull final TopicPartition topicPartition) {
+    final Assignment assignment = _assignment;
+    return assignment.slotOf(topicPartition) >= 0 ? assignment
+        : addPartitions(Collections.singleton(topicPartition), UNSET);
   }
 
   /**
    * Updates the position data after the Connector's consumer has finished polling, using both the returned records and
    * the available internal Kafka consumer metrics.
    *
-   * This method will only update position data for partitions which have received records.
+   * This method will only update position data for partitions which have received records. It is meant to be called
+   * from the consumer thread only.
    *
    * @param records the records fetched from {@link Consumer#poll(Duration)}
    * @param metrics the metrics for the Kafka consumer as fetched from {@link Consumer#metrics()}
    */
-  public synchronized void onRecordsReceived(@NotNull final ConsumerRecords<?, ?> records,
+  public void onRecordsReceived(@NotNull final ConsumerRecords<?, ?> records,
       @NotNull final Map<MetricName, ? extends Metric> metrics) {
-    final Instant receivedTime = Instant.now();
+    if (records.isEmpty()) {
+      return;
+    }
+    final long receivedTimeMs = System.currentTimeMillis();
+    final long stamp = _lock.writeLock();
+    try {
+      updatePositions(records, metrics, receivedTimeMs);
+      _version++;
+    } finally {
+      _lock.unlockWrite(stamp);
+    }
+  }
+
+  private void updatePositions(@NotNull final ConsumerRecords<?, ?> records,
+      @NotNull final Map<MetricName, ? extends Metric> metrics, final long receivedTimeMs) {
     for (final TopicPartition topicPartition : records.partitions()) {
-      // It shouldn't be possible to have the key/value missing here, because we to have onPartitionsAssigned() called
-      // with this topicPartition before then, but it should be safe to construct them here as this data should be
-      // coming from the consumer thread without race conditions.
-      final KafkaPositionKey key = _ownedKeys.computeIfAbsent(topicPartition,
-          s -> new KafkaPositionKey(topicPartition.topic(), topicPartition.partition(), _datastreamTaskPrefix,
-              _datastreamTaskName, _connectorTaskStartTime));
-      final KafkaPositionValue value = _positions.computeIfAbsent(key, s -> new KafkaPositionValue());
+      final Assignment assignment = getAssignmentWith(topicPartition);
+      final int slot = assignment.slotOf(topicPartition);
 
       // Derive the consumer offset and the last record polled timestamp from the records
-      records.records(topicPartition).stream()
-          .max(Comparator.comparingLong(ConsumerRecord::offset))
-          .ifPresent(record -> {
-            value.setLastNonEmptyPollTime(receivedTime);
-            // Why add +1? The consumer's position is the offset of the next record it expects.
-            value.setConsumerOffset(record.offset() + 1);
-            value.setLastRecordReceivedTimestamp(Instant.ofEpochMilli(record.timestamp()));
-          });
+      ConsumerRecord<?, ?> lastRecord = null;
+      for (final ConsumerRecord<?, ?> record : records.records(topicPartition)) {
+        if (lastRecord == null || record.offset() > lastRecord.offset()) {
+          lastRecord = record;
+        }
+      }
+      if (lastRecord != null) {
+        assignment._lastNonEmptyPollTimesMs[slot] = receivedTimeMs;
+        // Why add +1? The consumer's position is the offset of the next record it expects.
+        assignment._consumerOffsets[slot] = lastRecord.offset() + 1;
+        assignment._lastRecordReceivedTimestampsMs[slot] = lastRecord.timestamp();
+      }
 
       // Attempt derive the broker's offset from the consumer's metrics
-      getLagMetric(metrics, topicPartition).ifPresent(consumerLag ->
-          Optional.ofNullable(value.getConsumerOffset()).ifPresent(consumerOffset -> {
-            // If we know both the consumer's lag from the metrics, and the consumer's offset from our position data,
-            // then we can calculate what the broker's offset should be.
-            final long brokerOffset = consumerOffset + consumerLag;
-            value.setLastBrokerQueriedTime(receivedTime);
-            value.setBrokerOffset(brokerOffset);
-          }));
+      final long consumerOffset = assignment._consumerOffsets[slot];
+      if (consumerOffset != UNSET) {
+        final long consumerLag = getLagMetric(metrics, assignment, slot);
+        if (consumerLag != UNSET) {
+          // If we know both the consumer's lag from the metrics, and the consumer's offset from our position data,
+          // then we can calculate what the broker's offset should be.
+          assignment._lastBrokerQueriedTimesMs[slot] = receivedTimeMs;
+          assignment._brokerOffsets[slot] = consumerOffset + consumerLag;
+        }
+      }
 
-      _uninitializedPartitions.remove(topicPartition);
+      assignment.setUninitialized(slot, false);
     }
   }
 
@@ -269,24 +565,28 @@ public class KafkaPositionTracker implements Closeable {
    * If it does, the lag value is returned.
    *
    * @param metrics The metrics returned by the Kafka consumer to check
-   * @param topicPartition The TopicPartition to match against
-   * @return the lag value if it can be found
+   * @param assignment The assignment the TopicPartition belongs to
+   * @param slot The slot of the TopicPartition to match against
+   * @return the lag value if it can be found, or {@value #UNSET} otherwise
    */
-  @NotNull
-  private Optional<Long> getLagMetric(@NotNull final Map<MetricName, ? extends Metric> metrics,
-      @NotNull final TopicPartition topicPartition) {
-    @Nullable final MetricName metricName = Optional.ofNullable(_metricNameCache.get(topicPartition))
-        .orElseGet(() -> tryCreateMetricName(topicPartition, metrics.keySet()).orElse(null));
-    return Optional.ofNullable(metricName)
-        .map(name -> (Metric) metrics.get(name))
-        .map(Metric::metricValue)
-        .filter(value -> value instanceof Double)
-        .map(value -> ((Double) value).longValue());
+  private long getLagMetric(@NotNull final Map<MetricName, ? extends Metric> metrics,
+      @NotNull final Assignment assignment, final int slot) {
+    @Nullable MetricName metricName = assignment._metricNames[slot];
+    if (metricName == null) {
+      metricName = tryCreateMetricName(assignment._partitions[slot], metrics.keySet()).orElse(null);
+      if (metricName == null) {
+        return UNSET;
+      }
+      // Cache it, as calculating it is expensive
+      assignment._metricNames[slot] = metricName;
+    }
+    @Nullable final Metric metric = metrics.get(metricName);
+    @Nullable final Object value = metric == null ? null : metric.metricValue();
+    return value instanceof Double ? ((Double) value).longValue() : UNSET;
   }
 
   /**
-   * Attempts to return the metric name containing record lag information if it exists. This method will attempt to
-   * return the cached value before calculating it (calculating the value is expensive).
+   * Attempts to return the metric name containing record lag information if it exists.
    *
    * @param topicPartition the provided topic partition
    * @param metricNames the collection of metric names
@@ -295,12 +595,6 @@ public class KafkaPositionTracker implements Closeable {
   @NotNull
   private Optional<MetricName> tryCreateMetricName(@NotNull final TopicPartition topicPartition,
       @NotNull final Collection<MetricName> metricNames) {
-    // Try to fetch the result from cache first
-    MetricName metricName = _metricNameCache.get(topicPartition);
-    if (metricName != null) {
-      return Optional.of(metricName);
-    }
-
     // Try to initialize the variables if they are not set
     if (_clientId == null || _consumerMetricsSupport == null) {
       // Find a testable metric name in the collection
@@ -332,17 +626,15 @@ public class KafkaPositionTracker implements Closeable {
       case KIP_92: {
         final Map<String, String> tags = new HashMap<>();
         tags.put("client-id", clientId);
-        metricName = new MetricName(topicPartition + "." + RECORDS_LAG_METRIC_NAME_SUFFIX,
-            "consumer-fetch-manager-metrics", "", tags);
-        break;
+        return Optional.of(new MetricName(topicPartition + "." + RECORDS_LAG_METRIC_NAME_SUFFIX,
+            "consumer-fetch-manager-metrics", "", tags));
       }
       case KIP_225: {
         final Map<String, String> tags = new HashMap<>();
         tags.put("client-id", clientId);
         tags.put("topic", topicPartition.topic());
         tags.put("partition", String.valueOf(topicPartition.partition()));
-        metricName = new MetricName(RECORDS_LAG_METRIC_NAME_SUFFIX, "consumer-fetch-manager-metrics", "", tags);
-        break;
+        return Optional.of(new MetricName(RECORDS_LAG_METRIC_NAME_SUFFIX, "consumer-fetch-manager-metrics", "", tags));
       }
       default: {
         // Client metric support is unimplemented in the current consumer
@@ -350,10 +642,6 @@ public class KafkaPositionTracker implements Closeable {
         return Optional.empty();
       }
     }
-
-    // Store it in the cache and return it
-    _metricNameCache.put(topicPartition, metricName);
-    return Optional.of(metricName);
   }
 
   /**
@@ -363,8 +651,10 @@ public class KafkaPositionTracker implements Closeable {
    * @return the Set of TopicPartitions which are not yet initialized
    */
   @NotNull
-  public synchronized Set<TopicPartition> getUninitializedPartitions() {
-    return Collections.unmodifiableSet(_uninitializedPartitions);
+  public Set<TopicPartition> getUninitializedPartitions() {
+    final PositionsSnapshot snapshot = _snapshot;
+    return snapshot._version == _version ? snapshot._uninitializedPartitions
+        : readAssignment(Assignment::getUninitializedPartitions);
   }
 
   /**
@@ -378,28 +668,30 @@ public class KafkaPositionTracker implements Closeable {
    * @param consumerOffset The Connector consumer's offset for this topic partition as if specified by
    *                       {@link Consumer#position(TopicPartition)}
    */
-  public synchronized void initializePartition(@Nullable final TopicPartition topicPartition,
+  public void initializePartition(@Nullable final TopicPartition topicPartition,
       @Nullable final Long consumerOffset) {
     if (topicPartition != null && consumerOffset != null) {
-      // It shouldn't be possible to have the key/value missing here, because we to have onPartitionsAssigned() called
-      // with this topicPartition before then, but it should be safe to construct them here as this data should be
-      // coming from the consumer thread without race conditions.
-      final KafkaPositionKey key = _ownedKeys.computeIfAbsent(topicPartition,
-          s -> new KafkaPositionKey(topicPartition.topic(), topicPartition.partition(), _datastreamTaskPrefix,
-              _datastreamTaskName, _connectorTaskStartTime));
-      final KafkaPositionValue value = _positions.computeIfAbsent(key, s -> new KafkaPositionValue());
-      value.setConsumerOffset(consumerOffset);
-      _uninitializedPartitions.remove(topicPartition);
+      final long stamp = _lock.writeLock();
+      try {
+        final Assignment assignment = getAssignmentWith(topicPartition);
+        final int slot = assignment.slotOf(topicPartition);
+        assignment._consumerOffsets[slot] = consumerOffset;
+        assignment.setUninitialized(slot, false);
+        _version++;
+      } finally {
+        _lock.unlockWrite(stamp);
+      }
     }
   }
 
   /**
-   * Returns the position data stored in this instance.
+   * Returns a snapshot of the position data stored in this instance. The snapshot is shared between readers until the
+   * position data changes, and it is unmodifiable.
    *
    * @return the position data stored in this instance
    */
   public Map<KafkaPositionKey, KafkaPositionValue> getPositions() {
-    return Collections.unmodifiableMap(_positions);
+    return getSnapshot().getPositions();
   }
 
   /**
@@ -411,7 +703,19 @@ public class KafkaPositionTracker implements Closeable {
     if (brokerOffsetFetcher != null) {
       brokerOffsetFetcher.stopAsync();
     }
-    onPartitionsRevoked(_ownedKeys.keySet());
+    revokeAllPartitions();
+  }
+
+  /**
+   * Frees the position data of all the partitions.
+   */
+  private void revokeAllPartitions() {
+    final long stamp = _lock.writeLock();
+    try {
+      removePartitions(_assignment._slots.keySet());
+    } finally {
+      _lock.unlockWrite(stamp);
+    }
   }
 
   /**
@@ -438,25 +742,62 @@ public class KafkaPositionTracker implements Closeable {
   void queryBrokerForLatestOffsets(@NotNull final Consumer<?, ?> consumer,
       @NotNull final Set<TopicPartition> partitions) {
     for (final List<TopicPartition> batch : Iterables.partition(partitions, BROKER_OFFSETS_FETCH_SIZE)) {
-      final Instant queryTime = Instant.now();
+      final long queryTimeMs = System.currentTimeMillis();
       final Map<TopicPartition, Long> offsets = consumer.endOffsets(batch);
-      offsets.forEach((topicPartition, offset) -> {
-        if (offset != null) {
-          // Race condition could exist where we might be unassigned the topic in a different thread while we are in
-          // this thread, so do not create/initialize the key/value in the map.
-          final KafkaPositionKey key = _ownedKeys.get(topicPartition);
-          if (key != null) {
-            final KafkaPositionValue value = _positions.get(key);
-            if (value != null) {
-              value.setLastBrokerQueriedTime(queryTime);
-              value.setBrokerOffset(offset);
-            }
+      // Race condition could exist where we might be unassigned the topic in a different thread while we are in this
+      // thread, so do not add missing partitions to the assignment.
+      final long stamp = _lock.writeLock();
+      try {
+        final Assignment assignment = _assignment;
+        offsets.forEach((topicPartition, offset) -> {
+          final int slot = assignment.slotOf(topicPartition);
+          if (offset != null && slot >= 0) {
+            assignment._lastBrokerQueriedTimesMs[slot] = queryTimeMs;
+            assignment._brokerOffsets[slot] = offset;
           }
-        }
-      });
+        });
+        _version++;
+      } finally {
+        _lock.unlockWrite(stamp);
+      }
     }
   }
 
+  /**
+   * Returns the partitions which have not had their broker offset queried since the given time.
+   */
+  @NotNull
+  private Set<TopicPartition> getPartitionsWithBrokerOffsetsOlderThan(@NotNull final Instant staleBy) {
+    final long staleByMs = staleBy.toEpochMilli();
+    return readAssignment(assignment -> {
+      final Set<TopicPartition> partitions = new HashSet<>();
+      for (int slot = 0; slot < assignment._partitions.length; slot++) {
+        final long lastBrokerQueriedTimeMs = assignment._lastBrokerQueriedTimesMs[slot];
+        if (lastBrokerQueriedTimeMs == UNSET || lastBrokerQueriedTimeMs < staleByMs) {
+          partitions.add(assignment._partitions[slot]);
+        }
+      }
+      return partitions;
+    });
+  }
+
+  @NotNull
+  private static long[] newUnsetArray(final int size) {
+    final long[] array = new long[size];
+    Arrays.fill(array, UNSET);
+    return array;
+  }
+
+  @Nullable
+  private static Long toLong(final long value) {
+    return value == UNSET ? null : value;
+  }
+
+  @Nullable
+  private static Instant toInstant(final long epochMillis) {
+    return epochMillis == UNSET ? null : Instant.ofEpochMilli(epochMillis);
+  }
+
   /**
    * Supplies a consumer usable for fetching broker offsets.
    *
@@ -530,16 +871,8 @@ public class KafkaPositionTracker implements Closeable {
     protected void runOneIteration() {
       // Find which partitions have stale broker offset information
       final Instant staleBy = Instant.now().minus(BROKER_OFFSETS_FETCH_INTERVAL);
-      final Set<TopicPartition> partitionsNeedingUpdate = new HashSet<>();
-      _kafkaPositionTracker._ownedKeys.forEach(((topicPartition, key) -> {
-        // Race condition could exist where we might be unassigned the topic in a different thread while we are in
-        // this thread, so do not create/initialize the value in the map.
-        @Nullable final KafkaPositionValue value = _kafkaPositionTracker._positions.get(key);
-        if (value != null
-            && (value.getLastBrokerQueriedTime() == null || value.getLastBrokerQueriedTime().isBefore(staleBy))) {
-          partitionsNeedingUpdate.add(topicPartition);
-        }
-      }));
+      final Set<TopicPartition> partitionsNeedingUpdate =
+          _kafkaPositionTracker.getPartitionsWithBrokerOffsetsOlderThan(staleBy);
 
       // Query the broker for its offsets for those partitions
       try {
@@ -586,7 +919,7 @@ public class KafkaPositionTracker implements Closeable {
     protected boolean hasLeaked() {
       final boolean hasLeaked = !_isConnectorTaskAlive.get();
       if (hasLeaked) {
-        _kafkaPositionTracker.onPartitionsRevoked(_kafkaPositionTracker._ownedKeys.keySet());
+        _kafkaPositionTracker.revokeAllPartitions();
       }
       return hasLeaked;
     }
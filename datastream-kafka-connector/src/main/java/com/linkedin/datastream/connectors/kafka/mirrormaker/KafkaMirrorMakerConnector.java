@@ -153,7 +153,9 @@ public class KafkaMirrorMakerConnector extends AbstractKafkaConnector {
 
   @Override
   public List<BrooklinMetricInfo> getMetricInfos() {
-    return Collections.unmodifiableList(KafkaMirrorMakerConnectorTask.getMetricInfos(_connectorName));
+    List<BrooklinMetricInfo> metrics = new ArrayList<>(KafkaMirrorMakerConnectorTask.getMetricInfos(_connectorName));
+    metrics.addAll(getConnectorMetricInfos(_connectorName));
+    return Collections.unmodifiableList(metrics);
   }
 
   @Override
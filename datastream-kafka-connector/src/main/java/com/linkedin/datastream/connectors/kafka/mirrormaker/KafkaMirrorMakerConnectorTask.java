@@ -32,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.annotations.VisibleForTesting;
 
 import com.linkedin.datastream.common.BrooklinEnvelope;
+import com.linkedin.datastream.common.BrooklinEnvelopeMetadata;
 import com.linkedin.datastream.common.BrooklinEnvelopeMetadataConstants;
 import com.linkedin.datastream.common.DatastreamConstants;
 import com.linkedin.datastream.common.DatastreamRuntimeException;
@@ -58,6 +59,10 @@ import com.linkedin.datastream.server.DatastreamTask;
 import com.linkedin.datastream.server.FlushlessEventProducerHandler;
 import com.linkedin.datastream.server.api.transport.SendCallback;
 
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_CLUSTER;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_OFFSET;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_PARTITION;
+import static com.linkedin.datastream.kafka.KafkaDatastreamMetadataConstants.KAFKA_ORIGIN_TOPIC;
 
 
 /**
@@ -78,10 +83,6 @@ public class KafkaMirrorMakerConnectorTask extends AbstractKafkaBasedConnectorTa
   private static final Logger LOG = LoggerFactory.getLogger(KafkaMirrorMakerConnectorTask.class.getName());
   private static final String CLASS_NAME = KafkaMirrorMakerConnectorTask.class.getSimpleName();
 
-  private static final String KAFKA_ORIGIN_CLUSTER = "kafka-origin-cluster";
-  private static final String KAFKA_ORIGIN_TOPIC = "kafka-origin-topic";
-  private static final String KAFKA_ORIGIN_PARTITION = "kafka-origin-partition";
-  private static final String KAFKA_ORIGIN_OFFSET = "kafka-origin-offset";
   private static final Duration LOCK_ACQUIRE_TIMEOUT = Duration.ofMinutes(3);
   private static final String NUM_LOCK_FAILS = "numLockFails";
 
@@ -101,6 +102,8 @@ public class KafkaMirrorMakerConnectorTask extends AbstractKafkaBasedConnectorTa
 
   private final KafkaConsumerFactory<?, ?> _consumerFactory;
   private final KafkaConnectionString _mirrorMakerSource;
+  // Rendered once rather than for each record
+  private final String _originCluster;
   private final DynamicMetricsManager _dynamicMetricsManager;
 
   // Topic manager can be used to handle topic related tasks that mirror maker connector needs to do.
@@ -134,6 +137,7 @@ public class KafkaMirrorMakerConnectorTask extends AbstractKafkaBasedConnectorTa
     super(config, task, LOG, generateMetricsPrefix(connectorName, CLASS_NAME));
     _consumerFactory = config.getConsumerFactory();
     _mirrorMakerSource = KafkaConnectionString.valueOf(_datastreamTask.getDatastreamSource().getConnectionString());
+    _originCluster = _mirrorMakerSource.getBrokerListString();
 
     _isFlushlessModeEnabled = isFlushlessModeEnabled;
     _isIdentityMirroringEnabled = KafkaMirrorMakerDatastreamMetadata.isIdentityPartitioningEnabled(_datastream);
@@ -214,17 +218,15 @@ public class KafkaMirrorMakerConnectorTask extends AbstractKafkaBasedConnectorTa
   protected DatastreamProducerRecord translate(ConsumerRecord<?, ?> fromKafka, Instant readTime) {
     long eventsSourceTimestamp =
         fromKafka.timestampType() == TimestampType.LOG_APPEND_TIME ? fromKafka.timestamp() : readTime.toEpochMilli();
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put(KAFKA_ORIGIN_CLUSTER, _mirrorMakerSource.getBrokerListString());
+    BrooklinEnvelopeMetadata metadata = new BrooklinEnvelopeMetadata();
+    metadata.put(KAFKA_ORIGIN_CLUSTER, _originCluster);
     String topic = fromKafka.topic();
     metadata.put(KAFKA_ORIGIN_TOPIC, topic);
     int partition = fromKafka.partition();
-    String partitionStr = String.valueOf(partition);
-    metadata.put(KAFKA_ORIGIN_PARTITION, partitionStr);
+    metadata.putLong(KAFKA_ORIGIN_PARTITION, partition);
     long offset = fromKafka.offset();
-    String offsetStr = String.valueOf(offset);
-    metadata.put(KAFKA_ORIGIN_OFFSET, offsetStr);
-    metadata.put(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, String.valueOf(eventsSourceTimestamp));
+    metadata.putLong(KAFKA_ORIGIN_OFFSET, offset);
+    metadata.putLong(BrooklinEnvelopeMetadataConstants.EVENT_TIMESTAMP, eventsSourceTimestamp);
     BrooklinEnvelope envelope = new BrooklinEnvelope(fromKafka.key(), fromKafka.value(), null, metadata);
     DatastreamProducerRecordBuilder builder = new DatastreamProducerRecordBuilder();
     builder.addEvent(envelope);
@@ -314,6 +316,10 @@ public class KafkaMirrorMakerConnectorTask extends AbstractKafkaBasedConnectorTa
   public void stop() {
     super.stop();
     _topicManager.stop();
+  }
+
+  @Override
+  public void releaseDatastreamTask() {
     if (_enablePartitionAssignment) {
       _datastreamTask.release();
     }
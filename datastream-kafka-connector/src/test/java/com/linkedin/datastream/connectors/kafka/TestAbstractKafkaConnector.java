@@ -9,9 +9,13 @@ import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -27,7 +31,10 @@ import com.linkedin.datastream.server.api.connector.DatastreamValidationExceptio
 
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyObject;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -108,6 +115,30 @@ public class TestAbstractKafkaConnector {
     connector.stop();
   }
 
+  @Test
+  public void testOutgoingTasksReleasedOnAssignmentChange() {
+    TestKafkaConnector connector = new TestKafkaConnector(false, new Properties());
+    DatastreamTaskImpl task1 = new DatastreamTaskImpl();
+    task1.setTaskPrefix("task1");
+    DatastreamTaskImpl task2 = new DatastreamTaskImpl();
+    task2.setTaskPrefix("task2");
+    connector.onAssignmentChange(Arrays.asList(task1, task2));
+    Assert.assertEquals(connector.getCreatedTasks().size(), 2);
+    AbstractKafkaBasedConnectorTask connectorTask1 = connector.getCreatedTasks().get(task1);
+    AbstractKafkaBasedConnectorTask connectorTask2 = connector.getCreatedTasks().get(task2);
+
+    // task1 moves off this instance, it is stopped and released once it has stopped
+    connector.onAssignmentChange(Collections.singletonList(task2));
+    Assert.assertTrue(PollUtils.poll(() -> connector.getReleasedTasks().contains(task1), 100, 5000));
+    verify(connectorTask1).stop();
+    verify(connectorTask2, never()).stop();
+    Assert.assertFalse(connector.getReleasedTasks().contains(task2));
+
+    connector.stop();
+    verify(connectorTask2).stop();
+    Assert.assertTrue(connector.getReleasedTasks().contains(task2));
+  }
+
   /**
    * Dummy implementation of {@link AbstractKafkaConnector} for testing purposes
    */
@@ -115,6 +146,8 @@ public class TestAbstractKafkaConnector {
 
     private boolean _restartThrows;
     private int _createTaskCalled = 0;
+    private final Map<DatastreamTask, AbstractKafkaBasedConnectorTask> _createdTasks = new ConcurrentHashMap<>();
+    private final Set<DatastreamTask> _releasedTasks = ConcurrentHashMap.newKeySet();
 
     /**
      * Constructor for TestKafkaConnector
@@ -138,6 +171,8 @@ public class TestAbstractKafkaConnector {
       } catch (InterruptedException e) {
         e.printStackTrace();
       }
+      doAnswer(invocation -> _releasedTasks.add(task)).when(connectorTask).releaseDatastreamTask();
+      _createdTasks.put(task, connectorTask);
       return connectorTask;
     }
 
@@ -163,5 +198,13 @@ public class TestAbstractKafkaConnector {
     public int getCreateTaskCalled() {
       return _createTaskCalled;
     }
+
+    public Map<DatastreamTask, AbstractKafkaBasedConnectorTask> getCreatedTasks() {
+      return _createdTasks;
+    }
+
+    public Set<DatastreamTask> getReleasedTasks() {
+      return _releasedTasks;
+    }
   }
 }
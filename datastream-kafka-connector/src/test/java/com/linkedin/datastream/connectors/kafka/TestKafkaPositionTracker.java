@@ -239,6 +239,92 @@ public class TestKafkaPositionTracker {
     testBrokerPositionData(DEFAULT_TEST_TOPIC_PARTITION, 2);
   }
 
+  /**
+   * Tests that readers share a snapshot of the position data until it changes, that a snapshot is not affected by later
+   * updates, and that revoked partitions are dropped while the remaining partitions keep their position data.
+   */
+  @Test
+  public void testPositionSnapshots() {
+    TopicPartition otherPartition = new TopicPartition(DEFAULT_TEST_TOPIC_PARTITION.topic(),
+        DEFAULT_TEST_TOPIC_PARTITION.partition() + 1);
+    KafkaPositionTracker tracker = KafkaPositionTracker.builder()
+        .withConnectorTaskStartTime(Instant.now())
+        .withConsumerSupplier(() -> _consumer)
+        .withDatastreamTask(_datastreamTask)
+        .withEnableBrokerOffsetFetcher(false)
+        .withIsConnectorTaskAlive(() -> true)
+        .build();
+    tracker.onPartitionsAssigned(ImmutableSet.of(DEFAULT_TEST_TOPIC_PARTITION, otherPartition));
+    Assert.assertEquals(tracker.getUninitializedPartitions(),
+        ImmutableSet.of(DEFAULT_TEST_TOPIC_PARTITION, otherPartition));
+
+    tracker.initializePartition(DEFAULT_TEST_TOPIC_PARTITION, 10L);
+    Assert.assertEquals(tracker.getUninitializedPartitions(), Collections.singleton(otherPartition));
+    Map<KafkaPositionKey, KafkaPositionValue> positions = tracker.getPositions();
+    Assert.assertSame(tracker.getPositions(), positions);
+    Assert.assertEquals(positions.size(), 2);
+
+    Set<TopicPartition> uninitializedPartitions = tracker.getUninitializedPartitions();
+    tracker.initializePartition(otherPartition, 20L);
+    Assert.assertTrue(tracker.getUninitializedPartitions().isEmpty());
+    Assert.assertEquals(uninitializedPartitions, Collections.singleton(otherPartition));
+    Assert.assertNotSame(tracker.getPositions(), positions);
+    Assert.assertTrue(positions.values().stream().anyMatch(value -> value.getConsumerOffset() == null));
+
+    tracker.onPartitionsRevoked(Collections.singleton(otherPartition));
+    positions = tracker.getPositions();
+    Assert.assertEquals(positions.size(), 1);
+    KafkaPositionValue value = positions.values().iterator().next();
+    Assert.assertEquals(value.getConsumerOffset(), Long.valueOf(10));
+    Assert.assertNotNull(value.getAssignmentTime());
+    Assert.assertNull(value.getBrokerOffset());
+
+    tracker.close();
+    Assert.assertTrue(tracker.getPositions().isEmpty());
+  }
+
+  /**
+   * Tests that readers racing with updates of several partitions at once only see snapshots with all or none of the
+   * partitions of each update.
+   */
+  @Test
+  public void testConsistentSnapshotsUnderUpdates() throws Exception {
+    Set<TopicPartition> partitions = ImmutableSet.of(new TopicPartition("topic", 0), new TopicPartition("topic", 1),
+        new TopicPartition("topic", 2));
+    KafkaPositionTracker tracker = KafkaPositionTracker.builder()
+        .withConnectorTaskStartTime(Instant.now())
+        .withConsumerSupplier(() -> _consumer)
+        .withDatastreamTask(_datastreamTask)
+        .withEnableBrokerOffsetFetcher(false)
+        .withIsConnectorTaskAlive(() -> true)
+        .build();
+    tracker.onPartitionsAssigned(partitions);
+
+    // Every query of the broker returns the same offset for all the partitions
+    ByteBasedKafkaConsumer consumer = Mockito.mock(ByteBasedKafkaConsumer.class);
+    long[] endOffset = new long[1];
+    when(consumer.endOffsets(anyCollectionOf(TopicPartition.class))).thenAnswer(invocation -> {
+      endOffset[0]++;
+      return partitions.stream().collect(Collectors.toMap(partition -> partition, partition -> endOffset[0]));
+    });
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 10000; i++) {
+        tracker.queryBrokerForLatestOffsets(consumer, partitions);
+      }
+    });
+    writer.start();
+    while (writer.isAlive()) {
+      Set<Long> brokerOffsets = tracker.getPositions().values().stream()
+          .map(KafkaPositionValue::getBrokerOffset)
+          .collect(Collectors.toSet());
+      Assert.assertEquals(brokerOffsets.size(), 1, "Inconsistent broker offsets " + brokerOffsets);
+    }
+    writer.join();
+    Assert.assertTrue(tracker.getPositions().values().stream()
+        .allMatch(value -> value.getBrokerOffset() == 10000L));
+    tracker.close();
+  }
+
   /**
    * Tests that the consumer position data won't update if the consumer is non-functional (polls throw exceptions and
    * consumer metric data is inaccurate).
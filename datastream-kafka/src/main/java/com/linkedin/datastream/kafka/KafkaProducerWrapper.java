@@ -42,6 +42,7 @@ import com.linkedin.datastream.metrics.BrooklinMeterInfo;
 import com.linkedin.datastream.metrics.BrooklinMetricInfo;
 import com.linkedin.datastream.metrics.DynamicMetricsManager;
 import com.linkedin.datastream.metrics.MetricsAware;
+import com.linkedin.datastream.metrics.PipelineStageMetrics;
 import com.linkedin.datastream.server.DatastreamTask;
 
 import static com.linkedin.datastream.connectors.CommonConnectorMetrics.AGGREGATE;
@@ -182,6 +183,20 @@ class KafkaProducerWrapper<K, V> {
 
   void send(DatastreamTask task, ProducerRecord<K, V> producerRecord, Callback onComplete)
       throws InterruptedException {
+    // Time spent blocked in send, e.g. on max.block.ms while the producer buffer is full, including the retries
+    long sendStart = System.nanoTime();
+    try {
+      sendWithRetries(task, producerRecord, onComplete);
+    } finally {
+      if (task != null) {
+        PipelineStageMetrics.record(task.getDatastreamTaskName(), PipelineStageMetrics.Stage.PRODUCER_SEND,
+            System.nanoTime() - sendStart);
+      }
+    }
+  }
+
+  private void sendWithRetries(DatastreamTask task, ProducerRecord<K, V> producerRecord, Callback onComplete)
+      throws InterruptedException {
     // There are two known cases that lead to IllegalStateException and we should retry:
     //  1) number of brokers is less than minISR
     //  2) producer is closed in generateSendFailure by another thread
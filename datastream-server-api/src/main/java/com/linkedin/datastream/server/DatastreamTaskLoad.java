@@ -0,0 +1,86 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server;
+
+import com.linkedin.datastream.common.JsonUtils;
+
+
+/**
+ * Load reported by a DatastreamTask: how far behind its source it is and how fast it is processing events. Tasks
+ * persist it as their {@value #STATE_KEY} state, so that the Coordinator leader can size datastream groups by load.
+ */
+public class DatastreamTaskLoad {
+  /**
+   * The key of the task state the load is saved under
+   * @see DatastreamTask#saveState(String, String)
+   */
+  public static final String STATE_KEY = "load";
+
+  private long _lag;
+  private double _eventsPerSec;
+  private long _timestamp;
+
+  /**
+   * Constructor for DatastreamTaskLoad (needed for JSON deserialization)
+   */
+  public DatastreamTaskLoad() {
+  }
+
+  /**
+   * Construct an instance of DatastreamTaskLoad
+   * @param lag number of events the task is behind its source
+   * @param eventsPerSec rate at which the task has been processing events
+   * @param timestamp time at which the load was measured
+   */
+  public DatastreamTaskLoad(long lag, double eventsPerSec, long timestamp) {
+    _lag = lag;
+    _eventsPerSec = eventsPerSec;
+    _timestamp = timestamp;
+  }
+
+  /**
+   * Deserialize a DatastreamTaskLoad from JSON
+   */
+  public static DatastreamTaskLoad fromJson(String json) {
+    return JsonUtils.fromJson(json, DatastreamTaskLoad.class);
+  }
+
+  /**
+   * Serialize this DatastreamTaskLoad to JSON
+   */
+  public String toJson() {
+    return JsonUtils.toJson(this);
+  }
+
+  public long getLag() {
+    return _lag;
+  }
+
+  public void setLag(long lag) {
+    _lag = lag;
+  }
+
+  public double getEventsPerSec() {
+    return _eventsPerSec;
+  }
+
+  public void setEventsPerSec(double eventsPerSec) {
+    _eventsPerSec = eventsPerSec;
+  }
+
+  public long getTimestamp() {
+    return _timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    _timestamp = timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("lag=%d, eventsPerSec=%.1f, timestamp=%d", _lag, _eventsPerSec, _timestamp);
+  }
+}
@@ -25,4 +25,13 @@ public interface DatastreamDeduper {
    */
   Optional<Datastream> findExistingDatastream(Datastream newDatastream, List<Datastream> allDatastream)
       throws DatastreamValidationException;
+
+  /**
+   * Whether the duplicates found by this deduper always share the connector, source connection string, transport
+   * provider and serdes of the new datastream. If so, the Coordinator passes {@link #findExistingDatastream} only the
+   * existing datastreams sharing them, looked up from an index, rather than all the datastreams of the connector.
+   */
+  default boolean isSourceBased() {
+    return false;
+  }
 }
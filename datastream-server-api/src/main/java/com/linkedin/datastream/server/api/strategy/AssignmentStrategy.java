@@ -5,6 +5,7 @@
  */
 package com.linkedin.datastream.server.api.strategy;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -66,4 +67,27 @@ public interface AssignmentStrategy {
       Set<DatastreamTask>> currentAssignment, DatastreamGroupPartitionsMetadata datastreamPartitions) {
     return currentAssignment;
   }
+
+  /**
+   * Whether this strategy adjusts the number of tasks of the datastream groups to their load. The Coordinator leader
+   * only calls {@link #updateTaskCounts} when this returns true.
+   */
+  default boolean isElasticTaskCountEnabled() {
+    return false;
+  }
+
+  /**
+   * Adjust the number of tasks of the datastream groups to the load reported by their tasks. This is called
+   * periodically by the Coordinator leader, which then persists the datastreams of the groups whose number of tasks
+   * changed, and reassigns these groups, followed by their partitions. A strategy must therefore record the new
+   * number of tasks of a group in the metadata of its datastreams, so that it survives a change of leader.
+   *
+   * @param datastreams the datastream groups assigned by this strategy
+   * @param currentAssignment the current assignment for all the datastream groups across all instances
+   * @return the names of the datastream groups whose number of tasks changed
+   */
+  default Set<String> updateTaskCounts(List<DatastreamGroup> datastreams,
+      Map<String, Set<DatastreamTask>> currentAssignment) {
+    return Collections.emptySet();
+  }
 }
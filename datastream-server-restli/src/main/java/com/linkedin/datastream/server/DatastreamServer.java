@@ -9,15 +9,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -35,8 +39,10 @@ import com.linkedin.datastream.common.DatastreamRuntimeException;
 import com.linkedin.datastream.common.ErrorLogger;
 import com.linkedin.datastream.common.ReflectionUtils;
 import com.linkedin.datastream.common.ThreadTerminationMonitor;
+import com.linkedin.datastream.common.ThreadUtils;
 import com.linkedin.datastream.common.VerifiableProperties;
 import com.linkedin.datastream.common.zk.ZkClient;
+import com.linkedin.datastream.metrics.BrooklinGaugeInfo;
 import com.linkedin.datastream.metrics.BrooklinMetricInfo;
 import com.linkedin.datastream.metrics.DynamicMetricsManager;
 import com.linkedin.datastream.server.api.connector.Connector;
@@ -68,11 +74,15 @@ import static com.linkedin.datastream.server.DatastreamServerConfigurationConsta
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_ENABLE_EMBEDDED_JETTY;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_FACTORY_CLASS_NAME;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_HTTP_PORT;
+import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_METRICS_KEY_IDLE_TTL_MS;
+import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_METRICS_MAX_KEYS_PER_CLASS;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_SERDE_NAMES;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_SERDE_PREFIX;
+import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_STARTUP_THREADS;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_TRANSPORT_PROVIDER_NAMES;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.CONFIG_TRANSPORT_PROVIDER_PREFIX;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.DEFAULT_DEDUPER_FACTORY;
+import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.DEFAULT_STARTUP_THREADS;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.DOMAIN_DEDUPER;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.DOMAIN_DIAG;
 import static com.linkedin.datastream.server.DatastreamServerConfigurationConstants.STRATEGY_DOMAIN;
@@ -89,9 +99,17 @@ public class DatastreamServer {
   private static final Logger LOG = LoggerFactory.getLogger(DatastreamServer.class);
   private static final MetricRegistry METRIC_REGISTRY = new MetricRegistry();
   private static final List<BrooklinMetricInfo> METRIC_INFOS = new ArrayList<>();
+  private static final String MODULE = DatastreamServer.class.getSimpleName();
+  private static final String STARTUP_PHASE_INITIALIZE_COMPONENTS = "initializeComponents";
+  private static final String STARTUP_PHASE_START_COORDINATOR = "startCoordinator";
+  private static final String STARTUP_PHASE_START_REST_ENDPOINT = "startRestEndpoint";
+  private static final List<String> STARTUP_PHASES = Arrays.asList(STARTUP_PHASE_INITIALIZE_COMPONENTS,
+      STARTUP_PHASE_START_COORDINATOR, STARTUP_PHASE_START_REST_ENDPOINT);
+  private static final String STARTUP_PHASE_DURATION_MS = "DurationMs";
 
   private final String _csvMetricsDir;
   private final Map<String, String> _bootstrapConnectors;
+  private final Map<String, Long> _startupPhaseDurationsMs = Collections.synchronizedMap(new LinkedHashMap<>());
 
   private Coordinator _coordinator;
   private DatastreamStore _datastreamStore;
@@ -132,6 +150,12 @@ public class DatastreamServer {
     LOG.info("Creating coordinator.");
     VerifiableProperties verifiableProperties = new VerifiableProperties(properties);
 
+    // Bound the per key (e.g. per topic) metrics so that they don't grow with the number of topics ever seen
+    DynamicMetricsManager.getInstance().setKeyedMetricsLimits(
+        verifiableProperties.getIntInRange(CONFIG_METRICS_MAX_KEYS_PER_CLASS,
+            DynamicMetricsManager.DEFAULT_MAX_KEYS_PER_CLASS, 1, Integer.MAX_VALUE),
+        Duration.ofMillis(verifiableProperties.getLongInRange(CONFIG_METRICS_KEY_IDLE_TTL_MS, 0, 0, Long.MAX_VALUE)));
+
     HashSet<String> connectorTypes = new HashSet<>(verifiableProperties.getStringList(CONFIG_CONNECTOR_NAMES,
         Collections.emptyList()));
     if (connectorTypes.size() == 0) {
@@ -156,26 +180,36 @@ public class DatastreamServer {
 
     CachedDatastreamReader datastreamCache = new CachedDatastreamReader(zkClient, coordinatorConfig.getCluster());
     _coordinator = new Coordinator(datastreamCache, coordinatorConfig);
-    LOG.info("Loading connectors {}", connectorTypes);
     _bootstrapConnectors = new HashMap<>();
+    Set<String> serdeNames = new HashSet<>(verifiableProperties.getStringList(CONFIG_SERDE_NAMES, Collections.emptyList()));
+    int startupThreads = verifiableProperties.getIntInRange(CONFIG_STARTUP_THREADS, DEFAULT_STARTUP_THREADS, 1,
+        Integer.MAX_VALUE);
+
+    // Connectors, transport providers and serdes do not depend on each other, so they are created concurrently.
+    // Registering them with the coordinator is cheap and done in the configured order once all are created.
+    long startAt = System.currentTimeMillis();
+    List<Callable<Runnable>> initializers = new ArrayList<>();
+    LOG.info("Loading connectors {}", connectorTypes);
     for (String connectorStr : connectorTypes) {
-      initializeConnector(connectorStr,
+      initializers.add(() -> initializeConnector(connectorStr,
           verifiableProperties.getDomainProperties(CONFIG_CONNECTOR_PREFIX + connectorStr),
-          coordinatorConfig.getCluster());
+          coordinatorConfig.getCluster()));
     }
 
     LOG.info("Loading Transport providers {}", transportProviderNames);
     for (String tpName : transportProviderNames) {
-      initializeTransportProvider(tpName,
-          verifiableProperties.getDomainProperties(CONFIG_TRANSPORT_PROVIDER_PREFIX + tpName));
+      initializers.add(() -> initializeTransportProvider(tpName,
+          verifiableProperties.getDomainProperties(CONFIG_TRANSPORT_PROVIDER_PREFIX + tpName)));
     }
 
-    Set<String> serdeNames = new HashSet<>(verifiableProperties.getStringList(CONFIG_SERDE_NAMES, Collections.emptyList()));
     LOG.info("Loading Serdes {} ", serdeNames);
     for (String serde : serdeNames) {
-      initializeSerde(serde, verifiableProperties.getDomainProperties(CONFIG_SERDE_PREFIX + serde));
+      initializers.add(() -> initializeSerde(serde, verifiableProperties.getDomainProperties(CONFIG_SERDE_PREFIX + serde)));
     }
 
+    ThreadUtils.runInParallel(initializers, startupThreads).forEach(Runnable::run);
+    recordStartupPhase(STARTUP_PHASE_INITIALIZE_COMPONENTS, System.currentTimeMillis() - startAt);
+
     _datastreamStore = new ZookeeperBackedDatastreamStore(datastreamCache, zkClient, coordinatorConfig.getCluster());
 
     boolean enableEmbeddedJetty = verifiableProperties.getBoolean(CONFIG_ENABLE_EMBEDDED_JETTY, true);
@@ -193,7 +227,8 @@ public class DatastreamServer {
     String diagPortStr = diagProperties.getProperty(CONFIG_DIAG_PORT, "");
     int diagPort = diagPortStr.isEmpty() ? _httpPort : Integer.valueOf(diagPortStr);
     String diagPath = diagProperties.getProperty(CONFIG_DIAG_PATH, "");
-    _serverComponentHealthAggregator = new ServerComponentHealthAggregator(zkClient, coordinatorConfig.getCluster(), diagPort, diagPath);
+    _serverComponentHealthAggregator = new ServerComponentHealthAggregator(zkClient, coordinatorConfig.getCluster(),
+        diagPort, diagPath, diagProperties);
 
     _csvMetricsDir = verifiableProperties.getString(CONFIG_CSV_METRICS_DIR, "");
 
@@ -234,7 +269,16 @@ public class DatastreamServer {
     return _serverComponentHealthAggregator;
   }
 
-  private void initializeSerde(String serdeName, Properties serdeConfig) {
+  /**
+   * Get the time taken by each of the startup phases that completed so far, in the order they ran
+   */
+  public Map<String, Long> getStartupPhaseDurationsMs() {
+    synchronized (_startupPhaseDurationsMs) {
+      return new LinkedHashMap<>(_startupPhaseDurationsMs);
+    }
+  }
+
+  private Runnable initializeSerde(String serdeName, Properties serdeConfig) {
     LOG.info("Starting to load the serde:{} with config: {} ", serdeName, serdeConfig);
 
     String factoryClassName = serdeConfig.getProperty(CONFIG_FACTORY_CLASS_NAME, "");
@@ -252,10 +296,10 @@ public class DatastreamServer {
     }
 
     SerdeAdmin admin = factory.createSerdeAdmin(serdeName, serdeConfig);
-    _coordinator.addSerde(serdeName, admin);
+    return () -> _coordinator.addSerde(serdeName, admin);
   }
 
-  private void initializeTransportProvider(String transportProviderName, Properties transportProviderConfig) {
+  private Runnable initializeTransportProvider(String transportProviderName, Properties transportProviderConfig) {
     LOG.info("Starting to load the transport provider: " + transportProviderName);
 
     String factoryClassName = transportProviderConfig.getProperty(CONFIG_FACTORY_CLASS_NAME, "");
@@ -273,10 +317,10 @@ public class DatastreamServer {
     }
 
     TransportProviderAdmin admin = factory.createTransportProviderAdmin(transportProviderName, transportProviderConfig);
-    _coordinator.addTransportProvider(transportProviderName, admin);
+    return () -> _coordinator.addTransportProvider(transportProviderName, admin);
   }
 
-  private void initializeConnector(String connectorName, Properties connectorProperties, String clusterName) {
+  private Runnable initializeConnector(String connectorName, Properties connectorProperties, String clusterName) {
     LOG.info("Starting to load connector: " + connectorName);
 
     VerifiableProperties connectorProps = new VerifiableProperties(connectorProperties);
@@ -299,9 +343,6 @@ public class DatastreamServer {
 
     // Read the bootstrap connector type for the connector if there is one
     String bootstrapConnector = connectorProperties.getProperty(CONFIG_CONNECTOR_BOOTSTRAP_TYPE, "");
-    if (!bootstrapConnector.isEmpty()) {
-      _bootstrapConnectors.put(connectorName, bootstrapConnector);
-    }
 
     // Read the assignment strategy from the config; if not found, use default strategy
     AssignmentStrategyFactory assignmentStrategyFactoryInstance = null;
@@ -338,16 +379,34 @@ public class DatastreamServer {
 
 
     String authorizerName = connectorProps.getString(CONFIG_CONNECTOR_AUTHORIZER_NAME, null);
-    _coordinator.addConnector(connectorName, connectorInstance, assignmentStrategy, customCheckpointing, deduper,
-        authorizerName);
 
     LOG.info("Connector loaded successfully. Type: " + connectorName);
+    return () -> {
+      if (!bootstrapConnector.isEmpty()) {
+        _bootstrapConnectors.put(connectorName, bootstrapConnector);
+      }
+      _coordinator.addConnector(connectorName, connectorInstance, assignmentStrategy, customCheckpointing, deduper,
+          authorizerName);
+    };
+  }
+
+  private void recordStartupPhase(String phase, long durationMs) {
+    LOG.info("DatastreamServer startup phase {} took {} ms", phase, durationMs);
+    _startupPhaseDurationsMs.put(phase, durationMs);
   }
 
   private void initializeMetrics() {
     METRIC_INFOS.addAll(ThreadTerminationMonitor.getMetricInfos());
     METRIC_INFOS.addAll(_coordinator.getMetricInfos());
     METRIC_INFOS.addAll(DatastreamResources.getMetricInfos());
+    METRIC_INFOS.addAll(DynamicMetricsManager.getMetricInfos());
+
+    DynamicMetricsManager dynamicMetricsManager = DynamicMetricsManager.getInstance();
+    for (String phase : STARTUP_PHASES) {
+      String metricName = phase + STARTUP_PHASE_DURATION_MS;
+      dynamicMetricsManager.registerGauge(MODULE, metricName, () -> _startupPhaseDurationsMs.getOrDefault(phase, 0L));
+      METRIC_INFOS.add(new BrooklinGaugeInfo(MetricRegistry.name(MODULE, metricName)));
+    }
 
     _jmxReporter = JmxReporter.forRegistry(METRIC_REGISTRY).build();
 
@@ -381,19 +440,25 @@ public class DatastreamServer {
 
     // Start the coordinator
     if (_coordinator != null) {
+      long startAt = System.currentTimeMillis();
       _coordinator.start();
+      recordStartupPhase(STARTUP_PHASE_START_COORDINATOR, System.currentTimeMillis() - startAt);
     }
 
     // Start the DMS REST endpoint.
     try {
+      long startAt = System.currentTimeMillis();
       _jettyLauncher.start();
       _httpPort = _jettyLauncher.getPort();
       // httpPort might be modified when _jettyLauncher start, so set the port of _serverComponentHealthAggregator.
       _serverComponentHealthAggregator.setPort(_httpPort);
       _isStarted = true;
+      recordStartupPhase(STARTUP_PHASE_START_REST_ENDPOINT, System.currentTimeMillis() - startAt);
     } catch (Exception ex) {
       ErrorLogger.logAndThrowDatastreamRuntimeException(LOG, "Failed to start embedded Jetty.", ex);
     }
+
+    LOG.info("DatastreamServer started, startup phase durations (ms): {}", getStartupPhaseDurationsMs());
   }
 
   /**
@@ -414,6 +479,9 @@ public class DatastreamServer {
       }
       _jettyLauncher = null;
     }
+    if (_serverComponentHealthAggregator != null) {
+      _serverComponentHealthAggregator.shutdown();
+    }
 
     if (_jmxReporter != null) {
       _jmxReporter.stop();
@@ -7,17 +7,27 @@ package com.linkedin.datastream.server.diagnostics;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.linkedin.datastream.common.DiagnosticsAware;
+import com.linkedin.datastream.common.VerifiableProperties;
 import com.linkedin.datastream.common.zk.ZkClient;
 import com.linkedin.datastream.diagnostics.ServerComponentHealth;
 import com.linkedin.datastream.server.zk.KeyBuilder;
@@ -28,17 +38,51 @@ import com.linkedin.diagnostics.ServerComponentHealthRestClientFactory;
 /**
  * ServerComponentHealthAggregator makes REST calls to all servers in the cluster to get their health statuses, merges
  * the results, and returns the overall status of the server component.
+ *
+ * The calls are sent asynchronously from a small dedicated pool, and a host that doesn't respond within the host
+ * timeout is reported as an error instead of holding up the whole request. Aggregated responses are cached for a
+ * short time, so that the same request issued repeatedly (e.g. by dashboards) is only fanned out once per TTL.
  */
 public class ServerComponentHealthAggregator {
 
   private static final Logger LOG = LoggerFactory.getLogger(ServerComponentHealthAggregator.class.getName());
 
+  public static final String CONFIG_FAN_OUT_THREADS = "fanOutThreads";
+  public static final String CONFIG_HOST_TIMEOUT_MS = "hostTimeoutMs";
+  public static final String CONFIG_CACHE_TTL_MS = "cacheTtlMs";
+
+  private static final int DEFAULT_FAN_OUT_THREADS = 4;
+  private static final long DEFAULT_HOST_TIMEOUT_MS = Duration.ofSeconds(10).toMillis();
+  private static final long DEFAULT_CACHE_TTL_MS = Duration.ofSeconds(1).toMillis();
+
   private final ZkClient _zkClient;
   private final String _cluster;
   private final String _restEndPointPath;
+  private final long _hostTimeoutMs;
+  private final long _cacheTtlMs;
+  private final ScheduledThreadPoolExecutor _executor;
+  private final Map<String, ServerComponentHealthRestClient> _restClients = new ConcurrentHashMap<>();
+  private final Map<String, CachedResponse> _responseCache = new ConcurrentHashMap<>();
 
   private int _restEndPointPort;
 
+  /**
+   * An aggregated response, which is shared by the identical requests made while it is in flight or fresh
+   */
+  private static class CachedResponse {
+    private final CompletableFuture<List<ServerComponentHealth>> _future = new CompletableFuture<>();
+    private volatile long _completedAtMs;
+
+    void complete(List<ServerComponentHealth> response) {
+      _completedAtMs = System.currentTimeMillis();
+      _future.complete(response);
+    }
+
+    boolean isExpired(long now, long ttlMs) {
+      return _future.isDone() && now - _completedAtMs >= ttlMs;
+    }
+  }
+
   /**
    * Constructor for ServerComponentHealthAggregator
    * @param zkClient the ZooKeeper client to retrieve the list of servers in the cluster
@@ -47,6 +91,20 @@ public class ServerComponentHealthAggregator {
    * @param endPointPath the REST endpoint path
    */
   public ServerComponentHealthAggregator(ZkClient zkClient, String cluster, int endPointPort, String endPointPath) {
+    this(zkClient, cluster, endPointPort, endPointPath, new Properties());
+  }
+
+  /**
+   * Constructor for ServerComponentHealthAggregator
+   * @param zkClient the ZooKeeper client to retrieve the list of servers in the cluster
+   * @param cluster the cluster
+   * @param endPointPort the REST endpoint port
+   * @param endPointPath the REST endpoint path
+   * @param config the diagnostics config, which sets the number of threads sending the requests, the time to
+   *               wait for each host, and how long aggregated responses are cached (0 to disable caching)
+   */
+  public ServerComponentHealthAggregator(ZkClient zkClient, String cluster, int endPointPort, String endPointPath,
+      Properties config) {
     Validate.notNull(zkClient);
     Validate.notNull(cluster);
 
@@ -54,10 +112,27 @@ public class ServerComponentHealthAggregator {
     _cluster = cluster;
     _restEndPointPort = endPointPort;
     _restEndPointPath = endPointPath;
+
+    VerifiableProperties properties = new VerifiableProperties(config);
+    int fanOutThreads =
+        properties.getIntInRange(CONFIG_FAN_OUT_THREADS, DEFAULT_FAN_OUT_THREADS, 1, Integer.MAX_VALUE);
+    _hostTimeoutMs = properties.getLongInRange(CONFIG_HOST_TIMEOUT_MS, DEFAULT_HOST_TIMEOUT_MS, 1, Long.MAX_VALUE);
+    _cacheTtlMs = properties.getLongInRange(CONFIG_CACHE_TTL_MS, DEFAULT_CACHE_TTL_MS, 0, Long.MAX_VALUE);
+
+    AtomicInteger threadCount = new AtomicInteger();
+    _executor = new ScheduledThreadPoolExecutor(fanOutThreads, r -> {
+      Thread t = new Thread(r);
+      t.setDaemon(true);
+      t.setName("ServerComponentHealthAggregator-" + threadCount.getAndIncrement());
+      return t;
+    });
+    // Deadlines are cancelled as soon as the host responds, so don't keep them around until they would have fired
+    _executor.setRemoveOnCancelPolicy(true);
   }
 
   /**
    * Makes a REST call to each of the servers in the cluster (in parallel) and aggregates their responses.
+   * An identical request made within the cache TTL of a previous one gets the response of the previous request.
    * @param componentType the server component to query
    * @param componentScope the scope of the component to query
    * @param componentInputs the request to the specific component
@@ -66,38 +141,69 @@ public class ServerComponentHealthAggregator {
    */
   public List<ServerComponentHealth> getResponses(String componentType, String componentScope, String componentInputs,
       DiagnosticsAware component) {
+    if (_cacheTtlMs == 0) {
+      return aggregateResponses(componentType, componentScope, componentInputs, component);
+    }
+
+    long now = System.currentTimeMillis();
+    String key = String.join("|", componentType, componentScope, String.valueOf(componentInputs));
+    CachedResponse created = new CachedResponse();
+    CachedResponse cached =
+        _responseCache.merge(key, created, (old, ignored) -> old.isExpired(now, _cacheTtlMs) ? created : old);
+    if (cached != created) {
+      LOG.debug("Reusing the aggregated response to {} {} {}", componentType, componentScope, componentInputs);
+      return cached._future.join();
+    }
+
+    _responseCache.values().removeIf(response -> response.isExpired(now, _cacheTtlMs));
+    try {
+      List<ServerComponentHealth> response =
+          aggregateResponses(componentType, componentScope, componentInputs, component);
+      created.complete(response);
+      return response;
+    } catch (RuntimeException e) {
+      _responseCache.remove(key, created);
+      created._future.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Stop sending requests to the servers
+   */
+  public void shutdown() {
+    _executor.shutdownNow();
+  }
+
+  private List<ServerComponentHealth> aggregateResponses(String componentType, String componentScope,
+      String componentInputs, DiagnosticsAware component) {
     List<String> hosts = getLiveInstances();
     Map<String, String> responses = new ConcurrentHashMap<>();
     Map<String, String> errorResponses = new ConcurrentHashMap<>();
 
-    hosts.parallelStream().forEach(hostName -> {
+    List<CompletableFuture<?>> requests = hosts.stream().map(hostName -> {
       // Send requests to all the server live instances
       String dmsUri = getDmsUri(hostName);
-      LOG.info("Send restli status request to " + dmsUri);
-      ServerComponentHealthRestClient restClient = ServerComponentHealthRestClientFactory.getClient(dmsUri);
-
-      ServerComponentHealth response = null;
-      String errorMessage = "";
-      try {
-        response = restClient.getStatus(componentType, componentScope, componentInputs);
-      } catch (Exception e) {
-        errorMessage = "Received REST exception: " + e.toString() + " from the host: " + dmsUri;
-        LOG.error("Received REST exception from the host: {}", dmsUri, e);
-      } finally {
-        // No response received from a host, set error message
-        if (response == null && errorMessage.isEmpty()) {
-          errorMessage = "Failed to receive REST response from the host: " + dmsUri;
+      return getStatus(dmsUri, componentType, componentScope, componentInputs).handle((response, e) -> {
+        if (e != null) {
+          String errorMessage = "Received REST exception: " + e.toString() + " from the host: " + dmsUri;
+          LOG.error("Received REST exception from the host: {}", dmsUri, e);
+          errorResponses.put(hostName, errorMessage);
+        } else if (response == null) {
+          // No response received from a host, set error message
+          String errorMessage = "Failed to receive REST response from the host: " + dmsUri;
           LOG.error(errorMessage);
-        }
-        if (!errorMessage.isEmpty()) {
           errorResponses.put(hostName, errorMessage);
         } else {
-          String message = "Received REST response from the host: " + dmsUri + " with status: " + response.getStatus();
-          LOG.info(message);
+          LOG.info("Received REST response from the host: " + dmsUri + " with status: " + response.getStatus());
           responses.put(hostName, response.getStatus());
         }
-      }
-    });
+        return null;
+      });
+    }).collect(Collectors.toList());
+
+    // Every request either completes or times out, so this doesn't wait much longer than the host timeout
+    CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).join();
 
     ServerComponentHealth serverComponentHealth = new ServerComponentHealth();
     serverComponentHealth.setSucceeded(true);
@@ -123,6 +229,23 @@ public class ServerComponentHealthAggregator {
     return Arrays.asList(serverComponentHealth);
   }
 
+  /**
+   * Asynchronously get the status from one host, failing with a {@link TimeoutException} if the host doesn't
+   * respond within the host timeout
+   */
+  private CompletableFuture<ServerComponentHealth> getStatus(String dmsUri, String componentType,
+      String componentScope, String componentInputs) {
+    CompletableFuture<ServerComponentHealth> future = CompletableFuture.supplyAsync(() -> {
+      LOG.info("Send restli status request to " + dmsUri);
+      return _restClients.computeIfAbsent(dmsUri, ServerComponentHealthRestClientFactory::getClient);
+    }, _executor).thenCompose(client -> client.getStatusAsync(componentType, componentScope, componentInputs));
+
+    ScheduledFuture<?> deadline = _executor.schedule(() -> future.completeExceptionally(
+        new TimeoutException("No response within " + _hostTimeoutMs + " ms")), _hostTimeoutMs, TimeUnit.MILLISECONDS);
+    future.whenComplete((response, e) -> deadline.cancel(false));
+    return future;
+  }
+
   private List<String> getLiveInstances() {
     List<String> instances = new ArrayList<>();
     List<String> nodes = _zkClient.getChildren(KeyBuilder.liveInstances(_cluster));
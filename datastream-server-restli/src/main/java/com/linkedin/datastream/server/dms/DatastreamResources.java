@@ -9,12 +9,17 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -25,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.MetricRegistry;
 
+import com.linkedin.common.callback.Callback;
+
 import com.linkedin.data.template.StringMap;
 import com.linkedin.datastream.common.Datastream;
 import com.linkedin.datastream.common.DatastreamAlreadyExistsException;
@@ -49,15 +56,20 @@ import com.linkedin.datastream.server.api.connector.DatastreamValidationExceptio
 import com.linkedin.datastream.server.api.security.AuthorizationException;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.server.ActionResult;
+import com.linkedin.restli.server.BatchCreateRequest;
+import com.linkedin.restli.server.BatchCreateResult;
+import com.linkedin.restli.server.BatchDeleteRequest;
 import com.linkedin.restli.server.BatchUpdateRequest;
 import com.linkedin.restli.server.BatchUpdateResult;
 import com.linkedin.restli.server.CreateResponse;
 import com.linkedin.restli.server.PagingContext;
 import com.linkedin.restli.server.PathKeys;
 import com.linkedin.restli.server.ResourceLevel;
+import com.linkedin.restli.server.RestLiServiceException;
 import com.linkedin.restli.server.UpdateResponse;
 import com.linkedin.restli.server.annotations.Action;
 import com.linkedin.restli.server.annotations.ActionParam;
+import com.linkedin.restli.server.annotations.CallbackParam;
 import com.linkedin.restli.server.annotations.Context;
 import com.linkedin.restli.server.annotations.Finder;
 import com.linkedin.restli.server.annotations.Optional;
@@ -81,11 +93,18 @@ public class DatastreamResources extends CollectionResourceTemplate<String, Data
   private static final String UPDATE_CALL = "updateCall";
   private static final String DELETE_CALL = "deleteCall";
   private static final String GET_CALL = "getCall";
+  private static final String BATCH_GET_CALL = "batchGetCall";
+  private static final String WAIT_CALL = "waitCall";
   private static final String GET_ALL_CALL = "getAllCall";
   private static final String CREATE_CALL = "createCall";
+  private static final String BATCH_CREATE_CALL = "batchCreateCall";
+  private static final String BATCH_DELETE_CALL = "batchDeleteCall";
   private static final String CALL_ERROR = "callError";
   private static final String FINDER_CALL = "finderCall";
 
+  // Waiting requests hold a connection, so keep them short enough for clients to wait again if needed
+  private static final long MAX_WAIT_TIMEOUT_MS = Duration.ofMinutes(1).toMillis();
+
   private static AtomicLong _createCallLatencyMs = new AtomicLong(0L);
   private static AtomicLong _deleteCallLatencyMs = new AtomicLong(0L);
   private static final Supplier<Long> CREATE_CALL_LATENCY_MS = () -> _createCallLatencyMs.get();
@@ -607,6 +626,41 @@ public class DatastreamResources extends CollectionResourceTemplate<String, Data
     return null;
   }
 
+  /**
+   * Delete multiple datastreams, notifying the leader once for the whole batch. The datastreams which do not
+   * exist are reported as not found, without failing the deletion of the others.
+   */
+  @Override
+  public BatchUpdateResult<String, Datastream> batchDelete(BatchDeleteRequest<String, Datastream> ids) {
+    LOG.info("Batch delete datastreams called for {} datastreams", ids.getKeys().size());
+    _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, BATCH_DELETE_CALL, 1);
+    Instant startTime = Instant.now();
+    Set<String> deleted = Collections.emptySet();
+    try {
+      deleted = _store.deleteDatastreams(ids.getKeys());
+    } catch (Exception e) {
+      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
+      _errorLogger.logAndThrowRestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+          "Batch delete failed for datastreams: " + ids.getKeys(), e);
+    }
+    _deleteCallLatencyMs.set(Duration.between(startTime, Instant.now()).toMillis());
+
+    Map<String, UpdateResponse> results = new HashMap<>();
+    Map<String, RestLiServiceException> errors = new HashMap<>();
+    for (String key : ids.getKeys()) {
+      if (deleted.contains(key)) {
+        results.put(key, new UpdateResponse(HttpStatus.S_200_OK));
+      } else {
+        _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
+        errors.put(key, _errorLogger.logAndGetRestLiServiceException(HttpStatus.S_404_NOT_FOUND,
+            "Datastream requested to be deleted does not exist: " + key, null));
+      }
+    }
+    LOG.info("Batch delete of {} datastreams took {} ms", deleted.size(),
+        Duration.between(startTime, Instant.now()).toMillis());
+    return new BatchUpdateResult<>(results, errors);
+  }
+
   @Override
   public Datastream get(String name) {
     try {
@@ -626,6 +680,94 @@ public class DatastreamResources extends CollectionResourceTemplate<String, Data
     return null;
   }
 
+  /**
+   * Get multiple datastreams in one request. The datastreams which do not exist are reported as not found.
+   */
+  @Override
+  public Map<String, Datastream> batchGet(Set<String> names) {
+    try {
+      LOG.info("Batch get datastreams called for {} datastreams", names.size());
+      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, BATCH_GET_CALL, 1);
+      Instant startTime = Instant.now();
+      Map<String, Datastream> datastreams = _store.getDatastreams(names);
+      LOG.info("Batch get datastreams call took {} ms", Duration.between(startTime, Instant.now()).toMillis());
+      return datastreams;
+    } catch (Exception e) {
+      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
+      _errorLogger.logAndThrowRestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+          "Batch get datastreams failed for datastreams: " + names, e);
+    }
+
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Wait until a datastream has the given status. The datastream is returned as soon as it reaches the status, or
+   * as it is once the timeout passes, so that clients can tell whether to wait again. The wait doesn't hold a
+   * server thread.
+   * @param pathKeys resource key containing the datastream name
+   * @param status status to wait for
+   * @param timeoutMs maximum time to wait, capped at one minute
+   * @param callback callback receiving the datastream, or a not found error if the datastream doesn't exist
+   */
+  @Action(name = "waitForStatus", resourceLevel = ResourceLevel.ENTITY)
+  public void waitForStatus(@PathKeysParam PathKeys pathKeys, @ActionParam("status") DatastreamStatus status,
+      @ActionParam("timeoutMs") @Optional("5000") long timeoutMs, @CallbackParam Callback<Datastream> callback) {
+    String datastreamName = pathKeys.getAsString(KEY_NAME);
+    LOG.debug("Wait for status {} called for datastream {}", status, datastreamName);
+    await(datastreamName, datastream -> datastream == null || datastream.getStatus() == status, timeoutMs)
+        .whenComplete((datastream, e) -> {
+          if (e != null) {
+            callback.onError(getWaitError(datastreamName, e));
+          } else if (datastream == null) {
+            callback.onError(new RestLiServiceException(HttpStatus.S_404_NOT_FOUND,
+                "Datastream does not exist: " + datastreamName));
+          } else {
+            callback.onSuccess(datastream);
+          }
+        });
+  }
+
+  /**
+   * Wait until a datastream has been deleted
+   * @param pathKeys resource key containing the datastream name
+   * @param timeoutMs maximum time to wait, capped at one minute
+   * @param callback callback receiving whether the datastream has been deleted before the timeout
+   */
+  @Action(name = "waitForDeletion", resourceLevel = ResourceLevel.ENTITY)
+  public void waitForDeletion(@PathKeysParam PathKeys pathKeys,
+      @ActionParam("timeoutMs") @Optional("5000") long timeoutMs, @CallbackParam Callback<Boolean> callback) {
+    String datastreamName = pathKeys.getAsString(KEY_NAME);
+    LOG.debug("Wait for deletion called for datastream {}", datastreamName);
+    await(datastreamName, Objects::isNull, timeoutMs).whenComplete((datastream, e) -> {
+      if (e != null) {
+        callback.onError(getWaitError(datastreamName, e));
+      } else {
+        callback.onSuccess(datastream == null);
+      }
+    });
+  }
+
+  private CompletableFuture<Datastream> await(String datastreamName, Predicate<Datastream> condition,
+      long timeoutMs) {
+    _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, WAIT_CALL, 1);
+    try {
+      Duration timeout = Duration.ofMillis(Math.max(0, Math.min(timeoutMs, MAX_WAIT_TIMEOUT_MS)));
+      return _store.awaitDatastream(datastreamName, condition, timeout);
+    } catch (Exception e) {
+      CompletableFuture<Datastream> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
+  private RestLiServiceException getWaitError(String datastreamName, Throwable e) {
+    _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
+    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+    return _errorLogger.logAndGetRestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+        "Wait failed for datastream: " + datastreamName, cause instanceof Exception ? (Exception) cause : null);
+  }
+
   @SuppressWarnings("deprecated")
   @Override
   public List<Datastream> getAll(@Context PagingContext pagingContext) {
@@ -688,21 +830,7 @@ public class DatastreamResources extends CollectionResourceTemplate<String, Data
 
       _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CREATE_CALL, 1);
 
-      // rest.li has done this mandatory field check in the latest version.
-      // Just in case we roll back to an earlier version, let's do the validation here anyway
-      DatastreamUtils.validateNewDatastream(datastream);
-      Validate.isTrue(datastream.hasName(), "Must specify name of Datastream!");
-      Validate.isTrue(datastream.hasConnectorName(), "Must specify connectorType!");
-      Validate.isTrue(datastream.hasSource(), "Must specify source of Datastream!");
-      Validate.isTrue(datastream.hasMetadata(), "Missing metadata for Datastream!");
-
-      StringMap metadataMap = datastream.getMetadata();
-      Validate.isTrue(metadataMap.containsKey(DatastreamMetadataConstants.OWNER_KEY),
-          "Must specify owner of Datastream");
-
-      if (datastream.hasDestination() && datastream.getDestination().hasConnectionString()) {
-        metadataMap.put(DatastreamMetadataConstants.IS_USER_MANAGED_DESTINATION_KEY, "true");
-      }
+      validateNewDatastream(datastream);
 
       Instant startTime = Instant.now();
 
@@ -725,30 +853,113 @@ public class DatastreamResources extends CollectionResourceTemplate<String, Data
 
       LOG.info("Datastream persisted to zookeeper, total time used: {} ms", delta.toMillis());
       return new CreateResponse(datastream.getName(), HttpStatus.S_201_CREATED);
-    } catch (IllegalArgumentException e) {
-      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
-      _errorLogger.logAndThrowRestLiServiceException(HttpStatus.S_400_BAD_REQUEST,
+    } catch (Exception e) {
+      throw getCreateError(datastream, e);
+    }
+  }
+
+  /**
+   * Create multiple datastreams. The whole batch is validated, deduped and initialized against a single snapshot of
+   * the existing datastreams, then persisted with batched writes. Each datastream succeeds or fails on its own; the
+   * responses are in the same order as the datastreams of the request.
+   */
+  @Override
+  public BatchCreateResult<String, Datastream> batchCreate(BatchCreateRequest<String, Datastream> entities) {
+    List<Datastream> datastreams = entities.getInput();
+    LOG.info("Batch create datastreams called for {} datastreams", datastreams.size());
+    _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, BATCH_CREATE_CALL, 1);
+    Instant startTime = Instant.now();
+
+    // 1. validate the datastreams, and reject the names which already exist or appear more than once in the batch
+    RestLiServiceException[] errors = new RestLiServiceException[datastreams.size()];
+    Set<String> existingNames = _store.getAllDatastreams().collect(Collectors.toSet());
+    Set<String> batchNames = new HashSet<>();
+    List<Datastream> toInitialize = new ArrayList<>();
+    for (int i = 0; i < datastreams.size(); i++) {
+      Datastream datastream = datastreams.get(i);
+      try {
+        validateNewDatastream(datastream);
+        if (existingNames.contains(datastream.getName()) || !batchNames.add(datastream.getName())) {
+          throw new DatastreamAlreadyExistsException();
+        }
+        toInitialize.add(datastream);
+      } catch (Exception e) {
+        errors[i] = getCreateError(datastream, e);
+      }
+    }
+
+    // 2. initialize the datastreams against a single snapshot
+    Map<String, Exception> initializeErrors = _coordinator.initializeDatastreams(toInitialize);
+    Map<String, Datastream> toCreate = new LinkedHashMap<>();
+    for (Datastream datastream : toInitialize) {
+      if (!initializeErrors.containsKey(datastream.getName())) {
+        toCreate.put(datastream.getName(), datastream);
+      }
+    }
+
+    // 3. persist the initialized datastreams with batched writes
+    Map<String, ? extends Exception> createErrors;
+    try {
+      createErrors = _store.createDatastreams(toCreate);
+    } catch (Exception e) {
+      createErrors = toCreate.keySet().stream().collect(Collectors.toMap(name -> name, name -> e));
+    }
+
+    // names are unique among the datastreams which passed the validation
+    List<CreateResponse> responses = new ArrayList<>(datastreams.size());
+    for (int i = 0; i < datastreams.size(); i++) {
+      Datastream datastream = datastreams.get(i);
+      if (errors[i] == null && initializeErrors.containsKey(datastream.getName())) {
+        errors[i] = getCreateError(datastream, initializeErrors.get(datastream.getName()));
+      } else if (errors[i] == null && createErrors.containsKey(datastream.getName())) {
+        errors[i] = getCreateError(datastream, createErrors.get(datastream.getName()));
+      }
+      responses.add(errors[i] != null ? new CreateResponse(errors[i])
+          : new CreateResponse(datastream.getName(), HttpStatus.S_201_CREATED));
+    }
+
+    Duration delta = Duration.between(startTime, Instant.now());
+    _createCallLatencyMs.set(delta.toMillis());
+    LOG.info("Batch create of {} datastreams persisted {} of them to zookeeper, total time used: {} ms",
+        datastreams.size(), toCreate.size() - createErrors.size(), delta.toMillis());
+    return new BatchCreateResult<>(responses);
+  }
+
+  private void validateNewDatastream(Datastream datastream) {
+    // rest.li has done this mandatory field check in the latest version.
+    // Just in case we roll back to an earlier version, let's do the validation here anyway
+    DatastreamUtils.validateNewDatastream(datastream);
+    Validate.isTrue(datastream.hasName(), "Must specify name of Datastream!");
+    Validate.isTrue(datastream.hasConnectorName(), "Must specify connectorType!");
+    Validate.isTrue(datastream.hasSource(), "Must specify source of Datastream!");
+    Validate.isTrue(datastream.hasMetadata(), "Missing metadata for Datastream!");
+
+    StringMap metadataMap = datastream.getMetadata();
+    Validate.isTrue(metadataMap.containsKey(DatastreamMetadataConstants.OWNER_KEY),
+        "Must specify owner of Datastream");
+
+    if (datastream.hasDestination() && datastream.getDestination().hasConnectionString()) {
+      metadataMap.put(DatastreamMetadataConstants.IS_USER_MANAGED_DESTINATION_KEY, "true");
+    }
+  }
+
+  private RestLiServiceException getCreateError(Datastream datastream, Exception e) {
+    _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
+    if (e instanceof IllegalArgumentException) {
+      return _errorLogger.logAndGetRestLiServiceException(HttpStatus.S_400_BAD_REQUEST,
           "Invalid input params for create request", e);
-    } catch (DatastreamValidationException e) {
-      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
-      _errorLogger.logAndThrowRestLiServiceException(HttpStatus.S_400_BAD_REQUEST,
+    } else if (e instanceof DatastreamValidationException) {
+      return _errorLogger.logAndGetRestLiServiceException(HttpStatus.S_400_BAD_REQUEST,
           "Failed to initialize Datastream: " + datastream, e);
-    } catch (DatastreamAlreadyExistsException e) {
-      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
-      _errorLogger.logAndThrowRestLiServiceException(HttpStatus.S_409_CONFLICT,
+    } else if (e instanceof DatastreamAlreadyExistsException) {
+      return _errorLogger.logAndGetRestLiServiceException(HttpStatus.S_409_CONFLICT,
           "Datastream with the same name already exists: " + datastream, e);
-    } catch (AuthorizationException e) {
-      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
-      _errorLogger.logAndThrowRestLiServiceException(HttpStatus.S_401_UNAUTHORIZED,
+    } else if (e instanceof AuthorizationException) {
+      return _errorLogger.logAndGetRestLiServiceException(HttpStatus.S_401_UNAUTHORIZED,
           "Datastream creation denied due to insufficient authorization: " + datastream, e);
-    } catch (Exception e) {
-      _dynamicMetricsManager.createOrUpdateMeter(CLASS_NAME, CALL_ERROR, 1);
-      _errorLogger.logAndThrowRestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
-          "Unexpected error during datastream creation: " + datastream, e);
     }
-
-    // Should never get here because we throw on any errors
-    return null;
+    return _errorLogger.logAndGetRestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+        "Unexpected error during datastream creation: " + datastream, e);
   }
 
   /**
@@ -760,8 +971,12 @@ public class DatastreamResources extends CollectionResourceTemplate<String, Data
     metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, UPDATE_CALL)));
     metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, DELETE_CALL)));
     metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, GET_CALL)));
+    metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, BATCH_GET_CALL)));
+    metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, WAIT_CALL)));
     metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, GET_ALL_CALL)));
     metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, CREATE_CALL)));
+    metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, BATCH_CREATE_CALL)));
+    metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, BATCH_DELETE_CALL)));
     metrics.add(new BrooklinMeterInfo(MetricRegistry.name(CLASS_NAME, CALL_ERROR)));
 
     metrics.add(new BrooklinGaugeInfo(MetricRegistry.name(CLASS_NAME, CREATE_CALL_LATENCY_MS_STRING)));
@@ -5,6 +5,14 @@
  */
 package com.linkedin.datastream.server.dms;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import com.linkedin.datastream.common.Datastream;
@@ -20,6 +28,23 @@ public interface DatastreamStore {
    */
   Datastream getDatastream(String key);
 
+  /**
+   * Retrieves the datastreams associated with the given keys. Stores should override this to read the datastreams
+   * in as few round-trips as possible.
+   * @param keys the keys of the datastreams to retrieve
+   * @return the datastreams which exist, by key
+   */
+  default Map<String, Datastream> getDatastreams(Collection<String> keys) {
+    Map<String, Datastream> datastreams = new HashMap<>();
+    for (String key : keys) {
+      Datastream datastream = getDatastream(key);
+      if (datastream != null) {
+        datastreams.put(key, datastream);
+      }
+    }
+    return datastreams;
+  }
+
   /**
    * Retrieves all the datastreams in the store. Since there may be many datastreams, it is better
    * to return a Stream and enable further filtering and transformation rather that just a List.
@@ -44,4 +69,54 @@ public interface DatastreamStore {
    * Deletes the datastream associated with the provided key.
    */
   void deleteDatastream(String key);
+
+  /**
+   * Creates new datastreams and associates them with the provided keys. Stores should override this to write
+   * the datastreams in as few round-trips as possible.
+   * @param datastreams the datastreams to create, by key
+   * @return the errors of the datastreams which could not be created, by key
+   */
+  default Map<String, RuntimeException> createDatastreams(Map<String, Datastream> datastreams) {
+    Map<String, RuntimeException> errors = new HashMap<>();
+    datastreams.forEach((key, datastream) -> {
+      try {
+        createDatastream(key, datastream);
+      } catch (RuntimeException e) {
+        errors.put(key, e);
+      }
+    });
+    return errors;
+  }
+
+  /**
+   * Deletes the datastreams associated with the provided keys. Stores should override this to write the
+   * deletions in as few round-trips as possible, and notify the leader only once.
+   * @param keys the keys of the datastreams to delete
+   * @return the keys of the datastreams which existed and were deleted
+   */
+  default Set<String> deleteDatastreams(Collection<String> keys) {
+    Set<String> deleted = new HashSet<>();
+    for (String key : keys) {
+      if (getDatastream(key) != null) {
+        deleteDatastream(key);
+        deleted.add(key);
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Waits asynchronously until the datastream associated with the given key satisfies a condition. Stores should
+   * override this to be notified of changes to the datastream rather than have the callers poll it; the default
+   * implementation doesn't wait, and completes with the current datastream right away.
+   * @param key datastream name
+   * @param condition condition to wait for, which is given null while the datastream doesn't exist
+   * @param timeout how long to wait for the condition
+   * @return a future completed with the datastream (or null if it doesn't exist) as soon as it satisfies the
+   *         condition, or with its latest value once the timeout passes
+   */
+  default CompletableFuture<Datastream> awaitDatastream(String key, Predicate<Datastream> condition,
+      Duration timeout) {
+    return CompletableFuture.completedFuture(getDatastream(key));
+  }
 }
@@ -5,10 +5,30 @@
  */
 package com.linkedin.datastream.server.dms;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.I0Itec.zkclient.IZkDataListener;
 import org.apache.commons.lang.Validate;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.ZooDefs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +48,16 @@ public class ZookeeperBackedDatastreamStore implements DatastreamStore {
 
   private static final Logger LOG = LoggerFactory.getLogger(ZookeeperBackedDatastreamStore.class.getName());
 
+  // Keeps each multi request well under the default 1MB jute.maxbuffer
+  private static final int MAX_OPS_PER_MULTI = 100;
+
+  // Only completes the waits that time out, so a single thread is shared by all the stores
+  private static final ScheduledExecutorService WAIT_TIMEOUT_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "DatastreamStoreWaitTimeout");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private final ZkClient _zkClient;
   private final String _cluster;
   private final CachedDatastreamReader _datastreamCache;
@@ -69,6 +99,25 @@ public class ZookeeperBackedDatastreamStore implements DatastreamStore {
     return DatastreamUtils.fromJSON(json);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * The datastreams are read with pipelined requests.
+   */
+  @Override
+  public Map<String, Datastream> getDatastreams(Collection<String> keys) {
+    Set<String> paths = keys.stream().filter(Objects::nonNull).map(this::getZnodePath).collect(Collectors.toSet());
+    Map<String, ZkClient.ZkNodeData> znodes = _zkClient.readDataAsync(paths);
+    Map<String, Datastream> datastreams = new HashMap<>();
+    for (String key : keys) {
+      ZkClient.ZkNodeData znode = key == null ? null : znodes.get(getZnodePath(key));
+      if (znode != null && znode.getData() != null) {
+        datastreams.put(key, DatastreamUtils.fromJSON(znode.getData()));
+      }
+    }
+    return datastreams;
+  }
+
   /**
    * Retrieves all the datastreams in the store. Since there may be many datastreams, it is better
    * to return a Stream and enable further filtering and transformation rather that just a List.
@@ -113,18 +162,162 @@ public class ZookeeperBackedDatastreamStore implements DatastreamStore {
     _zkClient.writeData(path, json);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * The znodes are created by multi requests of up to {@value #MAX_OPS_PER_MULTI} datastreams. Since the leader
+   * watches the children of the datastreams znode, each multi request triggers at most one notification. A multi
+   * request fails as a whole if any of its datastreams cannot be created, in which case its datastreams are created
+   * one by one to find out which ones failed.
+   */
+  @Override
+  public Map<String, RuntimeException> createDatastreams(Map<String, Datastream> datastreams) {
+    Map<String, RuntimeException> errors = new HashMap<>();
+    if (datastreams.isEmpty()) {
+      return errors;
+    }
+
+    _zkClient.ensurePath(KeyBuilder.datastreams(_cluster));
+    for (List<String> keys : partition(datastreams.keySet())) {
+      List<Op> ops = keys.stream()
+          .map(key -> Op.create(getZnodePath(key), _zkClient.serialize(DatastreamUtils.toJSON(datastreams.get(key))),
+              ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT))
+          .collect(Collectors.toList());
+      try {
+        _zkClient.multi(ops);
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to create a batch of {} datastreams, creating them one by one", keys.size(), e);
+        for (String key : keys) {
+          try {
+            createDatastream(key, datastreams.get(key));
+          } catch (DatastreamAlreadyExistsException ex) {
+            // The multi request may have been applied before the connection was lost and then retried
+            if (!DatastreamUtils.toJSON(datastreams.get(key)).equals(_zkClient.readData(getZnodePath(key), true))) {
+              errors.put(key, ex);
+            }
+          } catch (RuntimeException ex) {
+            errors.put(key, ex);
+          }
+        }
+      }
+    }
+    return errors;
+  }
+
   @Override
   public void deleteDatastream(String key) {
     Validate.notNull(key, "null key");
 
-    Datastream datastream = getDatastream(key);
-    if (datastream != null) {
-      datastream.setStatus(DatastreamStatus.DELETING);
-      String data = DatastreamUtils.toJSON(datastream);
-      String path = getZnodePath(key);
-      _zkClient.updateDataSerialized(path, old -> data);
+    if (markDeleting(key)) {
+      notifyLeaderOfDataChange();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The datastreams are read with pipelined requests, and marked as deleting by versioned multi requests of up to
+   * {@value #MAX_OPS_PER_MULTI} datastreams. The datastreams of a multi request that fails (e.g. because one of them
+   * was concurrently updated) are marked one by one instead. The leader is notified once, after all the datastreams
+   * are marked.
+   */
+  @Override
+  public Set<String> deleteDatastreams(Collection<String> keys) {
+    Map<String, ZkClient.ZkNodeData> znodes =
+        _zkClient.readDataAsync(keys.stream().map(this::getZnodePath).collect(Collectors.toSet()));
+    List<String> existingKeys =
+        keys.stream().distinct().filter(key -> znodes.containsKey(getZnodePath(key))).collect(Collectors.toList());
+
+    Set<String> deleted = new HashSet<>();
+    for (List<String> batch : partition(existingKeys)) {
+      List<Op> ops = batch.stream().map(key -> {
+        ZkClient.ZkNodeData znode = znodes.get(getZnodePath(key));
+        Datastream datastream = DatastreamUtils.fromJSON(znode.getData());
+        datastream.setStatus(DatastreamStatus.DELETING);
+        return Op.setData(getZnodePath(key), _zkClient.serialize(DatastreamUtils.toJSON(datastream)),
+            znode.getStat().getVersion());
+      }).collect(Collectors.toList());
+      try {
+        _zkClient.multi(ops);
+        deleted.addAll(batch);
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to delete a batch of {} datastreams, deleting them one by one", batch.size(), e);
+        batch.stream().filter(this::markDeleting).forEach(deleted::add);
+      }
+    }
+
+    if (!deleted.isEmpty()) {
       notifyLeaderOfDataChange();
     }
+    return deleted;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The datastream znode is watched for the duration of the wait, so the condition is evaluated each time the
+   * datastream changes, without polling ZooKeeper.
+   */
+  @Override
+  public CompletableFuture<Datastream> awaitDatastream(String key, Predicate<Datastream> condition,
+      Duration timeout) {
+    Validate.notNull(key, "null key");
+    String path = getZnodePath(key);
+    CompletableFuture<Datastream> future = new CompletableFuture<>();
+    AtomicReference<Datastream> latest = new AtomicReference<>();
+    IZkDataListener listener = new IZkDataListener() {
+      @Override
+      public void handleDataChange(String dataPath, Object data) {
+        Datastream datastream = DatastreamUtils.fromJSON((String) data);
+        latest.set(datastream);
+        if (condition.test(datastream)) {
+          future.complete(datastream);
+        }
+      }
+
+      @Override
+      public void handleDataDeleted(String dataPath) {
+        latest.set(null);
+        if (condition.test(null)) {
+          future.complete(null);
+        }
+      }
+    };
+
+    // Subscribe before reading the datastream, so that no change between the two is missed
+    _zkClient.subscribeDataChanges(path, listener);
+    future.whenComplete((datastream, e) -> _zkClient.unsubscribeDataChanges(path, listener));
+    Datastream datastream = getDatastream(key);
+    latest.compareAndSet(null, datastream);
+    if (condition.test(datastream)) {
+      future.complete(datastream);
+    } else {
+      ScheduledFuture<?> timeoutFuture = WAIT_TIMEOUT_EXECUTOR.schedule(() -> future.complete(latest.get()),
+          timeout.toMillis(), TimeUnit.MILLISECONDS);
+      future.whenComplete((ds, e) -> timeoutFuture.cancel(false));
+    }
+    return future;
+  }
+
+  private boolean markDeleting(String key) {
+    Datastream datastream = getDatastream(key);
+    if (datastream == null) {
+      return false;
+    }
+    datastream.setStatus(DatastreamStatus.DELETING);
+    String data = DatastreamUtils.toJSON(datastream);
+    String path = getZnodePath(key);
+    _zkClient.updateDataSerialized(path, old -> data);
+    return true;
+  }
+
+  private static List<List<String>> partition(Collection<String> keys) {
+    List<String> keyList = new ArrayList<>(keys);
+    List<List<String>> batches = new ArrayList<>();
+    for (int i = 0; i < keyList.size(); i += MAX_OPS_PER_MULTI) {
+      batches.add(keyList.subList(i, Math.min(i + MAX_OPS_PER_MULTI, keyList.size())));
+    }
+    return batches;
   }
 
   private void notifyLeaderOfDataChange() {
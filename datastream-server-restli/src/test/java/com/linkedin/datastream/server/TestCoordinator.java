@@ -33,6 +33,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
@@ -57,6 +58,7 @@ import com.linkedin.datastream.server.api.connector.DatastreamValidationExceptio
 import com.linkedin.datastream.server.api.security.Authorizer;
 import com.linkedin.datastream.server.api.transport.TransportProviderAdminFactory;
 import com.linkedin.datastream.server.assignment.BroadcastStrategy;
+import com.linkedin.datastream.server.assignment.ElasticTaskCountPolicy;
 import com.linkedin.datastream.server.assignment.LoadbalancingStrategy;
 import com.linkedin.datastream.server.assignment.StickyMulticastStrategy;
 import com.linkedin.datastream.server.assignment.StickyPartitionAssignmentStrategy;
@@ -428,6 +430,85 @@ public class TestCoordinator {
     zkClient.close();
   }
 
+  /**
+   * Test that a follower resolves the tasks newly assigned to it, including the tasks of a datastream group with
+   * several datastreams, and keeps the task objects it was already assigned when its assignment changes
+   */
+  @Test
+  public void testFollowerLoadsNewlyAssignedTasks() throws Exception {
+    String testCluster = "testFollowerLoadsNewlyAssignedTasks";
+    String testConnectorType = "testConnectorType";
+
+    Coordinator instance1 = createCoordinator(_zkConnectionString, testCluster);
+    TestHookConnector connector1 = new TestHookConnector("connector1", testConnectorType);
+    instance1.addConnector(testConnectorType, connector1, new BroadcastStrategy(Optional.empty()), false,
+        new SourceBasedDeduper(), null);
+    instance1.start();
+
+    Coordinator instance2 = createCoordinator(_zkConnectionString, testCluster);
+    TestHookConnector connector2 = new TestHookConnector("connector2", testConnectorType);
+    instance2.addConnector(testConnectorType, connector2, new BroadcastStrategy(Optional.empty()), false,
+        new SourceBasedDeduper(), null);
+    instance2.start();
+
+    Assert.assertTrue(instance1.getIsLeader().getAsBoolean());
+    Assert.assertFalse(instance2.getIsLeader().getAsBoolean());
+
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+
+    //
+    // create datastream0, datastream1 and datastream2, and datastream3 which shares the task prefix of datastream0
+    //
+    Datastream[] datastreams =
+        DatastreamTestUtils.createDatastreams(testConnectorType, "datastream0", "datastream1", "datastream2");
+    Datastream datastream3 = datastreams[0].copy();
+    datastream3.setName("datastream3");
+    for (Datastream ds : datastreams) {
+      ds.getMetadata().put(DatastreamMetadataConstants.TASK_PREFIX, DatastreamTaskImpl.getTaskPrefix(ds));
+    }
+    datastream3.getMetadata()
+        .put(DatastreamMetadataConstants.TASK_PREFIX, DatastreamTaskImpl.getTaskPrefix(datastreams[0]));
+    DatastreamTestUtils.storeDatastreams(zkClient, testCluster, datastreams);
+    DatastreamTestUtils.storeDatastreams(zkClient, testCluster, datastream3);
+
+    //
+    // verify the follower is assigned one task per datastream group, with the datastreams of the group
+    //
+    Assert.assertTrue(PollUtils.poll(() -> connector2.getTasks().size() == 3
+        && connector2.getTasks().stream().mapToInt(t -> t.getDatastreams().size()).sum() == 4, 100, WAIT_TIMEOUT_MS));
+    Map<String, DatastreamTask> tasksByPrefix = connector2.getTasks()
+        .stream()
+        .collect(Collectors.toMap(DatastreamTask::getTaskPrefix, t -> t));
+    Assert.assertEquals(tasksByPrefix.get(DatastreamTaskImpl.getTaskPrefix(datastreams[0]))
+        .getDatastreams()
+        .stream()
+        .map(Datastream::getName)
+        .collect(Collectors.toSet()), new HashSet<>(Arrays.asList("datastream0", "datastream3")));
+    for (Datastream ds : Arrays.asList(datastreams[1], datastreams[2])) {
+      DatastreamTask task = tasksByPrefix.get(DatastreamTaskImpl.getTaskPrefix(ds));
+      Assert.assertEquals(task.getDatastreams().size(), 1);
+      Assert.assertEquals(task.getDatastreams().get(0).getName(), ds.getName());
+      Assert.assertNotNull(task.getEventProducer());
+    }
+
+    //
+    // create datastream4, and verify the follower gets its task and keeps the tasks it was already assigned
+    //
+    DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, testConnectorType, "datastream4");
+    Assert.assertTrue(PollUtils.poll(() -> connector2.getTasks().size() == 4, 100, WAIT_TIMEOUT_MS));
+    Map<String, DatastreamTask> newTasksByPrefix = connector2.getTasks()
+        .stream()
+        .collect(Collectors.toMap(DatastreamTask::getTaskPrefix, t -> t));
+    tasksByPrefix.forEach((prefix, task) -> Assert.assertSame(newTasksByPrefix.get(prefix), task));
+
+    //
+    // clean up
+    //
+    instance1.stop();
+    instance2.stop();
+    zkClient.close();
+  }
+
   @Test
   public void testStopAndResumeDatastream() throws Exception {
     String testCluster = "testCoordinationSmoke";
@@ -630,8 +711,79 @@ public class TestCoordinator {
     zkClient.close();
   }
 
+  /**
+   * Test that the leader resizes a datastream group from the load reported by its tasks, persists the new number of
+   * tasks in the datastream metadata, and reassigns the tasks and the partitions, and that a new leader keeps it
+   */
+  @Test
+  public void testElasticTaskCountResize() throws Exception {
+    String testCluster = "testElasticTaskCountResize";
+    String testConnectorType = "testConnectorType";
+    Properties override = new Properties();
+    override.put(CoordinatorConfig.CONFIG_HEARTBEAT_PERIOD_MS, "500");
+    Properties elasticTaskCountConfig = new Properties();
+    elasticTaskCountConfig.put(ElasticTaskCountPolicy.CFG_MODE, ElasticTaskCountPolicy.Mode.RESIZE.name());
+    elasticTaskCountConfig.put(ElasticTaskCountPolicy.CFG_TARGET_LAG_PER_TASK, "1000");
+    elasticTaskCountConfig.put(ElasticTaskCountPolicy.CFG_SUSTAIN_MS, "0");
+    List<String> partitions1 = ImmutableList.of("t-0", "t-1", "t-2", "t-3", "t-4", "t-5", "t-6", "t-7", "t-8");
+    Map<String, List<String>> partitions = Collections.singletonMap("datastream1", partitions1);
+
+    List<TestHookConnector> connectors = new ArrayList<>();
+    List<Coordinator> instances = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      Coordinator instance = createCoordinator(_zkConnectionString, testCluster, override);
+      TestHookConnector connector =
+          createConnectorWithPartitionListener("connector" + i, testConnectorType, partitions, 100, true);
+      instance.addConnector(testConnectorType, connector, new StickyPartitionAssignmentStrategy(Optional.of(2),
+          Optional.empty(), Optional.empty(), new ElasticTaskCountPolicy(elasticTaskCountConfig)), false,
+          new SourceBasedDeduper(), null);
+      instance.start();
+      instances.add(instance);
+      connectors.add(connector);
+    }
+
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+    DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, testConnectorType, "datastream1");
+    Assert.assertTrue(PollUtils.poll(() -> collectDatastreamPartitions(connectors)
+        .getOrDefault("datastream1", Collections.emptyList()).size() == partitions1.size(), 100, WAIT_TIMEOUT_MS));
+    List<DatastreamTask> tasks = connectors.stream().flatMap(c -> c.getTasks().stream()).collect(Collectors.toList());
+    Assert.assertEquals(tasks.size(), 2);
+
+    // each task is 2000 events behind, which takes 4 tasks to keep each task under 1000
+    String load = new DatastreamTaskLoad(2000, 0, System.currentTimeMillis()).toJson();
+    tasks.forEach(task -> task.saveState(DatastreamTaskLoad.STATE_KEY, load));
+    // the new tasks are assigned first, and then get partitions taken away from the existing tasks
+    Assert.assertTrue(PollUtils.poll(() -> connectors.stream().mapToInt(c -> c.getTasks().size()).sum() == 4
+        && connectors.stream().flatMap(c -> c.getTasks().stream()).noneMatch(t -> t.getPartitionsV2().isEmpty())
+        && collectDatastreamPartitions(connectors).get("datastream1").size() == partitions1.size(), 100,
+        WAIT_TIMEOUT_MS));
+    Datastream stored = DatastreamUtils.fromJSON(zkClient.readData(KeyBuilder.datastream(testCluster, "datastream1")));
+    Assert.assertEquals(stored.getMetadata().get(DatastreamMetadataConstants.ELASTIC_TASK_COUNT), "4");
+    Assert.assertEquals(stored.getStatus(), DatastreamStatus.READY);
+
+    // the new leader reads the number of tasks from the datastream metadata
+    Coordinator leader = instances.get(0).getIsLeader().getAsBoolean() ? instances.get(0) : instances.get(1);
+    TestHookConnector survivor = connectors.get(instances.indexOf(leader) == 0 ? 1 : 0);
+    leader.stop();
+    Assert.assertTrue(PollUtils.poll(() -> survivor.getTasks().size() == 4
+        && survivor.getTasks().stream().mapToInt(task -> task.getPartitionsV2().size()).sum() == partitions1.size(),
+        100, WAIT_TIMEOUT_MS));
+
+    instances.get(instances.indexOf(leader) == 0 ? 1 : 0).stop();
+    zkClient.close();
+  }
+
   private TestHookConnector createConnectorWithPartitionListener(String name, String connectorType,
       Map<String, List<String>> partitions, int initialDelayMs) {
+    return createConnectorWithPartitionListener(name, connectorType, partitions, initialDelayMs, false);
+  }
+
+  /**
+   * Create a connector reporting the given partitions, which acquires its tasks like real connectors do if
+   * acquireTasks is set, so that partitions can be moved away from them
+   */
+  private TestHookConnector createConnectorWithPartitionListener(String name, String connectorType,
+      Map<String, List<String>> partitions, int initialDelayMs, boolean acquireTasks) {
     return new TestHookConnector(name, connectorType) {
 
       Map<String, DatastreamGroup> _datastremGroups = new HashMap<>();
@@ -661,6 +813,19 @@ public class TestCoordinator {
         }
       }
 
+      @Override
+      public void onAssignmentChange(List<DatastreamTask> tasks) {
+        if (acquireTasks) {
+          Set<String> oldTasks = _tasks.stream().map(DatastreamTask::getDatastreamTaskName).collect(Collectors.toSet());
+          Set<String> newTasks = tasks.stream().map(DatastreamTask::getDatastreamTaskName).collect(Collectors.toSet());
+          _tasks.stream().filter(task -> !newTasks.contains(task.getDatastreamTaskName()))
+              .forEach(DatastreamTask::release);
+          tasks.stream().filter(task -> !oldTasks.contains(task.getDatastreamTaskName()))
+              .forEach(task -> task.acquire(Duration.ofSeconds(10)));
+        }
+        super.onAssignmentChange(tasks);
+      }
+
       @Override
       public Map<String, Optional<DatastreamGroupPartitionsMetadata>> getDatastreamPartitions() {
         return _datastremGroups.values().stream().collect(Collectors.toMap(g -> g.getName(),
@@ -1996,6 +2161,125 @@ public class TestCoordinator {
     Assert.assertTrue(PollUtils.poll(() -> instance2.getIsLeader().getAsBoolean(), 100, 30000));
   }
 
+  /**
+   * Test that a new leader picks up the tasks already assigned in ZooKeeper rather than creating new ones, and that
+   * the time to the first assignment is reported once per leader election
+   */
+  @Test
+  public void testLeaderFailoverKeepsTasksAndReportsTimeToFirstAssignment() throws Exception {
+    String testCluster = "testLeaderFailoverKeepsTasksAndReportsTimeToFirstAssignment";
+    String testConnectorType = "testConnectorType";
+    String timeToFirstAssignmentMetricName = "Coordinator.timeToFirstAssignmentMs";
+    long initialCount = getHistogramCount(timeToFirstAssignmentMetricName);
+
+    Coordinator instance1 = createCoordinator(_zkConnectionString, testCluster);
+    TestHookConnector connector1 = new TestHookConnector("connector1", testConnectorType);
+    instance1.addConnector(testConnectorType, connector1, new BroadcastStrategy(Optional.empty()), false,
+        new SourceBasedDeduper(), null);
+    instance1.start();
+
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+    DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, testConnectorType, "datastream0",
+        "datastream1");
+    assertConnectorAssignment(connector1, WAIT_TIMEOUT_MS, "datastream0", "datastream1");
+    Assert.assertTrue(PollUtils.poll(() -> getHistogramCount(timeToFirstAssignmentMetricName) == initialCount + 1,
+        100, WAIT_TIMEOUT_MS));
+
+    //
+    // the following assignments of the same leader are not reported
+    //
+    DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, testConnectorType, "datastream2");
+    assertConnectorAssignment(connector1, WAIT_TIMEOUT_MS, "datastream0", "datastream1", "datastream2");
+
+    Coordinator instance2 = createCoordinator(_zkConnectionString, testCluster);
+    TestHookConnector connector2 = new TestHookConnector("connector2", testConnectorType);
+    instance2.addConnector(testConnectorType, connector2, new BroadcastStrategy(Optional.empty()), false,
+        new SourceBasedDeduper(), null);
+    instance2.start();
+    assertConnectorAssignment(connector2, WAIT_TIMEOUT_MS, "datastream0", "datastream1", "datastream2");
+    Assert.assertEquals(getHistogramCount(timeToFirstAssignmentMetricName), initialCount + 1);
+
+    Set<String> taskNames = connector2.getTasks()
+        .stream()
+        .map(DatastreamTask::getDatastreamTaskName)
+        .collect(Collectors.toSet());
+
+    //
+    // stop the leader, and verify the new leader reports its first assignment and keeps the tasks of instance2
+    //
+    instance1.stop();
+    Assert.assertTrue(PollUtils.poll(() -> instance2.getIsLeader().getAsBoolean(), 100, WAIT_TIMEOUT_MS));
+    Assert.assertTrue(PollUtils.poll(() -> getHistogramCount(timeToFirstAssignmentMetricName) == initialCount + 2,
+        100, WAIT_TIMEOUT_MS));
+    Assert.assertEquals(new HashSet<>(zkClient.getChildren(KeyBuilder.instanceAssignments(testCluster,
+        instance2.getInstanceName()))), taskNames);
+    Assert.assertEquals(connector2.getTasks()
+        .stream()
+        .map(DatastreamTask::getDatastreamTaskName)
+        .collect(Collectors.toSet()), taskNames);
+
+    //
+    // clean up
+    //
+    instance2.stop();
+    zkClient.close();
+  }
+
+  /**
+   * Test that the newly assigned tasks are warmed up on one pool which is reused across assignment changes and
+   * shut down with the coordinator, and that the warm-up and startup timings are reported
+   */
+  @Test
+  public void testTaskWarmUpPoolReusedAcrossAssignmentChanges() throws Exception {
+    String testCluster = "testTaskWarmUpPoolReusedAcrossAssignmentChanges";
+    String testConnectorType = "testConnectorType";
+    String warmUpLatencyMetricName = "Coordinator.taskWarmUpLatencyMs";
+    String timeToFirstTasksStartedMetricName = "Coordinator.timeToFirstTasksStartedMs";
+    long initialWarmUpCount = getHistogramCount(warmUpLatencyMetricName);
+    long initialTasksStartedCount = getHistogramCount(timeToFirstTasksStartedMetricName);
+
+    Properties props = new Properties();
+    props.put(CoordinatorConfig.CONFIG_TASK_WARM_UP_THREADS, "2");
+    Coordinator instance1 = createCoordinator(_zkConnectionString, testCluster, props);
+    TestHookConnector connector1 = new TestHookConnector("connector1", testConnectorType);
+    instance1.addConnector(testConnectorType, connector1, new BroadcastStrategy(Optional.empty()), false,
+        new SourceBasedDeduper(), null);
+    ThreadPoolExecutor warmUpPool = ReflectionUtils.getField(instance1, "_taskWarmUpExecutor");
+    Assert.assertNotNull(warmUpPool);
+    instance1.start();
+
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+    DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, testConnectorType, "datastream0",
+        "datastream1", "datastream2");
+    assertConnectorAssignment(connector1, WAIT_TIMEOUT_MS, "datastream0", "datastream1", "datastream2");
+
+    DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, testConnectorType, "datastream3",
+        "datastream4");
+    assertConnectorAssignment(connector1, WAIT_TIMEOUT_MS, "datastream0", "datastream1", "datastream2",
+        "datastream3", "datastream4");
+
+    //
+    // verify each task was warmed up once, on no more threads than configured
+    //
+    Assert.assertSame(ReflectionUtils.getField(instance1, "_taskWarmUpExecutor"), warmUpPool);
+    Assert.assertTrue(PollUtils.poll(() -> warmUpPool.getCompletedTaskCount() == 5, 100, WAIT_TIMEOUT_MS));
+    Assert.assertTrue(warmUpPool.getLargestPoolSize() <= 2);
+    Assert.assertTrue(getHistogramCount(warmUpLatencyMetricName) >= initialWarmUpCount + 2);
+    Assert.assertEquals(getHistogramCount(timeToFirstTasksStartedMetricName), initialTasksStartedCount + 1);
+
+    //
+    // clean up
+    //
+    instance1.stop();
+    Assert.assertTrue(warmUpPool.isShutdown());
+    zkClient.close();
+  }
+
+  private long getHistogramCount(String metricName) {
+    Histogram histogram = DynamicMetricsManager.getInstance().getMetric(metricName);
+    return histogram == null ? 0 : histogram.getCount();
+  }
+
   @Test
   public void testDatastreamAuthorizationHappyPath() throws Exception {
     createTestCoordinator();
@@ -2330,6 +2614,93 @@ public class TestCoordinator {
     Assert.assertEquals(datastreams[1].getMetadata().get(destMetaKey), destMetaVal);
   }
 
+  /**
+   * Test that a batch of datastreams is deduped both against the existing datastreams and against the datastreams
+   * initialized earlier in the same batch
+   */
+  @Test
+  public void testBatchInitializeDatastreamsDedupe() throws Exception {
+    String testCluster = "testBatchInitializeDatastreamsDedupe";
+    String connectorType = "connectorType";
+
+    Coordinator coordinator = createCoordinator(_zkConnectionString, testCluster);
+    TestHookConnector connector = new TestHookConnector("connector1", connectorType);
+    coordinator.addConnector(connectorType, connector, new BroadcastStrategy(Optional.empty()), false,
+        new SourceBasedDeduper(), null);
+    coordinator.start();
+
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+    Datastream existing = DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, connectorType,
+        "existing")[0];
+    Assert.assertTrue(PollUtils.poll(() -> DatastreamTestUtils.getDatastream(zkClient, testCluster, "existing")
+        .getStatus()
+        .equals(DatastreamStatus.READY), 100, WAIT_TIMEOUT_MS));
+
+    Datastream batch1 = DatastreamTestUtils.createDatastreamWithoutDestination(connectorType, "batch1", "newSource");
+    Datastream batch2 = DatastreamTestUtils.createDatastreamWithoutDestination(connectorType, "batch2", "otherSource");
+    Datastream batch3 = DatastreamTestUtils.createDatastreamWithoutDestination(connectorType, "batch3", "newSource");
+    Datastream batch4 = DatastreamTestUtils.createDatastreamWithoutDestination(connectorType, "batch4",
+        existing.getSource().getConnectionString());
+
+    Map<String, Exception> errors = coordinator.initializeDatastreams(Arrays.asList(batch1, batch2, batch3, batch4));
+    Assert.assertTrue(errors.isEmpty(), "Unexpected errors: " + errors);
+
+    // batch3 is deduped with batch1 from the same batch, and batch4 with the existing datastream
+    Assert.assertEquals(batch3.getDestination(), batch1.getDestination());
+    Assert.assertNotEquals(batch2.getDestination(), batch1.getDestination());
+    Assert.assertEquals(batch4.getDestination(), existing.getDestination());
+
+    coordinator.stop();
+    zkClient.close();
+  }
+
+  /**
+   * Test that a source-based deduper is only given the existing datastreams sharing the source of the new
+   * datastream, while other dedupers are given all the datastreams of the connector
+   */
+  @Test
+  public void testDedupCandidatesBySourceBasedDeduper() throws Exception {
+    String testCluster = "testDedupCandidatesBySourceBasedDeduper";
+    String sourceBasedConnectorType = "sourceBasedConnectorType";
+    String otherConnectorType = "otherConnectorType";
+
+    Coordinator coordinator = createCoordinator(_zkConnectionString, testCluster);
+    RecordingDeduper sourceBasedDeduper = new RecordingDeduper(true);
+    RecordingDeduper otherDeduper = new RecordingDeduper(false);
+    coordinator.addConnector(sourceBasedConnectorType, new TestHookConnector("connector1", sourceBasedConnectorType),
+        new BroadcastStrategy(Optional.empty()), false, sourceBasedDeduper, null);
+    coordinator.addConnector(otherConnectorType, new TestHookConnector("connector2", otherConnectorType),
+        new BroadcastStrategy(Optional.empty()), false, otherDeduper, null);
+    coordinator.start();
+
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+    Datastream[] sourceBasedStreams = DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster,
+        sourceBasedConnectorType, "sourceBased1", "sourceBased2");
+    Datastream[] otherStreams = DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster,
+        otherConnectorType, "other1", "other2");
+    for (String name : Arrays.asList("sourceBased1", "sourceBased2", "other1", "other2")) {
+      Assert.assertTrue(PollUtils.poll(() -> DatastreamTestUtils.getDatastream(zkClient, testCluster, name)
+          .getStatus()
+          .equals(DatastreamStatus.READY), 100, WAIT_TIMEOUT_MS));
+    }
+
+    Datastream newSourceBased = DatastreamTestUtils.createDatastreamWithoutDestination(sourceBasedConnectorType,
+        "sourceBased3", sourceBasedStreams[0].getSource().getConnectionString());
+    coordinator.initializeDatastream(newSourceBased);
+    Assert.assertEquals(sourceBasedDeduper.getCandidateNames(), Collections.singletonList("sourceBased1"));
+    Assert.assertEquals(newSourceBased.getDestination(), sourceBasedStreams[0].getDestination());
+
+    Datastream newOther = DatastreamTestUtils.createDatastreamWithoutDestination(otherConnectorType, "other3",
+        otherStreams[0].getSource().getConnectionString());
+    coordinator.initializeDatastream(newOther);
+    Assert.assertEquals(new HashSet<>(otherDeduper.getCandidateNames()),
+        new HashSet<>(Arrays.asList("other1", "other2")));
+    Assert.assertEquals(newOther.getDestination(), otherStreams[0].getDestination());
+
+    coordinator.stop();
+    zkClient.close();
+  }
+
   // helper method: assert that within a timeout value, the connector are assigned the specific
   // tasks with the specified names.
   private void assertConnectorAssignment(TestHookConnector connector, long timeoutMs, String... datastreamNames)
@@ -2536,6 +2907,34 @@ public class TestCoordinator {
     }
   }
 
+  /**
+   * A {@link SourceBasedDeduper} which records the candidates it is given, and can claim not to be source-based
+   */
+  class RecordingDeduper extends SourceBasedDeduper {
+    private final boolean _sourceBased;
+    private List<Datastream> _candidates = Collections.emptyList();
+
+    RecordingDeduper(boolean sourceBased) {
+      _sourceBased = sourceBased;
+    }
+
+    List<String> getCandidateNames() {
+      return _candidates.stream().map(Datastream::getName).collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Datastream> findExistingDatastream(Datastream stream, List<Datastream> allStreams)
+        throws DatastreamValidationException {
+      _candidates = new ArrayList<>(allStreams);
+      return super.findExistingDatastream(stream, allStreams);
+    }
+
+    @Override
+    public boolean isSourceBased() {
+      return _sourceBased;
+    }
+  }
+
   private class TestSetup {
     public final EmbeddedDatastreamCluster _datastreamKafkaCluster;
     public final Coordinator _coordinator;
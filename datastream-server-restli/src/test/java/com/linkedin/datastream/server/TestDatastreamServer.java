@@ -12,6 +12,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -178,6 +179,17 @@ public class TestDatastreamServer {
     _datastreamCluster = initializeTestDatastreamServerWithFileConnector(2, BROADCAST_STRATEGY_FACTORY);
   }
 
+  @Test
+  public void testStartupPhaseDurations() throws Exception {
+    _datastreamCluster = initializeTestDatastreamServerWithDummyConnector(null);
+    _datastreamCluster.startup();
+
+    Map<String, Long> durations = _datastreamCluster.getPrimaryDatastreamServer().getStartupPhaseDurationsMs();
+    Assert.assertEquals(new ArrayList<>(durations.keySet()),
+        Arrays.asList("initializeComponents", "startCoordinator", "startRestEndpoint"));
+    durations.values().forEach(duration -> Assert.assertTrue(duration >= 0));
+  }
+
   @Test
   public void testDatastreamServerAuthorization() throws Exception {
     Properties props = new Properties();
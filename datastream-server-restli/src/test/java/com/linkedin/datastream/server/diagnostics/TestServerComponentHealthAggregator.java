@@ -0,0 +1,159 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server.diagnostics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.datastream.common.DiagnosticsAware;
+import com.linkedin.datastream.common.zk.ZkClient;
+import com.linkedin.datastream.diagnostics.ServerComponentHealth;
+import com.linkedin.datastream.server.zk.KeyBuilder;
+import com.linkedin.diagnostics.ServerComponentHealthRestClient;
+import com.linkedin.diagnostics.ServerComponentHealthRestClientFactory;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests for {@link ServerComponentHealthAggregator}
+ */
+public class TestServerComponentHealthAggregator {
+  private static final String CLUSTER = "testCluster";
+  private static final String TYPE = "Connector";
+  private static final String SCOPE = "DummyConnector";
+
+  /**
+   * Create a ZkClient listing the given hosts as the live instances of the cluster
+   */
+  private static ZkClient createZkClient(String... hosts) {
+    ZkClient zkClient = mock(ZkClient.class);
+    String[] nodes = new String[hosts.length];
+    for (int i = 0; i < hosts.length; i++) {
+      nodes[i] = String.valueOf(i);
+      when(zkClient.readData(KeyBuilder.liveInstance(CLUSTER, nodes[i]))).thenReturn(hosts[i]);
+    }
+    when(zkClient.getChildren(KeyBuilder.liveInstances(CLUSTER))).thenReturn(Arrays.asList(nodes));
+    return zkClient;
+  }
+
+  /**
+   * Create a client for the given host, which answers with the given response
+   */
+  private static ServerComponentHealthRestClient createClient(String host,
+      CompletableFuture<ServerComponentHealth> response) {
+    ServerComponentHealthRestClient client = mock(ServerComponentHealthRestClient.class);
+    when(client.getStatusAsync(anyString(), anyString(), anyString())).thenReturn(response);
+    ServerComponentHealthRestClientFactory.addOverride("http://" + host, client);
+    return client;
+  }
+
+  private static CompletableFuture<ServerComponentHealth> healthy(String status) {
+    return CompletableFuture.completedFuture(new ServerComponentHealth().setStatus(status));
+  }
+
+  /**
+   * Create a component which reduces the responses of the hosts to their sorted statuses
+   */
+  @SuppressWarnings("unchecked")
+  private static DiagnosticsAware createComponent() {
+    DiagnosticsAware component = mock(DiagnosticsAware.class);
+    when(component.reduce(anyString(), any(Map.class))).thenAnswer(
+        invocation -> ((Map<String, String>) invocation.getArguments()[1]).values()
+            .stream()
+            .sorted()
+            .reduce((s1, s2) -> s1 + "," + s2)
+            .orElse(""));
+    return component;
+  }
+
+  private static Properties createConfig(long hostTimeoutMs, long cacheTtlMs) {
+    Properties config = new Properties();
+    config.put(ServerComponentHealthAggregator.CONFIG_HOST_TIMEOUT_MS, String.valueOf(hostTimeoutMs));
+    config.put(ServerComponentHealthAggregator.CONFIG_CACHE_TTL_MS, String.valueOf(cacheTtlMs));
+    return config;
+  }
+
+  @Test
+  public void testCachedResponses() throws Exception {
+    String host = "testcachedresponses:1234";
+    ServerComponentHealthRestClient client = createClient(host, healthy("HEALTHY"));
+    DiagnosticsAware component = createComponent();
+    ServerComponentHealthAggregator aggregator =
+        new ServerComponentHealthAggregator(createZkClient(host), CLUSTER, 0, "", createConfig(10000, 500));
+    try {
+      List<ServerComponentHealth> response = aggregator.getResponses(TYPE, SCOPE, "query", component);
+      Assert.assertEquals(response.get(0).getStatus(), "HEALTHY");
+      Assert.assertTrue(response.get(0).isSucceeded());
+
+      // The same request within the TTL is answered from the cache, but a different one is sent to the hosts
+      Assert.assertEquals(aggregator.getResponses(TYPE, SCOPE, "query", component), response);
+      verify(client, times(1)).getStatusAsync(TYPE, SCOPE, "query");
+      aggregator.getResponses(TYPE, SCOPE, "otherQuery", component);
+      verify(client, times(1)).getStatusAsync(TYPE, SCOPE, "otherQuery");
+
+      // Once the TTL has expired, the request is sent to the hosts again
+      Thread.sleep(600);
+      aggregator.getResponses(TYPE, SCOPE, "query", component);
+      verify(client, times(2)).getStatusAsync(TYPE, SCOPE, "query");
+    } finally {
+      aggregator.shutdown();
+    }
+  }
+
+  @Test
+  public void testCachingDisabled() {
+    String host = "testcachingdisabled:1234";
+    ServerComponentHealthRestClient client = createClient(host, healthy("HEALTHY"));
+    DiagnosticsAware component = createComponent();
+    ServerComponentHealthAggregator aggregator =
+        new ServerComponentHealthAggregator(createZkClient(host), CLUSTER, 0, "", createConfig(10000, 0));
+    try {
+      aggregator.getResponses(TYPE, SCOPE, "query", component);
+      aggregator.getResponses(TYPE, SCOPE, "query", component);
+      verify(client, times(2)).getStatusAsync(TYPE, SCOPE, "query");
+    } finally {
+      aggregator.shutdown();
+    }
+  }
+
+  @Test
+  public void testHostTimeout() {
+    String healthyHost = "testhosttimeout-healthy:1234";
+    String silentHost = "testhosttimeout-silent:1234";
+    createClient(healthyHost, healthy("HEALTHY"));
+    // This host never responds
+    createClient(silentHost, new CompletableFuture<>());
+    ServerComponentHealthAggregator aggregator = new ServerComponentHealthAggregator(
+        createZkClient(healthyHost, silentHost), CLUSTER, 0, "", createConfig(200, 0));
+    try {
+      long startMs = System.currentTimeMillis();
+      List<ServerComponentHealth> response = aggregator.getResponses(TYPE, SCOPE, "query", createComponent());
+      Assert.assertTrue(System.currentTimeMillis() - startMs < 5000);
+
+      // The silent host is reported as timed out, without holding up the response of the healthy one
+      Assert.assertFalse(response.get(0).isSucceeded());
+      Assert.assertEquals(response.get(0).getStatus(), "HEALTHY");
+      String errorMessages = response.get(0).getErrorMessages();
+      Assert.assertTrue(errorMessages.contains(silentHost), errorMessages);
+      Assert.assertTrue(errorMessages.contains("TimeoutException"), errorMessages);
+      Assert.assertFalse(errorMessages.contains(healthyHost), errorMessages);
+    } finally {
+      aggregator.shutdown();
+    }
+  }
+}
@@ -5,9 +5,12 @@
  */
 package com.linkedin.datastream.server.dms;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -37,6 +40,9 @@ import com.linkedin.datastream.server.EmbeddedDatastreamCluster;
 import com.linkedin.datastream.server.TestDatastreamServer;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.server.ActionResult;
+import com.linkedin.restli.server.BatchCreateRequest;
+import com.linkedin.restli.server.BatchCreateResult;
+import com.linkedin.restli.server.BatchDeleteRequest;
 import com.linkedin.restli.server.BatchUpdateRequest;
 import com.linkedin.restli.server.BatchUpdateResult;
 import com.linkedin.restli.server.CreateResponse;
@@ -52,6 +58,7 @@ import com.linkedin.restli.server.RestLiServiceException;
 public class TestDatastreamResources {
 
   private static final PagingContext NO_PAGING = new PagingContext(0, 0, false, false);
+  private static final long WAIT_TIMEOUT_MS = Duration.ofMinutes(1).toMillis();
 
   private EmbeddedDatastreamCluster _datastreamKafkaCluster;
 
@@ -618,6 +625,58 @@ public class TestDatastreamResources {
     }
   }
 
+  @Test
+  public void testBatchCreateDeleteDatastreams() throws Exception {
+    DatastreamResources resource = new DatastreamResources(_datastreamKafkaCluster.getPrimaryDatastreamServer());
+    Datastream existing = generateDatastream(0);
+    Assert.assertEquals(resource.create(existing).getStatus(), HttpStatus.S_201_CREATED);
+
+    Datastream noOwner = generateDatastream(3);
+    noOwner.getMetadata().remove("owner");
+    List<Datastream> batch =
+        Arrays.asList(generateDatastream(1), generateDatastream(2), generateDatastream(1), generateDatastream(0),
+            noOwner);
+    BatchCreateResult<String, Datastream> result = resource.batchCreate(new BatchCreateRequest<>(batch));
+    List<HttpStatus> statuses =
+        result.getResults().stream().map(CreateResponse::getStatus).collect(Collectors.toList());
+    Assert.assertEquals(statuses, Arrays.asList(HttpStatus.S_201_CREATED, HttpStatus.S_201_CREATED,
+        HttpStatus.S_409_CONFLICT, HttpStatus.S_409_CONFLICT, HttpStatus.S_400_BAD_REQUEST));
+    Assert.assertEquals(result.getResults().get(0).getId(), "name_1");
+    Assert.assertNotNull(result.getResults().get(2).getError());
+    Assert.assertNotNull(resource.get("name_1"));
+    Assert.assertNotNull(resource.get("name_2"));
+    Assert.assertNull(resource.get("name_3"));
+
+    BatchUpdateResult<String, Datastream> deleteResult =
+        resource.batchDelete(new BatchDeleteRequest<>(new HashSet<>(Arrays.asList("name_0", "name_1", "name_3"))));
+    Assert.assertEquals(deleteResult.getResults().keySet(), new HashSet<>(Arrays.asList("name_0", "name_1")));
+    Assert.assertEquals(deleteResult.getErrors().keySet(), Collections.singleton("name_3"));
+    Assert.assertEquals(deleteResult.getErrors().get("name_3").getStatus(), HttpStatus.S_404_NOT_FOUND);
+    Assert.assertEquals(resource.getAll(NO_PAGING)
+        .stream()
+        .filter(x -> x.getStatus() != DatastreamStatus.DELETING)
+        .map(Datastream::getName)
+        .collect(Collectors.toSet()), Collections.singleton("name_2"));
+  }
+
+  @Test
+  public void testBatchCreateDeleteDatastreamsRestClient() throws Exception {
+    DatastreamRestClient restClient = createRestClient();
+    List<Datastream> datastreams =
+        IntStream.range(0, 5).mapToObj(TestDatastreamResources::generateDatastream).collect(Collectors.toList());
+    Assert.assertTrue(restClient.createDatastreams(datastreams).isEmpty());
+    Map<String, String> errors = restClient.createDatastreams(Collections.singletonList(generateDatastream(0)));
+    Assert.assertEquals(errors.keySet(), Collections.singleton("name_0"));
+    datastreams.forEach(ds -> Assert.assertTrue(restClient.datastreamExists(ds.getName())));
+
+    errors = restClient.deleteDatastreams(Arrays.asList("name_0", "name_1", "name_5"));
+    Assert.assertEquals(errors.keySet(), Collections.singleton("name_5"));
+    // the deleted datastreams are removed asynchronously by the leader
+    restClient.waitTillDatastreamIsDeleted("name_0", WAIT_TIMEOUT_MS);
+    restClient.waitTillDatastreamIsDeleted("name_1", WAIT_TIMEOUT_MS);
+    Assert.assertNotEquals(restClient.getDatastream("name_2").getStatus(), DatastreamStatus.DELETING);
+  }
+
   private Datastream createDatastream(DatastreamResources resource, String name, int seed) {
     Datastream stream = generateDatastream(seed, new HashSet<>(Arrays.asList("name")));
     stream.setName(name + seed);
@@ -13,9 +13,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.I0Itec.zkclient.exception.ZkNoNodeException;
+import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,18 +36,39 @@ import com.linkedin.datastream.server.zk.KeyBuilder;
  * But the complete datastream objects are lazily read from ZooKeeper when they are
  * requested.
  *
+ * Every cached datastream remembers the modification zxid of the znode it was read from. Refreshing the
+ * cache (flushCache or after invalidateAllCache) only fetches the {@link Stat} of all the datastream znodes
+ * and re-reads and re-parses the ones that actually changed. All bulk ZooKeeper reads are pipelined through
+ * the async API, see {@link ZkClient#getStatAsync} and {@link ZkClient#readDataAsync}.
+ *
+ * The cached datastreams which can be reused by new datastreams are also indexed as they are read and evicted,
+ * so that the dedup candidates of a new datastream can be looked up, see {@link #getDedupCandidates}.
+ *
  * Note: Caller of this class is expected to call invalidateAllCache for any datastream
  * update events such that any future datastream accesses will update the cached copies.
  */
 public class CachedDatastreamReader {
   private static final Logger LOG = LoggerFactory.getLogger(CachedDatastreamReader.class);
 
+  // modification zxid of datastreams whose content could not be read consistently, these are always re-read
+  private static final long UNKNOWN_ZXID = -1;
+
   private final String _cluster;
   private final ZkClient _zkclient;
 
   private List<String> _datastreamNames;
   private Map<String, Datastream> _datastreams = new ConcurrentHashMap<>();
 
+  // modification zxid of the znode each datastream was last read from. Unlike the data version, the
+  // zxid also changes when a datastream is deleted and re-created with the same name.
+  private Map<String, Long> _datastreamZxids = new ConcurrentHashMap<>();
+
+  // index of the cached datastreams by connector, source, transport provider and serdes, for deduping
+  private final DatastreamDedupIndex _dedupIndex = new DatastreamDedupIndex();
+
+  // set by invalidateAllCache, the next access checks all cached datastreams against ZooKeeper
+  private boolean _revalidate = false;
+
   /**
    * Constructor for CachedDatastreamReader
    * @param zkclient ZooKeeper client to use
@@ -69,11 +92,11 @@ public class CachedDatastreamReader {
             String.format("Received datastream add or delete notification. parentPath %s, children %s", parentPath,
                 currentChildren));
         _datastreamNames = new ArrayList<>(currentChildren);
-        Set<String> datastreamsRemoved = new HashSet<>(_datastreams.keySet());
+        Set<String> datastreamsRemoved = new HashSet<>(_datastreamZxids.keySet());
         datastreamsRemoved.removeAll(_datastreamNames);
         if (!datastreamsRemoved.isEmpty()) {
           LOG.info("Removing the deleted datastreams {} from cache", datastreamsRemoved);
-          _datastreams.keySet().removeAll(datastreamsRemoved);
+          datastreamsRemoved.forEach(this::evict);
         }
 
         LOG.debug("New datastream list in the cache: {}", _datastreamNames);
@@ -115,28 +138,43 @@ public class CachedDatastreamReader {
    * Get the current list of datastreams in the cache. Caveat: if flushCache
    * is false, there could be a very short window (ZK watcher latency) that
    * the returned list is out-of-sync with ZK. Caller should be aware of this.
-   * @param flushCache if true, all datastreams should be refetched from ZK
+   * @param flushCache if true, all datastreams are checked against ZK and the ones that changed are refetched
    */
   public synchronized List<Datastream> getAllDatastreams(boolean flushCache) {
     if (flushCache) {
       _datastreamNames = fetchAllDatastreamNamesFromZk();
     }
 
+    refreshDatastreams(_datastreamNames, flushCache);
+    _revalidate = false;
+
     return _datastreamNames.stream()
-        .map(x -> this.getDatastream(x, flushCache))
-        .filter(Objects::nonNull) // getDatastream can return null when the stream is just deleted in ZK
+        .map(_datastreams::get)
+        .filter(Objects::nonNull) // the stream can be just deleted in ZK
         .collect(Collectors.toList());
   }
 
+  /**
+   * Get the cached datastreams which share the connector, source connection string, transport provider and serdes
+   * of a new datastream, and allow their destination to be reused (no calls to ZK). Call
+   * {@link #getAllDatastreams(boolean)} with flushCache set first for the result to be up-to-date with ZK.
+   * @param datastream the new datastream
+   * @return the candidates for deduping the new datastream, ordered by name
+   */
+  public synchronized List<Datastream> getDedupCandidates(Datastream datastream) {
+    return _dedupIndex.getCandidates(datastream);
+  }
+
   /**
    * Invalidate all cache entries to force the reader to get fresh copy of the data from zk.
    * While the list of datastreams is mostly up-to-date (zk watcher delay), there is no guarantee
    * that the CacheDatastreamReader is keeping a fresh copy of the actual content. Calling this
    * function would effectively make sure any following getDatastream calls get a newer copy of data.
+   * Only the datastreams whose znodes changed since they were cached are actually re-read.
    */
   public synchronized void invalidateAllCache() {
     LOG.info("About to invalidate all cache entries...");
-    _datastreams.clear();
+    _revalidate = true;
   }
 
   /**
@@ -146,20 +184,90 @@ public class CachedDatastreamReader {
    * @return the datastream object if exists; or null not exists in either cache or ZK
    */
   @VisibleForTesting
-  Datastream getDatastream(String datastreamName, boolean flushCache) {
-    Datastream ds = _datastreams.get(datastreamName);
-    if (ds == null || flushCache) {
-      ds = getDatastreamFromZk(datastreamName);
+  synchronized Datastream getDatastream(String datastreamName, boolean flushCache) {
+    refreshDatastreams(Collections.singletonList(datastreamName), flushCache);
+    return _datastreams.get(datastreamName);
+  }
+
+  /**
+   * Make sure the cached copies of the given datastreams are up-to-date. Datastreams that were never read,
+   * or are not ready for use yet (no valid destination), are always checked. All other datastreams are
+   * checked only if {@code flushCache} is set or the cache was invalidated. A checked datastream is only
+   * re-read from ZK if its znode was modified since it was last read.
+   */
+  private void refreshDatastreams(List<String> datastreamNames, boolean flushCache) {
+    boolean checkAll = flushCache || _revalidate;
+    List<String> toCheck = datastreamNames.stream()
+        .filter(name -> checkAll || !_datastreams.containsKey(name)
+            || !DatastreamUtils.hasValidDestination(_datastreams.get(name)))
+        .collect(Collectors.toList());
+
+    if (!toCheck.isEmpty()) {
+      Map<String, Stat> stats = _zkclient.getStatAsync(toCheck.stream()
+          .map(name -> KeyBuilder.datastream(_cluster, name))
+          .collect(Collectors.toList()));
+
+      List<String> changed = new ArrayList<>();
+      for (String name : toCheck) {
+        Stat stat = stats.get(KeyBuilder.datastream(_cluster, name));
+        if (stat == null) {
+          LOG.info("Datastream {} does not exist in cache/ZK.", name);
+          evict(name);
+        } else if (_datastreamZxids.getOrDefault(name, UNKNOWN_ZXID) != stat.getMzxid()) {
+          changed.add(name);
+        }
+      }
+
+      if (!changed.isEmpty()) {
+        LOG.debug("Reading {} changed datastreams out of {} from ZK", changed.size(), toCheck.size());
+        readDatastreamsFromZk(changed);
+      }
+    }
+  }
+
+  /**
+   * Read and parse the given datastreams from ZK in bulk, and update the cache with the results.
+   */
+  private void readDatastreamsFromZk(List<String> datastreamNames) {
+    Map<String, String> pathToName = datastreamNames.stream()
+        .collect(Collectors.toMap(name -> KeyBuilder.datastream(_cluster, name), Function.identity()));
+    Map<String, ZkClient.ZkNodeData> nodes = _zkclient.readDataAsync(pathToName.keySet());
+
+    for (Map.Entry<String, String> entry : pathToName.entrySet()) {
+      String name = entry.getValue();
+      ZkClient.ZkNodeData node = nodes.get(entry.getKey());
+      Datastream ds;
+      long zxid;
+      if (node == null) {
+        ds = null;
+        zxid = UNKNOWN_ZXID;
+      } else if (node.getData() == null) {
+        // The znode is in an inconsistent state (e.g. being written to), fall back to retrying the read
+        ds = getDatastreamFromZk(name);
+        zxid = UNKNOWN_ZXID;
+      } else {
+        ds = DatastreamUtils.fromJSON(node.getData());
+        zxid = node.getStat().getMzxid();
+      }
 
       if (ds == null) {
-        LOG.info("Datastream {} does not exist in cache/ZK.", datastreamName);
-      } else if (!DatastreamUtils.hasValidDestination(ds)) {
-        LOG.info("Datastream {} does not have a valid destination yet and is not ready for use.", datastreamName);
+        LOG.info("Datastream {} does not exist in cache/ZK.", name);
+        evict(name);
       } else {
-        _datastreams.put(datastreamName, ds);
+        if (!DatastreamUtils.hasValidDestination(ds)) {
+          LOG.info("Datastream {} does not have a valid destination yet and is not ready for use.", name);
+        }
+        _datastreams.put(name, ds);
+        _datastreamZxids.put(name, zxid);
+        _dedupIndex.put(ds);
       }
     }
-    return ds;
+  }
+
+  private void evict(String datastreamName) {
+    _datastreams.remove(datastreamName);
+    _datastreamZxids.remove(datastreamName);
+    _dedupIndex.remove(datastreamName);
   }
 
   /**
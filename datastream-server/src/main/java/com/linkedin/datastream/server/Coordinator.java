@@ -11,12 +11,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -26,6 +29,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BooleanSupplier;
 import java.util.function.Function;
@@ -49,9 +53,11 @@ import com.linkedin.datastream.common.DatastreamStatus;
 import com.linkedin.datastream.common.DatastreamTransientException;
 import com.linkedin.datastream.common.DatastreamUtils;
 import com.linkedin.datastream.common.ErrorLogger;
+import com.linkedin.datastream.common.ThreadUtils;
 import com.linkedin.datastream.common.VerifiableProperties;
 import com.linkedin.datastream.metrics.BrooklinCounterInfo;
 import com.linkedin.datastream.metrics.BrooklinGaugeInfo;
+import com.linkedin.datastream.metrics.BrooklinHistogramInfo;
 import com.linkedin.datastream.metrics.BrooklinMeterInfo;
 import com.linkedin.datastream.metrics.BrooklinMetricInfo;
 import com.linkedin.datastream.metrics.DynamicMetricsManager;
@@ -73,6 +79,7 @@ import com.linkedin.datastream.server.providers.ZookeeperCheckpointProvider;
 import com.linkedin.datastream.server.zk.ZkAdapter;
 
 import static com.linkedin.datastream.common.DatastreamMetadataConstants.CREATION_MS;
+import static com.linkedin.datastream.common.DatastreamMetadataConstants.ELASTIC_TASK_COUNT;
 import static com.linkedin.datastream.common.DatastreamMetadataConstants.SYSTEM_DESTINATION_PREFIX;
 import static com.linkedin.datastream.common.DatastreamMetadataConstants.TTL_MS;
 import static com.linkedin.datastream.common.DatastreamUtils.hasValidDestination;
@@ -164,6 +171,9 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
   private static final String NUM_PAUSED_DATASTREAMS_GROUPS = "numPausedDatastreamsGroups";
   private static final String MAX_PARTITION_COUNT_IN_TASK = "maxPartitionCountInTask";
   private static final String IS_LEADER = "isLeader";
+  private static final String TIME_TO_FIRST_ASSIGNMENT_MS = "timeToFirstAssignmentMs";
+  private static final String TIME_TO_FIRST_TASKS_STARTED_MS = "timeToFirstTasksStartedMs";
+  private static final String TASK_WARM_UP_LATENCY_MS = "taskWarmUpLatencyMs";
 
   // Connector common metrics
   private static final String NUM_DATASTREAMS = "numDatastreams";
@@ -201,9 +211,18 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
   private final Logger _log = LoggerFactory.getLogger(Coordinator.class.getName());
   private final ScheduledExecutorService _executor = Executors.newSingleThreadScheduledExecutor();
 
+  // loads the checkpoints of newly assigned tasks, reused across assignment changes
+  private final ExecutorService _taskWarmUpExecutor;
+
   // make sure the scheduled retries are not duplicated
   private final AtomicBoolean leaderDatastreamAddOrDeleteEventScheduled = new AtomicBoolean(false);
 
+  // start time of this coordinator, until the first non-empty assignment has been handed to the connectors
+  private final AtomicLong _pendingStartedAtMs = new AtomicLong(0L);
+
+  // leader election time of the current leadership, until the first assignment as the leader succeeds
+  private final AtomicLong _pendingLeaderElectedAtMs = new AtomicLong(0L);
+
   // make sure the scheduled retries are not duplicated
   private final AtomicBoolean leaderDoAssignmentScheduled = new AtomicBoolean(false);
 
@@ -242,6 +261,13 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
     _eventThread = new CoordinatorEventProcessor();
     _eventThread.setDaemon(true);
 
+    AtomicInteger warmUpThreadCount = new AtomicInteger();
+    _taskWarmUpExecutor = Executors.newFixedThreadPool(_config.getTaskWarmUpThreads(), r -> {
+      Thread t = new Thread(r, "CoordinatorTaskWarmUp-" + warmUpThreadCount.getAndIncrement());
+      t.setDaemon(true);
+      return t;
+    });
+
     _dynamicMetricsManager = DynamicMetricsManager.getInstance();
     _dynamicMetricsManager.registerGauge(MODULE, NUM_PAUSED_DATASTREAMS_GROUPS, () -> _pausedDatastreamsGroups.get());
     _dynamicMetricsManager.registerGauge(MODULE, IS_LEADER, () -> getIsLeader().getAsBoolean() ? 1 : 0);
@@ -262,9 +288,12 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
    */
   public void start() {
     _log.info("Starting coordinator");
+    _pendingStartedAtMs.set(System.currentTimeMillis());
     _eventThread.start();
     _adapter.connect();
 
+    // Connectors are independent of each other, so they are started concurrently
+    List<Callable<Void>> connectorStarters = new ArrayList<>();
     for (String connectorType : _connectors.keySet()) {
       ConnectorInfo connectorInfo = _connectors.get(connectorType);
       ConnectorWrapper connector = connectorInfo.getConnector();
@@ -272,18 +301,21 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
       // Creating a separate thread pool for making the onAssignmentChange calls to the connector
       _assignmentChangeThreadPool.put(connectorType, Executors.newSingleThreadExecutor());
 
-      // populate the instanceName. We only know the instance name after _adapter.connect()
-      connector.setInstanceName(getInstanceName());
-
-      // make sure connector znode exists upon instance start. This way in a brand new cluster
-      // we can inspect ZooKeeper and know what connectors are created
-      _adapter.ensureConnectorZNode(connector.getConnectorType());
+      connectorStarters.add(() -> {
+        // populate the instanceName. We only know the instance name after _adapter.connect()
+        connector.setInstanceName(getInstanceName());
 
-      // call connector::start API
-      connector.start(connectorInfo.getCheckpointProvider());
+        // make sure connector znode exists upon instance start. This way in a brand new cluster
+        // we can inspect ZooKeeper and know what connectors are created
+        _adapter.ensureConnectorZNode(connector.getConnectorType());
 
-      _log.info("Coordinator started");
+        // call connector::start API
+        connector.start(connectorInfo.getCheckpointProvider());
+        return null;
+      });
     }
+    ThreadUtils.runInParallel(connectorStarters, connectorStarters.size());
+    _log.info("Coordinator started");
 
     // now that instance is started, make sure it doesn't miss any assignment created during
     // the slow startup
@@ -309,6 +341,7 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
         _log.warn("Exception caught while stopping coordinator", e);
       }
     }
+    _taskWarmUpExecutor.shutdownNow();
 
     // Stopping all the connectors so that they stop producing.
     for (String connectorType : _connectors.keySet()) {
@@ -355,6 +388,7 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
     _log.info("Coordinator::onBecomeLeader is called");
     // when an instance becomes a leader, make sure we don't miss new datastreams and
     // new assignment tasks that was not finished by the previous leader
+    _pendingLeaderElectedAtMs.set(_adapter.getLeaderElectedAtMs());
     _eventQueue.put(CoordinatorEvent.createHandleDatastreamAddOrDeleteEvent());
     _eventQueue.put(CoordinatorEvent.createLeaderDoAssignmentEvent());
     _log.info("Coordinator::onBecomeLeader completed successfully");
@@ -438,8 +472,9 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
 
     // all datastream tasks for all connector types
     Map<String, List<DatastreamTask>> currentAssignment = new HashMap<>();
+    Map<String, DatastreamTask> tasks = getDatastreamTasks(assignment);
     assignment.forEach(ds -> {
-      DatastreamTask task = getDatastreamTask(ds);
+      DatastreamTask task = tasks.get(ds);
       if (task != null) {
         String connectorType = task.getConnectorType();
         if (!currentAssignment.containsKey(connectorType)) {
@@ -451,6 +486,8 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
 
     _log.info(printAssignmentByType(currentAssignment));
 
+    warmUpTasks(currentAssignment.values().stream().flatMap(Collection::stream).collect(Collectors.toList()));
+
     //
     // diff the currentAssignment with last saved assignment _assignedDatastreamTasksByConnectorType and make sure
     // the affected connectors are notified through the callback. There are following cases:
@@ -523,26 +560,50 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
 
     _log.info(String.format("END: Coordinator::handleAssignmentChange, Duration: %d milliseconds", endAt - startAt));
     _dynamicMetricsManager.createOrUpdateMeter(MODULE, NUM_ASSIGNMENT_CHANGES, 1);
-  }
-
-  private DatastreamTask getDatastreamTask(String taskName) {
-    if (_assignedDatastreamTasks.containsKey(taskName)) {
-      return _assignedDatastreamTasks.get(taskName);
-    } else {
-      DatastreamTaskImpl task = _adapter.getAssignedDatastreamTask(_adapter.getInstanceName(), taskName);
 
-      if (task != null) {
-        DatastreamGroup dg = _datastreamCache.getDatastreamGroups()
-            .stream()
-            .filter(x -> x.getTaskPrefix().equals(task.getTaskPrefix()))
-            .findFirst()
-            .get();
+    if (!_assignedDatastreamTasks.isEmpty()) {
+      long startedAtMs = _pendingStartedAtMs.getAndSet(0L);
+      if (startedAtMs > 0) {
+        _log.info("Coordinator::handleAssignmentChange, first tasks started {} ms after coordinator start",
+            endAt - startedAtMs);
+        _dynamicMetricsManager.createOrUpdateHistogram(MODULE, TIME_TO_FIRST_TASKS_STARTED_MS, endAt - startedAtMs);
+      }
+    }
+  }
 
-        task.setDatastreams(dg.getDatastreams());
+  /**
+   * Resolve the given task names to DatastreamTasks. Tasks already assigned to this instance are reused,
+   * and the remaining ones are read from ZooKeeper in a single batch.
+   */
+  private Map<String, DatastreamTask> getDatastreamTasks(List<String> taskNames) {
+    Map<String, DatastreamTask> tasks = new HashMap<>();
+    List<String> newTaskNames = new ArrayList<>();
+    for (String taskName : taskNames) {
+      if (_assignedDatastreamTasks.containsKey(taskName)) {
+        tasks.put(taskName, _assignedDatastreamTasks.get(taskName));
+      } else {
+        newTaskNames.add(taskName);
       }
+    }
 
-      return task;
+    if (!newTaskNames.isEmpty()) {
+      Map<String, DatastreamTaskImpl> newTasks =
+          _adapter.getAssignedDatastreamTasks(_adapter.getInstanceName(), newTaskNames);
+      if (!newTasks.isEmpty()) {
+        Map<String, DatastreamGroup> groupsByPrefix = new HashMap<>();
+        _datastreamCache.getDatastreamGroups().forEach(dg -> groupsByPrefix.putIfAbsent(dg.getTaskPrefix(), dg));
+        newTasks.forEach((taskName, task) -> {
+          DatastreamGroup dg = groupsByPrefix.get(task.getTaskPrefix());
+          if (dg == null) {
+            throw new NoSuchElementException("No datastream group found for task " + taskName);
+          }
+          task.setDatastreams(dg.getDatastreams());
+          tasks.put(taskName, task);
+        });
+      }
     }
+
+    return tasks;
   }
 
   private Future<Boolean> dispatchAssignmentChangeIfNeeded(String connectorType, List<DatastreamTask> assignment,
@@ -597,9 +658,40 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
     _cpProvider.unassignDatastreamTask(t);
   }
 
+  /**
+   * Warm up the newly assigned tasks before the connectors are notified: create their event producers and
+   * prefetch their checkpoints. Checkpoints are loaded concurrently since each load is a ZooKeeper round-trip.
+   */
+  private void warmUpTasks(List<DatastreamTask> tasks) {
+    List<DatastreamTaskImpl> newTasks = tasks.stream()
+        .filter(t -> t.getEventProducer() == null)
+        .map(t -> (DatastreamTaskImpl) t)
+        .collect(Collectors.toList());
+    if (newTasks.isEmpty()) {
+      return;
+    }
+
+    long startAt = System.currentTimeMillis();
+    // Transport provider and serde admins are not required to be thread-safe, so producers are created serially
+    newTasks.forEach(this::createEventProducer);
+    ThreadUtils.runInParallel(_taskWarmUpExecutor, newTasks.stream().map(t -> (Callable<Void>) () -> {
+      loadCheckpoints(t);
+      return null;
+    }).collect(Collectors.toList()));
+
+    long duration = System.currentTimeMillis() - startAt;
+    _log.info("Warmed up {} tasks in {} ms", newTasks.size(), duration);
+    _dynamicMetricsManager.createOrUpdateHistogram(MODULE, TASK_WARM_UP_LATENCY_MS, duration);
+  }
+
   private void initializeTask(DatastreamTask task) {
     DatastreamTaskImpl taskImpl = (DatastreamTaskImpl) task;
-    assignSerdes(taskImpl);
+    createEventProducer(taskImpl);
+    loadCheckpoints(taskImpl);
+  }
+
+  private void createEventProducer(DatastreamTaskImpl task) {
+    assignSerdes(task);
 
     boolean customCheckpointing = _connectors.get(task.getConnectorType()).isCustomCheckpointing();
     TransportProviderAdmin tpAdmin = _transportProviderAdmins.get(task.getTransportProviderName());
@@ -607,9 +699,12 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
     EventProducer producer =
         new EventProducer(task, transportProvider, _cpProvider, _eventProducerConfig, customCheckpointing);
 
-    taskImpl.setEventProducer(producer);
-    Map<Integer, String> checkpoints = producer.loadCheckpoints(task);
-    taskImpl.setCheckpoints(checkpoints);
+    task.setEventProducer(producer);
+  }
+
+  private void loadCheckpoints(DatastreamTaskImpl task) {
+    Map<Integer, String> checkpoints = ((EventProducer) task.getEventProducer()).loadCheckpoints(task);
+    task.setCheckpoints(checkpoints);
   }
 
   private void assignSerdes(DatastreamTaskImpl datastreamTask) {
@@ -709,6 +804,50 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
    */
   private void handleHeartbeat() {
     _dynamicMetricsManager.createOrUpdateCounter(MODULE, NUM_HEARTBEATS, 1);
+    if (_adapter.isLeader() && _connectors.values()
+        .stream()
+        .anyMatch(connectorInfo -> connectorInfo.getAssignmentStrategy().isElasticTaskCountEnabled())) {
+      updateTaskCounts();
+    }
+  }
+
+  /**
+   * Let the assignment strategies adjust the number of tasks of the active datastream groups to their load, persist
+   * the new task counts of the datastream groups that were resized, and reassign them
+   */
+  private void updateTaskCounts() {
+    try {
+      List<DatastreamGroup> activeDatastreamGroups =
+          fetchDatastreamGroups().stream().filter(dg -> !dg.isPaused()).collect(Collectors.toList());
+      Map<String, Set<DatastreamTask>> currentAssignment = _adapter.getAllAssignedDatastreamTasks();
+      Set<String> resizedGroups = new HashSet<>();
+      for (String connectorType : _connectors.keySet()) {
+        AssignmentStrategy strategy = _connectors.get(connectorType).getAssignmentStrategy();
+        List<DatastreamGroup> datastreamsPerConnectorType = activeDatastreamGroups.stream()
+            .filter(dg -> dg.getConnectorName().equals(connectorType))
+            .collect(Collectors.toList());
+        if (strategy.isElasticTaskCountEnabled() && !datastreamsPerConnectorType.isEmpty()) {
+          resizedGroups.addAll(strategy.updateTaskCounts(datastreamsPerConnectorType, currentAssignment));
+        }
+      }
+
+      if (!resizedGroups.isEmpty()) {
+        // The new task counts are kept in the datastream metadata, so that they outlive this leader. Only the task
+        // count is written, as the cached datastreams may miss concurrent changes such as a pause.
+        activeDatastreamGroups.stream()
+            .filter(dg -> resizedGroups.contains(dg.getTaskPrefix()))
+            .flatMap(dg -> dg.getDatastreams().stream())
+            .filter(ds -> !_adapter.updateDatastreamMetadata(ds.getName(), ELASTIC_TASK_COUNT,
+                ds.getMetadata().get(ELASTIC_TASK_COUNT)))
+            .forEach(ds -> _log.warn("Failed to persist the number of tasks of datastream {}", ds.getName()));
+        _datastreamCache.invalidateAllCache();
+        _log.info("Number of tasks changed for datastream groups {}, reassigning them", resizedGroups);
+        _eventQueue.put(CoordinatorEvent.createLeaderDoAssignmentEvent());
+        resizedGroups.forEach(group -> _eventQueue.put(CoordinatorEvent.createLeaderPartitionAssignmentEvent(group)));
+      }
+    } catch (RuntimeException e) {
+      _log.warn("Failed to update the number of tasks of the datastream groups", e);
+    }
   }
 
   /**
@@ -948,6 +1087,14 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
       _adapter.cleanupDeadInstanceAssignments(instances);
       _adapter.cleanupOldUnusedTasks(previousAssignmentByInstance, newAssignmentsByInstance);
       _dynamicMetricsManager.createOrUpdateMeter(MODULE, NUM_REBALANCES, 1);
+
+      long leaderElectedAtMs = _pendingLeaderElectedAtMs.getAndSet(0L);
+      if (leaderElectedAtMs > 0) {
+        long timeToFirstAssignment = System.currentTimeMillis() - leaderElectedAtMs;
+        _log.info("handleLeaderDoAssignment: first assignment completed {} ms after leader election",
+            timeToFirstAssignment);
+        _dynamicMetricsManager.createOrUpdateHistogram(MODULE, TIME_TO_FIRST_ASSIGNMENT_MS, timeToFirstAssignment);
+      }
     }
 
     // schedule retry if failure
@@ -1239,6 +1386,51 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
    * @param datastream datastream for validation
    */
   public void initializeDatastream(Datastream datastream) throws DatastreamValidationException {
+    // Changing a non-flush cache version to flush version to avoid errors in deduping datastreams which
+    // should be deduped, but fail to due to being created back to back and ZK client not syncing with master
+    List<Datastream> allDatastreams = _datastreamCache.getAllDatastreams(true)
+        .stream()
+        .filter(d -> d.getConnectorName().equals(datastream.getConnectorName()))
+        .collect(Collectors.toList());
+    initializeDatastream(datastream, allDatastreams, new DatastreamDedupIndex());
+  }
+
+  /**
+   * Initializes a batch of datastreams against a single snapshot of the existing datastreams, rather than reading
+   * all the datastreams from ZooKeeper for each of them. The datastreams of the batch which initialize successfully
+   * are added to the snapshot, so the later datastreams of the batch are validated and deduped against them too.
+   * @param datastreams datastreams for validation
+   * @return the errors of the datastreams which failed to initialize, keyed by datastream name
+   */
+  public Map<String, Exception> initializeDatastreams(List<Datastream> datastreams) {
+    Map<String, List<Datastream>> allDatastreamsByConnector = _datastreamCache.getAllDatastreams(true)
+        .stream()
+        .collect(Collectors.groupingBy(Datastream::getConnectorName));
+    DatastreamDedupIndex batchDedupIndex = new DatastreamDedupIndex();
+    Map<String, Exception> errors = new HashMap<>();
+    for (Datastream datastream : datastreams) {
+      List<Datastream> allDatastreams =
+          allDatastreamsByConnector.computeIfAbsent(datastream.getConnectorName(), c -> new ArrayList<>());
+      try {
+        initializeDatastream(datastream, allDatastreams, batchDedupIndex);
+        allDatastreams.add(datastream);
+        batchDedupIndex.put(datastream);
+      } catch (Exception e) {
+        errors.put(datastream.getName(), e);
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Initializes a datastream
+   * @param datastream datastream for validation
+   * @param allDatastreams all the existing datastreams of the connector of the datastream
+   * @param batchDedupIndex index of the datastreams initialized earlier in the same batch, which are not in the
+   *                        datastream cache yet
+   */
+  private void initializeDatastream(Datastream datastream, List<Datastream> allDatastreams,
+      DatastreamDedupIndex batchDedupIndex) throws DatastreamValidationException {
     datastream.setStatus(DatastreamStatus.INITIALIZING);
     String connectorName = datastream.getConnectorName();
     ConnectorInfo connectorInfo = _connectors.get(connectorName);
@@ -1251,13 +1443,6 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
     ConnectorWrapper connector = connectorInfo.getConnector();
     DatastreamDeduper deduper = connectorInfo.getDatastreamDeduper();
 
-    // Changing a non-flush cache version to flush version to avoid errors in deduping datastreams which
-    // should be deduped, but fail to due to being created back to back and ZK client not syncing with master
-    List<Datastream> allDatastreams = _datastreamCache.getAllDatastreams(true)
-        .stream()
-        .filter(d -> d.getConnectorName().equals(connectorName))
-        .collect(Collectors.toList());
-
     // If datastream of name already exists return error
     if (allDatastreams.stream().anyMatch(x -> x.getName().equals(datastream.getName()))) {
       String errMsg = String.format("Datastream with name %s already exists", datastream.getName());
@@ -1297,7 +1482,7 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
       }
 
       connector.initializeDatastream(datastream, allDatastreams);
-      initializeDatastreamDestination(connector, datastream, deduper, allDatastreams);
+      initializeDatastreamDestination(connector, datastream, deduper, allDatastreams, batchDedupIndex);
       connector.postDatastreamInitialize(datastream, allDatastreams);
     } catch (Exception e) {
       _dynamicMetricsManager.createOrUpdateMeter(MODULE, "initializeDatastream", NUM_ERRORS, 1);
@@ -1308,12 +1493,21 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
   }
 
   private void initializeDatastreamDestination(ConnectorWrapper connector, Datastream datastream,
-      DatastreamDeduper deduper, List<Datastream> allDatastreams) throws DatastreamValidationException {
+      DatastreamDeduper deduper, List<Datastream> allDatastreams, DatastreamDedupIndex batchDedupIndex)
+      throws DatastreamValidationException {
     Optional<Datastream> existingDatastream = Optional.empty();
 
     // Dedupe datastream only when its destination is not populated and allows reuse
     if (!hasValidDestination(datastream) && isReuseAllowed(datastream)) {
-      existingDatastream = deduper.findExistingDatastream(datastream, allDatastreams);
+      if (deduper.isSourceBased()) {
+        // Only the datastreams with the same source, transport provider and serdes can be duplicates, look them up
+        // rather than going through all the datastreams
+        List<Datastream> candidates = new ArrayList<>(_datastreamCache.getDedupCandidates(datastream));
+        candidates.addAll(batchDedupIndex.getCandidates(datastream));
+        existingDatastream = deduper.findExistingDatastream(datastream, candidates);
+      } else {
+        existingDatastream = deduper.findExistingDatastream(datastream, allDatastreams);
+      }
     }
 
     // For a BYOT datastream, check that the destination is not already in use by other streams
@@ -1387,6 +1581,9 @@ public class Coordinator implements ZkAdapter.ZkAdapterListener, MetricsAware {
     _metrics.add(new BrooklinCounterInfo(buildMetricName(MODULE, NUM_HEARTBEATS)));
     _metrics.add(new BrooklinGaugeInfo(buildMetricName(MODULE, NUM_PAUSED_DATASTREAMS_GROUPS)));
     _metrics.add(new BrooklinGaugeInfo(buildMetricName(MODULE, IS_LEADER)));
+    _metrics.add(new BrooklinHistogramInfo(buildMetricName(MODULE, TIME_TO_FIRST_ASSIGNMENT_MS)));
+    _metrics.add(new BrooklinHistogramInfo(buildMetricName(MODULE, TIME_TO_FIRST_TASKS_STARTED_MS)));
+    _metrics.add(new BrooklinHistogramInfo(buildMetricName(MODULE, TASK_WARM_UP_LATENCY_MS)));
 
     return Collections.unmodifiableList(_metrics);
   }
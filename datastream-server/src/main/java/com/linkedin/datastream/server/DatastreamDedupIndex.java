@@ -0,0 +1,127 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import com.linkedin.datastream.common.Datastream;
+import com.linkedin.datastream.common.DatastreamUtils;
+
+import static com.linkedin.datastream.common.DatastreamUtils.getEnvelopeSerDe;
+import static com.linkedin.datastream.common.DatastreamUtils.getKeySerDe;
+import static com.linkedin.datastream.common.DatastreamUtils.getPayloadSerDe;
+
+
+/**
+ * Index of the datastreams whose destination can be reused, keyed by what a new datastream must share with them to
+ * be deduped by a source-based deduper: connector, source connection string, transport provider and serdes. It turns
+ * finding the dedup candidates of a new datastream into a lookup, instead of a scan of all the datastreams.
+ *
+ * Only the datastreams meeting the basic reuse requirements of {@link AbstractDatastreamDeduper} are indexed.
+ * This class is not thread-safe.
+ *
+ * @see com.linkedin.datastream.server.api.connector.DatastreamDeduper#isSourceBased()
+ */
+class DatastreamDedupIndex {
+  private final Map<DedupKey, Map<String, Datastream>> _datastreamsByKey = new HashMap<>();
+  private final Map<String, DedupKey> _keysByName = new HashMap<>();
+
+  /**
+   * The attributes of a datastream which must match for it to be deduped with another one
+   */
+  private static final class DedupKey {
+    private final String _connectorName;
+    private final String _source;
+    private final String _transportProviderName;
+    private final String _keySerDe;
+    private final String _payloadSerDe;
+    private final String _envelopeSerDe;
+
+    DedupKey(Datastream datastream) {
+      _connectorName = datastream.getConnectorName();
+      _source = datastream.getSource().getConnectionString();
+      _transportProviderName = datastream.getTransportProviderName();
+      _keySerDe = getKeySerDe(datastream).orElse(null);
+      _payloadSerDe = getPayloadSerDe(datastream).orElse(null);
+      _envelopeSerDe = getEnvelopeSerDe(datastream).orElse(null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      DedupKey other = (DedupKey) o;
+      return Objects.equals(_connectorName, other._connectorName) && Objects.equals(_source, other._source)
+          && Objects.equals(_transportProviderName, other._transportProviderName)
+          && Objects.equals(_keySerDe, other._keySerDe) && Objects.equals(_payloadSerDe, other._payloadSerDe)
+          && Objects.equals(_envelopeSerDe, other._envelopeSerDe);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_connectorName, _source, _transportProviderName, _keySerDe, _payloadSerDe, _envelopeSerDe);
+    }
+  }
+
+  /**
+   * Add or replace a datastream in the index. The datastream is only indexed if it allows reuse and has a valid
+   * source and destination.
+   */
+  void put(Datastream datastream) {
+    String name = datastream.getName();
+    remove(name);
+    if (DatastreamUtils.isReuseAllowed(datastream) && DatastreamUtils.hasValidSource(datastream)
+        && DatastreamUtils.hasValidDestination(datastream)) {
+      DedupKey key = new DedupKey(datastream);
+      _datastreamsByKey.computeIfAbsent(key, k -> new TreeMap<>()).put(name, datastream);
+      _keysByName.put(name, key);
+    }
+  }
+
+  /**
+   * Remove a datastream from the index, if it is indexed
+   */
+  void remove(String datastreamName) {
+    DedupKey key = _keysByName.remove(datastreamName);
+    if (key != null) {
+      Map<String, Datastream> datastreams = _datastreamsByKey.get(key);
+      datastreams.remove(datastreamName);
+      if (datastreams.isEmpty()) {
+        _datastreamsByKey.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Get the indexed datastreams which share the connector, source connection string, transport provider and serdes
+   * of a datastream, ordered by name
+   * @param datastream the datastream to find the dedup candidates of
+   */
+  List<Datastream> getCandidates(Datastream datastream) {
+    if (!DatastreamUtils.hasValidSource(datastream)) {
+      return Collections.emptyList();
+    }
+    Map<String, Datastream> datastreams = _datastreamsByKey.get(new DedupKey(datastream));
+    return datastreams == null ? Collections.emptyList() : new ArrayList<>(datastreams.values());
+  }
+
+  /**
+   * Get the number of indexed datastreams
+   */
+  int size() {
+    return _keysByName.size();
+  }
+}
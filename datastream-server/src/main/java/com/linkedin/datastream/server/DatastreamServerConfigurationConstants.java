@@ -14,6 +14,10 @@ public final class DatastreamServerConfigurationConstants {
   public static final String CONFIG_CONNECTOR_NAMES = CONFIG_PREFIX + "connectorNames";
   public static final String CONFIG_HTTP_PORT = CONFIG_PREFIX + "httpPort";
   public static final String CONFIG_CSV_METRICS_DIR = CONFIG_PREFIX + "csvMetricsDir";
+  public static final String CONFIG_STARTUP_THREADS = CONFIG_PREFIX + "startupThreads";
+  public static final int DEFAULT_STARTUP_THREADS = 8;
+  public static final String CONFIG_METRICS_MAX_KEYS_PER_CLASS = CONFIG_PREFIX + "metrics.maxKeysPerClass";
+  public static final String CONFIG_METRICS_KEY_IDLE_TTL_MS = CONFIG_PREFIX + "metrics.keyIdleTtlMs";
   public static final String CONFIG_ZK_ADDRESS = CoordinatorConfig.CONFIG_ZK_ADDRESS;
   public static final String CONFIG_CLUSTER_NAME = CoordinatorConfig.CONFIG_CLUSTER;
   public static final String CONFIG_ENABLE_EMBEDDED_JETTY = "enableEmbeddedJetty";
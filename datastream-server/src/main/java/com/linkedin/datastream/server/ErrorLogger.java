@@ -58,6 +58,18 @@ public final class ErrorLogger {
    * @param e inner exception
    */
   public void logAndThrowRestLiServiceException(HttpStatus status, String msg, Exception e) {
+    throw logAndGetRestLiServiceException(status, msg, e);
+  }
+
+  /**
+   * Log an error message and return a RestliServiceException with the specified status, for reporting the error
+   * of a single item of a batch request. The logging is the same as for
+   * {@link #logAndThrowRestLiServiceException(HttpStatus, String, Exception)}.
+   * @param status HTTP status
+   * @param msg error message
+   * @param e inner exception
+   */
+  public RestLiServiceException logAndGetRestLiServiceException(HttpStatus status, String msg, Exception e) {
     String id = UUID.randomUUID().toString();
     id = id.substring(0, Math.min(6, id.length()));
     String cause = e == null ? "None" : e.getMessage();
@@ -69,7 +81,7 @@ public final class ErrorLogger {
       _logger.warn("[{}] {}, cause={}", id, msg, cause);
     }
 
-    throw new RestLiServiceException(status,
+    return new RestLiServiceException(status,
         String.format("msg=%s; cause=%s; instance=%s; id=%s;", msg, cause, _instance, id));
   }
 }
@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.Validate;
@@ -30,6 +31,7 @@ import com.linkedin.datastream.metrics.BrooklinMeterInfo;
 import com.linkedin.datastream.metrics.BrooklinMetricInfo;
 import com.linkedin.datastream.metrics.DynamicMetricsManager;
 import com.linkedin.datastream.metrics.MetricsAware;
+import com.linkedin.datastream.metrics.PipelineStageMetrics;
 import com.linkedin.datastream.server.api.transport.DatastreamRecordMetadata;
 import com.linkedin.datastream.server.api.transport.SendCallback;
 import com.linkedin.datastream.server.api.transport.SendFailedException;
@@ -171,8 +173,11 @@ public class EventProducer implements DatastreamEventProducer {
     try {
       validateEventRecord(record);
 
+      long serializeStart = System.nanoTime();
       try {
         record.serializeEvents(_datastreamTask.getDestinationSerDes());
+        PipelineStageMetrics.record(_datastreamTask.getDatastreamTaskName(), PipelineStageMetrics.Stage.SERIALIZE,
+            System.nanoTime() - serializeStart);
       } catch (Exception e) {
         if (_skipMessageOnSerializationErrors) {
           _logger.info("Skipping the message on serialization error as configured.", e);
@@ -293,6 +298,9 @@ public class EventProducer implements DatastreamEventProducer {
       // Report metrics
       checkpoint(metadata.getPartition(), metadata.getCheckpoint());
       reportMetrics(metadata, record);
+      record.getEventsSendTimestamp().ifPresent(sendTimestamp ->
+          PipelineStageMetrics.record(_datastreamTask.getDatastreamTaskName(), PipelineStageMetrics.Stage.ACK,
+              TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - sendTimestamp)));
     }
 
     // Inform the connector about the success or failure, In the case of failure,
@@ -39,4 +39,9 @@ public class SourceBasedDeduper extends AbstractDatastreamDeduper {
 
     return reusedStream;
   }
+
+  @Override
+  public boolean isSourceBased() {
+    return true;
+  }
 }
@@ -0,0 +1,199 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server.assignment;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.datastream.common.VerifiableProperties;
+import com.linkedin.datastream.server.DatastreamTaskLoad;
+
+
+/**
+ * Sizes datastream groups by the load their tasks report, so that a group is given more tasks while it has a backlog
+ * and fewer tasks while it is idle, instead of being provisioned for its peak.
+ *
+ * The recommended number of tasks of a group is the number of tasks needed to keep both the lag and the throughput of
+ * each task under their targets, within the configured bounds. In {@link Mode#RESIZE} mode, a group is resized to
+ * its recommended number of tasks once the recommendation has stayed on the same side of the current number of tasks
+ * for the sustain period, and at most once per cooldown period.
+ */
+public class ElasticTaskCountPolicy {
+  private static final Logger LOG = LoggerFactory.getLogger(ElasticTaskCountPolicy.class);
+
+  public static final String CFG_MODE = "mode";
+  public static final String CFG_MIN_TASKS = "minTasks";
+  public static final String CFG_MAX_TASKS = "maxTasks";
+  public static final String CFG_TARGET_LAG_PER_TASK = "targetLagPerTask";
+  public static final String CFG_TARGET_EVENTS_PER_SEC_PER_TASK = "targetEventsPerSecPerTask";
+  public static final String CFG_SUSTAIN_MS = "sustainMs";
+  public static final String CFG_COOLDOWN_MS = "cooldownMs";
+  public static final String CFG_MAX_LOAD_AGE_MS = "maxLoadAgeMs";
+
+  private static final int DEFAULT_MIN_TASKS = 1;
+  private static final long DEFAULT_TARGET_LAG_PER_TASK = 100_000;
+  private static final long DEFAULT_TARGET_EVENTS_PER_SEC_PER_TASK = 10_000;
+  private static final long DEFAULT_SUSTAIN_MS = Duration.ofMinutes(10).toMillis();
+  private static final long DEFAULT_COOLDOWN_MS = Duration.ofMinutes(30).toMillis();
+  private static final long DEFAULT_MAX_LOAD_AGE_MS = Duration.ofMinutes(5).toMillis();
+
+  /**
+   * What the policy does with the recommended number of tasks
+   */
+  public enum Mode {
+    /**
+     * Task counts are not evaluated
+     */
+    OFF,
+
+    /**
+     * The recommended task counts are computed and logged, but groups are not resized
+     */
+    RECOMMEND,
+
+    /**
+     * Groups are resized to their recommended task counts
+     */
+    RESIZE
+  }
+
+  private final Mode _mode;
+  private final int _minTasks;
+  private final int _maxTasks;
+  private final long _targetLagPerTask;
+  private final long _targetEventsPerSecPerTask;
+  private final long _sustainMs;
+  private final long _cooldownMs;
+  private final long _maxLoadAgeMs;
+  private final Map<String, GroupState> _groups = new ConcurrentHashMap<>();
+
+  /**
+   * The state of the evaluation of a datastream group
+   */
+  private static class GroupState {
+    private int _recommendedTasks;
+    private int _pendingDirection;
+    private long _pendingSinceMs;
+    private long _lastResizeMs;
+  }
+
+  /**
+   * Constructor for ElasticTaskCountPolicy
+   * @param config the policy config
+   */
+  public ElasticTaskCountPolicy(Properties config) {
+    VerifiableProperties properties = new VerifiableProperties(config);
+    _mode = Mode.valueOf(properties.getString(CFG_MODE, Mode.OFF.name()).toUpperCase());
+    _minTasks = properties.getIntInRange(CFG_MIN_TASKS, DEFAULT_MIN_TASKS, 1, Integer.MAX_VALUE);
+    _maxTasks = properties.getIntInRange(CFG_MAX_TASKS, Integer.MAX_VALUE, _minTasks, Integer.MAX_VALUE);
+    _targetLagPerTask =
+        properties.getLongInRange(CFG_TARGET_LAG_PER_TASK, DEFAULT_TARGET_LAG_PER_TASK, 1, Long.MAX_VALUE);
+    _targetEventsPerSecPerTask = properties.getLongInRange(CFG_TARGET_EVENTS_PER_SEC_PER_TASK,
+        DEFAULT_TARGET_EVENTS_PER_SEC_PER_TASK, 1, Long.MAX_VALUE);
+    _sustainMs = properties.getLongInRange(CFG_SUSTAIN_MS, DEFAULT_SUSTAIN_MS, 0, Long.MAX_VALUE);
+    _cooldownMs = properties.getLongInRange(CFG_COOLDOWN_MS, DEFAULT_COOLDOWN_MS, 0, Long.MAX_VALUE);
+    _maxLoadAgeMs = properties.getLongInRange(CFG_MAX_LOAD_AGE_MS, DEFAULT_MAX_LOAD_AGE_MS, 1, Long.MAX_VALUE);
+  }
+
+  public Mode getMode() {
+    return _mode;
+  }
+
+  /**
+   * Compute the number of tasks needed to keep the lag and the throughput of each task under their targets
+   * @param totalLag the sum of the lag of all the tasks of a group
+   * @param totalEventsPerSec the sum of the throughput of all the tasks of a group
+   * @param numPartitions the number of partitions of the group, which caps the number of tasks, or 0 if unknown
+   */
+  public int recommend(long totalLag, double totalEventsPerSec, int numPartitions) {
+    long byLag = divideRoundingUp(Math.max(totalLag, 0), _targetLagPerTask);
+    long byThroughput = (long) Math.ceil(Math.max(totalEventsPerSec, 0) / _targetEventsPerSecPerTask);
+    long tasks = Math.max(byLag, byThroughput);
+    if (numPartitions > 0) {
+      tasks = Math.min(tasks, numPartitions);
+    }
+    return (int) Math.max(_minTasks, Math.min(_maxTasks, tasks));
+  }
+
+  /**
+   * Evaluate the load of a datastream group, and decide whether it should be resized
+   * @param group the name of the datastream group
+   * @param currentTasks the current number of tasks of the group
+   * @param loads the loads reported by the tasks of the group
+   * @param numPartitions the number of partitions of the group, or 0 if unknown
+   * @param nowMs the current time
+   * @return the number of tasks the group should be resized to, if it should be resized now
+   */
+  public Optional<Integer> evaluate(String group, int currentTasks, Collection<DatastreamTaskLoad> loads,
+      int numPartitions, long nowMs) {
+    if (_mode == Mode.OFF || currentTasks <= 0) {
+      return Optional.empty();
+    }
+    GroupState state = _groups.computeIfAbsent(group, g -> new GroupState());
+    if (loads.size() < currentTasks || loads.stream().anyMatch(load -> nowMs - load.getTimestamp() > _maxLoadAgeMs)) {
+      // Some tasks haven't reported their load recently, e.g. because they have just been created or moved
+      LOG.debug("Not all {} tasks of {} have reported their load, skipping evaluation", currentTasks, group);
+      state._pendingDirection = 0;
+      return Optional.empty();
+    }
+
+    long totalLag = loads.stream().mapToLong(DatastreamTaskLoad::getLag).sum();
+    double totalEventsPerSec = loads.stream().mapToDouble(DatastreamTaskLoad::getEventsPerSec).sum();
+    int recommendedTasks = recommend(totalLag, totalEventsPerSec, numPartitions);
+    if (recommendedTasks != state._recommendedTasks) {
+      LOG.info("Recommended task count of {} is {} (current {}, total lag {}, total events/sec {})", group,
+          recommendedTasks, currentTasks, totalLag, String.format("%.1f", totalEventsPerSec));
+      state._recommendedTasks = recommendedTasks;
+    }
+
+    int direction = Integer.signum(recommendedTasks - currentTasks);
+    if (direction != state._pendingDirection) {
+      state._pendingDirection = direction;
+      state._pendingSinceMs = nowMs;
+    }
+    if (_mode != Mode.RESIZE || direction == 0 || nowMs - state._pendingSinceMs < _sustainMs
+        || (state._lastResizeMs > 0 && nowMs - state._lastResizeMs < _cooldownMs)) {
+      return Optional.empty();
+    }
+
+    LOG.info("Resizing {} from {} to {} tasks", group, currentTasks, recommendedTasks);
+    state._lastResizeMs = nowMs;
+    state._pendingDirection = 0;
+    return Optional.of(recommendedTasks);
+  }
+
+  /**
+   * Get the last recommended number of tasks of each datastream group
+   */
+  public Map<String, Integer> getRecommendedTaskCounts() {
+    Map<String, Integer> recommendations = new ConcurrentHashMap<>();
+    _groups.forEach((group, state) -> {
+      if (state._recommendedTasks > 0) {
+        recommendations.put(group, state._recommendedTasks);
+      }
+    });
+    return recommendations;
+  }
+
+  /**
+   * Forget the state of the datastream groups which no longer exist
+   * @param groups the names of the current datastream groups
+   */
+  public void retainGroups(Collection<String> groups) {
+    _groups.keySet().retainAll(groups);
+  }
+
+  private static long divideRoundingUp(long dividend, long divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+}
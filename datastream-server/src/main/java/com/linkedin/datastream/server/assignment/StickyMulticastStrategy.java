@@ -229,7 +229,7 @@ public class StickyMulticastStrategy implements AssignmentStrategy {
     }
   }
 
-  private int getNumTasks(DatastreamGroup dg, int numInstances) {
+  protected int getNumTasks(DatastreamGroup dg, int numInstances) {
     // Look for an override in any of the datastream. In the case of multiple overrides, select the largest.
     // If no override is present then use the default "_maxTasks" from config.
     return dg.getDatastreams()
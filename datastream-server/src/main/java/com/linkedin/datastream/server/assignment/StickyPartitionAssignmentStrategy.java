@@ -12,6 +12,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -19,10 +21,13 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.linkedin.datastream.common.DatastreamMetadataConstants;
 import com.linkedin.datastream.common.DatastreamRuntimeException;
+import com.linkedin.datastream.server.DatastreamGroup;
 import com.linkedin.datastream.server.DatastreamGroupPartitionsMetadata;
 import com.linkedin.datastream.server.DatastreamTask;
 import com.linkedin.datastream.server.DatastreamTaskImpl;
+import com.linkedin.datastream.server.DatastreamTaskLoad;
 
 /**
  *
@@ -30,10 +35,16 @@ import com.linkedin.datastream.server.DatastreamTaskImpl;
  * assignment. This StickyPartitionAssignmentStrategy creates new tasks and remove old tasks to accommodate the
  * change in partition assignment. The strategy is also "Sticky", i.e., it minimizes the potential task mutations.
  * The total number of tasks is also unchanged during this process.
+ *
+ * Optionally, the number of tasks of each datastream group can follow the load reported by its tasks, as decided by
+ * an {@link ElasticTaskCountPolicy}. A group that is resized this way has its task count overridden by
+ * {@link DatastreamMetadataConstants#ELASTIC_TASK_COUNT} in the metadata of its datastreams, and the partitions are
+ * then spread over the new set of tasks by the next partition assignment.
  */
 public class StickyPartitionAssignmentStrategy extends StickyMulticastStrategy {
   private static final Logger LOG = LoggerFactory.getLogger(StickyPartitionAssignmentStrategy.class.getName());
   private final Integer _maxPartitionPerTask;
+  private final ElasticTaskCountPolicy _elasticTaskCountPolicy;
 
   /**
    * Constructor for StickyPartitionAssignmentStrategy
@@ -51,9 +62,110 @@ public class StickyPartitionAssignmentStrategy extends StickyMulticastStrategy {
    */
   public StickyPartitionAssignmentStrategy(Optional<Integer> maxTasks, Optional<Integer> imbalanceThreshold,
       Optional<Integer> maxPartitionPerTask) {
+    this(maxTasks, imbalanceThreshold, maxPartitionPerTask, new ElasticTaskCountPolicy(new Properties()));
+  }
+
+  /**
+   * Constructor for StickyPartitionAssignmentStrategy
+   * @param maxTasks Maximum number of {@link DatastreamTask}s to create out
+   *                 of any {@link com.linkedin.datastream.common.Datastream}
+   *                 if no value is specified for the "maxTasks" config property
+   *                 at an individual datastream level.
+   * @param imbalanceThreshold The maximum allowable difference in the number of tasks assigned
+   *                           between any two {@link com.linkedin.datastream.server.Coordinator}
+   *                           instances, before triggering a rebalance. The default is
+   *                           {@value DEFAULT_IMBALANCE_THRESHOLD}.
+   * @param maxPartitionPerTask The maximum number of partitions allowed per task. By default it's Integer.MAX (no limit)
+   *                            If partitions count in task is larger than this number, Brooklin will throw an exception
+   * @param elasticTaskCountPolicy The policy deciding the number of tasks of the datastream groups from their load
+   */
+  public StickyPartitionAssignmentStrategy(Optional<Integer> maxTasks, Optional<Integer> imbalanceThreshold,
+      Optional<Integer> maxPartitionPerTask, ElasticTaskCountPolicy elasticTaskCountPolicy) {
     super(maxTasks, imbalanceThreshold);
     _maxPartitionPerTask = maxPartitionPerTask.orElse(Integer.MAX_VALUE);
+    _elasticTaskCountPolicy = elasticTaskCountPolicy;
   }
+
+  @Override
+  protected int getNumTasks(DatastreamGroup dg, int numInstances) {
+    OptionalInt elasticTaskCount = getElasticTaskCount(dg);
+    return elasticTaskCount.isPresent() ? elasticTaskCount.getAsInt() : super.getNumTasks(dg, numInstances);
+  }
+
+  /**
+   * Get the number of tasks a datastream group was resized to, if it was resized and groups are still being resized.
+   * In the case of multiple overrides, select the largest. Invalid overrides are ignored.
+   */
+  private OptionalInt getElasticTaskCount(DatastreamGroup dg) {
+    if (_elasticTaskCountPolicy.getMode() != ElasticTaskCountPolicy.Mode.RESIZE) {
+      return OptionalInt.empty();
+    }
+    return dg.getDatastreams()
+        .stream()
+        .filter(ds -> ds.getMetadata().containsKey(DatastreamMetadataConstants.ELASTIC_TASK_COUNT))
+        .mapToInt(ds -> parseElasticTaskCount(ds.getName(),
+            ds.getMetadata().get(DatastreamMetadataConstants.ELASTIC_TASK_COUNT)))
+        .filter(x -> x > 0)
+        .max();
+  }
+
+  private static int parseElasticTaskCount(String datastreamName, String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      LOG.warn("Ignoring invalid number of tasks {} of datastream {}", value, datastreamName);
+      return 0;
+    }
+  }
+
+  @Override
+  public boolean isElasticTaskCountEnabled() {
+    return _elasticTaskCountPolicy.getMode() != ElasticTaskCountPolicy.Mode.OFF;
+  }
+
+  /**
+   * Evaluate the load reported by the tasks of each datastream group, and resize the groups as decided by the
+   * {@link ElasticTaskCountPolicy}. Groups whose tasks haven't all reported a recent load are left unchanged.
+   * The new number of tasks of a resized group is set in the metadata of its datastreams.
+   */
+  @Override
+  public Set<String> updateTaskCounts(List<DatastreamGroup> datastreams,
+      Map<String, Set<DatastreamTask>> currentAssignment) {
+    List<String> groupNames = datastreams.stream().map(DatastreamGroup::getTaskPrefix).collect(Collectors.toList());
+    _elasticTaskCountPolicy.retainGroups(groupNames);
+    if (_elasticTaskCountPolicy.getMode() == ElasticTaskCountPolicy.Mode.OFF) {
+      return Collections.emptySet();
+    }
+
+    Set<String> resizedGroups = new HashSet<>();
+    long now = System.currentTimeMillis();
+    for (DatastreamGroup dg : datastreams) {
+      List<DatastreamTask> tasks = currentAssignment.values().stream()
+          .flatMap(Set::stream)
+          .filter(dg::belongsTo)
+          .collect(Collectors.toList());
+      List<DatastreamTaskLoad> loads = new ArrayList<>(tasks.size());
+      int numPartitions = 0;
+      for (DatastreamTask task : tasks) {
+        numPartitions += task.getPartitionsV2().size();
+        try {
+          Optional.ofNullable(task.getState(DatastreamTaskLoad.STATE_KEY))
+              .map(DatastreamTaskLoad::fromJson)
+              .ifPresent(loads::add);
+        } catch (RuntimeException e) {
+          LOG.warn("Failed to read the load of task {}", task.getDatastreamTaskName(), e);
+        }
+      }
+      _elasticTaskCountPolicy.evaluate(dg.getTaskPrefix(), tasks.size(), loads, numPartitions, now)
+          .ifPresent(numTasks -> {
+            dg.getDatastreams().forEach(ds ->
+                ds.getMetadata().put(DatastreamMetadataConstants.ELASTIC_TASK_COUNT, String.valueOf(numTasks)));
+            resizedGroups.add(dg.getTaskPrefix());
+          });
+    }
+    return resizedGroups;
+  }
+
   /**
    * assign partitions to a particular datastream group
    *
@@ -91,6 +203,27 @@ public class StickyPartitionAssignmentStrategy extends StickyMulticastStrategy {
     final AtomicInteger remainder = new AtomicInteger(datastreamPartitions.getPartitions().size() % totalTaskCount);
     LOG.debug("maxPartitionPerTask {}, task count {}", maxPartitionPerTask, totalTaskCount);
 
+    // The tasks of a resized group can hold more than their share of the partitions after the number of tasks has
+    // grown, so take away the partitions above their share before handing out the unassigned partitions. The tasks
+    // which keep k partitions are counted in R upfront. The partitions of other groups are never moved.
+    boolean rebalancePartitions = getElasticTaskCount(datastreamPartitions.getDatastreamGroup()).isPresent();
+    Map<DatastreamTask, Set<String>> retainedPartitions = new HashMap<>();
+    currentAssignment.values().stream().flatMap(Set::stream).filter(t -> dgName.equals(t.getTaskPrefix())).forEach(t -> {
+      List<String> partitions = new ArrayList<>(t.getPartitionsV2());
+      partitions.retainAll(datastreamPartitions.getPartitions());
+      if (rebalancePartitions) {
+        int allowedPartitions = maxPartitionPerTask;
+        if (partitions.size() > maxPartitionPerTask && remainder.get() > 0) {
+          remainder.decrementAndGet();
+          allowedPartitions++;
+        }
+        while (partitions.size() > allowedPartitions) {
+          unassignedPartitions.add(partitions.remove(partitions.size() - 1));
+        }
+      }
+      retainedPartitions.put(t, new HashSet<>(partitions));
+    });
+
     Collections.shuffle(unassignedPartitions);
 
     Map<String, Set<DatastreamTask>> newAssignment = new HashMap<>();
@@ -103,21 +236,22 @@ public class StickyPartitionAssignmentStrategy extends StickyMulticastStrategy {
         if (!dgName.equals(task.getTaskPrefix())) {
           return task;
         } else {
-          Set<String> newPartitions = new HashSet<>(task.getPartitionsV2());
-          newPartitions.retainAll(datastreamPartitions.getPartitions());
+          Set<String> newPartitions = retainedPartitions.get(task);
 
           //We need to create new task if the partition is changed
           boolean partitionChanged = newPartitions.size() != task.getPartitionsV2().size();
 
-          int allowedPartitions = remainder.get() > 0 ? maxPartitionPerTask + 1 : maxPartitionPerTask;
+          if (!rebalancePartitions || newPartitions.size() <= maxPartitionPerTask) {
+            int allowedPartitions = remainder.get() > 0 ? maxPartitionPerTask + 1 : maxPartitionPerTask;
 
-          while (newPartitions.size() < allowedPartitions && unassignedPartitions.size() > 0) {
-            newPartitions.add(unassignedPartitions.remove(unassignedPartitions.size() - 1));
-            partitionChanged = true;
-          }
+            while (newPartitions.size() < allowedPartitions && unassignedPartitions.size() > 0) {
+              newPartitions.add(unassignedPartitions.remove(unassignedPartitions.size() - 1));
+              partitionChanged = true;
+            }
 
-          if (remainder.get() > 0) {
-            remainder.decrementAndGet();
+            if (remainder.get() > 0) {
+              remainder.decrementAndGet();
+            }
           }
 
           if (newPartitions.size() > _maxPartitionPerTask) {
@@ -21,6 +21,7 @@ import static com.linkedin.datastream.server.assignment.StickyMulticastStrategyF
  */
 public class StickyPartitionAssignmentStrategyFactory implements AssignmentStrategyFactory {
   public static final String CFG_MAX_PARTITION_PER_TASK = "maxPartitionsPerTask";
+  public static final String CFG_ELASTIC_TASK_COUNT = "elasticTaskCount";
 
 
   @Override
@@ -35,6 +36,8 @@ public class StickyPartitionAssignmentStrategyFactory implements AssignmentStrat
         : Optional.empty();
     Optional<Integer> maxPartitions = cfgMaxParitionsPerTask > 0 ? Optional.of(cfgMaxParitionsPerTask) :
         Optional.empty();
-    return new StickyPartitionAssignmentStrategy(maxTasks, imbalanceThreshold, maxPartitions);
+    ElasticTaskCountPolicy elasticTaskCountPolicy =
+        new ElasticTaskCountPolicy(props.getDomainProperties(CFG_ELASTIC_TASK_COUNT));
+    return new StickyPartitionAssignmentStrategy(maxTasks, imbalanceThreshold, maxPartitions, elasticTaskCountPolicy);
   }
 }
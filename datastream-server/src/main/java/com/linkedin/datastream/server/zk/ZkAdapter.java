@@ -39,6 +39,7 @@ import com.linkedin.datastream.common.ErrorLogger;
 import com.linkedin.datastream.common.zk.ZkClient;
 import com.linkedin.datastream.server.DatastreamTask;
 import com.linkedin.datastream.server.DatastreamTaskImpl;
+import com.linkedin.datastream.server.Pair;
 
 
 /**
@@ -113,6 +114,7 @@ public class ZkAdapter {
   private String _hostname;
 
   private volatile boolean _isLeader = false;
+  private volatile long _leaderElectedAtMs = 0;
   private ZkAdapterListener _listener;
 
   // the current znode this node is listening to
@@ -160,6 +162,13 @@ public class ZkAdapter {
     return _instanceName;
   }
 
+  /**
+   * Get the time, in milliseconds since epoch, at which this instance last won the leader election
+   */
+  public long getLeaderElectedAtMs() {
+    return _leaderElectedAtMs;
+  }
+
   /**
    * Gracefully disconnect from ZooKeeper
    */
@@ -216,6 +225,7 @@ public class ZkAdapter {
 
   private void onBecomeLeader() {
     LOG.info("Instance " + _instanceName + " becomes leader");
+    _leaderElectedAtMs = System.currentTimeMillis();
 
     _datastreamList = new ZkBackedDMSDatastreamList();
     _liveInstancesProvider = new ZkBackedLiveInstanceListProvider();
@@ -349,6 +359,29 @@ public class ZkAdapter {
     return true;
   }
 
+  /**
+   * Set a metadata entry of a datastream, keeping the rest of the datastream as it currently is in ZooKeeper. Unlike
+   * {@link #updateDatastream(Datastream)}, this doesn't revert the concurrent changes of the datastream, such as a pause.
+   * @param datastreamName Datastream name
+   * @param key Metadata key
+   * @param value Metadata value
+   * @return true if the update is successful
+   */
+  public boolean updateDatastreamMetadata(String datastreamName, String key, String value) {
+    String path = KeyBuilder.datastream(_cluster, datastreamName);
+    try {
+      _zkclient.<String>updateDataSerialized(path, old -> {
+        Datastream datastream = DatastreamUtils.fromJSON(old);
+        datastream.getMetadata().put(key, value);
+        return DatastreamUtils.toJSON(datastream);
+      });
+      return true;
+    } catch (ZkNoNodeException e) {
+      LOG.warn("trying to update znode of datastream that does not exist. Datastream name: " + datastreamName);
+      return false;
+    }
+  }
+
   /**
    * Delete ZooKeeper znodes for all datastream tasks belonging to a group with a specified task prefix
    * @param connectors Connectors to look under for datastream tasks to delete
@@ -457,23 +490,53 @@ public class ZkAdapter {
   /**
    * When the previous leader dies, we lose all the cached tasks.
    * As the current leader, we should try to load tasks from ZK.
-   * This is very likely to be one time operation, so it should be
-   * okay to hit ZK.
+   * The assignment lists of all instances and then all the task nodes are
+   * each fetched in one pipelined batch of async requests, so the load costs
+   * a couple of round-trips rather than one per instance and per task.
    */
   private void loadAllDatastreamTasks() {
     if (_liveTaskMap.size() != 0) {
       return;
     }
 
+    long startAt = System.currentTimeMillis();
     List<String> allInstances = getAllInstances();
+    Map<String, String> assignmentsPathToInstance = allInstances.stream()
+        .collect(Collectors.toMap(instance -> KeyBuilder.instanceAssignments(_cluster, instance), Function.identity()));
+    Map<String, List<String>> assignments = _zkclient.getChildrenAsync(assignmentsPathToInstance.keySet());
+
+    Map<String, Pair<String, String>> taskPathToInstanceAndTask = new HashMap<>();
     for (String instance : allInstances) {
       Set<DatastreamTask> taskMap = new HashSet<>();
       _liveTaskMap.put(instance, taskMap);
-      List<String> assignment = getInstanceAssignment(instance);
+      List<String> assignment =
+          assignments.getOrDefault(KeyBuilder.instanceAssignments(_cluster, instance), Collections.emptyList());
       for (String taskName : assignment) {
-        taskMap.add(getAssignedDatastreamTask(instance, taskName));
+        taskPathToInstanceAndTask.put(KeyBuilder.instanceAssignment(_cluster, instance, taskName),
+            Pair.of(instance, taskName));
       }
     }
+
+    Map<String, ZkClient.ZkNodeData> nodes = _zkclient.readDataAsync(taskPathToInstanceAndTask.keySet());
+    taskPathToInstanceAndTask.forEach((path, instanceAndTask) -> {
+      ZkClient.ZkNodeData node = nodes.get(path);
+      DatastreamTaskImpl task;
+      if (node == null) {
+        LOG.warn("ZNode does not exist for instance={}, task={}, ignoring the task.", instanceAndTask.getKey(),
+            instanceAndTask.getValue());
+        task = null;
+      } else if (node.getData() == null) {
+        task = getAssignedDatastreamTask(instanceAndTask.getKey(), instanceAndTask.getValue());
+      } else {
+        task = parseAssignedDatastreamTask(node.getData());
+      }
+      if (task != null) {
+        _liveTaskMap.get(instanceAndTask.getKey()).add(task);
+      }
+    });
+
+    LOG.info("Loaded {} tasks of {} instances in {} ms", taskPathToInstanceAndTask.size(), allInstances.size(),
+        System.currentTimeMillis() - startAt);
   }
 
   /**
@@ -500,17 +563,7 @@ public class ZkAdapter {
   public DatastreamTaskImpl getAssignedDatastreamTask(String instance, String taskName) {
     try {
       String content = _zkclient.ensureReadData(KeyBuilder.instanceAssignment(_cluster, instance, taskName));
-      DatastreamTaskImpl task = DatastreamTaskImpl.fromJson(content);
-      if (Strings.isNullOrEmpty(task.getTaskPrefix())) {
-        task.setTaskPrefix(parseTaskPrefix(task.getDatastreamTaskName()));
-      }
-
-      if (Strings.isNullOrEmpty(task.getTransportProviderName())) {
-        task.setTransportProviderName(_defaultTransportProviderName);
-      }
-
-      task.setZkAdapter(this);
-      return task;
+      return parseAssignedDatastreamTask(content);
     } catch (ZkNoNodeException e) {
       // This can occur if there is another task assignment change in the middle of
       // handleAssignmentChange and some tasks are unassigned to the current
@@ -522,6 +575,56 @@ public class ZkAdapter {
     }
   }
 
+  /**
+   * Given an instance name and a list of datastream task names assigned to this instance, return
+   * the deserialized DatastreamTask objects for them. The task znodes are read from ZooKeeper with
+   * batched asynchronous requests rather than one synchronous read per task.
+   * @return map of task name to DatastreamTask. Tasks whose node does not exist or is inaccessible are
+   *         not included.
+   */
+  public Map<String, DatastreamTaskImpl> getAssignedDatastreamTasks(String instance, Collection<String> taskNames) {
+    Map<String, String> pathToName = taskNames.stream()
+        .distinct()
+        .collect(Collectors.toMap(name -> KeyBuilder.instanceAssignment(_cluster, instance, name), Function.identity()));
+    Map<String, ZkClient.ZkNodeData> nodes = _zkclient.readDataAsync(pathToName.keySet());
+
+    Map<String, DatastreamTaskImpl> tasks = new HashMap<>();
+    pathToName.forEach((path, taskName) -> {
+      ZkClient.ZkNodeData node = nodes.get(path);
+      DatastreamTaskImpl task;
+      if (node == null) {
+        // See getAssignedDatastreamTask for why this is tolerable
+        LOG.warn("ZNode does not exist for instance={}, task={}, ignoring the task.", instance, taskName);
+        task = null;
+      } else if (node.getData() == null) {
+        // The node was caught mid-write, fall back to the synchronous read which waits for its content
+        task = getAssignedDatastreamTask(instance, taskName);
+      } else {
+        task = parseAssignedDatastreamTask(node.getData());
+      }
+      if (task != null) {
+        tasks.put(taskName, task);
+      }
+    });
+
+    LOG.info("Loaded {} tasks for instance {}", tasks.size(), instance);
+    return tasks;
+  }
+
+  private DatastreamTaskImpl parseAssignedDatastreamTask(String content) {
+    DatastreamTaskImpl task = DatastreamTaskImpl.fromJson(content);
+    if (Strings.isNullOrEmpty(task.getTaskPrefix())) {
+      task.setTaskPrefix(parseTaskPrefix(task.getDatastreamTaskName()));
+    }
+
+    if (Strings.isNullOrEmpty(task.getTransportProviderName())) {
+      task.setTransportProviderName(_defaultTransportProviderName);
+    }
+
+    task.setZkAdapter(this);
+    return task;
+  }
+
   private String parseTaskPrefix(String datastreamTaskName) {
     return datastreamTaskName.substring(0, datastreamTaskName.lastIndexOf("_"));
   }
@@ -0,0 +1,78 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.datastream.common.Datastream;
+import com.linkedin.datastream.common.DatastreamMetadataConstants;
+
+
+/**
+ * Tests for {@link DatastreamDedupIndex}
+ */
+public class TestDatastreamDedupIndex {
+
+  private static Datastream generateDatastream(int seed, String source) {
+    Datastream datastream = TestSourceBasedDeduper.generateDatastream(seed, true);
+    datastream.getSource().setConnectionString(source);
+    return datastream;
+  }
+
+  @Test
+  public void testGetCandidates() {
+    DatastreamDedupIndex index = new DatastreamDedupIndex();
+    Datastream datastream1 = generateDatastream(1, "source");
+    Datastream datastream2 = generateDatastream(2, "source");
+    Datastream otherSource = generateDatastream(3, "otherSource");
+    Datastream otherTransport = generateDatastream(4, "source");
+    otherTransport.setTransportProviderName("otherTransport");
+    Datastream otherSerDe = generateDatastream(5, "source");
+    otherSerDe.getDestination().setPayloadSerDe("avro");
+    Datastream noReuse = generateDatastream(6, "source");
+    noReuse.getMetadata().put(DatastreamMetadataConstants.REUSE_EXISTING_DESTINATION_KEY, "false");
+    Datastream noDestination = TestSourceBasedDeduper.generateDatastream(7, false);
+    noDestination.getSource().setConnectionString("source");
+    Arrays.asList(datastream2, datastream1, otherSource, otherTransport, otherSerDe, noReuse, noDestination)
+        .forEach(index::put);
+    Assert.assertEquals(index.size(), 5);
+
+    Datastream newDatastream = TestSourceBasedDeduper.generateDatastream(0, false);
+    newDatastream.getSource().setConnectionString("source");
+    Assert.assertEquals(index.getCandidates(newDatastream), Arrays.asList(datastream1, datastream2));
+    newDatastream.getSource().setConnectionString("unknownSource");
+    Assert.assertEquals(index.getCandidates(newDatastream), Collections.emptyList());
+    newDatastream.setConnectorName("otherConnector");
+    newDatastream.getSource().setConnectionString("source");
+    Assert.assertEquals(index.getCandidates(newDatastream), Collections.emptyList());
+  }
+
+  @Test
+  public void testUpdateAndRemove() {
+    DatastreamDedupIndex index = new DatastreamDedupIndex();
+    Datastream datastream = generateDatastream(1, "source");
+    index.put(datastream);
+    Datastream newDatastream = TestSourceBasedDeduper.generateDatastream(0, false);
+    newDatastream.getSource().setConnectionString("source");
+    Assert.assertEquals(index.getCandidates(newDatastream), Collections.singletonList(datastream));
+
+    // the source of the datastream changed
+    Datastream updated = generateDatastream(1, "otherSource");
+    index.put(updated);
+    Assert.assertEquals(index.getCandidates(newDatastream), Collections.emptyList());
+    newDatastream.getSource().setConnectionString("otherSource");
+    Assert.assertEquals(index.getCandidates(newDatastream), Collections.singletonList(updated));
+
+    index.remove(updated.getName());
+    Assert.assertEquals(index.getCandidates(newDatastream), Collections.emptyList());
+    Assert.assertEquals(index.size(), 0);
+    index.remove("doesNotExist");
+  }
+}
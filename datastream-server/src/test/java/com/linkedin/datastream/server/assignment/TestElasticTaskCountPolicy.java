@@ -0,0 +1,109 @@
+/**
+ *  Copyright 2019 LinkedIn Corporation. All rights reserved.
+ *  Licensed under the BSD 2-Clause License. See the LICENSE file in the project root for license information.
+ *  See the NOTICE file in the project root for additional information regarding copyright ownership.
+ */
+package com.linkedin.datastream.server.assignment;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.datastream.server.DatastreamTaskLoad;
+
+
+/**
+ * Tests for {@link ElasticTaskCountPolicy}
+ */
+public class TestElasticTaskCountPolicy {
+  private static final String GROUP = "group";
+
+  @Test
+  public void testRecommend() {
+    ElasticTaskCountPolicy policy = createPolicy(ElasticTaskCountPolicy.Mode.RECOMMEND);
+    Assert.assertEquals(policy.recommend(0, 0, 10), 2);
+    Assert.assertEquals(policy.recommend(4500, 0, 10), 5);
+    Assert.assertEquals(policy.recommend(100, 650, 10), 7);
+    // capped by the number of partitions and by the maximum number of tasks
+    Assert.assertEquals(policy.recommend(100_000, 0, 6), 6);
+    Assert.assertEquals(policy.recommend(100_000, 0, 0), 8);
+  }
+
+  @Test
+  public void testResizeAfterSustainPeriod() {
+    ElasticTaskCountPolicy policy = createPolicy(ElasticTaskCountPolicy.Mode.RESIZE);
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 0), 10, 0), Optional.empty());
+    Assert.assertEquals(policy.getRecommendedTaskCounts(), Collections.singletonMap(GROUP, 6));
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 500), 10, 500), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 1000), 10, 1000), Optional.of(6));
+
+    // within the cooldown period
+    Assert.assertEquals(policy.evaluate(GROUP, 6, loads(6, 0, 2000), 10, 2000), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 6, loads(6, 0, 6000), 10, 6000), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 6, loads(6, 0, 11000), 10, 11000), Optional.of(2));
+  }
+
+  @Test
+  public void testLoadChangeRestartsSustainPeriod() {
+    ElasticTaskCountPolicy policy = createPolicy(ElasticTaskCountPolicy.Mode.RESIZE);
+    Assert.assertEquals(policy.evaluate(GROUP, 4, loads(4, 2000, 0), 10, 0), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 4, loads(4, 1000, 500), 10, 500), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 4, loads(4, 2000, 1000), 10, 1000), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 4, loads(4, 2000, 2000), 10, 2000), Optional.of(8));
+  }
+
+  @Test
+  public void testMissingOrStaleLoads() {
+    ElasticTaskCountPolicy policy = createPolicy(ElasticTaskCountPolicy.Mode.RESIZE);
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 0), 10, 0), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(1, 3000, 1000), 10, 1000), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 0), 10, 1500), Optional.empty());
+    // the sustain period starts over once all the tasks report their load again
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 2000), 10, 2000), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 3000), 10, 3000), Optional.of(6));
+  }
+
+  @Test
+  public void testRecommendModeDoesNotResize() {
+    ElasticTaskCountPolicy policy = createPolicy(ElasticTaskCountPolicy.Mode.RECOMMEND);
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 0), 10, 0), Optional.empty());
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 5000), 10, 5000), Optional.empty());
+    Assert.assertEquals(policy.getRecommendedTaskCounts(), Collections.singletonMap(GROUP, 6));
+
+    policy.retainGroups(Collections.emptyList());
+    Assert.assertTrue(policy.getRecommendedTaskCounts().isEmpty());
+  }
+
+  @Test
+  public void testOffByDefault() {
+    ElasticTaskCountPolicy policy = new ElasticTaskCountPolicy(new Properties());
+    Assert.assertEquals(policy.getMode(), ElasticTaskCountPolicy.Mode.OFF);
+    Assert.assertEquals(policy.evaluate(GROUP, 2, loads(2, 3000, 0), 10, 0), Optional.empty());
+    Assert.assertTrue(policy.getRecommendedTaskCounts().isEmpty());
+  }
+
+  private static ElasticTaskCountPolicy createPolicy(ElasticTaskCountPolicy.Mode mode) {
+    Properties config = new Properties();
+    config.put(ElasticTaskCountPolicy.CFG_MODE, mode.name().toLowerCase());
+    config.put(ElasticTaskCountPolicy.CFG_MIN_TASKS, "2");
+    config.put(ElasticTaskCountPolicy.CFG_MAX_TASKS, "8");
+    config.put(ElasticTaskCountPolicy.CFG_TARGET_LAG_PER_TASK, "1000");
+    config.put(ElasticTaskCountPolicy.CFG_TARGET_EVENTS_PER_SEC_PER_TASK, "100");
+    config.put(ElasticTaskCountPolicy.CFG_SUSTAIN_MS, "1000");
+    config.put(ElasticTaskCountPolicy.CFG_COOLDOWN_MS, "10000");
+    config.put(ElasticTaskCountPolicy.CFG_MAX_LOAD_AGE_MS, "1000");
+    return new ElasticTaskCountPolicy(config);
+  }
+
+  private static List<DatastreamTaskLoad> loads(int numTasks, long lagPerTask, long timestamp) {
+    return IntStream.range(0, numTasks)
+        .mapToObj(i -> new DatastreamTaskLoad(lagPerTask, 0, timestamp))
+        .collect(Collectors.toList());
+  }
+}
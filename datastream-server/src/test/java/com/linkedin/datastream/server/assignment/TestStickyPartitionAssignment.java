@@ -12,6 +12,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -29,10 +30,13 @@ import com.linkedin.datastream.server.DatastreamGroup;
 import com.linkedin.datastream.server.DatastreamGroupPartitionsMetadata;
 import com.linkedin.datastream.server.DatastreamTask;
 import com.linkedin.datastream.server.DatastreamTaskImpl;
+import com.linkedin.datastream.server.DatastreamTaskLoad;
 import com.linkedin.datastream.server.zk.ZkAdapter;
 import com.linkedin.datastream.testutil.DatastreamTestUtils;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -150,6 +154,72 @@ public class TestStickyPartitionAssignment {
     Assert.assertEquals(new HashSet<String>(remainingPartitions), new HashSet<String>(newPartitions));
   }
 
+  @Test
+  public void testElasticTaskCount() {
+    Properties elasticTaskCountConfig = new Properties();
+    elasticTaskCountConfig.put(ElasticTaskCountPolicy.CFG_MODE, ElasticTaskCountPolicy.Mode.RESIZE.name());
+    elasticTaskCountConfig.put(ElasticTaskCountPolicy.CFG_TARGET_LAG_PER_TASK, "1000");
+    elasticTaskCountConfig.put(ElasticTaskCountPolicy.CFG_SUSTAIN_MS, "0");
+    StickyPartitionAssignmentStrategy strategy = new StickyPartitionAssignmentStrategy(Optional.of(2),
+        Optional.empty(), Optional.empty(), new ElasticTaskCountPolicy(elasticTaskCountConfig));
+    List<DatastreamGroup> datastreams = generateDatastreams("ds", 1);
+    Map<String, Set<DatastreamTask>> assignment = generateEmptyAssignment(datastreams, 2, 1, true);
+    List<String> partitions = ImmutableList.of("t-0", "t-1", "t-2", "t-3", "t-4", "t-5");
+    DatastreamGroupPartitionsMetadata partitionsMetadata =
+        new DatastreamGroupPartitionsMetadata(datastreams.get(0), partitions);
+    assignment = strategy.assignPartitions(assignment, partitionsMetadata);
+
+    // the tasks are 4000 events behind, which takes 4 tasks to keep each task under 1000
+    String load = new DatastreamTaskLoad(2000, 0, System.currentTimeMillis()).toJson();
+    assignment.values().stream().flatMap(Set::stream).forEach(task -> {
+      ZkAdapter mockZkAdapter = mock(ZkAdapter.class);
+      when(mockZkAdapter.checkIsTaskLocked(anyString(), anyString())).thenReturn(true);
+      when(mockZkAdapter.getDatastreamTaskStateForKey(any(DatastreamTask.class), eq(DatastreamTaskLoad.STATE_KEY)))
+          .thenReturn(load);
+      ((DatastreamTaskImpl) task).setZkAdapter(mockZkAdapter);
+    });
+    Assert.assertEquals(strategy.updateTaskCounts(datastreams, assignment),
+        Collections.singleton(datastreams.get(0).getTaskPrefix()));
+    Assert.assertEquals(datastreams.get(0).getDatastreams().get(0).getMetadata()
+        .get(DatastreamMetadataConstants.ELASTIC_TASK_COUNT), "4");
+
+    // the new task count is read from the datastream metadata, so a new leader keeps it
+    strategy = new StickyPartitionAssignmentStrategy(Optional.of(2), Optional.empty(), Optional.empty(),
+        new ElasticTaskCountPolicy(elasticTaskCountConfig));
+    assignment = strategy.assign(datastreams, new ArrayList<>(assignment.keySet()), assignment);
+    Assert.assertEquals(assignment.values().stream().mapToInt(Set::size).sum(), 4);
+    // the new tasks are read back from ZooKeeper before their partitions are assigned
+    assignment.values().stream().flatMap(Set::stream).forEach(task -> {
+      ZkAdapter mockZkAdapter = mock(ZkAdapter.class);
+      when(mockZkAdapter.checkIsTaskLocked(anyString(), anyString())).thenReturn(true);
+      ((DatastreamTaskImpl) task).setZkAdapter(mockZkAdapter);
+    });
+    assignment = strategy.assignPartitions(assignment, partitionsMetadata);
+
+    // the partitions held by the existing tasks are spread over the new tasks
+    List<Integer> partitionCounts = new ArrayList<>();
+    assignment.values().stream().flatMap(Set::stream).forEach(task -> partitionCounts.add(task.getPartitionsV2().size()));
+    Collections.sort(partitionCounts);
+    Assert.assertEquals(partitionCounts, ImmutableList.of(1, 1, 2, 2));
+    Assert.assertEquals(getTotalPartitions(assignment), partitions.size());
+  }
+
+  @Test
+  public void testInvalidElasticTaskCountIgnored() {
+    Properties elasticTaskCountConfig = new Properties();
+    elasticTaskCountConfig.put(ElasticTaskCountPolicy.CFG_MODE, ElasticTaskCountPolicy.Mode.RESIZE.name());
+    StickyPartitionAssignmentStrategy strategy = new StickyPartitionAssignmentStrategy(Optional.of(2),
+        Optional.empty(), Optional.empty(), new ElasticTaskCountPolicy(elasticTaskCountConfig));
+    List<DatastreamGroup> datastreams = generateDatastreams("ds", 1);
+    datastreams.get(0).getDatastreams().get(0).getMetadata()
+        .put(DatastreamMetadataConstants.ELASTIC_TASK_COUNT, "not a number");
+    Map<String, Set<DatastreamTask>> assignment = generateEmptyAssignment(datastreams, 2, 1, true);
+
+    // the group keeps the number of tasks of its configuration
+    assignment = strategy.assign(datastreams, new ArrayList<>(assignment.keySet()), assignment);
+    Assert.assertEquals(assignment.values().stream().mapToInt(Set::size).sum(), 2);
+  }
+
   private  Map<String, Set<DatastreamTask>> generateEmptyAssignment(List<DatastreamGroup> datastreams,
       int instanceNum, int taskNum, boolean isTaskLocked) {
     Map<String, Set<DatastreamTask>> assignment = new HashMap<>();
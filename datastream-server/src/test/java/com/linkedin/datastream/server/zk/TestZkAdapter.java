@@ -21,6 +21,9 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.linkedin.datastream.common.Datastream;
+import com.linkedin.datastream.common.DatastreamStatus;
+import com.linkedin.datastream.common.DatastreamUtils;
 import com.linkedin.datastream.common.PollUtils;
 import com.linkedin.datastream.common.zk.ZkClient;
 import com.linkedin.datastream.server.DatastreamTask;
@@ -292,6 +295,40 @@ public class TestZkAdapter {
     zkClient.close();
   }
 
+  @Test
+  public void testGetAssignedDatastreamTasks() throws Exception {
+    String testCluster = "testGetAssignedDatastreamTasks";
+    String connectorType = "connectorType";
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+    ZkAdapter adapter = createZkAdapter(testCluster);
+    adapter.connect();
+
+    DatastreamTestUtils.createAndStoreDatastreams(zkClient, testCluster, connectorType, "task1", "task2");
+
+    DatastreamTaskImpl task1 = new DatastreamTaskImpl();
+    task1.setTaskPrefix("task1");
+    task1.setConnectorType(connectorType);
+    DatastreamTaskImpl task2 = new DatastreamTaskImpl();
+    task2.setTaskPrefix("task2");
+    task2.setConnectorType(connectorType);
+    updateInstanceAssignment(adapter, adapter.getInstanceName(), Arrays.asList(task1, task2));
+
+    String name1 = task1.getDatastreamTaskName();
+    String name2 = task2.getDatastreamTaskName();
+    List<String> names = Arrays.asList(name1, name2, "nonExistentTask");
+    Map<String, DatastreamTaskImpl> tasks = adapter.getAssignedDatastreamTasks(adapter.getInstanceName(), names);
+    Assert.assertEquals(tasks.size(), 2);
+    Assert.assertEquals(tasks.get(name1).getTaskPrefix(), "task1");
+    Assert.assertEquals(tasks.get(name2).getConnectorType(), connectorType);
+
+    // The tasks read in a batch are the same as the ones read one by one
+    Assert.assertEquals(tasks.get(name1), adapter.getAssignedDatastreamTask(adapter.getInstanceName(), name1));
+    Assert.assertEquals(tasks.get(name2), adapter.getAssignedDatastreamTask(adapter.getInstanceName(), name2));
+    Assert.assertTrue(adapter.getAssignedDatastreamTasks(adapter.getInstanceName(), Collections.emptyList()).isEmpty());
+
+    zkClient.close();
+  }
+
   // When Coordinator leader writes the assignment to a specific instance, the change is indeed
   // persisted in Zookeper
   @Test
@@ -600,6 +637,30 @@ public class TestZkAdapter {
     Assert.assertTrue(PollUtils.poll(() -> task2.isLocked(), 100, 5000));
   }
 
+  @Test
+  public void testUpdateDatastreamMetadata() throws Exception {
+    String testCluster = "testUpdateDatastreamMetadata";
+    ZkAdapter adapter = createZkAdapter(testCluster);
+    adapter.connect();
+    ZkClient client = new ZkClient(_zkConnectionString);
+    Datastream datastream =
+        DatastreamTestUtils.createAndStoreDatastreams(client, testCluster, "connectorType", "datastream1")[0];
+
+    // the datastream is paused after it was read
+    Datastream paused = datastream.copy();
+    paused.setStatus(DatastreamStatus.PAUSED);
+    client.writeData(KeyBuilder.datastream(testCluster, datastream.getName()), DatastreamUtils.toJSON(paused));
+
+    Assert.assertTrue(adapter.updateDatastreamMetadata(datastream.getName(), "key", "value"));
+    Datastream updated =
+        DatastreamUtils.fromJSON(client.readData(KeyBuilder.datastream(testCluster, datastream.getName())));
+    Assert.assertEquals(updated.getStatus(), DatastreamStatus.PAUSED);
+    Assert.assertEquals(updated.getMetadata().get("key"), "value");
+
+    Assert.assertFalse(adapter.updateDatastreamMetadata("missing", "key", "value"));
+    adapter.disconnect();
+    client.close();
+  }
 
   /**
    * Update all datastream task assignments of a particular Brooklin instance
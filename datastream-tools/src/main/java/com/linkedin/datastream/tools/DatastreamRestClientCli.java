@@ -6,11 +6,16 @@
 package com.linkedin.datastream.tools;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.commons.cli.BasicParser;
 import org.apache.commons.cli.CommandLine;
@@ -51,9 +56,13 @@ public class DatastreamRestClientCli {
     RESUME,
     UPDATE,
     DELETE,
-    READALL
+    READALL,
+    BULKCREATE,
+    BULKDELETE
   }
 
+  private static final int DEFAULT_BATCH_SIZE = 100;
+
   private static void printDatastreams(boolean noformat, List<Datastream> streams) {
     ObjectMapper mapper = new ObjectMapper();
 
@@ -128,6 +137,12 @@ public class DatastreamRestClientCli {
     options.addOption(OptionUtils.createOption(OptionConstants.OPT_SHORT_METADATA, OptionConstants.OPT_LONG_METADATA,
         OptionConstants.OPT_ARG_METADATA, false, OptionConstants.OPT_DESC_METADATA));
 
+    options.addOption(OptionUtils.createOption(OptionConstants.OPT_SHORT_BULK_FILE, OptionConstants.OPT_LONG_BULK_FILE,
+        OptionConstants.OPT_ARG_BULK_FILE, false, OptionConstants.OPT_DESC_BULK_FILE));
+
+    options.addOption(OptionUtils.createOption(OptionConstants.OPT_SHORT_BATCH_SIZE, OptionConstants.OPT_LONG_BATCH_SIZE,
+        OptionConstants.OPT_ARG_BATCH_SIZE, false, OptionConstants.OPT_DESC_BATCH_SIZE));
+
     options.addOption(
         OptionUtils.createOption(OptionConstants.OPT_SHORT_HELP, OptionConstants.OPT_LONG_HELP, null, false,
             OptionConstants.OPT_DESC_HELP));
@@ -250,6 +265,17 @@ public class DatastreamRestClientCli {
               datastreamRestClient.waitTillDatastreamIsInitialized(datastreamName, (int) timeout.toMillis());
           System.out.printf("Initialized %s datastream: %s\n", connectorName, completeDatastream);
           break;
+        case BULKCREATE:
+          List<Datastream> datastreams = readBulkFile(cmd, options).stream()
+              .map(DatastreamUtils::fromJSON)
+              .collect(Collectors.toList());
+          DatastreamRestClient createClient = datastreamRestClient;
+          runInBatches(datastreams, getBatchSize(cmd), createClient::createDatastreams, "created");
+          break;
+        case BULKDELETE:
+          DatastreamRestClient deleteClient = datastreamRestClient;
+          runInBatches(readBulkFile(cmd, options), getBatchSize(cmd), deleteClient::deleteDatastreams, "deleted");
+          break;
         default:
           // do nothing
       }
@@ -258,6 +284,28 @@ public class DatastreamRestClientCli {
     }
   }
 
+  private static List<String> readBulkFile(CommandLine cmd, Options options) throws IOException {
+    String bulkFile = getOptionValue(cmd, OptionConstants.OPT_SHORT_BULK_FILE, options);
+    return Files.readAllLines(Paths.get(bulkFile)).stream()
+        .map(String::trim)
+        .filter(StringUtils::isNotEmpty)
+        .collect(Collectors.toList());
+  }
+
+  private static int getBatchSize(CommandLine cmd) {
+    return cmd.hasOption(OptionConstants.OPT_SHORT_BATCH_SIZE)
+        ? Integer.parseInt(cmd.getOptionValue(OptionConstants.OPT_SHORT_BATCH_SIZE)) : DEFAULT_BATCH_SIZE;
+  }
+
+  private static <T> void runInBatches(List<T> items, int batchSize, Function<List<T>, Map<String, String>> operation,
+      String verb) {
+    Map<String, String> errors = new HashMap<>();
+    for (int i = 0; i < items.size(); i += batchSize) {
+      errors.putAll(operation.apply(items.subList(i, Math.min(i + batchSize, items.size()))));
+    }
+    errors.forEach((name, error) -> System.out.printf("Datastream %s could not be %s: %s\n", name, verb, error));
+    System.out.printf("%d of %d datastreams %s successfully\n", items.size() - errors.size(), items.size(), verb);
+  }
 
   private static Map<String, String> getMetadata(CommandLine cmd, Options options) {
     if (cmd.hasOption(OptionConstants.OPT_SHORT_METADATA)) {
@@ -18,7 +18,7 @@ public class OptionConstants {
   public static final String OPT_SHORT_OPERATION = "o";
   public static final String OPT_LONG_OPERATION = "operation";
   public static final String OPT_ARG_OPERATION = "DATASTREAM_OPERATION";
-  public static final String OPT_DESC_OPERATION = "Operation to perform accepted values [CREATE, READ, DELETE, READALL]";
+  public static final String OPT_DESC_OPERATION = "Operation to perform accepted values [CREATE, READ, DELETE, READALL, BULKCREATE, BULKDELETE]";
 
   public static final String OPT_SHORT_DATASTREAM_NAME = "n";
   public static final String OPT_LONG_DATASTREAM_NAME = "name";
@@ -81,6 +81,18 @@ public class OptionConstants {
   public static final String OPT_ARG_NUM_PARTITION = "NUM_PARTITIONS";
   public static final String OPT_DESC_NUM_PARTITION = "Number of partitions in the source";
 
+  public static final String OPT_SHORT_BULK_FILE = "bf";
+  public static final String OPT_LONG_BULK_FILE = "bulkfile";
+  public static final String OPT_ARG_BULK_FILE = "BULK_FILE";
+  public static final String OPT_DESC_BULK_FILE = "File with one datastream per line, as json for BULKCREATE or as a name "
+      + "for BULKDELETE";
+
+  public static final String OPT_SHORT_BATCH_SIZE = "bs";
+  public static final String OPT_LONG_BATCH_SIZE = "batchsize";
+  public static final String OPT_ARG_BATCH_SIZE = "BATCH_SIZE";
+  public static final String OPT_DESC_BATCH_SIZE = "Number of datastreams per request for BULKCREATE and BULKDELETE, "
+      + "default 100";
+
   public static final String OPT_SHORT_HELP = "h";
   public static final String OPT_LONG_HELP = "help";
   public static final String OPT_DESC_HELP = "Display this message";
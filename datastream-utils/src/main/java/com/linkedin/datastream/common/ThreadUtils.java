@@ -6,7 +6,13 @@
 package com.linkedin.datastream.common;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -59,4 +65,60 @@ public final class ThreadUtils {
 
     return executor.isTerminated();
   }
+
+  /**
+   * Run the given tasks on the given executor and wait for all of them to complete. The first failure is
+   * rethrown once all the tasks have completed, as is if it is unchecked, or else wrapped in a
+   * {@link DatastreamRuntimeException}.
+   *
+   * @param executor executor to run the tasks on, whose number of threads bounds how many tasks run at once
+   * @param tasks tasks to run
+   * @return results of the tasks, in the same order as the tasks
+   */
+  public static <T> List<T> runInParallel(ExecutorService executor, List<? extends Callable<T>> tasks) {
+    if (tasks.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    try {
+      List<Future<T>> futures = executor.invokeAll(tasks);
+      List<T> results = new ArrayList<>(futures.size());
+      for (Future<T> future : futures) {
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          throw new DatastreamRuntimeException(e.getCause());
+        }
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DatastreamRuntimeException("Interrupted while waiting for tasks to complete", e);
+    }
+  }
+
+  /**
+   * Run the given tasks on at most {@code numThreads} threads of a temporary pool, which is shut down once
+   * all of them have completed. Meant for one-off batches such as startup work; recurring batches should
+   * reuse an executor through {@link #runInParallel(ExecutorService, List)}.
+   *
+   * @param tasks tasks to run
+   * @param numThreads maximum number of tasks to run at once
+   * @return results of the tasks, in the same order as the tasks
+   */
+  public static <T> List<T> runInParallel(List<? extends Callable<T>> tasks, int numThreads) {
+    if (tasks.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(tasks.size(), numThreads)));
+    try {
+      return runInParallel(executor, tasks);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
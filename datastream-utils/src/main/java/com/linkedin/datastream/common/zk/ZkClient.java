@@ -7,9 +7,19 @@ package com.linkedin.datastream.common.zk;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.I0Itec.zkclient.ZkConnection;
 import org.I0Itec.zkclient.exception.ZkInterruptedException;
@@ -18,6 +28,8 @@ import org.I0Itec.zkclient.exception.ZkNoNodeException;
 import org.I0Itec.zkclient.exception.ZkNodeExistsException;
 import org.I0Itec.zkclient.serialize.ZkSerializer;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooKeeper;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +49,9 @@ public class ZkClient extends org.I0Itec.zkclient.ZkClient {
   public static final int DEFAULT_CONNECTION_TIMEOUT = 60 * 1000;
   public static final int DEFAULT_SESSION_TIMEOUT = 30 * 1000;
 
+  // Upper bound on the number of async requests in flight for a single batch operation
+  private static final int MAX_OUTSTANDING_ASYNC_REQUESTS = 1000;
+
   private static final Logger LOG = LoggerFactory.getLogger(ZkClient.class);
 
   private final ZkSerializer _zkSerializer = new ZKStringSerializer();
@@ -273,6 +288,186 @@ public class ZkClient extends org.I0Itec.zkclient.ZkClient {
     }
   }
 
+  /**
+   * Read the content and {@link Stat} of all the given znodes. Unlike {@link #readData(String, Stat)}, the reads
+   * are pipelined through the ZooKeeper async API, so reading N znodes costs roughly one round-trip instead of N.
+   * Reads that fail with anything other than NONODE (e.g. connection loss) are retried synchronously.
+   * @param paths the paths of the znodes to read
+   * @return map from path to the znode content and stat; znodes that do not exist are omitted
+   */
+  public Map<String, ZkNodeData> readDataAsync(Collection<String> paths) {
+    long startT = System.nanoTime();
+    try {
+      return runAsyncBatch(paths,
+          (path, callback) -> getZooKeeper().getData(path, false,
+              (rc, p, ctx, data, stat) -> callback.accept(rc, new ZkNodeData(deserialize(data), stat)), null),
+          path -> {
+            Stat stat = new Stat();
+            String data = readData(path, stat);
+            return new ZkNodeData(data, stat);
+          });
+    } finally {
+      long endT = System.nanoTime();
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("readDataAsync, paths: {}, time: {} ns", paths.size(), (endT - startT));
+      }
+    }
+  }
+
+  /**
+   * Get the {@link Stat} of all the given znodes, pipelined through the ZooKeeper async API. This is much cheaper
+   * than reading the znode content and is meant for checking which znodes changed since they were last read.
+   * @param paths the paths of the znodes to inspect
+   * @return map from path to stat; znodes that do not exist are omitted
+   */
+  public Map<String, Stat> getStatAsync(Collection<String> paths) {
+    long startT = System.nanoTime();
+    try {
+      return runAsyncBatch(paths,
+          (path, callback) -> getZooKeeper().exists(path, false, (rc, p, ctx, stat) -> callback.accept(rc, stat),
+              null),
+          path -> retryUntilConnected(() -> ((ZkConnection) _connection).getZookeeper().exists(path, false)));
+    } finally {
+      long endT = System.nanoTime();
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("getStatAsync, paths: {}, time: {} ns", paths.size(), (endT - startT));
+      }
+    }
+  }
+
+  /**
+   * Get the children of all the given znodes, pipelined through the ZooKeeper async API.
+   * @param paths the paths of the znodes whose children to list
+   * @return map from path to its children; znodes that do not exist are omitted
+   */
+  public Map<String, List<String>> getChildrenAsync(Collection<String> paths) {
+    long startT = System.nanoTime();
+    try {
+      return runAsyncBatch(paths,
+          (path, callback) -> getZooKeeper().getChildren(path, false,
+              (rc, p, ctx, children) -> callback.accept(rc, children), null),
+          path -> retryUntilConnected(() -> getZooKeeper().getChildren(path, false)));
+    } finally {
+      long endT = System.nanoTime();
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("getChildrenAsync, paths: {}, time: {} ns", paths.size(), (endT - startT));
+      }
+    }
+  }
+
+  private ZooKeeper getZooKeeper() {
+    return ((ZkConnection) _connection).getZookeeper();
+  }
+
+  /**
+   * Issue one async request per path, keeping at most {@link #MAX_OUTSTANDING_ASYNC_REQUESTS} in flight, and
+   * wait for all of them to complete. Paths whose request failed, or did not complete within the session timeout,
+   * are retried through {@code syncFallback}, which is expected to handle reconnects via retryUntilConnected.
+   */
+  private <T> Map<String, T> runAsyncBatch(Collection<String> paths, AsyncRequest<T> request,
+      Function<String, T> syncFallback) {
+    if (paths.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, T> results = new ConcurrentHashMap<>();
+    Set<String> pending = ConcurrentHashMap.newKeySet();
+    Set<String> failed = ConcurrentHashMap.newKeySet();
+    pending.addAll(paths);
+    CountDownLatch latch = new CountDownLatch(paths.size());
+    Semaphore inflight = new Semaphore(MAX_OUTSTANDING_ASYNC_REQUESTS);
+
+    try {
+      boolean stalled = false;
+      for (String path : paths) {
+        if (!inflight.tryAcquire(_zkSessionTimeoutMs, TimeUnit.MILLISECONDS)) {
+          // No response for a whole session timeout, the remaining paths are read synchronously
+          LOG.warn("Timed out waiting for outstanding async requests to complete");
+          stalled = true;
+          break;
+        }
+        try {
+          request.issue(path, (rc, result) -> {
+            if (rc == KeeperException.Code.OK.intValue()) {
+              results.put(path, result);
+            } else if (rc != KeeperException.Code.NONODE.intValue()) {
+              failed.add(path);
+            }
+            pending.remove(path);
+            inflight.release();
+            latch.countDown();
+          });
+        } catch (RuntimeException e) {
+          // The connection is not usable (e.g. being re-established), leave it to the synchronous retry
+          LOG.warn("Failed to issue async request for path {}", path, e);
+          failed.add(path);
+          pending.remove(path);
+          inflight.release();
+          latch.countDown();
+        }
+      }
+
+      if (!stalled && !latch.await(_zkSessionTimeoutMs, TimeUnit.MILLISECONDS)) {
+        LOG.warn("Timed out waiting for {} async requests to complete", pending.size());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ZkInterruptedException(e);
+    }
+
+    failed.addAll(pending);
+    if (!failed.isEmpty()) {
+      LOG.info("Retrying {} of {} async requests synchronously", failed.size(), paths.size());
+      for (String path : failed) {
+        try {
+          T result = syncFallback.apply(path);
+          if (result != null) {
+            results.put(path, result);
+          }
+        } catch (ZkNoNodeException e) {
+          LOG.debug("znode {} was deleted before it could be read", path);
+        }
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Issues a single async ZooKeeper request for the given path and reports the result code and value
+   * to the supplied callback.
+   */
+  @FunctionalInterface
+  private interface AsyncRequest<T> {
+    void issue(String path, BiConsumer<Integer, T> callback);
+  }
+
+  /**
+   * Content and {@link Stat} of a znode read through {@link #readDataAsync(Collection)}
+   */
+  public static class ZkNodeData {
+    private final String _data;
+    private final Stat _stat;
+
+    /**
+     * Constructor for ZkNodeData
+     * @param data the deserialized content of the znode
+     * @param stat the stat of the znode at the time it was read
+     */
+    public ZkNodeData(String data, Stat stat) {
+      _data = data;
+      _stat = stat;
+    }
+
+    public String getData() {
+      return _data;
+    }
+
+    public Stat getStat() {
+      return _stat;
+    }
+  }
+
   /**
    * Ensure that all the paths in the given full path String are created
    * @param path the zk path
@@ -6,6 +6,9 @@
 package com.linkedin.datastream.common;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -68,4 +71,38 @@ public class TestThreadUtils {
     latch.countDown();
     Assert.assertTrue(ThreadUtils.shutdownExecutor(executor, Duration.ofMinutes(1), logger));
   }
+
+  @Test
+  public void testRunInParallel() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Callable<Integer>> tasks = Arrays.asList(() -> 1, () -> 2, () -> 3);
+      Assert.assertEquals(ThreadUtils.runInParallel(executor, tasks), Arrays.asList(1, 2, 3));
+
+      // The executor can be reused, and the failures of the tasks are rethrown
+      List<Callable<Integer>> failingTasks = Arrays.asList(() -> 1, () -> {
+        throw new IllegalStateException("failed");
+      });
+      try {
+        ThreadUtils.runInParallel(executor, failingTasks);
+        Assert.fail("The failure of the task should be rethrown");
+      } catch (IllegalStateException e) {
+        Assert.assertEquals(e.getMessage(), "failed");
+      }
+      List<Callable<Integer>> checkedFailingTasks = Arrays.asList(() -> {
+        throw new Exception("failed");
+      });
+      try {
+        ThreadUtils.runInParallel(executor, checkedFailingTasks);
+        Assert.fail("The failure of the task should be rethrown");
+      } catch (DatastreamRuntimeException e) {
+        Assert.assertEquals(e.getCause().getMessage(), "failed");
+      }
+      Assert.assertFalse(executor.isShutdown());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(ThreadUtils.runInParallel(Arrays.asList(() -> "a", () -> "b"), 4), Arrays.asList("a", "b"));
+  }
 }
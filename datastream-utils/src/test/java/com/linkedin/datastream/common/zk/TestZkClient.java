@@ -6,11 +6,15 @@
 package com.linkedin.datastream.common.zk;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.I0Itec.zkclient.IZkChildListener;
 import org.I0Itec.zkclient.IZkDataListener;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -202,6 +206,41 @@ public class TestZkClient {
     zkClient.close();
   }
 
+  @Test
+  public void testAsyncBatchReads() throws Exception {
+    String path = "/testAsyncBatchReads";
+    String path1 = path + "/node1";
+    String path2 = path + "/node2";
+    String missing = path + "/missing";
+    ZkClient zkClient = new ZkClient(_zkConnectionString);
+    zkClient.ensurePath(path);
+    zkClient.create(path1, "content1", CreateMode.PERSISTENT);
+    zkClient.create(path2, "content2", CreateMode.PERSISTENT);
+
+    Map<String, ZkClient.ZkNodeData> nodes = zkClient.readDataAsync(Arrays.asList(path1, path2, missing));
+    Assert.assertEquals(nodes.size(), 2);
+    Assert.assertEquals(nodes.get(path1).getData(), "content1");
+    Assert.assertEquals(nodes.get(path2).getData(), "content2");
+    Assert.assertFalse(nodes.containsKey(missing));
+
+    Map<String, Stat> stats = zkClient.getStatAsync(Arrays.asList(path1, path2, missing));
+    Assert.assertEquals(stats.size(), 2);
+    Assert.assertEquals(stats.get(path1).getMzxid(), nodes.get(path1).getStat().getMzxid());
+
+    // the modification zxid changes on every write
+    zkClient.writeData(path1, "content3");
+    stats = zkClient.getStatAsync(Arrays.asList(path1, path2));
+    Assert.assertNotEquals(stats.get(path1).getMzxid(), nodes.get(path1).getStat().getMzxid());
+    Assert.assertEquals(stats.get(path2).getMzxid(), nodes.get(path2).getStat().getMzxid());
+
+    Map<String, List<String>> children = zkClient.getChildrenAsync(Arrays.asList(path, path1, missing));
+    Assert.assertEquals(children.size(), 2);
+    Assert.assertEquals(new HashSet<>(children.get(path)), new HashSet<>(Arrays.asList("node1", "node2")));
+    Assert.assertTrue(children.get(path1).isEmpty());
+
+    zkClient.close();
+  }
+
   static class TestZkDataListener implements IZkDataListener, IZkChildListener {
     public boolean dataChanged = false;
     public boolean dataDeleted = false;